@@ -0,0 +1,187 @@
+package com.boe.simulator.codegen;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.tools.Diagnostic;
+
+import com.boe.simulator.codegen.MessageModel.FieldModel;
+
+/**
+ * Generates BOE codecs from the {@code @MessageSchema} declarations nested in the type named by
+ * {@code -Aboe.codegen.schema}.
+ *
+ * Runs inside the regular compile (see the compiler plugin executions in pom.xml): with
+ * {@code -Aboe.codegen.output=codecs} during main compilation it emits a {@code <name>Codec}
+ * flyweight per message into {@value #PACKAGE}; with {@code tests} during test compilation it
+ * emits a round-trip test per message, reading the schema back from the compiled classes.
+ * It claims no annotations and works in the first round only.
+ */
+@SupportedAnnotationTypes("*")
+@SupportedOptions({CodecProcessor.SCHEMA_OPTION, CodecProcessor.OUTPUT_OPTION})
+public final class CodecProcessor extends AbstractProcessor {
+
+    static final String SCHEMA_OPTION = "boe.codegen.schema";
+    static final String OUTPUT_OPTION = "boe.codegen.output";
+    static final String PACKAGE = "com.boe.simulator.protocol.codec";
+
+    private static final String MESSAGE_SCHEMA = "com.boe.simulator.protocol.schema.MessageSchema";
+
+    private boolean done;
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (done) return false;
+        done = true;
+
+        String holder = processingEnv.getOptions().get(SCHEMA_OPTION);
+        String output = processingEnv.getOptions().getOrDefault(OUTPUT_OPTION, "codecs");
+        if (holder == null) {
+            error(null, null, "-A" + SCHEMA_OPTION + " is required");
+            return false;
+        }
+        if (!output.equals("codecs") && !output.equals("tests")) {
+            error(null, null, "-A" + OUTPUT_OPTION + " must be 'codecs' or 'tests', was '" + output + "'");
+            return false;
+        }
+        TypeElement schema = processingEnv.getElementUtils().getTypeElement(holder);
+        if (schema == null) {
+            error(null, null, "Schema type " + holder + " not found");
+            return false;
+        }
+
+        for (Element element : schema.getEnclosedElements()) {
+            AnnotationMirror mirror = schemaMirror(element);
+            if (mirror == null) continue;
+            MessageModel message = read(element, mirror);
+            if (message == null) continue;
+
+            boolean codecs = output.equals("codecs");
+            String type = PACKAGE + "." + message.name() + (codecs ? "Codec" : "CodecTest");
+            String source = codecs ? CodecSource.generate(message) : CodecTestSource.generate(message);
+            try (Writer writer = processingEnv.getFiler().createSourceFile(type, element).openWriter()) {
+                writer.write(source);
+            } catch (IOException e) {
+                error(element, mirror, "Cannot write " + type + ": " + e.getMessage());
+            }
+        }
+        return false;
+    }
+
+    private static AnnotationMirror schemaMirror(Element element) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            TypeElement type = (TypeElement) mirror.getAnnotationType().asElement();
+            if (type.getQualifiedName().contentEquals(MESSAGE_SCHEMA)) return mirror;
+        }
+        return null;
+    }
+
+    // ---- Schema ----
+
+    private MessageModel read(Element element, AnnotationMirror mirror) {
+        Map<String, AnnotationValue> values = values(mirror);
+        String name = (String) values.get("name").getValue();
+        int type = (Integer) values.get("type").getValue();
+        String spec = (String) values.get("spec").getValue();
+        int bitfields = (Integer) values.get("bitfields").getValue();
+        String origin = element.getEnclosingElement().getSimpleName() + "." + element.getSimpleName();
+
+        boolean valid = true;
+        if (bitfields < 0 || bitfields > 8) valid = error(element, mirror, name + ": bitfields must be 0 to 8");
+
+        Set<String> names = new HashSet<>();
+        List<FieldModel> fixed = new ArrayList<>();
+        int offset = MessageModel.HEADER_SIZE;
+        for (AnnotationValue value : list(values.get("fixed"))) {
+            Map<String, AnnotationValue> field = values((AnnotationMirror) value.getValue());
+            String fieldName = (String) field.get("name").getValue();
+            String fieldType = enumName(field.get("type"));
+            int size = size(fieldType, (Integer) field.get("length").getValue());
+            if (size <= 0 || fieldType.equals("RESERVED")) valid = error(element, mirror, name + "." + fieldName + ": fixed fields need a size and cannot be RESERVED");
+            if (!names.add(fieldName)) valid = error(element, mirror, name + "." + fieldName + ": duplicate field");
+            fixed.add(new FieldModel(fieldName, fieldType, size, -1, 0, offset));
+            offset += size;
+        }
+
+        Set<Integer> bits = new HashSet<>();
+        List<FieldModel> optional = new ArrayList<>();
+        for (AnnotationValue value : list(values.get("optional"))) {
+            Map<String, AnnotationValue> field = values((AnnotationMirror) value.getValue());
+            String fieldName = (String) field.get("name").getValue();
+            String fieldType = enumName(field.get("type"));
+            int index = (Integer) field.get("bitfield").getValue() - 1;
+            int mask = (Integer) field.get("mask").getValue();
+            int size = size(fieldType, (Integer) field.get("length").getValue());
+            FieldModel model = new FieldModel(fieldName, fieldType, size, index, mask, -1);
+
+            if (index < 0 || index >= bitfields || mask <= 0 || mask > 0xFF || Integer.bitCount(mask) != 1) {
+                valid = error(element, mirror, name + "." + fieldName + ": bad bitfield position");
+                continue;
+            }
+            if (size < 0 || (size == 0 && !model.reserved())) valid = error(element, mirror, name + "." + fieldName + ": missing length");
+            if (!bits.add(model.id())) valid = error(element, mirror, name + "." + fieldName + ": bit already taken");
+            if (!names.add(fieldName)) valid = error(element, mirror, name + "." + fieldName + ": duplicate field");
+            optional.add(model);
+        }
+        optional.sort(Comparator.comparingInt(FieldModel::id));
+
+        return valid ? new MessageModel(name, type, spec, origin, bitfields, List.copyOf(fixed), List.copyOf(optional)) : null;
+    }
+
+    private static int size(String type, int length) {
+        if (length != 0) return length;
+        return switch (type) {
+            case "CHAR", "U8" -> 1;
+            case "U16" -> 2;
+            case "U32" -> 4;
+            case "U64", "PRICE" -> 8;
+            default -> 0;
+        };
+    }
+
+    private Map<String, AnnotationValue> values(AnnotationMirror mirror) {
+        Map<String, AnnotationValue> values = new HashMap<>();
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> e
+                : processingEnv.getElementUtils().getElementValuesWithDefaults(mirror).entrySet()) {
+            values.put(e.getKey().getSimpleName().toString(), e.getValue());
+        }
+        return values;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<? extends AnnotationValue> list(AnnotationValue value) {
+        return (List<? extends AnnotationValue>) value.getValue();
+    }
+
+    private static String enumName(AnnotationValue value) {
+        return ((VariableElement) value.getValue()).getSimpleName().toString();
+    }
+
+    private boolean error(Element element, AnnotationMirror mirror, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element, mirror);
+        return false;
+    }
+}
@@ -0,0 +1,260 @@
+package com.boe.simulator.codegen;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.boe.simulator.codegen.MessageModel.FieldModel;
+
+/**
+ * Source of one {@code <name>Codec}: fixed fields at constant offsets, optional-field offsets
+ * resolved once per {@code wrap} by straight-line code over the bitfield bytes.
+ */
+final class CodecSource {
+
+    private static final FieldModel MATCHING_UNIT = new FieldModel("matchingUnit", "U8", 1, -1, 0, 5);
+    private static final FieldModel SEQUENCE_NUMBER = new FieldModel("sequenceNumber", "U32", 4, -1, 0, 6);
+
+    private CodecSource() {}
+
+    static String banner(MessageModel m) {
+        return "// Generated by CodecProcessor from " + m.origin() + " - do not edit.\n";
+    }
+
+    static String generate(MessageModel m) {
+        String cls = m.name() + "Codec";
+        List<FieldModel> accessible = new ArrayList<>();
+        for (FieldModel f : m.optional()) if (!f.reserved()) accessible.add(f);
+        StringBuilder s = new StringBuilder();
+
+        s.append(banner(m));
+        s.append("package ").append(CodecProcessor.PACKAGE).append(";\n\n");
+        s.append("import java.util.Arrays;\n\n");
+        s.append("/**\n");
+        s.append(" * ").append(m.name()).append(" (").append(hex(m.type())).append("), spec ").append(m.spec()).append(": flyweight over an encoded frame.\n");
+        s.append(" *\n");
+        s.append(" * {@link #wrap} reads a frame in place and resolves the optional-field offsets once;\n");
+        s.append(" * {@link #wrapForEncode} writes the header and bitfields so the setters can fill every\n");
+        s.append(" * other field at its offset. Primitive accessors and all setters are allocation-free;\n");
+        s.append(" * the String getters allocate. {@code wrap} expects the fixed block and the bitfields to be\n");
+        s.append(" * present; callers check {@link #encodedLength()} against the frame before reading fields.\n");
+        s.append(" */\n");
+        s.append("public final class ").append(cls).append(" {\n");
+        s.append("    public static final byte MESSAGE_TYPE = ").append(hex(m.type())).append(";\n");
+        s.append("    public static final int BLOCK_LENGTH = ").append(m.blockLength()).append(";\n");
+        s.append("    public static final int MAX_BITFIELDS = ").append(m.bitfields()).append(";\n\n");
+        if (!accessible.isEmpty()) s.append("    private static final int ABSENT = -1;\n");
+        s.append("    private static final int[] SUPPORTED = {");
+        int[] masks = m.supportedMasks();
+        for (int i = 0; i < masks.length; i++) s.append(i > 0 ? ", " : "").append(hex(masks[i]));
+        s.append("};\n\n");
+        s.append("    private byte[] buffer;\n");
+        s.append("    private int offset;\n");
+        s.append("    private int limit;\n");
+        for (FieldModel f : accessible) s.append("    private int ").append(f.name()).append("At = ABSENT;\n");
+        s.append('\n');
+
+        wrap(s, m, cls);
+
+        s.append("    public ").append(cls).append(" wrapForEncode(byte[] buffer, int offset, byte[] bitfields) {\n");
+        s.append("        int length = encodedLength(bitfields);\n");
+        s.append("        Arrays.fill(buffer, offset, offset + length, (byte) 0);\n");
+        s.append("        buffer[offset] = (byte) 0xBA;\n");
+        s.append("        buffer[offset + 1] = (byte) 0xBA;\n");
+        s.append("        Wire.putU16(buffer, offset + 2, length - 2);\n");
+        s.append("        buffer[offset + 4] = MESSAGE_TYPE;\n");
+        s.append("        buffer[offset + BLOCK_LENGTH - 1] = (byte) bitfields.length;\n");
+        s.append("        System.arraycopy(bitfields, 0, buffer, offset + BLOCK_LENGTH, bitfields.length);\n");
+        s.append("        return wrap(buffer, offset);\n");
+        s.append("    }\n\n");
+
+        s.append("    public static int encodedLength(byte[] bitfields) {\n");
+        s.append("        return BLOCK_LENGTH + bitfields.length + optionalLength(bitfields, 0, bitfields.length);\n");
+        s.append("    }\n\n");
+        s.append("    /** Frame length implied by the wrapped fixed block and bitfields. */\n");
+        s.append("    public int encodedLength() {\n");
+        s.append("        return limit - offset;\n");
+        s.append("    }\n\n");
+        s.append("    /** Frame length according to the MessageLength field. */\n");
+        s.append("    public int frameLength() {\n");
+        s.append("        return Wire.getU16(buffer, offset + 2) + 2;\n");
+        s.append("    }\n\n");
+
+        optionalLength(s, m);
+
+        s.append("    /** True when any bit without a declared field is set, including in trailing bitfields. */\n");
+        s.append("    public static boolean hasUnsupportedBits(byte[] bitfields, int offset, int count) {\n");
+        s.append("        for (int i = 0; i < count; i++) {\n");
+        s.append("            if ((bitfields[offset + i] & ~supportedBits(i) & 0xFF) != 0) return true;\n");
+        s.append("        }\n");
+        s.append("        return false;\n");
+        s.append("    }\n\n");
+        s.append("    public static int supportedBits(int index) {\n");
+        s.append("        return index < SUPPORTED.length ? SUPPORTED[index] : 0;\n");
+        s.append("    }\n\n");
+
+        accessors(s, cls, MATCHING_UNIT, "offset + 5");
+        accessors(s, cls, SEQUENCE_NUMBER, "offset + 6");
+        for (FieldModel f : m.fixed()) accessors(s, cls, f, "offset + " + f.offset());
+
+        s.append("    public int numberOfBitfields() {\n");
+        s.append("        return buffer[offset + BLOCK_LENGTH - 1] & 0xFF;\n");
+        s.append("    }\n\n");
+        s.append("    public int bitfield(int index) {\n");
+        s.append("        return index < numberOfBitfields() ? buffer[offset + BLOCK_LENGTH + index] & 0xFF : 0;\n");
+        s.append("    }\n\n");
+        s.append("    public byte[] bitfields() {\n");
+        s.append("        return java.util.Arrays.copyOfRange(buffer, offset + BLOCK_LENGTH, offset + BLOCK_LENGTH + numberOfBitfields());\n");
+        s.append("    }\n\n");
+
+        for (FieldModel f : accessible) {
+            s.append("    public boolean has").append(capitalize(f.name())).append("() {\n");
+            s.append("        return ").append(f.name()).append("At != ABSENT;\n");
+            s.append("    }\n\n");
+            accessors(s, cls, f, f.name() + "At");
+        }
+
+        if (!accessible.isEmpty()) {
+            s.append("    private static int require(int position, String field) {\n");
+            s.append("        if (position == ABSENT) throw new IllegalStateException(field + \" is not enabled in the bitfields\");\n");
+            s.append("        return position;\n");
+            s.append("    }\n");
+        } else {
+            trimTrailingBlankLine(s);
+        }
+        s.append("}\n");
+        return s.toString();
+    }
+
+    private static void wrap(StringBuilder s, MessageModel m, String cls) {
+        s.append("    public ").append(cls).append(" wrap(byte[] buffer, int offset) {\n");
+        s.append("        this.buffer = buffer;\n");
+        s.append("        this.offset = offset;\n");
+        s.append("        int count = buffer[offset + BLOCK_LENGTH - 1] & 0xFF;\n");
+        if (m.optional().isEmpty()) {
+            s.append("        limit = offset + BLOCK_LENGTH + count;\n");
+        } else {
+            s.append("        int position = offset + BLOCK_LENGTH + count;\n");
+            int lastIndex = -1;
+            for (FieldModel f : m.optional()) {
+                if (f.bitfieldIndex() != lastIndex) {
+                    lastIndex = f.bitfieldIndex();
+                    s.append("        int bf").append(lastIndex + 1).append(" = count > ").append(lastIndex)
+                            .append(" ? buffer[offset + BLOCK_LENGTH").append(plus(lastIndex)).append("] : 0;\n");
+                }
+                String test = "(bf" + (lastIndex + 1) + " & " + hex(f.mask()) + ") != 0";
+                if (f.reserved()) {
+                    if (f.size() > 0) s.append("        if (").append(test).append(") position += ").append(f.size()).append(";\n");
+                    continue;
+                }
+                s.append("        if (").append(test).append(") {\n");
+                s.append("            ").append(f.name()).append("At = position;\n");
+                s.append("            position += ").append(f.size()).append(";\n");
+                s.append("        } else {\n");
+                s.append("            ").append(f.name()).append("At = ABSENT;\n");
+                s.append("        }\n");
+            }
+            s.append("        limit = position;\n");
+        }
+        s.append("        return this;\n");
+        s.append("    }\n\n");
+    }
+
+    private static void optionalLength(StringBuilder s, MessageModel m) {
+        s.append("    /** Total size of the optional fields the bitfields enable. */\n");
+        s.append("    public static int optionalLength(byte[] bitfields, int offset, int count) {\n");
+        if (m.optional().stream().allMatch(f -> f.size() == 0)) {
+            s.append("        return 0;\n");
+            s.append("    }\n\n");
+            return;
+        }
+        s.append("        int length = 0;\n");
+        int lastIndex = -1;
+        for (FieldModel f : m.optional()) {
+            if (f.size() == 0) continue;
+            if (f.bitfieldIndex() != lastIndex) {
+                lastIndex = f.bitfieldIndex();
+                s.append("        int bf").append(lastIndex + 1).append(" = count > ").append(lastIndex)
+                        .append(" ? bitfields[offset").append(plus(lastIndex)).append("] : 0;\n");
+            }
+            s.append("        if ((bf").append(lastIndex + 1).append(" & ").append(hex(f.mask())).append(") != 0) length += ").append(f.size()).append(";\n");
+        }
+        s.append("        return length;\n");
+        s.append("    }\n\n");
+    }
+
+    private static void accessors(StringBuilder s, String cls, FieldModel f, String position) {
+        String javaType = javaType(f.type());
+        String write = f.optional() ? "require(" + position + ", \"" + f.name() + "\")" : position;
+
+        if (f.type().equals("PRICE")) s.append("    // Binary Price: raw value, 4 implied decimals\n");
+        s.append("    public ").append(javaType).append(' ').append(f.name()).append("() {\n");
+        String getter = getter(f, position);
+        if (f.optional()) {
+            s.append("        return ").append(position).append(" != ABSENT ? ").append(getter).append(" : ").append(absent(javaType)).append(";\n");
+        } else {
+            s.append("        return ").append(getter).append(";\n");
+        }
+        s.append("    }\n\n");
+
+        String paramType = javaType.equals("String") ? "CharSequence" : javaType;
+        s.append("    public ").append(cls).append(' ').append(f.name()).append('(').append(paramType).append(" value) {\n");
+        s.append("        ").append(setter(f, write)).append(";\n");
+        s.append("        return this;\n");
+        s.append("    }\n\n");
+    }
+
+    static String javaType(String type) {
+        return switch (type) {
+            case "CHAR", "U8" -> "byte";
+            case "U16", "U32" -> "int";
+            case "U64", "PRICE" -> "long";
+            default -> "String";
+        };
+    }
+
+    private static String absent(String javaType) {
+        return switch (javaType) {
+            case "String" -> "null";
+            case "long" -> "0L";
+            default -> "0";
+        };
+    }
+
+    private static String getter(FieldModel f, String position) {
+        return switch (f.type()) {
+            case "CHAR", "U8" -> "buffer[" + position + "]";
+            case "U16" -> "Wire.getU16(buffer, " + position + ")";
+            case "U32" -> "Wire.getInt(buffer, " + position + ")";
+            case "U64", "PRICE" -> "Wire.getLong(buffer, " + position + ")";
+            default -> "Wire.getString(buffer, " + position + ", " + f.size() + ")";
+        };
+    }
+
+    private static String setter(FieldModel f, String position) {
+        return switch (f.type()) {
+            case "CHAR" -> f.size() == 1 ? "buffer[" + position + "] = value" : "Wire.putChar(buffer, " + position + ", " + f.size() + ", value)";
+            case "U8" -> "buffer[" + position + "] = value";
+            case "U16" -> "Wire.putU16(buffer, " + position + ", value)";
+            case "U32" -> "Wire.putInt(buffer, " + position + ", value)";
+            case "U64", "PRICE" -> "Wire.putLong(buffer, " + position + ", value)";
+            case "TEXT" -> "Wire.putText(buffer, " + position + ", " + f.size() + ", value)";
+            default -> "Wire.putAlpha(buffer, " + position + ", " + f.size() + ", value)";
+        };
+    }
+
+    private static String plus(int index) {
+        return index == 0 ? "" : " + " + index;
+    }
+
+    private static void trimTrailingBlankLine(StringBuilder s) {
+        if (s.length() >= 2 && s.charAt(s.length() - 1) == '\n' && s.charAt(s.length() - 2) == '\n') s.setLength(s.length() - 1);
+    }
+
+    static String capitalize(String name) {
+        return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    static String hex(int value) {
+        return String.format("0x%02X", value);
+    }
+}
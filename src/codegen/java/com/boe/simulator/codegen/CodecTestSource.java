@@ -0,0 +1,148 @@
+package com.boe.simulator.codegen;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.boe.simulator.codegen.MessageModel.FieldModel;
+
+import static com.boe.simulator.codegen.CodecSource.capitalize;
+import static com.boe.simulator.codegen.CodecSource.hex;
+
+/** Source of the round-trip test for one generated codec. */
+final class CodecTestSource {
+
+    private CodecTestSource() {}
+
+    static String generate(MessageModel m) {
+        String cls = m.name() + "Codec";
+        List<FieldModel> optional = new ArrayList<>();
+        for (FieldModel f : m.optional()) if (!f.reserved()) optional.add(f);
+        List<FieldModel> fields = new ArrayList<>();
+        fields.add(new FieldModel("matchingUnit", "U8", 1, -1, 0, 5));
+        fields.add(new FieldModel("sequenceNumber", "U32", 4, -1, 0, 6));
+        fields.addAll(m.fixed());
+        fields.addAll(optional);
+        int[] masks = m.supportedMasks();
+
+        StringBuilder s = new StringBuilder();
+        s.append(CodecSource.banner(m));
+        s.append("package ").append(CodecProcessor.PACKAGE).append(";\n\n");
+        s.append("import org.junit.jupiter.api.Test;\n\n");
+        s.append("import static org.junit.jupiter.api.Assertions.*;\n\n");
+        s.append("class ").append(cls).append("Test {\n\n");
+
+        // Every field at once
+        s.append("    @Test\n");
+        s.append("    void roundTrip_allFields() {\n");
+        s.append("        // Arrange\n");
+        s.append("        byte[] bitfields = ").append(bytes(masks)).append(";\n");
+        s.append("        byte[] frame = new byte[").append(cls).append(".encodedLength(bitfields)];\n\n");
+        s.append("        // Act\n");
+        s.append("        new ").append(cls).append("().wrapForEncode(frame, 0, bitfields)");
+        for (int i = 0; i < fields.size(); i++) {
+            s.append("\n                .").append(fields.get(i).name()).append('(').append(sample(fields.get(i), i)).append(')');
+        }
+        s.append(";\n");
+        s.append("        ").append(cls).append(" decoded = new ").append(cls).append("().wrap(frame, 0);\n\n");
+        s.append("        // Assert\n");
+        s.append("        assertEquals(").append(cls).append(".MESSAGE_TYPE, frame[4]);\n");
+        s.append("        assertEquals(frame.length, decoded.frameLength());\n");
+        s.append("        assertEquals(frame.length, decoded.encodedLength());\n");
+        for (int i = 0; i < fields.size(); i++) {
+            FieldModel f = fields.get(i);
+            if (f.optional()) s.append("        assertTrue(decoded.has").append(capitalize(f.name())).append("());\n");
+            s.append("        assertEquals(").append(sample(f, i)).append(", decoded.").append(f.name()).append("());\n");
+        }
+        s.append("    }\n\n");
+
+        // One optional field at a time: its offset must not depend on absent neighbours
+        if (!optional.isEmpty()) {
+            s.append("    @Test\n");
+            s.append("    void roundTrip_eachOptionalFieldAlone() {\n");
+            for (int i = 0; i < optional.size(); i++) {
+                FieldModel f = optional.get(i);
+                int[] only = new int[f.bitfieldIndex() + 1];
+                only[f.bitfieldIndex()] = f.mask();
+                String frame = f.name() + "Frame";
+                String value = sample(f, fields.indexOf(f));
+                if (i > 0) s.append('\n');
+                s.append("        byte[] ").append(frame).append(" = new byte[").append(cls).append(".encodedLength(").append(bytes(only)).append(")];\n");
+                s.append("        new ").append(cls).append("().wrapForEncode(").append(frame).append(", 0, ").append(bytes(only)).append(").")
+                        .append(f.name()).append('(').append(value).append(");\n");
+                s.append("        assertEquals(").append(cls).append(".BLOCK_LENGTH + ").append(only.length).append(" + ").append(f.size())
+                        .append(", ").append(frame).append(".length);\n");
+                s.append("        assertEquals(").append(value).append(", new ").append(cls).append("().wrap(").append(frame).append(", 0).")
+                        .append(f.name()).append("());\n");
+            }
+            s.append("    }\n\n");
+        }
+
+        // Fixed block only
+        s.append("    @Test\n");
+        s.append("    void noBitfields_encodesFixedBlockOnly() {\n");
+        s.append("        // Arrange\n");
+        s.append("        byte[] frame = new byte[").append(cls).append(".encodedLength(new byte[0])];\n\n");
+        s.append("        // Act\n");
+        s.append("        ").append(cls).append(" codec = new ").append(cls).append("().wrapForEncode(frame, 0, new byte[0]);\n\n");
+        s.append("        // Assert\n");
+        s.append("        assertEquals(").append(cls).append(".BLOCK_LENGTH, frame.length);\n");
+        s.append("        assertEquals(0, codec.numberOfBitfields());\n");
+        for (FieldModel f : optional) {
+            s.append("        assertFalse(codec.has").append(capitalize(f.name())).append("());\n");
+        }
+        if (!optional.isEmpty()) {
+            FieldModel first = optional.get(0);
+            s.append("        assertThrows(IllegalStateException.class, () -> codec.").append(first.name())
+                    .append('(').append(sample(first, fields.indexOf(first))).append("));\n");
+        }
+        s.append("    }\n\n");
+
+        // Bits the schema does not declare
+        s.append("    @Test\n");
+        s.append("    void hasUnsupportedBits_flagsBitsWithoutAField() {\n");
+        s.append("        // Arrange\n");
+        s.append("        byte[] declared = ").append(bytes(masks)).append(";\n");
+        s.append("        byte[] trailing = new byte[").append(cls).append(".MAX_BITFIELDS + 1];\n");
+        s.append("        trailing[").append(cls).append(".MAX_BITFIELDS] = 0x01;\n\n");
+        s.append("        // Act & Assert\n");
+        s.append("        assertFalse(").append(cls).append(".hasUnsupportedBits(declared, 0, declared.length));\n");
+        s.append("        assertTrue(").append(cls).append(".hasUnsupportedBits(trailing, 0, trailing.length));\n");
+        for (int i = 0; i < masks.length; i++) {
+            int free = ~masks[i] & 0xFF;
+            if (free == 0) continue;
+            int[] undeclared = new int[i + 1];
+            undeclared[i] = Integer.lowestOneBit(free);
+            s.append("        assertTrue(").append(cls).append(".hasUnsupportedBits(").append(bytes(undeclared)).append(", 0, ").append(i + 1).append("));\n");
+            break;
+        }
+        s.append("    }\n");
+        s.append("}\n");
+        return s.toString();
+    }
+
+    private static String bytes(int[] values) {
+        StringBuilder s = new StringBuilder("new byte[]{");
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) s.append(", ");
+            s.append("(byte) ").append(hex(values[i]));
+        }
+        return s.append('}').toString();
+    }
+
+    private static String sample(FieldModel f, int i) {
+        return switch (f.type()) {
+            case "CHAR" -> "(byte) '" + (char) ('A' + i % 26) + "'";
+            case "U8" -> "(byte) " + (i + 1);
+            case "U16" -> String.valueOf(1000 + i);
+            case "U32" -> String.valueOf(100_000 + i);
+            case "U64" -> (10_000_000_000L + i) + "L";
+            case "PRICE" -> (1_502_500L + i) + "L";
+            default -> "\"" + sampleText(f, i) + "\"";
+        };
+    }
+
+    private static String sampleText(FieldModel f, int i) {
+        String text = "F" + i;
+        return text.length() > f.size() ? text.substring(0, f.size()) : text;
+    }
+}
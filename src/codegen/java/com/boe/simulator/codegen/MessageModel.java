@@ -0,0 +1,44 @@
+package com.boe.simulator.codegen;
+
+import java.util.List;
+
+/** One {@code @MessageSchema} declaration, resolved to sizes and offsets. */
+record MessageModel(String name, int type, String spec, String origin, int bitfields,
+                    List<FieldModel> fixed, List<FieldModel> optional) {
+
+    static final int HEADER_SIZE = 10;
+
+    /** Fixed block through NumberOfBitfields. */
+    int blockLength() {
+        int end = HEADER_SIZE;
+        for (FieldModel f : fixed) end = f.offset() + f.size();
+        return end + 1;
+    }
+
+    int[] supportedMasks() {
+        int[] masks = new int[bitfields];
+        for (FieldModel f : optional) masks[f.bitfieldIndex()] |= f.mask();
+        return masks;
+    }
+
+    /**
+     * @param bitfieldIndex 0-based bitfield of an optional field, -1 for a fixed field
+     * @param offset        absolute offset of a fixed field, -1 for an optional field
+     */
+    record FieldModel(String name, String type, int size, int bitfieldIndex, int mask, int offset) {
+
+        boolean optional() {
+            return bitfieldIndex >= 0;
+        }
+
+        /** Reserved bits are skipped on the wire and get no accessors. */
+        boolean reserved() {
+            return type.equals("RESERVED");
+        }
+
+        /** Wire order of optional fields: bitfield first, then bit. */
+        int id() {
+            return bitfieldIndex * 8 + Integer.numberOfTrailingZeros(mask);
+        }
+    }
+}
@@ -2,10 +2,12 @@ package com.boe.simulator.api.service;
 
 import com.boe.simulator.api.dto.OrderRequest;
 import com.boe.simulator.api.dto.OrderResponse;
-import com.boe.simulator.protocol.message.NewOrderMessage;
+import com.boe.simulator.protocol.types.BinaryPrice;
 import com.boe.simulator.server.order.Order;
+import com.boe.simulator.server.order.OrderExecutionContext;
 import com.boe.simulator.server.order.OrderManager;
 import com.boe.simulator.server.order.OrderRepository;
+import com.boe.simulator.server.order.Symbols;
 
 import java.util.List;
 import java.util.Optional;
@@ -32,9 +34,17 @@ public class OrderService {
         LOGGER.log(Level.INFO, "REST API: Submitting order for user {0}: {1} {2} {3} @ {4}",
                 new Object[]{username, request.side(), request.symbol(), request.orderQty(), request.price()});
 
-        NewOrderMessage newOrder = createNewOrderMessage(request);
-
-        var response = orderManager.processNewOrder(newOrder, username);
+        var response = orderManager.submitNewOrder(
+                OrderExecutionContext.fromRestApi(username),
+                generateClOrdID(),
+                Symbols.id(request.symbol()),
+                request.getSideByte(),
+                request.orderQty(),
+                BinaryPrice.toRaw(request.price()),
+                request.getOrderTypeByte(),
+                request.getCapacityByte(),
+                request.account() != null ? request.account() : ""
+        );
 
         if (response.isRejected()) throw new IllegalStateException("Order rejected: " + response.getRejectText());
 
@@ -71,34 +81,6 @@ public class OrderService {
                 new Object[]{clOrdID, username});
     }
 
-    private NewOrderMessage createNewOrderMessage(OrderRequest request) {
-        NewOrderMessage message = new NewOrderMessage();
-        try {
-            setField(message, "clOrdID", generateClOrdID());
-            setField(message, "symbol", request.symbol());
-            setField(message, "side", request.getSideByte());
-            setField(message, "orderQty", request.orderQty());
-            setField(message, "price", request.price());
-            setField(message, "ordType", request.getOrderTypeByte());
-            setField(message, "capacity", request.getCapacityByte());
-            setField(message, "account", request.account() != null ? request.account() : "");
-            setField(message, "matchingUnit", (byte) 0);
-            setField(message, "sequenceNumber", 0);
-
-        } catch (Exception e) {
-            LOGGER.log(Level.SEVERE, "Failed to create NewOrderMessage", e);
-            throw new RuntimeException("Failed to create order message", e);
-        }
-
-        return message;
-    }
-
-    private void setField(Object obj, String fieldName, Object value) throws Exception {
-        var field = obj.getClass().getDeclaredField(fieldName);
-        field.setAccessible(true);
-        field.set(obj, value);
-    }
-
     private String generateClOrdID() {
         long seq = SEQUENCE.getAndIncrement() % 100000;
         long time = System.currentTimeMillis() % 100000;
@@ -11,15 +11,18 @@ import java.util.concurrent.atomic.AtomicLong;
 
 import com.boe.simulator.bot.BotConfig;
 import com.boe.simulator.bot.util.PriceGenerator;
-import com.boe.simulator.protocol.message.NewOrderMessage;
+import com.boe.simulator.protocol.types.BinaryPrice;
 import com.boe.simulator.server.matching.MatchingEngine;
 import com.boe.simulator.server.matching.OrderBook;
+import com.boe.simulator.server.order.OrderExecutionContext;
 import com.boe.simulator.server.order.OrderManager;
+import com.boe.simulator.server.order.Symbols;
 
 public final class MarketMakerStrategy implements TradingStrategy {
     private static final Logger LOGGER = Logger.getLogger(MarketMakerStrategy.class.getName());
 
     private static final AtomicLong SEQ = new AtomicLong(0);
+    private static final OrderExecutionContext CONTEXT = OrderExecutionContext.embedded("BOT-MM");
 
     private final BotConfig config;
     private final Random random;
@@ -65,7 +68,7 @@ public final class MarketMakerStrategy implements TradingStrategy {
             placeBidOrder(symbol, midPrice);
             placeAskOrder(symbol, midPrice);
 
-            // Every 5th cycle, also place an aggressive IOC order to spark activity
+            // Every 5th cycle, also place an aggressive order to spark activity
             if (cycle % 5 == 0) {
                 BigDecimal bestBid = book.getBestBid();
                 BigDecimal bestAsk = book.getBestAsk();
@@ -106,44 +109,36 @@ public final class MarketMakerStrategy implements TradingStrategy {
         BigDecimal spread = midPrice.multiply(config.priceVariation());
         BigDecimal bidPrice = midPrice.subtract(spread).setScale(2, RoundingMode.HALF_UP);
         int quantity = random.nextInt(config.minQuantity(), config.maxQuantity() + 1);
-        submitOrder(symbol, (byte) 1, quantity, bidPrice, (byte) 0);
+        submitOrder(symbol, (byte) 1, quantity, bidPrice);
     }
 
     private void placeAskOrder(String symbol, BigDecimal midPrice) {
         BigDecimal spread = midPrice.multiply(config.priceVariation());
         BigDecimal askPrice = midPrice.add(spread).setScale(2, RoundingMode.HALF_UP);
         int quantity = random.nextInt(config.minQuantity(), config.maxQuantity() + 1);
-        submitOrder(symbol, (byte) 2, quantity, askPrice, (byte) 0);
+        submitOrder(symbol, (byte) 2, quantity, askPrice);
     }
 
-    // Place an IOC aggressive buy order slightly above best ask to match resting sellers
+    // Place an aggressive buy order slightly above best ask to match resting sellers
     private void placeAggressiveBuy(String symbol, BigDecimal bestAsk) {
         if (bestAsk == null) return;
         BigDecimal aggressivePrice = bestAsk.multiply(BigDecimal.valueOf(1.001)).setScale(2, RoundingMode.HALF_UP);
         int quantity = random.nextInt(config.minQuantity(), config.maxQuantity() + 1);
-        submitOrder(symbol, (byte) 1, quantity, aggressivePrice, (byte) 3); // IOC
+        submitOrder(symbol, (byte) 1, quantity, aggressivePrice);
     }
 
-    // Place an IOC aggressive sell order slightly below best bid to match resting buyers
+    // Place an aggressive sell order slightly below best bid to match resting buyers
     private void placeAggressiveSell(String symbol, BigDecimal bestBid) {
         if (bestBid == null) return;
         BigDecimal aggressivePrice = bestBid.multiply(BigDecimal.valueOf(0.999)).setScale(2, RoundingMode.HALF_UP);
         int quantity = random.nextInt(config.minQuantity(), config.maxQuantity() + 1);
-        submitOrder(symbol, (byte) 2, quantity, aggressivePrice, (byte) 3); // IOC
+        submitOrder(symbol, (byte) 2, quantity, aggressivePrice);
     }
 
-    private void submitOrder(String symbol, byte side, int qty, BigDecimal price, byte timeInForce) {
+    private void submitOrder(String symbol, byte side, int qty, BigDecimal price) {
         if (orderManager == null) return;
-        NewOrderMessage msg = new NewOrderMessage();
-        msg.setClOrdID(String.format("MM%018d", SEQ.incrementAndGet()));
-        msg.setSide(side);
-        msg.setOrderQty(qty);
-        msg.setPrice(price);
-        msg.setSymbol(symbol);
-        msg.setOrdType((byte) 2);           // Limit
-        msg.setTimeInForce(timeInForce);
-        msg.setCapacity((byte) 'M');        // Market Maker
-        orderManager.processNewOrder(msg, "BOT-MM");
+        orderManager.submitNewOrder(CONTEXT, String.format("MM%018d", SEQ.incrementAndGet()), Symbols.id(symbol),
+                side, qty, BinaryPrice.toRaw(price), (byte) 2, (byte) 'M'); // Limit, Market Maker
     }
 
     @Override
@@ -10,15 +10,18 @@ import java.util.concurrent.atomic.AtomicLong;
 
 import com.boe.simulator.bot.BotConfig;
 import com.boe.simulator.bot.util.PriceGenerator;
-import com.boe.simulator.protocol.message.NewOrderMessage;
+import com.boe.simulator.protocol.types.BinaryPrice;
 import com.boe.simulator.server.matching.MatchingEngine;
 import com.boe.simulator.server.matching.OrderBook;
+import com.boe.simulator.server.order.OrderExecutionContext;
 import com.boe.simulator.server.order.OrderManager;
+import com.boe.simulator.server.order.Symbols;
 
 public final class RandomTraderStrategy implements TradingStrategy {
     private static final Logger LOGGER = Logger.getLogger(RandomTraderStrategy.class.getName());
 
     private static final AtomicLong SEQ = new AtomicLong(0);
+    private static final OrderExecutionContext CONTEXT = OrderExecutionContext.embedded("BOT-RAND");
 
     private final BotConfig config;
     private final Random random;
@@ -73,13 +76,13 @@ public final class RandomTraderStrategy implements TradingStrategy {
             if (bestAsk == null) return; // No ask to buy against — skip
             // Price slightly above best ask to ensure it crosses
             BigDecimal aggressivePrice = bestAsk.add(new BigDecimal("0.01")).setScale(2, RoundingMode.HALF_UP);
-            submitOrder(symbol, (byte) 1, quantity, aggressivePrice, (byte) 0); // Day
+            submitOrder(symbol, (byte) 1, quantity, aggressivePrice);
         } else {
             BigDecimal bestBid = book.getBestBid();
             if (bestBid == null) return; // No bid to sell against — skip
             // Price slightly below best bid to ensure it crosses
             BigDecimal aggressivePrice = bestBid.subtract(new BigDecimal("0.01")).setScale(2, RoundingMode.HALF_UP);
-            submitOrder(symbol, (byte) 2, quantity, aggressivePrice, (byte) 0); // Day
+            submitOrder(symbol, (byte) 2, quantity, aggressivePrice);
         }
     }
 
@@ -92,7 +95,7 @@ public final class RandomTraderStrategy implements TradingStrategy {
                 .multiply(BigDecimal.valueOf(random.nextDouble(-1, 1)));
         BigDecimal orderPrice = referencePrice.add(variation).setScale(2, RoundingMode.HALF_UP);
 
-        submitOrder(symbol, isBuy ? (byte) 1 : (byte) 2, quantity, orderPrice, (byte) 0); // Day
+        submitOrder(symbol, isBuy ? (byte) 1 : (byte) 2, quantity, orderPrice);
     }
 
     private BigDecimal getMidOrDefault(OrderBook book, String symbol) {
@@ -109,18 +112,10 @@ public final class RandomTraderStrategy implements TradingStrategy {
         return PriceGenerator.getDefaultPrice(symbol);
     }
 
-    private void submitOrder(String symbol, byte side, int qty, BigDecimal price, byte timeInForce) {
+    private void submitOrder(String symbol, byte side, int qty, BigDecimal price) {
         if (orderManager == null) return;
-        NewOrderMessage msg = new NewOrderMessage();
-        msg.setClOrdID(String.format("RT%018d", SEQ.incrementAndGet()));
-        msg.setSide(side);
-        msg.setOrderQty(qty);
-        msg.setPrice(price);
-        msg.setSymbol(symbol);
-        msg.setOrdType((byte) 2);           // Limit
-        msg.setTimeInForce(timeInForce);
-        msg.setCapacity((byte) 'C');        // Customer
-        orderManager.processNewOrder(msg, "BOT-RAND");
+        orderManager.submitNewOrder(CONTEXT, String.format("RT%018d", SEQ.incrementAndGet()), Symbols.id(symbol),
+                side, qty, BinaryPrice.toRaw(price), (byte) 2, (byte) 'C'); // Limit, Customer
     }
 
     @Override
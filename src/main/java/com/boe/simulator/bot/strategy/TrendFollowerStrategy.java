@@ -13,17 +13,20 @@ import java.util.concurrent.atomic.AtomicLong;
 
 import com.boe.simulator.bot.BotConfig;
 import com.boe.simulator.bot.util.PriceGenerator;
-import com.boe.simulator.protocol.message.NewOrderMessage;
+import com.boe.simulator.protocol.types.BinaryPrice;
 import com.boe.simulator.server.matching.MatchingEngine;
 import com.boe.simulator.server.matching.OrderBook;
 import com.boe.simulator.server.matching.Trade;
 import com.boe.simulator.server.matching.TradeRepository;
+import com.boe.simulator.server.order.OrderExecutionContext;
 import com.boe.simulator.server.order.OrderManager;
+import com.boe.simulator.server.order.Symbols;
 
 public final class TrendFollowerStrategy implements TradingStrategy {
     private static final Logger LOGGER = Logger.getLogger(TrendFollowerStrategy.class.getName());
 
     private static final AtomicLong SEQ = new AtomicLong(0);
+    private static final OrderExecutionContext CONTEXT = OrderExecutionContext.embedded("BOT-TREND");
 
     private final BotConfig config;
     private final Random random;
@@ -68,7 +71,7 @@ public final class TrendFollowerStrategy implements TradingStrategy {
                 if (bestAsk != null) {
                     BigDecimal aggressivePrice = bestAsk.multiply(BigDecimal.valueOf(1.001)).setScale(2, RoundingMode.HALF_UP);
                     int quantity = random.nextInt(config.minQuantity(), config.maxQuantity() + 1);
-                    submitOrder(symbol, (byte) 1, quantity, aggressivePrice, (byte) 0);
+                    submitOrder(symbol, (byte) 1, quantity, aggressivePrice);
                 } else {
                     // No ask in book; place passive buy
                     placePassiveOrder(symbol, (byte) 1, referencePrice);
@@ -78,7 +81,7 @@ public final class TrendFollowerStrategy implements TradingStrategy {
                 if (bestBid != null) {
                     BigDecimal aggressivePrice = bestBid.multiply(BigDecimal.valueOf(0.999)).setScale(2, RoundingMode.HALF_UP);
                     int quantity = random.nextInt(config.minQuantity(), config.maxQuantity() + 1);
-                    submitOrder(symbol, (byte) 2, quantity, aggressivePrice, (byte) 0);
+                    submitOrder(symbol, (byte) 2, quantity, aggressivePrice);
                 } else {
                     // No bid in book; place passive sell
                     placePassiveOrder(symbol, (byte) 2, referencePrice);
@@ -157,21 +160,13 @@ public final class TrendFollowerStrategy implements TradingStrategy {
                 .multiply(BigDecimal.valueOf(random.nextDouble(-1, 1)));
         BigDecimal orderPrice = referencePrice.add(variation).setScale(2, RoundingMode.HALF_UP);
         int quantity = random.nextInt(config.minQuantity(), config.maxQuantity() + 1);
-        submitOrder(symbol, side, quantity, orderPrice, (byte) 0);
+        submitOrder(symbol, side, quantity, orderPrice);
     }
 
-    private void submitOrder(String symbol, byte side, int qty, BigDecimal price, byte timeInForce) {
+    private void submitOrder(String symbol, byte side, int qty, BigDecimal price) {
         if (orderManager == null) return;
-        NewOrderMessage msg = new NewOrderMessage();
-        msg.setClOrdID(String.format("TF%018d", SEQ.incrementAndGet()));
-        msg.setSide(side);
-        msg.setOrderQty(qty);
-        msg.setPrice(price);
-        msg.setSymbol(symbol);
-        msg.setOrdType((byte) 2);           // Limit
-        msg.setTimeInForce(timeInForce);
-        msg.setCapacity((byte) 'C');        // Customer
-        orderManager.processNewOrder(msg, "BOT-TREND");
+        orderManager.submitNewOrder(CONTEXT, String.format("TF%018d", SEQ.incrementAndGet()), Symbols.id(symbol),
+                side, qty, BinaryPrice.toRaw(price), (byte) 2, (byte) 'C'); // Limit, Customer
     }
 
     @Override
@@ -0,0 +1,95 @@
+package com.boe.simulator.client;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.locks.LockSupport;
+
+import com.boe.simulator.server.connection.MappedRing;
+import com.boe.simulator.server.connection.SharedMemoryGateway;
+
+/**
+ * Client side of {@link SharedMemoryGateway}: writes BOE frames to the inbound ring and reads
+ * whole frames from the outbound ring. Not thread-safe; use one sender and one receiver thread
+ * at most.
+ */
+public final class SharedMemoryClient implements Closeable {
+
+    private static final long RETRY_NANOS = 1_000_000L; // 1ms
+    private static final int LENGTH_PREFIX_BYTES = 4; // StartOfMessage + MessageLength
+
+    private final MappedRing inbound;
+    private final MappedRing outbound;
+    private final byte[] prefix = new byte[LENGTH_PREFIX_BYTES];
+
+    private SharedMemoryClient(MappedRing inbound, MappedRing outbound) {
+        this.inbound = inbound;
+        this.outbound = outbound;
+    }
+
+    /** Waits for the gateway in {@code directory} to publish a free ring pair and claims it. */
+    public static SharedMemoryClient connect(Path directory, Duration timeout) throws IOException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        IOException last = null;
+
+        while (System.nanoTime() < deadline) {
+            try {
+                MappedRing outbound = MappedRing.attach(directory.resolve(SharedMemoryGateway.OUTBOUND_RING));
+                MappedRing inbound;
+                try {
+                    inbound = MappedRing.attach(directory.resolve(SharedMemoryGateway.INBOUND_RING));
+                } catch (IOException e) {
+                    outbound.release();
+                    throw e;
+                }
+
+                if (inbound.claim()) return new SharedMemoryClient(inbound, outbound);
+
+                inbound.release();
+                outbound.release();
+                last = new IOException("Shared-memory gateway busy: " + directory);
+            } catch (IOException e) {
+                last = e; // not published yet, or a ring pair from a finished session
+            }
+            LockSupport.parkNanos(RETRY_NANOS);
+        }
+        throw new IOException("Timed out connecting to shared-memory gateway in " + directory, last);
+    }
+
+    public void send(byte[] frame) throws IOException {
+        inbound.write(frame, 0, frame.length);
+    }
+
+    /** Blocks for the next whole frame; returns null once the gateway has ended the session. */
+    public byte[] receive() throws IOException {
+        if (!readFully(prefix, 0, LENGTH_PREFIX_BYTES)) return null;
+
+        int length = ((prefix[2] & 0xFF) | (prefix[3] & 0xFF) << 8) + 2;
+        if (length < LENGTH_PREFIX_BYTES) throw new IOException("Invalid message length: " + length);
+
+        byte[] frame = new byte[length];
+        System.arraycopy(prefix, 0, frame, 0, LENGTH_PREFIX_BYTES);
+        if (!readFully(frame, LENGTH_PREFIX_BYTES, length - LENGTH_PREFIX_BYTES)) throw new IOException("Session ended mid-frame");
+        return frame;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            inbound.close();
+        } finally {
+            outbound.close();
+        }
+    }
+
+    private boolean readFully(byte[] dst, int offset, int length) throws IOException {
+        while (length > 0) {
+            int n = outbound.read(dst, offset, length);
+            if (n < 0) return false;
+            offset += n;
+            length -= n;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,83 @@
+package com.boe.simulator.protocol.codec;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Little-endian primitives shared by the generated codecs. Everything except
+ * {@link #getString} works in place on the caller's array and allocates nothing.
+ */
+public final class Wire {
+
+    private Wire() {}
+
+    public static int getU16(byte[] buffer, int offset) {
+        return (buffer[offset] & 0xFF) | (buffer[offset + 1] & 0xFF) << 8;
+    }
+
+    public static void putU16(byte[] buffer, int offset, int value) {
+        buffer[offset] = (byte) value;
+        buffer[offset + 1] = (byte) (value >>> 8);
+    }
+
+    public static int getInt(byte[] buffer, int offset) {
+        return (buffer[offset] & 0xFF)
+                | (buffer[offset + 1] & 0xFF) << 8
+                | (buffer[offset + 2] & 0xFF) << 16
+                | (buffer[offset + 3] & 0xFF) << 24;
+    }
+
+    public static void putInt(byte[] buffer, int offset, int value) {
+        buffer[offset] = (byte) value;
+        buffer[offset + 1] = (byte) (value >>> 8);
+        buffer[offset + 2] = (byte) (value >>> 16);
+        buffer[offset + 3] = (byte) (value >>> 24);
+    }
+
+    public static long getLong(byte[] buffer, int offset) {
+        return (getInt(buffer, offset) & 0xFFFFFFFFL) | (long) getInt(buffer, offset + 4) << 32;
+    }
+
+    public static void putLong(byte[] buffer, int offset, long value) {
+        putInt(buffer, offset, (int) value);
+        putInt(buffer, offset + 4, (int) (value >>> 32));
+    }
+
+    /** Character in the first byte, NUL padding after it. */
+    public static void putChar(byte[] buffer, int offset, int length, byte value) {
+        buffer[offset] = value;
+        if (length > 1) Arrays.fill(buffer, offset + 1, offset + length, (byte) 0);
+    }
+
+    /**
+     * Same result as {@code new String(bytes, US_ASCII).trim()} over the field, without the
+     * copy, so NUL- and space-padded fields read alike.
+     */
+    public static String getString(byte[] buffer, int offset, int length) {
+        int start = offset;
+        int end = offset + length;
+        while (start < end && (buffer[start] & 0xFF) <= 0x20) start++;
+        while (end > start && (buffer[end - 1] & 0xFF) <= 0x20) end--;
+        return start == end ? "" : new String(buffer, start, end - start, StandardCharsets.US_ASCII);
+    }
+
+    /** Text fields are NUL-padded. */
+    public static void putText(byte[] buffer, int offset, int length, CharSequence value) {
+        putAscii(buffer, offset, length, value, (byte) 0);
+    }
+
+    /** Alphanumeric fields are space-padded. */
+    public static void putAlpha(byte[] buffer, int offset, int length, CharSequence value) {
+        putAscii(buffer, offset, length, value, (byte) ' ');
+    }
+
+    // Same bytes as String.getBytes(US_ASCII): anything outside ASCII becomes '?'
+    private static void putAscii(byte[] buffer, int offset, int length, CharSequence value, byte pad) {
+        int n = value == null ? 0 : Math.min(value.length(), length);
+        for (int i = 0; i < n; i++) {
+            char c = value.charAt(i);
+            buffer[offset + i] = c < 0x80 ? (byte) c : (byte) '?';
+        }
+        for (int i = n; i < length; i++) buffer[offset + i] = pad;
+    }
+}
@@ -19,6 +19,11 @@ public class BoeMessage {
         return Arrays.copyOf(data, data.length);
     }
 
+    // Zero-copy view for the inbound decoder, which only reads
+    byte[] rawData() {
+        return data;
+    }
+
     public int getLength() {
         return length;
     }
@@ -1,8 +1,6 @@
 package com.boe.simulator.protocol.message;
 
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
-import java.nio.charset.StandardCharsets;
+import com.boe.simulator.protocol.codec.CancelOrderCodec;
 
 /**
  * Cancel Order — Table 36 (p.74), spec v2.11.90
@@ -28,10 +26,8 @@ import java.nio.charset.StandardCharsets;
  *           0x04=SymbolSfx(reserved), 0x08=SendTime(8B,Binary)
  */
 public final class CancelOrderMessage extends ApplicationMessage {
-    private static final byte MESSAGE_TYPE = 0x39;
-    private static final byte SOM1 = (byte) 0xBA;
-    private static final byte SOM2 = (byte) 0xBA;
-    private static final int FIXED_SIZE = 31; // before bitfields/optional
+    static final byte MESSAGE_TYPE = 0x39;
+    private static final byte[] NO_BITFIELDS = new byte[0];
 
     // Header
     private byte matchingUnit;
@@ -68,54 +64,64 @@ public final class CancelOrderMessage extends ApplicationMessage {
     }
 
     public static CancelOrderMessage parse(byte[] data) {
-        if (data == null || data.length < FIXED_SIZE)
+        if (data == null || data.length < CancelOrderCodec.BLOCK_LENGTH)
             throw new IllegalArgumentException("Invalid CancelOrder data: too short");
-
-        CancelOrderMessage msg = new CancelOrderMessage();
-        ByteBuffer buf = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
-
-        buf.position(4); // skip SOM(2) + MsgLen(2)
-
-        byte messageType = buf.get();
-        if (messageType != MESSAGE_TYPE)
+        if (data[4] != MESSAGE_TYPE)
             throw new IllegalArgumentException(
-                "Invalid message type: expected 0x39, got 0x" + String.format("%02X", messageType));
+                "Invalid message type: expected 0x39, got 0x" + String.format("%02X", data[4]));
 
-        msg.matchingUnit = buf.get();
-        msg.sequenceNumber = buf.getInt();
+        int count = data[CancelOrderCodec.BLOCK_LENGTH - 1] & 0xFF;
+        if (data.length < CancelOrderCodec.BLOCK_LENGTH + count)
+            throw new IllegalArgumentException("Invalid CancelOrder data: truncated bitfields");
+        CancelOrderCodec codec = new CancelOrderCodec().wrap(data, 0);
+        if (data.length < codec.encodedLength())
+            throw new IllegalArgumentException("Invalid CancelOrder data: truncated optional fields");
 
-        byte[] origBytes = new byte[20];
-        buf.get(origBytes);
-        msg.origClOrdID = stripNul(origBytes);
-
-        msg.numberOfBitfields = buf.get() & 0xFF;
-        msg.bitfields = new byte[msg.numberOfBitfields];
-        if (msg.numberOfBitfields > 0) buf.get(msg.bitfields);
-
-        msg.parseOptionalFields(buf);
+        CancelOrderMessage msg = new CancelOrderMessage();
+        msg.read(codec);
         return msg;
     }
 
-    private void parseOptionalFields(ByteBuffer buf) {
-        if (numberOfBitfields < 1) return;
-        byte bf1 = bitfields[0];
-
-        if ((bf1 & 0x01) != 0) { byte[] b = new byte[4]; buf.get(b); clearingFirm = stripNul(b); }
-        if ((bf1 & 0x02) != 0) massCancelLockout = buf.get();
-        if ((bf1 & 0x04) != 0) massCancel = buf.get();
-        if ((bf1 & 0x08) != 0) { byte[] b = new byte[6]; buf.get(b); riskRoot = stripNul(b); }
-        if ((bf1 & 0x10) != 0) { byte[] b = new byte[20]; buf.get(b); massCancelId = stripNul(b); }
-        if ((bf1 & 0x20) != 0) { byte[] b = new byte[4]; buf.get(b); routingFirmID = stripNul(b); }
-        if ((bf1 & 0x40) != 0) manualOrderIndicator = buf.get();
-        if ((bf1 & 0x80) != 0) { byte[] b = new byte[4]; buf.get(b); operatorId = stripNul(b); }
+    static byte decodeValidated(byte[] data, CancelOrderMessage msg) {
+        return decodeValidated(data, msg, new CancelOrderCodec());
+    }
 
-        if (numberOfBitfields < 2) return;
-        byte bf2 = bitfields[1];
+    /**
+     * Single-pass check and decode: framing and bitfield/length consistency, then every field
+     * read through {@code codec}. Fills {@code msg} exactly as {@link #parse(byte[])} would and
+     * returns an {@link InboundDecoder} reject code. Cancel has no field-level rules beyond framing.
+     */
+    static byte decodeValidated(byte[] data, CancelOrderMessage msg, CancelOrderCodec codec) {
+        byte frame = InboundDecoder.checkHeader(data, MESSAGE_TYPE, CancelOrderCodec.BLOCK_LENGTH);
+        if (frame != InboundDecoder.OK) return frame;
+
+        int count = data[CancelOrderCodec.BLOCK_LENGTH - 1] & 0xFF;
+        if (data.length < CancelOrderCodec.BLOCK_LENGTH + count) return InboundDecoder.BITFIELD_MISMATCH;
+        if (CancelOrderCodec.hasUnsupportedBits(data, CancelOrderCodec.BLOCK_LENGTH, count)) return InboundDecoder.UNSUPPORTED_BITFIELD;
+        if (codec.wrap(data, 0).encodedLength() != data.length) return InboundDecoder.BITFIELD_MISMATCH;
+
+        msg.read(codec);
+        return InboundDecoder.OK;
+    }
 
-        if ((bf2 & 0x01) != 0) { byte[] b = new byte[16]; buf.get(b); massCancelInst = stripNul(b); }
-        if ((bf2 & 0x02) != 0) { byte[] b = new byte[8]; buf.get(b); symbol = stripNul(b); }
-        // 0x04 = SymbolSfx (reserved — skip if present; size unknown, assume 0 in practice)
-        if ((bf2 & 0x08) != 0) sendTime = buf.getLong();
+    private void read(CancelOrderCodec codec) {
+        matchingUnit = codec.matchingUnit();
+        sequenceNumber = codec.sequenceNumber();
+        origClOrdID = codec.origClOrdID();
+        numberOfBitfields = codec.numberOfBitfields();
+        bitfields = codec.bitfields();
+
+        clearingFirm = codec.clearingFirm();
+        massCancelLockout = codec.massCancelLockout();
+        massCancel = codec.massCancel();
+        riskRoot = codec.riskRoot();
+        massCancelId = codec.massCancelId();
+        routingFirmID = codec.routingFirmID();
+        manualOrderIndicator = codec.manualOrderIndicator();
+        operatorId = codec.operatorId();
+        massCancelInst = codec.massCancelInst();
+        symbol = codec.symbol();
+        sendTime = codec.sendTime();
     }
 
     @Override
@@ -123,80 +129,25 @@ public final class CancelOrderMessage extends ApplicationMessage {
 
     @Override
     public byte[] toBytes() {
-        int optSize = optionalSize();
-        int totalSize = FIXED_SIZE + numberOfBitfields + optSize;
-
-        ByteBuffer buf = ByteBuffer.allocate(totalSize).order(ByteOrder.LITTLE_ENDIAN);
-
-        buf.put(SOM1); buf.put(SOM2);
-        buf.putShort((short) (totalSize - 2));
-        buf.put(MESSAGE_TYPE);
-        buf.put(matchingUnit);
-        buf.putInt(sequenceNumber);
-        putText(buf, origClOrdID, 20);
-        buf.put((byte) numberOfBitfields);
-        if (numberOfBitfields > 0) buf.put(bitfields, 0, numberOfBitfields);
-
-        writeOptionalFields(buf);
-        return buf.array();
-    }
-
-    private void writeOptionalFields(ByteBuffer buf) {
-        if (numberOfBitfields < 1) return;
-        byte bf1 = bitfields[0];
-
-        if ((bf1 & 0x01) != 0) putText(buf, clearingFirm, 4);
-        if ((bf1 & 0x02) != 0) buf.put(massCancelLockout);
-        if ((bf1 & 0x04) != 0) buf.put(massCancel);
-        if ((bf1 & 0x08) != 0) putText(buf, riskRoot, 6);
-        if ((bf1 & 0x10) != 0) putText(buf, massCancelId, 20);
-        if ((bf1 & 0x20) != 0) putText(buf, routingFirmID, 4);
-        if ((bf1 & 0x40) != 0) buf.put(manualOrderIndicator);
-        if ((bf1 & 0x80) != 0) putText(buf, operatorId, 4);
-
-        if (numberOfBitfields < 2) return;
-        byte bf2 = bitfields[1];
-
-        if ((bf2 & 0x01) != 0) putText(buf, massCancelInst, 16);
-        if ((bf2 & 0x02) != 0) putText(buf, symbol, 8);
-        if ((bf2 & 0x08) != 0) buf.putLong(sendTime);
-    }
-
-    private int optionalSize() {
-        if (numberOfBitfields < 1) return 0;
-        int size = 0;
-        byte bf1 = bitfields[0];
-        if ((bf1 & 0x01) != 0) size += 4;
-        if ((bf1 & 0x02) != 0) size += 1;
-        if ((bf1 & 0x04) != 0) size += 1;
-        if ((bf1 & 0x08) != 0) size += 6;
-        if ((bf1 & 0x10) != 0) size += 20;
-        if ((bf1 & 0x20) != 0) size += 4;
-        if ((bf1 & 0x40) != 0) size += 1;
-        if ((bf1 & 0x80) != 0) size += 4;
-
-        if (numberOfBitfields < 2) return size;
-        byte bf2 = bitfields[1];
-        if ((bf2 & 0x01) != 0) size += 16;
-        if ((bf2 & 0x02) != 0) size += 8;
-        if ((bf2 & 0x08) != 0) size += 8;
-        return size;
-    }
-
-    // All string fields (Alpha, Alphanumeric, Text) use NUL (0x00) padding per spec p.10
-    private static void putText(ByteBuffer buf, String s, int len) {
-        byte[] bytes = new byte[len];
-        if (s != null && !s.isEmpty()) {
-            byte[] src = s.getBytes(StandardCharsets.US_ASCII);
-            System.arraycopy(src, 0, bytes, 0, Math.min(src.length, len));
-        }
-        buf.put(bytes);
-    }
-
-    private static String stripNul(byte[] b) {
-        int end = b.length;
-        while (end > 0 && b[end - 1] == 0) end--;
-        return new String(b, 0, end, StandardCharsets.US_ASCII);
+        byte[] present = bitfields != null ? bitfields : NO_BITFIELDS;
+        byte[] frame = new byte[CancelOrderCodec.encodedLength(present)];
+        CancelOrderCodec codec = new CancelOrderCodec().wrapForEncode(frame, 0, present)
+                .matchingUnit(matchingUnit)
+                .sequenceNumber(sequenceNumber)
+                .origClOrdID(origClOrdID);
+
+        if (codec.hasClearingFirm()) codec.clearingFirm(clearingFirm);
+        if (codec.hasMassCancelLockout()) codec.massCancelLockout(massCancelLockout);
+        if (codec.hasMassCancel()) codec.massCancel(massCancel);
+        if (codec.hasRiskRoot()) codec.riskRoot(riskRoot);
+        if (codec.hasMassCancelId()) codec.massCancelId(massCancelId);
+        if (codec.hasRoutingFirmID()) codec.routingFirmID(routingFirmID);
+        if (codec.hasManualOrderIndicator()) codec.manualOrderIndicator(manualOrderIndicator);
+        if (codec.hasOperatorId()) codec.operatorId(operatorId);
+        if (codec.hasMassCancelInst()) codec.massCancelInst(massCancelInst);
+        if (codec.hasSymbol()) codec.symbol(symbol);
+        if (codec.hasSendTime()) codec.sendTime(sendTime);
+        return frame;
     }
 
     public boolean isMassCancel() {
@@ -1,8 +1,6 @@
 package com.boe.simulator.protocol.message;
 
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
-import java.nio.charset.StandardCharsets;
+import com.boe.simulator.protocol.codec.CancelRejectedCodec;
 
 /**
  * Cancel Rejected — Table 93 (p.138), spec v2.11.90
@@ -25,9 +23,7 @@ import java.nio.charset.StandardCharsets;
  */
 public final class CancelRejectedMessage extends ApplicationMessage {
     private static final byte MESSAGE_TYPE = 0x2B;
-    private static final byte SOM1 = (byte) 0xBA;
-    private static final byte SOM2 = (byte) 0xBA;
-    private static final int FIXED_SIZE = 101;
+    private static final byte[] NO_BITFIELDS = new byte[0];
 
     // CancelRejectReason codes (Order Reason Codes p.213)
     public static final byte REASON_TOO_LATE_TO_CANCEL  = (byte) 'J';
@@ -61,33 +57,15 @@ public final class CancelRejectedMessage extends ApplicationMessage {
 
     @Override
     public byte[] toBytes() {
-        int totalSize = FIXED_SIZE + numberOfBitfields;
-
-        ByteBuffer buf = ByteBuffer.allocate(totalSize).order(ByteOrder.LITTLE_ENDIAN);
-
-        buf.put(SOM1); buf.put(SOM2);
-        buf.putShort((short) (totalSize - 2));
-        buf.put(MESSAGE_TYPE);
-        buf.put((byte) 0);               // MatchingUnit = 0 (unsequenced)
-        buf.putInt(0);                   // SequenceNumber = 0 (unsequenced)
-        buf.putLong(transactTime);
-        putText(buf, clOrdID, 20);
-        buf.put(cancelRejectReason);
-        putText(buf, text, 60);
-        buf.put((byte) 0x00);            // ReservedInternal
-        buf.put((byte) numberOfBitfields);
-        if (numberOfBitfields > 0) buf.put(bitfields, 0, numberOfBitfields);
-
-        return buf.array();
-    }
-
-    private static void putText(ByteBuffer buf, String s, int len) {
-        byte[] bytes = new byte[len];
-        if (s != null && !s.isEmpty()) {
-            byte[] src = s.getBytes(StandardCharsets.US_ASCII);
-            System.arraycopy(src, 0, bytes, 0, Math.min(src.length, len));
-        }
-        buf.put(bytes);
+        byte[] fields = bitfields != null ? bitfields : NO_BITFIELDS;
+        byte[] frame = new byte[CancelRejectedCodec.encodedLength(fields)];
+        // MatchingUnit and SequenceNumber stay 0 (unsequenced)
+        new CancelRejectedCodec().wrapForEncode(frame, 0, fields)
+                .transactTime(transactTime)
+                .clOrdID(clOrdID)
+                .cancelRejectReason(cancelRejectReason)
+                .text(text);
+        return frame;
     }
 
     public String getClOrdID() { return clOrdID; }
@@ -0,0 +1,153 @@
+package com.boe.simulator.protocol.message;
+
+import com.boe.simulator.protocol.codec.CancelOrderCodec;
+import com.boe.simulator.protocol.codec.ModifyOrderCodec;
+import com.boe.simulator.protocol.codec.NewOrderCodec;
+import com.boe.simulator.protocol.codec.Wire;
+
+/**
+ * Fused decode-and-validate for inbound order entry (NewOrder 0x38, CancelOrder 0x39,
+ * ModifyOrder 0x3A).
+ *
+ * Framing, bitfield/length consistency and field rules are checked in the same pass that
+ * decodes the message, and failures are reported as a primitive reject code instead of a
+ * result object or an exception. Codes below {@link #FIRST_FIELD_REJECT} are frame-level:
+ * the bytes cannot be trusted and {@link #message()} is null. Field-level codes leave a
+ * partially decoded message (ClOrdID is always populated) so a reject can be addressed.
+ *
+ * Fields are read through the generated codec flyweights, which this decoder owns and re-wraps
+ * for every frame. {@code MessageValidator} and {@code OrderValidator} remain the reference
+ * implementation; one decoder instance is owned by each connection's reader thread.
+ */
+public final class InboundDecoder {
+
+    public static final byte OK = 0;
+
+    // Frame-level
+    public static final byte FRAME_INVALID        = 1;  // start marker, minimum size or message type
+    public static final byte LENGTH_MISMATCH      = 2;  // MessageLength field disagrees with frame size
+    public static final byte BITFIELD_MISMATCH    = 3;  // bitfields describe a different frame size
+    public static final byte UNSUPPORTED_BITFIELD = 4;  // a bit with no known field is set
+
+    // Field-level
+    public static final byte FIRST_FIELD_REJECT           = 16;
+    public static final byte INVALID_CLORDID              = 16;
+    public static final byte INVALID_SIDE                 = 17;
+    public static final byte INVALID_QUANTITY             = 18;
+    public static final byte MISSING_SYMBOL               = 19;
+    public static final byte INVALID_SYMBOL               = 20;
+    public static final byte INVALID_ORD_TYPE             = 21;
+    public static final byte MISSING_PRICE                = 22;
+    public static final byte INVALID_PRICE                = 23;
+    public static final byte MISSING_CAPACITY             = 24;
+    public static final byte INVALID_CAPACITY             = 25;
+    public static final byte INVALID_OPEN_CLOSE           = 26;
+    public static final byte INCOMPLETE_OPTION_SYMBOLOGY  = 27;
+    public static final byte INVALID_STRIKE_PRICE         = 28;
+    public static final byte INVALID_PUT_OR_CALL          = 29;
+    public static final byte MISSING_ORDER_QTY            = 30;
+
+    static final int MAX_ORDER_QTY = 999_999;
+    static final long MAX_PRICE_RAW = 9_999_999_999L; // 999999.9999 with 4 implied decimals
+
+    private final NewOrderCodec newOrderCodec = new NewOrderCodec();
+    private final CancelOrderCodec cancelOrderCodec = new CancelOrderCodec();
+    private final ModifyOrderCodec modifyOrderCodec = new ModifyOrderCodec();
+
+    private ApplicationMessage message;
+
+    public static boolean handles(byte messageType) {
+        return messageType == NewOrderMessage.MESSAGE_TYPE
+                || messageType == CancelOrderMessage.MESSAGE_TYPE
+                || messageType == ModifyOrderMessage.MESSAGE_TYPE;
+    }
+
+    public static boolean isFrameReject(byte code) {
+        return code != OK && code < FIRST_FIELD_REJECT;
+    }
+
+    public byte decode(BoeMessage frame) {
+        return decode(frame.rawData());
+    }
+
+    public byte decode(byte[] data) {
+        message = null;
+        if (data == null || data.length < 5) return FRAME_INVALID;
+
+        switch (data[4]) {
+            case NewOrderMessage.MESSAGE_TYPE -> {
+                NewOrderMessage newOrder = new NewOrderMessage();
+                byte code = NewOrderMessage.decodeValidated(data, newOrder, newOrderCodec);
+                if (!isFrameReject(code)) message = newOrder;
+                return code;
+            }
+            case CancelOrderMessage.MESSAGE_TYPE -> {
+                CancelOrderMessage cancel = new CancelOrderMessage();
+                byte code = CancelOrderMessage.decodeValidated(data, cancel, cancelOrderCodec);
+                if (code == OK) message = cancel;
+                return code;
+            }
+            case ModifyOrderMessage.MESSAGE_TYPE -> {
+                ModifyOrderMessage modify = new ModifyOrderMessage();
+                byte code = ModifyOrderMessage.decodeValidated(data, modify, modifyOrderCodec);
+                if (!isFrameReject(code)) message = modify;
+                return code;
+            }
+            default -> {
+                return FRAME_INVALID;
+            }
+        }
+    }
+
+    /** The message produced by the last {@link #decode} call, or null after a frame-level reject. */
+    public ApplicationMessage message() {
+        return message;
+    }
+
+    public static String describe(byte code) {
+        return switch (code) {
+            case OK -> "OK";
+            case FRAME_INVALID -> "Invalid frame";
+            case LENGTH_MISMATCH -> "Length field mismatch";
+            case BITFIELD_MISMATCH -> "Bitfields do not match message length";
+            case UNSUPPORTED_BITFIELD -> "Unsupported bitfield bit set";
+            case INVALID_CLORDID -> "ClOrdID is empty or contains invalid characters";
+            case INVALID_SIDE -> "Invalid Side";
+            case INVALID_QUANTITY -> "OrderQty must be between 1 and " + MAX_ORDER_QTY;
+            case MISSING_SYMBOL -> "Symbol is required";
+            case INVALID_SYMBOL -> "Symbol must contain only uppercase letters and numbers";
+            case INVALID_ORD_TYPE -> "Invalid OrdType";
+            case MISSING_PRICE -> "Price is required for limit orders";
+            case INVALID_PRICE -> "Price out of range";
+            case MISSING_CAPACITY -> "Capacity is required";
+            case INVALID_CAPACITY -> "Invalid Capacity";
+            case INVALID_OPEN_CLOSE -> "Invalid OpenClose";
+            case INCOMPLETE_OPTION_SYMBOLOGY -> "MaturityDate, StrikePrice and PutOrCall are required for option orders";
+            case INVALID_STRIKE_PRICE -> "Invalid StrikePrice: out of range";
+            case INVALID_PUT_OR_CALL -> "Invalid PutOrCall";
+            case MISSING_ORDER_QTY -> "OrderQty is required in Modify Order";
+            default -> "Unknown reject code " + code;
+        };
+    }
+
+    /** Maps a field-level reject code onto the OrderRejected reason sent back to the member. */
+    public static byte toOrderRejectReason(byte code) {
+        return switch (code) {
+            case INVALID_QUANTITY, MISSING_ORDER_QTY -> OrderRejectedMessage.REASON_INVALID_QUANTITY;
+            case INVALID_PRICE, INVALID_STRIKE_PRICE -> OrderRejectedMessage.REASON_INVALID_PRICE;
+            case INVALID_CAPACITY -> OrderRejectedMessage.REASON_INVALID_CAPACITY;
+            case INVALID_SYMBOL -> OrderRejectedMessage.REASON_INVALID_SYMBOL;
+            default -> OrderRejectedMessage.REASON_MISSING_REQUIRED_FIELD;
+        };
+    }
+
+    // ---- Shared framing check for the per-message decoders ----
+
+    static byte checkHeader(byte[] data, byte messageType, int fixedSize) {
+        if (data == null || data.length < fixedSize) return FRAME_INVALID;
+        if (data[0] != (byte) 0xBA || data[1] != (byte) 0xBA) return FRAME_INVALID;
+        if (data[4] != messageType) return FRAME_INVALID;
+        if (Wire.getU16(data, 2) != data.length - 2) return LENGTH_MISMATCH;
+        return OK;
+    }
+}
@@ -16,15 +16,21 @@ public final class LoginRequestMessage extends SessionMessage {
     private static final int USERNAME_SIZE = 4;
     private static final int PASSWORD_SIZE = 10;
 
+    // Unit Sequences parameter group: Length(2) + Type(1) + NoUnspecifiedUnitReplay(1) + NumberOfUnits(1) + units
+    private static final byte UNIT_SEQUENCES_GROUP_TYPE = (byte) 0x80;
+    private static final int UNIT_SEQUENCES_HEADER_LEN = 5;
+    private static final int UNIT_ENTRY_LEN = 5; // UnitNumber(1) + UnitSequence(4)
+
+    /** No Unit Sequences group was sent: the client does not request a replay. */
+    public static final int NO_UNIT_SEQUENCE = -1;
+
     private final String sessionSubID;
     private final String username;
     private final String password;
     private final ReturnBitfields returnBitfields;
     private byte matchingUnit;
     private int sequenceNumber;
-
-    // Optional parameter groups
-    private final byte numberOfParamGroups;
+    private int unitSequence = NO_UNIT_SEQUENCE;
 
     public LoginRequestMessage(String username, String password) {
         this(username, password, "", (byte) 0, ReturnBitfields.empty());
@@ -49,7 +55,6 @@ public final class LoginRequestMessage extends SessionMessage {
         this.returnBitfields = returnBitfields != null ? returnBitfields : ReturnBitfields.empty();
         this.matchingUnit = matchingUnit;
         this.sequenceNumber = 0;
-        this.numberOfParamGroups = (byte) this.returnBitfields.entryCount();
     }
 
     @Override
@@ -60,7 +65,9 @@ public final class LoginRequestMessage extends SessionMessage {
         // Calculate message length:
         // Total payload (after the MessageLength field) = 1 + 1 + 4 + 4 + 4 + 10 + 1 = 25 bytes
         // MessageLength = Payload + 2 (for the MessageLength field itself)
+        boolean hasUnitSequence = unitSequence != NO_UNIT_SEQUENCE;
         int payloadLength = 1 + 1 + 4 + SESSION_SUB_ID_SIZE + USERNAME_SIZE + PASSWORD_SIZE + 1
+                + (hasUnitSequence ? UNIT_SEQUENCES_HEADER_LEN + UNIT_ENTRY_LEN : 0)
                 + returnBitfields.serializedSize();
         
         // MessageLength = Payload + 2 (the MessageLength field itself)
@@ -98,7 +105,15 @@ public final class LoginRequestMessage extends SessionMessage {
         buffer.put(toFixedLengthBytes(password, PASSWORD_SIZE));
 
         // Number of Parameter Groups (1 byte)
-        buffer.put(numberOfParamGroups);
+        buffer.put((byte) (returnBitfields.entryCount() + (hasUnitSequence ? 1 : 0)));
+        if (hasUnitSequence) {
+            buffer.putShort((short) (UNIT_SEQUENCES_HEADER_LEN + UNIT_ENTRY_LEN));
+            buffer.put(UNIT_SEQUENCES_GROUP_TYPE);
+            buffer.put((byte) 0); // NoUnspecifiedUnitReplay
+            buffer.put((byte) 1); // NumberOfUnits
+            buffer.put(matchingUnit);
+            buffer.putInt(unitSequence);
+        }
         returnBitfields.writeTo(buffer);
 
         return buffer.array();
@@ -157,16 +172,44 @@ public final class LoginRequestMessage extends SessionMessage {
         // Create a message
         int numberOfParamGroups = 0;
         ReturnBitfields returnBitfields = ReturnBitfields.empty();
+        int unitSequence = NO_UNIT_SEQUENCE;
         if (buffer.remaining() > 0) {
             numberOfParamGroups = buffer.get() & 0xFF;
+            unitSequence = parseUnitSequence(numberOfParamGroups, buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN), matchingUnit);
             returnBitfields = ReturnBitfields.parse(numberOfParamGroups, buffer);
         }
 
         LoginRequestMessage msg = new LoginRequestMessage(username, password, sessionSubID, matchingUnit, returnBitfields);
         msg.setSequenceNumber(sequenceNumber);
+        msg.setUnitSequence(unitSequence);
         return msg;
     }
 
+    // The simulator keeps one outbound stream per session: the entry for the login's matching unit wins, else the first
+    private static int parseUnitSequence(int numberOfGroups, ByteBuffer buffer, byte matchingUnit) {
+        for (int i = 0; i < numberOfGroups && buffer.remaining() >= 3; i++) {
+            int start = buffer.position();
+            int groupLen = buffer.getShort() & 0xFFFF;
+            if (groupLen < 3 || buffer.remaining() < groupLen - 2) break;
+
+            byte groupType = buffer.get();
+            if (groupType == UNIT_SEQUENCES_GROUP_TYPE && groupLen >= UNIT_SEQUENCES_HEADER_LEN) {
+                buffer.get(); // NoUnspecifiedUnitReplay
+                int units = Math.min(buffer.get() & 0xFF, (groupLen - UNIT_SEQUENCES_HEADER_LEN) / UNIT_ENTRY_LEN);
+                int result = NO_UNIT_SEQUENCE;
+                for (int u = 0; u < units; u++) {
+                    byte unit = buffer.get();
+                    int sequence = buffer.getInt();
+                    if (u == 0 || unit == matchingUnit) result = sequence;
+                    if (unit == matchingUnit) break;
+                }
+                return result;
+            }
+            buffer.position(start + groupLen);
+        }
+        return NO_UNIT_SEQUENCE;
+    }
+
     public void setMatchingUnit(byte matchingUnit) {
         this.matchingUnit = matchingUnit;
     }
@@ -175,6 +218,11 @@ public final class LoginRequestMessage extends SessionMessage {
         this.sequenceNumber = sequenceNumber;
     }
 
+    /** Last outbound SequenceNumber the client received; the server replays everything after it. */
+    public void setUnitSequence(int unitSequence) {
+        this.unitSequence = unitSequence;
+    }
+
     public String getUsername() {
         return username;
     }
@@ -195,6 +243,14 @@ public final class LoginRequestMessage extends SessionMessage {
         return sequenceNumber;
     }
 
+    public int getUnitSequence() {
+        return unitSequence;
+    }
+
+    public boolean hasUnitSequence() {
+        return unitSequence != NO_UNIT_SEQUENCE;
+    }
+
     public ReturnBitfields getReturnBitfields() {
         return returnBitfields;
     }
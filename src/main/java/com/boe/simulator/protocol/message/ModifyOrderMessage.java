@@ -1,9 +1,10 @@
 package com.boe.simulator.protocol.message;
 
+import com.boe.simulator.protocol.types.BinaryPrice;
+
 import java.math.BigDecimal;
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
-import java.nio.charset.StandardCharsets;
+
+import com.boe.simulator.protocol.codec.ModifyOrderCodec;
 
 /**
  * Modify Order — Table 39 (p.77), spec v2.11.90
@@ -35,7 +36,6 @@ import java.nio.charset.StandardCharsets;
 public final class ModifyOrderMessage extends ApplicationMessage {
 
     static final byte MESSAGE_TYPE = 0x3A;
-    private static final int FIXED_SIZE = 51;
 
     private byte matchingUnit;
     private int sequenceNumber;
@@ -45,83 +45,73 @@ public final class ModifyOrderMessage extends ApplicationMessage {
     // Optional fields parsed from bitfields
     private String clearingFirm;
     private int orderQty;           // 0 = not present
-    private BigDecimal price;       // null = not present
+    private long price = BinaryPrice.NO_PRICE; // raw Binary Price; NO_PRICE = not present
     private byte ordType;           // 0 = not present
     private byte cancelOrigOnReject;
     private byte side;
 
-    private ModifyOrderMessage() {}
+    ModifyOrderMessage() {}
 
     public static ModifyOrderMessage parse(byte[] data) {
-        if (data == null || data.length < FIXED_SIZE) {
+        if (data == null || data.length < ModifyOrderCodec.BLOCK_LENGTH) {
             throw new IllegalArgumentException(
                     "ModifyOrder message too short: " + (data == null ? 0 : data.length));
         }
 
-        ByteBuffer buf = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
-
-        buf.getShort();  // StartOfMessage
-        buf.getShort();  // MessageLength
-        buf.get();       // MessageType
-
-        ModifyOrderMessage msg = new ModifyOrderMessage();
-        msg.matchingUnit   = buf.get();
-        msg.sequenceNumber = buf.getInt();
-        msg.clOrdID        = getText(buf, 20);
-        msg.origClOrdID    = getText(buf, 20);
-
-        int numBitfields = buf.get() & 0xFF;
-        byte[] bitfields = new byte[numBitfields];
-        for (int i = 0; i < numBitfields && buf.hasRemaining(); i++) {
-            bitfields[i] = buf.get();
+        int count = data[ModifyOrderCodec.BLOCK_LENGTH - 1] & 0xFF;
+        if (data.length < ModifyOrderCodec.BLOCK_LENGTH + count) {
+            throw new IllegalArgumentException("ModifyOrder truncated: " + count + " bitfields declared");
         }
-
-        // Byte 1 optional fields
-        if (numBitfields >= 1) {
-            byte bf1 = bitfields[0];
-            if ((bf1 & 0x01) != 0) msg.clearingFirm      = getAlpha(buf, 4);
-            if ((bf1 & 0x04) != 0) msg.orderQty           = buf.getInt();
-            if ((bf1 & 0x08) != 0) msg.price              = readPrice(buf);
-            if ((bf1 & 0x10) != 0) msg.ordType             = buf.get();
-            if ((bf1 & 0x20) != 0) msg.cancelOrigOnReject  = buf.get();
-            if ((bf1 & 0x40) != 0) buf.get();              // ExecInst — discard
-            if ((bf1 & 0x80) != 0) msg.side                = buf.get();
-        }
-
-        // Byte 2 optional fields — parse sizes only, fields not used by simulator
-        if (numBitfields >= 2) {
-            byte bf2 = bitfields[1];
-            if ((bf2 & 0x01) != 0) buf.getInt();                      // MaxFloor
-            if ((bf2 & 0x02) != 0) buf.getLong();                     // StopPx
-            if ((bf2 & 0x04) != 0) buf.getInt();                      // RoutingFirmID
-            if ((bf2 & 0x08) != 0) buf.get();                         // ManualOrderIndicator
-            if ((bf2 & 0x10) != 0) buf.getInt();                      // OperatorId
-            if ((bf2 & 0x20) != 0) buf.position(buf.position() + 20); // FrequentTraderID
-            if ((bf2 & 0x80) != 0) buf.getLong();                     // LocateBroker
+        ModifyOrderCodec codec = new ModifyOrderCodec().wrap(data, 0);
+        if (data.length < codec.encodedLength()) {
+            throw new IllegalArgumentException("ModifyOrder truncated: bitfields require "
+                    + ModifyOrderCodec.optionalLength(data, ModifyOrderCodec.BLOCK_LENGTH, count) + " optional bytes");
         }
 
+        ModifyOrderMessage msg = new ModifyOrderMessage();
+        msg.read(codec);
         return msg;
     }
 
-    private static BigDecimal readPrice(ByteBuffer buf) {
-        long raw = buf.getLong();
-        return raw != 0 ? BigDecimal.valueOf(raw, 4) : null;
+    static byte decodeValidated(byte[] data, ModifyOrderMessage msg) {
+        return decodeValidated(data, msg, new ModifyOrderCodec());
     }
 
-    private static String getText(ByteBuffer buf, int len) {
-        byte[] bytes = new byte[len];
-        buf.get(bytes);
-        int end = len;
-        while (end > 0 && bytes[end - 1] == 0x00) end--;
-        return new String(bytes, 0, end, StandardCharsets.US_ASCII).trim();
+    /**
+     * Single-pass check and decode: framing and bitfield/length consistency, every field read
+     * through {@code codec}, then the required OrderQty. Fills {@code msg} exactly as
+     * {@link #parse(byte[])} would and returns an {@link InboundDecoder} reject code.
+     */
+    static byte decodeValidated(byte[] data, ModifyOrderMessage msg, ModifyOrderCodec codec) {
+        byte frame = InboundDecoder.checkHeader(data, MESSAGE_TYPE, ModifyOrderCodec.BLOCK_LENGTH);
+        if (frame != InboundDecoder.OK) return frame;
+
+        int count = data[ModifyOrderCodec.BLOCK_LENGTH - 1] & 0xFF;
+        if (data.length < ModifyOrderCodec.BLOCK_LENGTH + count) return InboundDecoder.BITFIELD_MISMATCH;
+        if (ModifyOrderCodec.hasUnsupportedBits(data, ModifyOrderCodec.BLOCK_LENGTH, count)) return InboundDecoder.UNSUPPORTED_BITFIELD;
+        if (codec.wrap(data, 0).encodedLength() != data.length) return InboundDecoder.BITFIELD_MISMATCH;
+
+        msg.read(codec);
+
+        if (!codec.hasOrderQty()) return InboundDecoder.MISSING_ORDER_QTY;
+        if (msg.orderQty <= 0) return InboundDecoder.INVALID_QUANTITY;
+        return InboundDecoder.OK;
     }
 
-    private static String getAlpha(ByteBuffer buf, int len) {
-        byte[] bytes = new byte[len];
-        buf.get(bytes);
-        int end = len;
-        while (end > 0 && (bytes[end - 1] == 0x00 || bytes[end - 1] == 0x20)) end--;
-        return new String(bytes, 0, end, StandardCharsets.US_ASCII).trim();
+    // Only the fields the simulator acts on; the rest of bitfield 2 is skipped
+    private void read(ModifyOrderCodec codec) {
+        matchingUnit = codec.matchingUnit();
+        sequenceNumber = codec.sequenceNumber();
+        clOrdID = codec.clOrdID();
+        origClOrdID = codec.origClOrdID();
+
+        clearingFirm = codec.clearingFirm();
+        orderQty = codec.orderQty();
+        long raw = codec.price();
+        price = raw != 0 ? raw : BinaryPrice.NO_PRICE;
+        ordType = codec.ordType();
+        cancelOrigOnReject = codec.cancelOrigOnReject();
+        side = codec.side();
     }
 
     @Override
@@ -138,16 +128,17 @@ public final class ModifyOrderMessage extends ApplicationMessage {
     public String getOrigClOrdID()        { return origClOrdID; }
     public String getClearingFirm()       { return clearingFirm; }
     public int   getOrderQty()            { return orderQty; }
-    public BigDecimal getPrice()          { return price; }
+    public long getPriceRaw()             { return price; }
+    public BigDecimal getPrice()          { return BinaryPrice.toDecimal(price); }
     public byte  getOrdType()             { return ordType; }
     public byte  getCancelOrigOnReject()  { return cancelOrigOnReject; }
     public byte  getSide()                { return side; }
     public boolean hasOrderQty()          { return orderQty > 0; }
-    public boolean hasPrice()             { return price != null; }
+    public boolean hasPrice()             { return price != BinaryPrice.NO_PRICE; }
 
     @Override
     public String toString() {
         return "ModifyOrder{clOrdID='" + clOrdID + "', origClOrdID='" + origClOrdID
-                + "', qty=" + orderQty + ", price=" + price + '}';
+                + "', qty=" + orderQty + ", price=" + getPrice() + '}';
     }
 }
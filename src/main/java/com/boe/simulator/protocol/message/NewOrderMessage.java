@@ -1,14 +1,18 @@
 package com.boe.simulator.protocol.message;
 
 import java.math.BigDecimal;
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
-import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
 
+import com.boe.simulator.protocol.codec.NewOrderCodec;
 import com.boe.simulator.protocol.types.BinaryPrice;
+import com.boe.simulator.protocol.types.Capacity;
+import com.boe.simulator.protocol.types.OpenClose;
+import com.boe.simulator.protocol.types.OrdType;
+import com.boe.simulator.protocol.types.PutOrCall;
+import com.boe.simulator.protocol.types.Side;
 
 /**
  * New Order (0x38) — Member to Cboe.
@@ -38,9 +42,8 @@ import com.boe.simulator.protocol.types.BinaryPrice;
  *   Symbol, Price (for limit orders), Capacity.
  */
 public final class NewOrderMessage extends ApplicationMessage {
-    private static final byte MESSAGE_TYPE = 0x38;
-    private static final byte START_OF_MESSAGE_1 = (byte) 0xBA;
-    private static final byte START_OF_MESSAGE_2 = (byte) 0xBA;
+    static final byte MESSAGE_TYPE = 0x38;
+    private static final byte[] NO_BITFIELDS = new byte[0];
 
     // Header / fixed fields
     private byte matchingUnit;
@@ -56,7 +59,7 @@ public final class NewOrderMessage extends ApplicationMessage {
     // Optional fields
     private String clearingFirm;    // 4 bytes
     private String clearingAccount; // 4 bytes
-    private BigDecimal price;       // 8 bytes Binary Price
+    private long price = BinaryPrice.NO_PRICE;       // 8 bytes Binary Price, raw
     private byte ordType;           // '1'=Market, '2'=Limit
     private byte timeInForce;       // '0'=Day, '3'=IOC, etc.
     private String symbol;          // 8 bytes Alphanumeric
@@ -64,7 +67,7 @@ public final class NewOrderMessage extends ApplicationMessage {
     private byte routingInst;       // 'R', 'P', 'B', etc. (4-byte field, first byte)
     private String account;         // 16 bytes
     private Instant maturityDate;
-    private BigDecimal strikePrice; // 8 bytes Binary Price
+    private long strikePrice = BinaryPrice.NO_PRICE; // 8 bytes Binary Price, raw
     private byte putOrCall;         // '0'=Put, '1'=Call
     private byte openClose;         // 'O', 'C', 'N'
 
@@ -72,88 +75,136 @@ public final class NewOrderMessage extends ApplicationMessage {
     }
 
     public static NewOrderMessage parse(byte[] data) {
-        if (data == null || data.length < 36) throw new IllegalArgumentException("Invalid NewOrder message data");
+        if (data == null || data.length < NewOrderCodec.BLOCK_LENGTH) throw new IllegalArgumentException("Invalid NewOrder message data");
+        if (data[4] != MESSAGE_TYPE) throw new IllegalArgumentException("Invalid message type: expected 0x38, got 0x" + String.format("%02X", data[4]));
+
+        int count = data[NewOrderCodec.BLOCK_LENGTH - 1] & 0xFF;
+        if (data.length < NewOrderCodec.BLOCK_LENGTH + count) throw new IllegalArgumentException("NewOrder truncated: " + count + " bitfields declared");
+        NewOrderCodec codec = new NewOrderCodec().wrap(data, 0);
+        if (data.length < codec.encodedLength()) {
+            throw new IllegalArgumentException("NewOrder truncated: bitfields require "
+                    + NewOrderCodec.optionalLength(data, NewOrderCodec.BLOCK_LENGTH, count) + " optional bytes");
+        }
 
         NewOrderMessage msg = new NewOrderMessage();
-        ByteBuffer buffer = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
-
-        buffer.position(2); // skip StartOfMessage
-        @SuppressWarnings("unused")
-        int messageLength = buffer.getShort() & 0xFFFF;
-
-        byte messageType = buffer.get();
-        if (messageType != MESSAGE_TYPE) throw new IllegalArgumentException("Invalid message type: expected 0x38, got 0x" + String.format("%02X", messageType));
+        msg.matchingUnit = codec.matchingUnit();
+        msg.sequenceNumber = codec.sequenceNumber();
+        msg.clOrdID = codec.clOrdID();
+        msg.side = codec.side();
+        msg.orderQty = codec.orderQty();
+        msg.numberOfBitfields = count;
+        msg.bitfields = codec.bitfields();
+
+        msg.clearingFirm = codec.clearingFirm();
+        msg.clearingAccount = codec.clearingAccount();
+        if (codec.hasPrice()) msg.price = codec.price();
+        msg.ordType = codec.ordType();
+        msg.timeInForce = codec.timeInForce();
+        msg.symbol = codec.symbol();
+        msg.capacity = codec.capacity();
+        msg.routingInst = codec.routingInst();
+        msg.account = codec.account();
+        if (codec.hasMaturityDate()) msg.maturityDate = maturityFromDays(codec.maturityDate());
+        if (codec.hasStrikePrice()) msg.strikePrice = codec.strikePrice();
+        msg.putOrCall = codec.putOrCall();
+        msg.openClose = codec.openClose();
+        return msg;
+    }
 
-        msg.matchingUnit = buffer.get();
-        msg.sequenceNumber = buffer.getInt();
+    static byte decodeValidated(byte[] data, NewOrderMessage msg) {
+        return decodeValidated(data, msg, new NewOrderCodec());
+    }
 
-        // ClOrdID (20 bytes, Text — NUL-padded)
-        byte[] clOrdIDBytes = new byte[20];
-        buffer.get(clOrdIDBytes);
-        msg.clOrdID = new String(clOrdIDBytes, StandardCharsets.US_ASCII).trim();
+    /**
+     * Single-pass decode with the {@code OrderValidator.validateNewOrder} rules applied as
+     * each field is read through {@code codec}. Fills {@code msg} exactly as
+     * {@link #parse(byte[])} would and returns an {@link InboundDecoder} reject code; on a
+     * field-level reject the fields after the failing one are left unset.
+     */
+    static byte decodeValidated(byte[] data, NewOrderMessage msg, NewOrderCodec codec) {
+        byte frame = InboundDecoder.checkHeader(data, MESSAGE_TYPE, NewOrderCodec.BLOCK_LENGTH);
+        if (frame != InboundDecoder.OK) return frame;
+
+        // Bitfields and frame size must agree before any field is trusted
+        int count = data[NewOrderCodec.BLOCK_LENGTH - 1] & 0xFF;
+        if (data.length < NewOrderCodec.BLOCK_LENGTH + count) return InboundDecoder.BITFIELD_MISMATCH;
+        if (NewOrderCodec.hasUnsupportedBits(data, NewOrderCodec.BLOCK_LENGTH, count)) return InboundDecoder.UNSUPPORTED_BITFIELD;
+        if (codec.wrap(data, 0).encodedLength() != data.length) return InboundDecoder.BITFIELD_MISMATCH;
+
+        msg.numberOfBitfields = count;
+        msg.bitfields = codec.bitfields();
+        msg.matchingUnit = codec.matchingUnit();
+        msg.sequenceNumber = codec.sequenceNumber();
+
+        // ClOrdID: printable ASCII except , ; | @ "
+        msg.clOrdID = codec.clOrdID();
+        if (msg.clOrdID.isEmpty()) return InboundDecoder.INVALID_CLORDID;
+        for (int i = 0; i < msg.clOrdID.length(); i++) {
+            char c = msg.clOrdID.charAt(i);
+            if (c < 0x21 || c > 0x7E || c == ',' || c == ';' || c == '|' || c == '@' || c == '"') {
+                return InboundDecoder.INVALID_CLORDID;
+            }
+        }
 
-        msg.side = buffer.get();
-        msg.orderQty = buffer.getInt();
+        msg.side = codec.side();
+        if (!Side.isValid(msg.side)) return InboundDecoder.INVALID_SIDE;
 
-        msg.numberOfBitfields = buffer.get() & 0xFF;
-        msg.bitfields = new byte[msg.numberOfBitfields];
-        buffer.get(msg.bitfields);
+        msg.orderQty = codec.orderQty();
+        if (msg.orderQty < 1 || msg.orderQty > InboundDecoder.MAX_ORDER_QTY) return InboundDecoder.INVALID_QUANTITY;
 
-        msg.parseOptionalFields(buffer);
-        return msg;
-    }
+        msg.clearingFirm = codec.clearingFirm();
+        msg.clearingAccount = codec.clearingAccount();
+        if (codec.hasPrice()) msg.price = codec.price();
+        msg.ordType = codec.ordType();
+        msg.timeInForce = codec.timeInForce();
 
-    private void parseOptionalFields(ByteBuffer buffer) {
-        if (numberOfBitfields == 0) return;
-
-        // --- Bitfield 1 (index 0) ---
-        if (bitfields.length >= 1) {
-            byte bf1 = bitfields[0];
-            if ((bf1 & 0x01) != 0) clearingFirm = readFixedString(buffer, 4);
-            if ((bf1 & 0x02) != 0) clearingAccount = readFixedString(buffer, 4);
-            if ((bf1 & 0x04) != 0) price = BinaryPrice.fromBytes(buffer.array(), buffer.position()).toPrice();
-            if ((bf1 & 0x04) != 0) buffer.position(buffer.position() + 8);
-            if ((bf1 & 0x08) != 0) ordType = buffer.get();
-            if ((bf1 & 0x10) != 0) timeInForce = buffer.get();
+        msg.symbol = codec.symbol();
+        if (msg.symbol == null || msg.symbol.isEmpty()) return InboundDecoder.MISSING_SYMBOL;
+        for (int i = 0; i < msg.symbol.length(); i++) {
+            char c = msg.symbol.charAt(i);
+            if ((c < 'A' || c > 'Z') && (c < '0' || c > '9')) return InboundDecoder.INVALID_SYMBOL;
         }
 
-        // --- Bitfield 2 (index 1) ---
-        if (bitfields.length >= 2) {
-            byte bf2 = bitfields[1];
-            if ((bf2 & 0x01) != 0) symbol = readFixedString(buffer, 8);
-            if ((bf2 & 0x40) != 0) capacity = buffer.get();
-            if ((bf2 & 0x80) != 0) {
-                byte[] riBytes = new byte[4];
-                buffer.get(riBytes);
-                routingInst = riBytes[0];
-            }
+        if (msg.ordType != 0 && !OrdType.isValid(msg.ordType)) return InboundDecoder.INVALID_ORD_TYPE;
+        if (msg.ordType == 0 || OrdType.fromByte(msg.ordType) == OrdType.LIMIT) {
+            if (msg.price == BinaryPrice.NO_PRICE) return InboundDecoder.MISSING_PRICE;
+            if (msg.price < 0 || msg.price > InboundDecoder.MAX_PRICE_RAW) return InboundDecoder.INVALID_PRICE;
         }
 
-        // --- Bitfield 3 (index 2) ---
-        if (bitfields.length >= 3) {
-            byte bf3 = bitfields[2];
-            if ((bf3 & 0x01) != 0) account = readFixedString(buffer, 16);
-        }
+        msg.capacity = codec.capacity();
+        if (msg.capacity == 0 || msg.capacity == ' ') return InboundDecoder.MISSING_CAPACITY;
+        if (!Capacity.isValid(msg.capacity)) return InboundDecoder.INVALID_CAPACITY;
+        msg.routingInst = codec.routingInst();
 
-        // --- Bitfield 4 (index 3) ---
-        if (bitfields.length >= 4) {
-            byte bf4 = bitfields[3];
-            if ((bf4 & 0x01) != 0) {
-                maturityDate = Instant.ofEpochMilli((buffer.getInt() & 0xFFFFFFFFL) * 86400_000L);
-            }
-            if ((bf4 & 0x02) != 0) {
-                strikePrice = BinaryPrice.fromBytes(buffer.array(), buffer.position()).toPrice();
-                buffer.position(buffer.position() + 8);
-            }
-            if ((bf4 & 0x04) != 0) putOrCall = buffer.get();
-            if ((bf4 & 0x10) != 0) openClose = buffer.get();
+        msg.account = codec.account();
+
+        if (codec.hasMaturityDate()) msg.maturityDate = maturityFromDays(codec.maturityDate());
+        if (codec.hasStrikePrice()) msg.strikePrice = codec.strikePrice();
+        msg.putOrCall = codec.putOrCall();
+        msg.openClose = codec.openClose();
+
+        if (msg.openClose != 0 && !OpenClose.isValid(msg.openClose)) return InboundDecoder.INVALID_OPEN_CLOSE;
+        boolean hasStrike = msg.strikePrice != BinaryPrice.NO_PRICE;
+        if ((msg.maturityDate != null || hasStrike)
+                && (msg.maturityDate == null || !hasStrike || msg.putOrCall == 0)) {
+            return InboundDecoder.INCOMPLETE_OPTION_SYMBOLOGY;
+        }
+        if (hasStrike && (msg.strikePrice < 0 || msg.strikePrice > InboundDecoder.MAX_PRICE_RAW)) {
+            return InboundDecoder.INVALID_STRIKE_PRICE;
         }
+        if (msg.putOrCall != 0 && !PutOrCall.isValid(msg.putOrCall)) return InboundDecoder.INVALID_PUT_OR_CALL;
+
+        return InboundDecoder.OK;
     }
 
-    private static String readFixedString(ByteBuffer buffer, int length) {
-        byte[] bytes = new byte[length];
-        buffer.get(bytes);
-        return new String(bytes, StandardCharsets.US_ASCII).trim();
+    // MaturityDate travels as days since the epoch
+    private static Instant maturityFromDays(int days) {
+        return Instant.ofEpochMilli((days & 0xFFFFFFFFL) * 86400_000L);
+    }
+
+    private static int maturityToDays(Instant maturityDate) {
+        LocalDate date = maturityDate.atZone(ZoneId.of("America/New_York")).toLocalDate();
+        return (int) ChronoUnit.DAYS.between(LocalDate.EPOCH, date);
     }
 
     @Override
@@ -161,108 +212,38 @@ public final class NewOrderMessage extends ApplicationMessage {
 
     @Override
     public byte[] toBytes() {
-        int optionalSize = calculateOptionalFieldsSize();
-        int baseSize = 2 + 2 + 1 + 1 + 4 + 20 + 1 + 4 + 1;
-        int totalSize = baseSize + numberOfBitfields + optionalSize;
-
-        ByteBuffer buffer = ByteBuffer.allocate(totalSize);
-        buffer.order(ByteOrder.LITTLE_ENDIAN);
-
-        buffer.put(START_OF_MESSAGE_1);
-        buffer.put(START_OF_MESSAGE_2);
-        buffer.putShort((short)(totalSize - 2));
-        buffer.put(MESSAGE_TYPE);
-        buffer.put(matchingUnit);
-        buffer.putInt(sequenceNumber);
-        buffer.put(toNulPaddedBytes(clOrdID, 20)); // ClOrdID is Text (NUL-padded)
-        buffer.put(side);
-        buffer.putInt(orderQty);
-        buffer.put((byte) numberOfBitfields);
-        if (bitfields != null) buffer.put(bitfields);
-
-        writeOptionalFields(buffer);
-        return buffer.array();
-    }
-
-    private void writeOptionalFields(ByteBuffer buffer) {
-        if (bitfields == null || numberOfBitfields == 0) return;
-
-        // Bitfield 1
-        if (bitfields.length >= 1) {
-            byte bf1 = bitfields[0];
-            if ((bf1 & 0x01) != 0) buffer.put(toAlphaPaddedBytes(clearingFirm, 4));
-            if ((bf1 & 0x02) != 0) buffer.put(toAlphaPaddedBytes(clearingAccount, 4));
-            if ((bf1 & 0x04) != 0) BinaryPrice.fromPrice(price).putInto(buffer);
-            if ((bf1 & 0x08) != 0) buffer.put(ordType);
-            if ((bf1 & 0x10) != 0) buffer.put(timeInForce);
-        }
-
-        // Bitfield 2
-        if (bitfields.length >= 2) {
-            byte bf2 = bitfields[1];
-            if ((bf2 & 0x01) != 0) buffer.put(toAlphaPaddedBytes(symbol, 8));
-            if ((bf2 & 0x40) != 0) buffer.put(capacity);
-            if ((bf2 & 0x80) != 0) {
-                byte[] ri = new byte[4];
-                ri[0] = routingInst;
-                buffer.put(ri);
-            }
-        }
-
-        // Bitfield 3
-        if (bitfields.length >= 3) {
-            byte bf3 = bitfields[2];
-            if ((bf3 & 0x01) != 0) buffer.put(toAlphaPaddedBytes(account, 16));
-        }
-
-        // Bitfield 4
-        if (bitfields.length >= 4) {
-            byte bf4 = bitfields[3];
-            if ((bf4 & 0x01) != 0) {
-                LocalDate epoch = LocalDate.of(1970, 1, 1);
-                LocalDate date = maturityDate.atZone(ZoneId.of("America/New_York")).toLocalDate();
-                buffer.putInt((int) java.time.temporal.ChronoUnit.DAYS.between(epoch, date));
-            }
-            if ((bf4 & 0x02) != 0) BinaryPrice.fromPrice(strikePrice).putInto(buffer);
-            if ((bf4 & 0x04) != 0) buffer.put(putOrCall);
-            if ((bf4 & 0x10) != 0) buffer.put(openClose);
-        }
-    }
-
-    private int calculateOptionalFieldsSize() {
-        if (bitfields == null || numberOfBitfields == 0) return 0;
-        int size = 0;
-        if (bitfields.length >= 1) {
-            byte bf1 = bitfields[0];
-            if ((bf1 & 0x01) != 0) size += 4;
-            if ((bf1 & 0x02) != 0) size += 4;
-            if ((bf1 & 0x04) != 0) size += 8;
-            if ((bf1 & 0x08) != 0) size += 1;
-            if ((bf1 & 0x10) != 0) size += 1;
-        }
-        if (bitfields.length >= 2) {
-            byte bf2 = bitfields[1];
-            if ((bf2 & 0x01) != 0) size += 8;
-            if ((bf2 & 0x40) != 0) size += 1;
-            if ((bf2 & 0x80) != 0) size += 4;
-        }
-        if (bitfields.length >= 3) {
-            byte bf3 = bitfields[2];
-            if ((bf3 & 0x01) != 0) size += 16;
-        }
-        if (bitfields.length >= 4) {
-            byte bf4 = bitfields[3];
-            if ((bf4 & 0x01) != 0) size += 4;
-            if ((bf4 & 0x02) != 0) size += 8;
-            if ((bf4 & 0x04) != 0) size += 1;
-            if ((bf4 & 0x10) != 0) size += 1;
-        }
-        return size;
+        byte[] present = bitfields != null ? bitfields : NO_BITFIELDS;
+        byte[] frame = new byte[NewOrderCodec.encodedLength(present)];
+        NewOrderCodec codec = new NewOrderCodec().wrapForEncode(frame, 0, present)
+                .matchingUnit(matchingUnit)
+                .sequenceNumber(sequenceNumber)
+                .clOrdID(clOrdID)
+                .side(side)
+                .orderQty(orderQty);
+
+        if (codec.hasClearingFirm()) codec.clearingFirm(clearingFirm);
+        if (codec.hasClearingAccount()) codec.clearingAccount(clearingAccount);
+        if (codec.hasPrice()) codec.price(price);
+        if (codec.hasOrdType()) codec.ordType(ordType);
+        if (codec.hasTimeInForce()) codec.timeInForce(timeInForce);
+        if (codec.hasSymbol()) codec.symbol(symbol);
+        if (codec.hasCapacity()) codec.capacity(capacity);
+        if (codec.hasRoutingInst()) codec.routingInst(routingInst);
+        if (codec.hasAccount()) codec.account(account);
+        if (codec.hasMaturityDate()) codec.maturityDate(maturityToDays(maturityDate));
+        if (codec.hasStrikePrice()) codec.strikePrice(strikePrice);
+        if (codec.hasPutOrCall()) codec.putOrCall(putOrCall);
+        if (codec.hasOpenClose()) codec.openClose(openClose);
+        return frame;
     }
 
     // Setters update bitfields at the correct spec positions
 
     public void setPrice(BigDecimal price) {
+        setPriceRaw(BinaryPrice.toRaw(price));
+    }
+
+    public void setPriceRaw(long price) {
         this.price = price;
         ensureBitfield(0);
         bitfields[0] |= 0x04;
@@ -323,6 +304,10 @@ public final class NewOrderMessage extends ApplicationMessage {
     }
 
     public void setStrikePrice(BigDecimal strikePrice) {
+        setStrikePriceRaw(BinaryPrice.toRaw(strikePrice));
+    }
+
+    public void setStrikePriceRaw(long strikePrice) {
         this.strikePrice = strikePrice;
         ensureBitfield(3);
         bitfields[3] |= 0x02;
@@ -353,27 +338,6 @@ public final class NewOrderMessage extends ApplicationMessage {
         }
     }
 
-    // NUL-padded for Text fields (ClOrdID)
-    private static byte[] toNulPaddedBytes(String str, int length) {
-        byte[] result = new byte[length];
-        if (str != null && !str.isEmpty()) {
-            byte[] src = str.getBytes(StandardCharsets.US_ASCII);
-            System.arraycopy(src, 0, result, 0, Math.min(src.length, length));
-        }
-        return result;
-    }
-
-    // Space-padded for Alphanumeric fields (Symbol, Account, etc.)
-    private static byte[] toAlphaPaddedBytes(String str, int length) {
-        byte[] result = new byte[length];
-        java.util.Arrays.fill(result, (byte) 0x20);
-        if (str != null && !str.isEmpty()) {
-            byte[] src = str.getBytes(StandardCharsets.US_ASCII);
-            System.arraycopy(src, 0, result, 0, Math.min(src.length, length));
-        }
-        return result;
-    }
-
     // Basic setters
     public void setClOrdID(String clOrdID) { this.clOrdID = clOrdID; }
     public void setSide(byte side) { this.side = side; }
@@ -387,13 +351,15 @@ public final class NewOrderMessage extends ApplicationMessage {
     public String getClOrdID() { return clOrdID; }
     public byte getSide() { return side; }
     public int getOrderQty() { return orderQty; }
-    public BigDecimal getPrice() { return price; }
+    public long getPriceRaw() { return price; }
+    public BigDecimal getPrice() { return BinaryPrice.toDecimal(price); }
     public String getSymbol() { return symbol; }
     public byte getCapacity() { return capacity; }
     public byte getRoutingInst() { return routingInst; }
     public String getAccount() { return account; }
     public Instant getMaturityDate() { return maturityDate; }
-    public BigDecimal getStrikePrice() { return strikePrice; }
+    public long getStrikePriceRaw() { return strikePrice; }
+    public BigDecimal getStrikePrice() { return BinaryPrice.toDecimal(strikePrice); }
     public byte getPutOrCall() { return putOrCall; }
     public byte getOpenClose() { return openClose; }
     public String getClearingFirm() { return clearingFirm; }
@@ -408,7 +374,7 @@ public final class NewOrderMessage extends ApplicationMessage {
                 ", side=" + (side == (byte) '1' ? "Buy" : "Sell") +
                 ", orderQty=" + orderQty +
                 ", symbol='" + symbol + '\'' +
-                ", price=" + price +
+                ", price=" + BinaryPrice.toDecimal(price) +
                 ", capacity=" + (char) capacity +
                 ", seq=" + sequenceNumber +
                 '}';
@@ -1,11 +1,8 @@
 package com.boe.simulator.protocol.message;
 
+import com.boe.simulator.protocol.codec.OrderCancelledCodec;
 import com.boe.simulator.server.order.Order;
 
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
-import java.nio.charset.StandardCharsets;
-
 /**
  * Order Cancelled — Table 87 (p.132), spec v2.11.90
  *
@@ -29,9 +26,7 @@ import java.nio.charset.StandardCharsets;
  */
 public final class OrderCancelledMessage extends ApplicationMessage {
     private static final byte MESSAGE_TYPE = 0x2A;
-    private static final byte SOM1 = (byte) 0xBA;
-    private static final byte SOM2 = (byte) 0xBA;
-    private static final int FIXED_SIZE = 41;
+    private static final byte[] NO_BITFIELDS = new byte[0];
 
     // Cancel reason codes
     public static final byte REASON_USER_REQUESTED = (byte) 'U';
@@ -67,65 +62,33 @@ public final class OrderCancelledMessage extends ApplicationMessage {
 
     @Override
     public byte[] toBytes() {
-        int totalSize = FIXED_SIZE + numberOfBitfields;
-
-        ByteBuffer buf = ByteBuffer.allocate(totalSize).order(ByteOrder.LITTLE_ENDIAN);
-
-        buf.put(SOM1);
-        buf.put(SOM2);
-        buf.putShort((short) (totalSize - 2));
-        buf.put(MESSAGE_TYPE);
-        buf.put(matchingUnit);
-        buf.putInt(sequenceNumber);
-        buf.putLong(transactTime);
-        putText(buf, clOrdID, 20);
-        buf.put(cancelReason);
-        buf.put((byte) 0x00);              // ReservedInternal
-        buf.put((byte) numberOfBitfields);
-        if (numberOfBitfields > 0) buf.put(bitfields, 0, numberOfBitfields);
-
-        return buf.array();
+        byte[] fields = bitfields != null ? bitfields : NO_BITFIELDS;
+        byte[] frame = new byte[OrderCancelledCodec.encodedLength(fields)];
+        new OrderCancelledCodec().wrapForEncode(frame, 0, fields)
+                .matchingUnit(matchingUnit)
+                .sequenceNumber(sequenceNumber)
+                .transactTime(transactTime)
+                .clOrdID(clOrdID)
+                .cancelReason(cancelReason);
+        return frame;
     }
 
     public static OrderCancelledMessage fromBytes(byte[] data) {
-        if (data == null || data.length < FIXED_SIZE)
+        if (data == null || data.length < OrderCancelledCodec.BLOCK_LENGTH)
             throw new IllegalArgumentException("Invalid OrderCancelled data");
 
-        ByteBuffer buf = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+        OrderCancelledCodec codec = new OrderCancelledCodec().wrap(data, 0);
         OrderCancelledMessage msg = new OrderCancelledMessage();
-
-        buf.position(10);
-        msg.transactTime = buf.getLong();
-
-        byte[] clOrdIDBytes = new byte[20];
-        buf.get(clOrdIDBytes);
-        msg.clOrdID = stripNul(clOrdIDBytes);
-
-        msg.cancelReason = buf.get();
-        buf.get(); // ReservedInternal
-
-        msg.numberOfBitfields = buf.get() & 0xFF;
-        msg.bitfields = new byte[msg.numberOfBitfields];
-        if (msg.numberOfBitfields > 0) buf.get(msg.bitfields);
-
+        msg.matchingUnit = codec.matchingUnit();
+        msg.sequenceNumber = codec.sequenceNumber();
+        msg.transactTime = codec.transactTime();
+        msg.clOrdID = codec.clOrdID();
+        msg.cancelReason = codec.cancelReason();
+        msg.numberOfBitfields = codec.numberOfBitfields();
+        msg.bitfields = codec.bitfields();
         return msg;
     }
 
-    private static void putText(ByteBuffer buf, String s, int len) {
-        byte[] bytes = new byte[len];
-        if (s != null && !s.isEmpty()) {
-            byte[] src = s.getBytes(StandardCharsets.US_ASCII);
-            System.arraycopy(src, 0, bytes, 0, Math.min(src.length, len));
-        }
-        buf.put(bytes);
-    }
-
-    private static String stripNul(byte[] b) {
-        int end = b.length;
-        while (end > 0 && b[end - 1] == 0) end--;
-        return new String(b, 0, end, StandardCharsets.US_ASCII);
-    }
-
     public void setMatchingUnit(byte matchingUnit) { this.matchingUnit = matchingUnit; }
     public void setSequenceNumber(int sequenceNumber) { this.sequenceNumber = sequenceNumber; }
 
@@ -1,13 +1,11 @@
 package com.boe.simulator.protocol.message;
 
+import com.boe.simulator.protocol.codec.OrderExecutedCodec;
 import com.boe.simulator.protocol.types.BinaryPrice;
 import com.boe.simulator.server.matching.Trade;
 import com.boe.simulator.server.order.Order;
 
 import java.math.BigDecimal;
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
-import java.nio.charset.StandardCharsets;
 
 /**
  * Order Execution — Table 95 (p.140), spec v2.11.90
@@ -37,11 +35,7 @@ import java.nio.charset.StandardCharsets;
  */
 public final class OrderExecutedMessage extends ApplicationMessage {
     private static final byte MESSAGE_TYPE = 0x2C;
-    private static final byte SOM1 = (byte) 0xBA;
-    private static final byte SOM2 = (byte) 0xBA;
-    private static final int FIXED_SIZE = 70;
     private static final byte[] DEFAULT_BITFIELDS = new byte[]{0x00, 0x41, 0x00};
-    private static final byte[] SUPPORTED_BITFIELD_MASKS = new byte[]{0x00, 0x41, 0x46};
 
     // BaseLiquidityIndicator values
     public static final byte LIQUIDITY_ADDED   = (byte) 'A';
@@ -56,7 +50,7 @@ public final class OrderExecutedMessage extends ApplicationMessage {
     private String clOrdID;
     private long execID;
     private int lastShares;
-    private BigDecimal lastPx;
+    private long lastPx;            // raw Binary Price
     private int leavesQty;
     private byte baseLiquidityIndicator;
     private byte subLiquidityIndicator;
@@ -85,7 +79,7 @@ public final class OrderExecutedMessage extends ApplicationMessage {
         msg.clOrdID = order.getClOrdID();
         msg.execID = trade.getTradeId();
         msg.lastShares = trade.getQuantity();
-        msg.lastPx = trade.getPrice();
+        msg.lastPx = trade.getPriceRaw();
         msg.leavesQty = order.getLeavesQty();
         msg.baseLiquidityIndicator = isAggressive ? LIQUIDITY_REMOVED : LIQUIDITY_ADDED;
         msg.subLiquidityIndicator = 0x00;
@@ -106,8 +100,7 @@ public final class OrderExecutedMessage extends ApplicationMessage {
         numberOfBitfields = selected.length;
         bitfields = new byte[numberOfBitfields];
         for (int i = 0; i < selected.length; i++) {
-            byte supported = i < SUPPORTED_BITFIELD_MASKS.length ? SUPPORTED_BITFIELD_MASKS[i] : 0x00;
-            bitfields[i] = (byte) (selected[i] & supported);
+            bitfields[i] = (byte) (selected[i] & OrderExecutedCodec.supportedBits(i));
         }
     }
 
@@ -116,147 +109,62 @@ public final class OrderExecutedMessage extends ApplicationMessage {
 
     @Override
     public byte[] toBytes() {
-        int optSize = optionalSize();
-        int totalSize = FIXED_SIZE + numberOfBitfields + optSize;
-
-        ByteBuffer buf = ByteBuffer.allocate(totalSize).order(ByteOrder.LITTLE_ENDIAN);
-
-        buf.put(SOM1);
-        buf.put(SOM2);
-        buf.putShort((short) (totalSize - 2));
-        buf.put(MESSAGE_TYPE);
-        buf.put(matchingUnit);
-        buf.putInt(sequenceNumber);
-        buf.putLong(transactTime);
-        putText(buf, clOrdID, 20);
-        buf.putLong(execID);
-        buf.putInt(lastShares);
-        BinaryPrice.fromPrice(lastPx).putInto(buf);
-        buf.putInt(leavesQty);
-        buf.put(baseLiquidityIndicator);
-        buf.put(subLiquidityIndicator);
-        putAlpha(buf, contraBroker, 4);
-        buf.put((byte) 0x00);              // ReservedInternal
-        buf.put((byte) numberOfBitfields);
-        if (numberOfBitfields > 0) buf.put(bitfields, 0, numberOfBitfields);
-
-        writeOptional(buf);
-        return buf.array();
-    }
-
-    private void writeOptional(ByteBuffer buf) {
-        if (numberOfBitfields < 2) return;
-
-        if ((bitfields[1] & 0x01) != 0) putAlpha(buf, symbol, 8);
-        if ((bitfields[1] & 0x40) != 0) buf.put(capacity);
-
-        if (numberOfBitfields < 3) return;
-
-        if ((bitfields[2] & 0x02) != 0) putAlpha(buf, clearingFirm, 4);
-        if ((bitfields[2] & 0x04) != 0) putText(buf, clearingAccount, 4);
-        if ((bitfields[2] & 0x40) != 0) buf.putInt(orderQty);
-    }
-
-    private int optionalSize() {
-        int size = 0;
-        if (numberOfBitfields >= 2) {
-            if ((bitfields[1] & 0x01) != 0) size += 8;
-            if ((bitfields[1] & 0x40) != 0) size += 1;
-        }
-        if (numberOfBitfields >= 3) {
-            if ((bitfields[2] & 0x02) != 0) size += 4;
-            if ((bitfields[2] & 0x04) != 0) size += 4;
-            if ((bitfields[2] & 0x40) != 0) size += 4;
-        }
-        return size;
+        byte[] frame = new byte[OrderExecutedCodec.encodedLength(bitfields)];
+        OrderExecutedCodec codec = new OrderExecutedCodec().wrapForEncode(frame, 0, bitfields)
+                .matchingUnit(matchingUnit)
+                .sequenceNumber(sequenceNumber)
+                .transactTime(transactTime)
+                .clOrdID(clOrdID)
+                .execID(execID)
+                .lastShares(lastShares)
+                .lastPx(lastPx)
+                .leavesQty(leavesQty)
+                .baseLiquidityIndicator(baseLiquidityIndicator)
+                .subLiquidityIndicator(subLiquidityIndicator)
+                .contraBroker(contraBroker);
+
+        if (codec.hasSymbol()) codec.symbol(symbol);
+        if (codec.hasCapacity()) codec.capacity(capacity);
+        if (codec.hasClearingFirm()) codec.clearingFirm(clearingFirm);
+        if (codec.hasClearingAccount()) codec.clearingAccount(clearingAccount);
+        if (codec.hasOrderQty()) codec.orderQty(orderQty);
+        return frame;
     }
 
     public static OrderExecutedMessage fromBytes(byte[] data) {
-        ByteBuffer buf = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+        OrderExecutedCodec codec = new OrderExecutedCodec().wrap(data, 0);
         OrderExecutedMessage msg = new OrderExecutedMessage();
 
-        buf.position(10);
-        msg.transactTime = buf.getLong();
-
-        byte[] clOrdIDBytes = new byte[20];
-        buf.get(clOrdIDBytes);
-        msg.clOrdID = stripNul(clOrdIDBytes);
-
-        msg.execID = buf.getLong();
-        msg.lastShares = buf.getInt();
-
-        byte[] pxBytes = new byte[8]; buf.get(pxBytes);
-        msg.lastPx = BinaryPrice.fromBytes(pxBytes).toPrice();
-
-        msg.leavesQty = buf.getInt();
-        msg.baseLiquidityIndicator = buf.get();
-        msg.subLiquidityIndicator = buf.get();
-
-        byte[] cb = new byte[4]; buf.get(cb);
-        msg.contraBroker = stripSpace(cb);
-
-        buf.get(); // ReservedInternal
-
-        msg.numberOfBitfields = buf.get() & 0xFF;
-        msg.bitfields = new byte[msg.numberOfBitfields];
-        if (msg.numberOfBitfields > 0) buf.get(msg.bitfields);
-
-        if (msg.numberOfBitfields >= 2) {
-            if ((msg.bitfields[1] & 0x01) != 0) {
-                byte[] s = new byte[8]; buf.get(s); msg.symbol = stripSpace(s);
-            }
-            if ((msg.bitfields[1] & 0x40) != 0) msg.capacity = buf.get();
-        }
-
-        if (msg.numberOfBitfields >= 3) {
-            if ((msg.bitfields[2] & 0x02) != 0) {
-                byte[] cf = new byte[4]; buf.get(cf); msg.clearingFirm = stripSpace(cf);
-            }
-            if ((msg.bitfields[2] & 0x04) != 0) {
-                byte[] ca = new byte[4]; buf.get(ca); msg.clearingAccount = stripNul(ca);
-            }
-            if ((msg.bitfields[2] & 0x40) != 0) msg.orderQty = buf.getInt();
-        }
-
+        msg.matchingUnit = codec.matchingUnit();
+        msg.sequenceNumber = codec.sequenceNumber();
+        msg.transactTime = codec.transactTime();
+        msg.clOrdID = codec.clOrdID();
+        msg.execID = codec.execID();
+        msg.lastShares = codec.lastShares();
+        msg.lastPx = codec.lastPx();
+        msg.leavesQty = codec.leavesQty();
+        msg.baseLiquidityIndicator = codec.baseLiquidityIndicator();
+        msg.subLiquidityIndicator = codec.subLiquidityIndicator();
+        msg.contraBroker = codec.contraBroker();
+        msg.numberOfBitfields = codec.numberOfBitfields();
+        msg.bitfields = codec.bitfields();
+
+        msg.symbol = codec.symbol();
+        msg.capacity = codec.capacity();
+        msg.clearingFirm = codec.clearingFirm();
+        msg.clearingAccount = codec.clearingAccount();
+        msg.orderQty = codec.orderQty();
         return msg;
     }
 
-    private static void putText(ByteBuffer buf, String s, int len) {
-        byte[] bytes = new byte[len];
-        if (s != null && !s.isEmpty()) {
-            byte[] src = s.getBytes(StandardCharsets.US_ASCII);
-            System.arraycopy(src, 0, bytes, 0, Math.min(src.length, len));
-        }
-        buf.put(bytes);
-    }
-
-    private static void putAlpha(ByteBuffer buf, String s, int len) {
-        byte[] bytes = new byte[len];
-        java.util.Arrays.fill(bytes, (byte) 0x20);
-        if (s != null && !s.isEmpty()) {
-            byte[] src = s.getBytes(StandardCharsets.US_ASCII);
-            System.arraycopy(src, 0, bytes, 0, Math.min(src.length, len));
-        }
-        buf.put(bytes);
-    }
-
-    private static String stripNul(byte[] b) {
-        int end = b.length;
-        while (end > 0 && b[end - 1] == 0) end--;
-        return new String(b, 0, end, StandardCharsets.US_ASCII);
-    }
-
-    private static String stripSpace(byte[] b) {
-        return new String(b, StandardCharsets.US_ASCII).stripTrailing();
-    }
-
     public void setMatchingUnit(byte matchingUnit) { this.matchingUnit = matchingUnit; }
     public void setSequenceNumber(int sequenceNumber) { this.sequenceNumber = sequenceNumber; }
 
     public String getClOrdID() { return clOrdID; }
     public long getExecID() { return execID; }
     public int getLastShares() { return lastShares; }
-    public BigDecimal getLastPx() { return lastPx; }
+    public long getLastPxRaw() { return lastPx; }
+    public BigDecimal getLastPx() { return BinaryPrice.toDecimal(lastPx); }
     public int getLeavesQty() { return leavesQty; }
     public byte getBaseLiquidityIndicator() { return baseLiquidityIndicator; }
     public String getContraBroker() { return contraBroker; }
@@ -268,6 +176,6 @@ public final class OrderExecutedMessage extends ApplicationMessage {
     @Override
     public String toString() {
         return String.format("OrderExecution{clOrdID='%s', execID=%d, lastShares=%d @ %s, leaves=%d, liq=%c}",
-                clOrdID, execID, lastShares, lastPx, leavesQty, (char) baseLiquidityIndicator);
+                clOrdID, execID, lastShares, getLastPx(), leavesQty, (char) baseLiquidityIndicator);
     }
 }
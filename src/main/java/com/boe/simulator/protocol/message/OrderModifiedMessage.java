@@ -1,12 +1,10 @@
 package com.boe.simulator.protocol.message;
 
+import com.boe.simulator.protocol.codec.OrderModifiedCodec;
 import com.boe.simulator.protocol.types.BinaryPrice;
 import com.boe.simulator.server.order.Order;
 
 import java.math.BigDecimal;
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
-import java.nio.charset.StandardCharsets;
 
 /**
  * Order Modified — Table 79 (p.124), spec v2.11.90
@@ -33,9 +31,6 @@ import java.nio.charset.StandardCharsets;
  */
 public final class OrderModifiedMessage extends ApplicationMessage {
     private static final byte MESSAGE_TYPE = 0x27;
-    private static final byte SOM1 = (byte) 0xBA;
-    private static final byte SOM2 = (byte) 0xBA;
-    private static final int FIXED_SIZE = 48;
 
     private byte matchingUnit;
     private int sequenceNumber;
@@ -48,7 +43,7 @@ public final class OrderModifiedMessage extends ApplicationMessage {
     private byte[] bitfields;
 
     // Optional fields
-    private BigDecimal price;
+    private long price;             // raw Binary Price
     private byte ordType;
     private String symbol;
     private byte capacity;
@@ -64,7 +59,7 @@ public final class OrderModifiedMessage extends ApplicationMessage {
         msg.clOrdID = order.getClOrdID();
         msg.orderID = order.getOrderID();
 
-        msg.price = order.getPrice();
+        msg.price = order.getPriceRaw();
         msg.ordType = order.getOrdType().wireValue();
         msg.symbol = order.getSymbol();
         msg.capacity = order.getCapacity() != null ? order.getCapacity().wireValue() : 0;
@@ -79,7 +74,7 @@ public final class OrderModifiedMessage extends ApplicationMessage {
         numberOfBitfields = 5;
         bitfields = new byte[5];
 
-        if (price != null) bitfields[0] |= 0x04;           // Byte 1: Price
+        if (BinaryPrice.isPresent(price)) bitfields[0] |= 0x04;           // Byte 1: Price
         bitfields[0] |= 0x10;                               // Byte 1: OrdType
         if (symbol != null && !symbol.isBlank()) bitfields[1] |= 0x01; // Byte 2: Symbol
         if (capacity != 0) bitfields[1] |= 0x40;           // Byte 2: Capacity
@@ -91,59 +86,20 @@ public final class OrderModifiedMessage extends ApplicationMessage {
 
     @Override
     public byte[] toBytes() {
-        int optSize = optionalSize();
-        int totalSize = FIXED_SIZE + numberOfBitfields + optSize;
-
-        ByteBuffer buf = ByteBuffer.allocate(totalSize).order(ByteOrder.LITTLE_ENDIAN);
-
-        buf.put(SOM1); buf.put(SOM2);
-        buf.putShort((short) (totalSize - 2));
-        buf.put(MESSAGE_TYPE);
-        buf.put(matchingUnit);
-        buf.putInt(sequenceNumber);
-        buf.putLong(transactTime);
-        putText(buf, clOrdID, 20);
-        buf.putLong(orderID);
-        buf.put((byte) 0x00);
-        buf.put((byte) numberOfBitfields);
-        buf.put(bitfields, 0, numberOfBitfields);
-
-        if ((bitfields[0] & 0x04) != 0) BinaryPrice.fromPrice(price).putInto(buf);
-        if ((bitfields[0] & 0x10) != 0) buf.put(ordType);
-        if ((bitfields[1] & 0x01) != 0) putAlpha(buf, symbol, 8);
-        if ((bitfields[1] & 0x40) != 0) buf.put(capacity);
-        if ((bitfields[4] & 0x02) != 0) buf.putInt(leavesQty);
-
-        return buf.array();
-    }
-
-    private int optionalSize() {
-        int size = 0;
-        if ((bitfields[0] & 0x04) != 0) size += 8;
-        if ((bitfields[0] & 0x10) != 0) size += 1;
-        if ((bitfields[1] & 0x01) != 0) size += 8;
-        if ((bitfields[1] & 0x40) != 0) size += 1;
-        if ((bitfields[4] & 0x02) != 0) size += 4;
-        return size;
-    }
-
-    private static void putText(ByteBuffer buf, String s, int len) {
-        byte[] bytes = new byte[len];
-        if (s != null && !s.isEmpty()) {
-            byte[] src = s.getBytes(StandardCharsets.US_ASCII);
-            System.arraycopy(src, 0, bytes, 0, Math.min(src.length, len));
-        }
-        buf.put(bytes);
-    }
-
-    private static void putAlpha(ByteBuffer buf, String s, int len) {
-        byte[] bytes = new byte[len];
-        java.util.Arrays.fill(bytes, (byte) 0x20);
-        if (s != null && !s.isEmpty()) {
-            byte[] src = s.getBytes(StandardCharsets.US_ASCII);
-            System.arraycopy(src, 0, bytes, 0, Math.min(src.length, len));
-        }
-        buf.put(bytes);
+        byte[] frame = new byte[OrderModifiedCodec.encodedLength(bitfields)];
+        OrderModifiedCodec codec = new OrderModifiedCodec().wrapForEncode(frame, 0, bitfields)
+                .matchingUnit(matchingUnit)
+                .sequenceNumber(sequenceNumber)
+                .transactTime(transactTime)
+                .clOrdID(clOrdID)
+                .orderID(orderID);
+
+        if (codec.hasPrice()) codec.price(price);
+        if (codec.hasOrdType()) codec.ordType(ordType);
+        if (codec.hasSymbol()) codec.symbol(symbol);
+        if (codec.hasCapacity()) codec.capacity(capacity);
+        if (codec.hasLeavesQty()) codec.leavesQty(leavesQty);
+        return frame;
     }
 
     public void setMatchingUnit(byte matchingUnit) { this.matchingUnit = matchingUnit; }
@@ -155,6 +111,6 @@ public final class OrderModifiedMessage extends ApplicationMessage {
     @Override
     public String toString() {
         return "OrderModified{clOrdID='" + clOrdID + "', orderID=" + orderID
-                + ", symbol='" + symbol + "', price=" + price + ", leavesQty=" + leavesQty + '}';
+                + ", symbol='" + symbol + "', price=" + BinaryPrice.toDecimal(price) + ", leavesQty=" + leavesQty + '}';
     }
 }
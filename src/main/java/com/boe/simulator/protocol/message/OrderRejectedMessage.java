@@ -1,8 +1,7 @@
 package com.boe.simulator.protocol.message;
 
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
-import java.nio.charset.StandardCharsets;
+import com.boe.simulator.protocol.codec.OrderRejectedCodec;
+
 import java.util.Arrays;
 
 /**
@@ -26,9 +25,7 @@ import java.util.Arrays;
  */
 public final class OrderRejectedMessage extends ApplicationMessage {
     private static final byte MESSAGE_TYPE = 0x26;
-    private static final byte SOM1 = (byte) 0xBA;
-    private static final byte SOM2 = (byte) 0xBA;
-    private static final int FIXED_SIZE = 101; // before bitfields/optional
+    private static final byte[] NO_BITFIELDS = new byte[0];
 
     // Reject reason codes (Order Reason Codes p.213)
     public static final byte REASON_DUPLICATE_CLORDID          = (byte) 'D';
@@ -41,6 +38,7 @@ public final class OrderRejectedMessage extends ApplicationMessage {
     public static final byte REASON_INVALID_CAPACITY           = (byte) 'C';
     public static final byte REASON_RATE_LIMIT_EXCEEDED        = (byte) 'R';
     public static final byte REASON_SESSION_NOT_AUTHENTICATED  = (byte) 'A';
+    public static final byte REASON_SYSTEM_BUSY                = (byte) 'B'; // shed under overload
 
     // Header (unsequenced — always 0)
     private byte matchingUnit;
@@ -74,72 +72,35 @@ public final class OrderRejectedMessage extends ApplicationMessage {
 
     @Override
     public byte[] toBytes() {
-        int totalSize = FIXED_SIZE + numberOfBitfields;
-
-        ByteBuffer buf = ByteBuffer.allocate(totalSize).order(ByteOrder.LITTLE_ENDIAN);
-
-        buf.put(SOM1);
-        buf.put(SOM2);
-        buf.putShort((short) (totalSize - 2));
-        buf.put(MESSAGE_TYPE);
-        buf.put(matchingUnit);
-        buf.putInt(sequenceNumber);
-        buf.putLong(transactTime);
-        putText(buf, clOrdID, 20);
-        buf.put(orderRejectReason);
-        putText(buf, text, 60);
-        buf.put((byte) 0x00);              // ReservedInternal
-        buf.put((byte) numberOfBitfields);
-        if (numberOfBitfields > 0) buf.put(bitfields, 0, numberOfBitfields);
-
-        return buf.array();
+        byte[] fields = bitfields != null ? bitfields : NO_BITFIELDS;
+        byte[] frame = new byte[OrderRejectedCodec.encodedLength(fields)];
+        new OrderRejectedCodec().wrapForEncode(frame, 0, fields)
+                .matchingUnit(matchingUnit)
+                .sequenceNumber(sequenceNumber)
+                .transactTime(transactTime)
+                .clOrdID(clOrdID)
+                .orderRejectReason(orderRejectReason)
+                .text(text);
+        return frame;
     }
 
     public static OrderRejectedMessage fromBytes(byte[] data) {
-        ByteBuffer buf = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+        // Frames cut after Text read as carrying no bitfields
+        byte[] frame = data.length >= OrderRejectedCodec.BLOCK_LENGTH ? data : Arrays.copyOf(data, OrderRejectedCodec.BLOCK_LENGTH);
+        OrderRejectedCodec codec = new OrderRejectedCodec().wrap(frame, 0);
         OrderRejectedMessage msg = new OrderRejectedMessage();
 
-        buf.position(10);
-        msg.transactTime = buf.getLong();
-
-        byte[] clOrdIDBytes = new byte[20];
-        buf.get(clOrdIDBytes);
-        msg.clOrdID = stripNul(clOrdIDBytes);
-
-        msg.orderRejectReason = buf.get();
-
-        byte[] textBytes = new byte[60];
-        buf.get(textBytes);
-        msg.text = stripNul(textBytes);
-
-        if (buf.remaining() >= 2) {
-            buf.get(); // ReservedInternal
-            msg.numberOfBitfields = buf.get() & 0xFF;
-            msg.bitfields = new byte[msg.numberOfBitfields];
-            if (msg.numberOfBitfields > 0) buf.get(msg.bitfields);
-        } else {
-            msg.numberOfBitfields = 0;
-            msg.bitfields = new byte[0];
-        }
-
+        msg.matchingUnit = codec.matchingUnit();
+        msg.sequenceNumber = codec.sequenceNumber();
+        msg.transactTime = codec.transactTime();
+        msg.clOrdID = codec.clOrdID();
+        msg.orderRejectReason = codec.orderRejectReason();
+        msg.text = codec.text();
+        msg.numberOfBitfields = codec.numberOfBitfields();
+        msg.bitfields = codec.bitfields();
         return msg;
     }
 
-    private static void putText(ByteBuffer buf, String s, int len) {
-        byte[] bytes = new byte[len];
-        if (s != null && !s.isEmpty()) {
-            byte[] src = s.getBytes(StandardCharsets.US_ASCII);
-            System.arraycopy(src, 0, bytes, 0, Math.min(src.length, len));
-        }
-        buf.put(bytes);
-    }
-
-    private static String stripNul(byte[] b) {
-        int end = b.length;
-        while (end > 0 && b[end - 1] == 0) end--;
-        return new String(b, 0, end, StandardCharsets.US_ASCII);
-    }
-
     public void setMatchingUnit(byte matchingUnit) { this.matchingUnit = matchingUnit; }
     public void setSequenceNumber(int sequenceNumber) { this.sequenceNumber = sequenceNumber; }
 
@@ -1,8 +1,6 @@
 package com.boe.simulator.protocol.message;
 
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
-import java.nio.charset.StandardCharsets;
+import com.boe.simulator.protocol.codec.OrderRestatedCodec;
 
 /**
  * Order Restated — Table 81 (p.126), spec v2.11.90
@@ -35,9 +33,7 @@ import java.nio.charset.StandardCharsets;
  */
 public final class OrderRestatedMessage extends ApplicationMessage {
     private static final byte MESSAGE_TYPE = 0x28;
-    private static final byte SOM1 = (byte) 0xBA;
-    private static final byte SOM2 = (byte) 0xBA;
-    private static final int FIXED_SIZE = 49;
+    private static final byte[] NO_BITFIELDS = new byte[0];
 
     public static final byte REASON_RELOAD              = (byte) 'L';
     public static final byte REASON_PRICE_SLIDING       = (byte) 'P';
@@ -75,33 +71,16 @@ public final class OrderRestatedMessage extends ApplicationMessage {
 
     @Override
     public byte[] toBytes() {
-        int totalSize = FIXED_SIZE + numberOfBitfields;
-
-        ByteBuffer buf = ByteBuffer.allocate(totalSize).order(ByteOrder.LITTLE_ENDIAN);
-
-        buf.put(SOM1); buf.put(SOM2);
-        buf.putShort((short) (totalSize - 2));
-        buf.put(MESSAGE_TYPE);
-        buf.put(matchingUnit);
-        buf.putInt(sequenceNumber);
-        buf.putLong(transactTime);
-        putText(buf, clOrdID, 20);
-        buf.putLong(orderID);
-        buf.put(restatementReason);
-        buf.put((byte) 0x00);              // ReservedInternal
-        buf.put((byte) numberOfBitfields);
-        if (numberOfBitfields > 0) buf.put(bitfields, 0, numberOfBitfields);
-
-        return buf.array();
-    }
-
-    private static void putText(ByteBuffer buf, String s, int len) {
-        byte[] bytes = new byte[len];
-        if (s != null && !s.isEmpty()) {
-            byte[] src = s.getBytes(StandardCharsets.US_ASCII);
-            System.arraycopy(src, 0, bytes, 0, Math.min(src.length, len));
-        }
-        buf.put(bytes);
+        byte[] fields = bitfields != null ? bitfields : NO_BITFIELDS;
+        byte[] frame = new byte[OrderRestatedCodec.encodedLength(fields)];
+        new OrderRestatedCodec().wrapForEncode(frame, 0, fields)
+                .matchingUnit(matchingUnit)
+                .sequenceNumber(sequenceNumber)
+                .transactTime(transactTime)
+                .clOrdID(clOrdID)
+                .orderID(orderID)
+                .restatementReason(restatementReason);
+        return frame;
     }
 
     public void setMatchingUnit(byte matchingUnit) { this.matchingUnit = matchingUnit; }
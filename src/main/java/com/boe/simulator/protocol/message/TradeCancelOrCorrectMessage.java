@@ -1,11 +1,9 @@
 package com.boe.simulator.protocol.message;
 
+import com.boe.simulator.protocol.codec.TradeCancelOrCorrectCodec;
 import com.boe.simulator.protocol.types.BinaryPrice;
 
 import java.math.BigDecimal;
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
-import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 
 /**
@@ -37,9 +35,7 @@ import java.time.Instant;
  */
 public final class TradeCancelOrCorrectMessage extends ApplicationMessage {
     private static final byte MESSAGE_TYPE = 0x2D;
-    private static final byte SOM1 = (byte) 0xBA;
-    private static final byte SOM2 = (byte) 0xBA;
-    private static final int FIXED_SIZE = 94;
+    private static final byte[] NO_BITFIELDS = new byte[0];
 
     private byte matchingUnit;
     private int sequenceNumber;
@@ -117,51 +113,24 @@ public final class TradeCancelOrCorrectMessage extends ApplicationMessage {
 
     @Override
     public byte[] toBytes() {
-        int totalSize = FIXED_SIZE + numberOfBitfields;
-
-        ByteBuffer buf = ByteBuffer.allocate(totalSize).order(ByteOrder.LITTLE_ENDIAN);
-
-        buf.put(SOM1); buf.put(SOM2);
-        buf.putShort((short) (totalSize - 2));
-        buf.put(MESSAGE_TYPE);
-        buf.put(matchingUnit);
-        buf.putInt(sequenceNumber);
-        buf.putLong(transactTime);
-        putText(buf, clOrdID, 20);
-        buf.putLong(orderID);
-        buf.putLong(execRefID);
-        buf.put(side);
-        buf.put(baseLiquidityIndicator);
-        putAlpha(buf, clearingFirm, 4);
-        putText(buf, clearingAccount, 4);
-        buf.putInt(lastShares);
-        BinaryPrice.fromPrice(lastPx).putInto(buf);
-        BinaryPrice.fromPrice(correctedPrice).putInto(buf);
-        buf.putLong(origTime);
-        buf.put((byte) 0x00);              // ReservedInternal
-        buf.put((byte) numberOfBitfields);
-        if (numberOfBitfields > 0) buf.put(bitfields, 0, numberOfBitfields);
-
-        return buf.array();
-    }
-
-    private static void putText(ByteBuffer buf, String s, int len) {
-        byte[] bytes = new byte[len];
-        if (s != null && !s.isEmpty()) {
-            byte[] src = s.getBytes(StandardCharsets.US_ASCII);
-            System.arraycopy(src, 0, bytes, 0, Math.min(src.length, len));
-        }
-        buf.put(bytes);
-    }
-
-    private static void putAlpha(ByteBuffer buf, String s, int len) {
-        byte[] bytes = new byte[len];
-        java.util.Arrays.fill(bytes, (byte) 0x20);
-        if (s != null && !s.isEmpty()) {
-            byte[] src = s.getBytes(StandardCharsets.US_ASCII);
-            System.arraycopy(src, 0, bytes, 0, Math.min(src.length, len));
-        }
-        buf.put(bytes);
+        byte[] fields = bitfields != null ? bitfields : NO_BITFIELDS;
+        byte[] frame = new byte[TradeCancelOrCorrectCodec.encodedLength(fields)];
+        new TradeCancelOrCorrectCodec().wrapForEncode(frame, 0, fields)
+                .matchingUnit(matchingUnit)
+                .sequenceNumber(sequenceNumber)
+                .transactTime(transactTime)
+                .clOrdID(clOrdID)
+                .orderID(orderID)
+                .execRefID(execRefID)
+                .side(side)
+                .baseLiquidityIndicator(baseLiquidityIndicator)
+                .clearingFirm(clearingFirm)
+                .clearingAccount(clearingAccount)
+                .lastShares(lastShares)
+                .lastPx(BinaryPrice.fromPrice(lastPx).rawValue())
+                .correctedPrice(BinaryPrice.fromPrice(correctedPrice).rawValue())
+                .origTime(origTime);
+        return frame;
     }
 
     public void setMatchingUnit(byte matchingUnit) { this.matchingUnit = matchingUnit; }
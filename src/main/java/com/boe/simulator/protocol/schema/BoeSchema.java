@@ -0,0 +1,212 @@
+package com.boe.simulator.protocol.schema;
+
+import static com.boe.simulator.protocol.schema.FieldType.*;
+
+/**
+ * BOE application messages, spec v2.11.90, as input for {@code CodecProcessor}.
+ *
+ * Each nested declaration exists only to carry its {@link MessageSchema}; adding one here
+ * is all a new message type needs to get a codec and a round-trip test at the next build.
+ */
+final class BoeSchema {
+
+    private BoeSchema() {}
+
+    // ---- Member to Cboe ----
+
+    @MessageSchema(name = "NewOrder", type = 0x38, spec = "Table 27", bitfields = 4,
+            fixed = {
+                    @Field(name = "clOrdID", type = TEXT, length = 20),
+                    @Field(name = "side", type = CHAR),
+                    @Field(name = "orderQty", type = U32)
+            },
+            optional = {
+                    @OptionalField(bitfield = 1, mask = 0x01, name = "clearingFirm", type = ALPHA, length = 4),
+                    @OptionalField(bitfield = 1, mask = 0x02, name = "clearingAccount", type = ALPHA, length = 4),
+                    @OptionalField(bitfield = 1, mask = 0x04, name = "price", type = PRICE),
+                    @OptionalField(bitfield = 1, mask = 0x08, name = "ordType", type = CHAR),
+                    @OptionalField(bitfield = 1, mask = 0x10, name = "timeInForce", type = CHAR),
+                    @OptionalField(bitfield = 2, mask = 0x01, name = "symbol", type = ALPHA, length = 8),
+                    @OptionalField(bitfield = 2, mask = 0x40, name = "capacity", type = CHAR),
+                    @OptionalField(bitfield = 2, mask = 0x80, name = "routingInst", type = CHAR, length = 4),
+                    @OptionalField(bitfield = 3, mask = 0x01, name = "account", type = ALPHA, length = 16),
+                    @OptionalField(bitfield = 4, mask = 0x01, name = "maturityDate", type = U32),
+                    @OptionalField(bitfield = 4, mask = 0x02, name = "strikePrice", type = PRICE),
+                    @OptionalField(bitfield = 4, mask = 0x04, name = "putOrCall", type = CHAR),
+                    @OptionalField(bitfield = 4, mask = 0x10, name = "openClose", type = CHAR)
+            })
+    interface NewOrder {}
+
+    // String fields are NUL-padded throughout (spec p.10)
+    @MessageSchema(name = "CancelOrder", type = 0x39, spec = "Table 36", bitfields = 2,
+            fixed = @Field(name = "origClOrdID", type = TEXT, length = 20),
+            optional = {
+                    @OptionalField(bitfield = 1, mask = 0x01, name = "clearingFirm", type = TEXT, length = 4),
+                    @OptionalField(bitfield = 1, mask = 0x02, name = "massCancelLockout", type = CHAR),
+                    @OptionalField(bitfield = 1, mask = 0x04, name = "massCancel", type = CHAR),
+                    @OptionalField(bitfield = 1, mask = 0x08, name = "riskRoot", type = TEXT, length = 6),
+                    @OptionalField(bitfield = 1, mask = 0x10, name = "massCancelId", type = TEXT, length = 20),
+                    @OptionalField(bitfield = 1, mask = 0x20, name = "routingFirmID", type = TEXT, length = 4),
+                    @OptionalField(bitfield = 1, mask = 0x40, name = "manualOrderIndicator", type = CHAR),
+                    @OptionalField(bitfield = 1, mask = 0x80, name = "operatorId", type = TEXT, length = 4),
+                    @OptionalField(bitfield = 2, mask = 0x01, name = "massCancelInst", type = TEXT, length = 16),
+                    @OptionalField(bitfield = 2, mask = 0x02, name = "symbol", type = TEXT, length = 8),
+                    @OptionalField(bitfield = 2, mask = 0x04, name = "symbolSfx", type = RESERVED),
+                    @OptionalField(bitfield = 2, mask = 0x08, name = "sendTime", type = U64)
+            })
+    interface CancelOrder {}
+
+    @MessageSchema(name = "ModifyOrder", type = 0x3A, spec = "Table 39", bitfields = 2,
+            fixed = {
+                    @Field(name = "clOrdID", type = TEXT, length = 20),
+                    @Field(name = "origClOrdID", type = TEXT, length = 20)
+            },
+            optional = {
+                    @OptionalField(bitfield = 1, mask = 0x01, name = "clearingFirm", type = ALPHA, length = 4),
+                    @OptionalField(bitfield = 1, mask = 0x04, name = "orderQty", type = U32),
+                    @OptionalField(bitfield = 1, mask = 0x08, name = "price", type = PRICE),
+                    @OptionalField(bitfield = 1, mask = 0x10, name = "ordType", type = CHAR),
+                    @OptionalField(bitfield = 1, mask = 0x20, name = "cancelOrigOnReject", type = CHAR),
+                    @OptionalField(bitfield = 1, mask = 0x40, name = "execInst", type = CHAR),
+                    @OptionalField(bitfield = 1, mask = 0x80, name = "side", type = CHAR),
+                    @OptionalField(bitfield = 2, mask = 0x01, name = "maxFloor", type = U32),
+                    @OptionalField(bitfield = 2, mask = 0x02, name = "stopPx", type = PRICE),
+                    @OptionalField(bitfield = 2, mask = 0x04, name = "routingFirmID", type = ALPHA, length = 4),
+                    @OptionalField(bitfield = 2, mask = 0x08, name = "manualOrderIndicator", type = CHAR),
+                    @OptionalField(bitfield = 2, mask = 0x10, name = "operatorId", type = ALPHA, length = 4),
+                    @OptionalField(bitfield = 2, mask = 0x20, name = "frequentTraderID", type = TEXT, length = 20),
+                    @OptionalField(bitfield = 2, mask = 0x80, name = "locateBroker", type = TEXT, length = 8)
+            })
+    interface ModifyOrder {}
+
+    // ---- Cboe to Member ----
+
+    @MessageSchema(name = "OrderAcknowledgment", type = 0x25, spec = "Table 66", bitfields = 4,
+            fixed = {
+                    @Field(name = "transactTime", type = U64),
+                    @Field(name = "clOrdID", type = TEXT, length = 20),
+                    @Field(name = "orderID", type = U64),
+                    @Field(name = "reservedInternal", type = U8)
+            },
+            optional = {
+                    @OptionalField(bitfield = 1, mask = 0x01, name = "side", type = CHAR),
+                    @OptionalField(bitfield = 1, mask = 0x04, name = "price", type = PRICE),
+                    @OptionalField(bitfield = 1, mask = 0x10, name = "ordType", type = CHAR),
+                    @OptionalField(bitfield = 2, mask = 0x01, name = "symbol", type = ALPHA, length = 8),
+                    @OptionalField(bitfield = 2, mask = 0x40, name = "capacity", type = CHAR),
+                    @OptionalField(bitfield = 3, mask = 0x01, name = "account", type = TEXT, length = 16),
+                    @OptionalField(bitfield = 3, mask = 0x02, name = "clearingFirm", type = ALPHA, length = 4),
+                    @OptionalField(bitfield = 3, mask = 0x04, name = "clearingAccount", type = TEXT, length = 4),
+                    @OptionalField(bitfield = 3, mask = 0x40, name = "orderQty", type = U32),
+                    @OptionalField(bitfield = 4, mask = 0x01, name = "maturityDate", type = U32),
+                    @OptionalField(bitfield = 4, mask = 0x02, name = "strikePrice", type = PRICE),
+                    @OptionalField(bitfield = 4, mask = 0x04, name = "putOrCall", type = CHAR),
+                    @OptionalField(bitfield = 4, mask = 0x08, name = "openClose", type = CHAR)
+            })
+    interface OrderAcknowledgment {}
+
+    @MessageSchema(name = "OrderRejected", type = 0x26, spec = "Table 73",
+            fixed = {
+                    @Field(name = "transactTime", type = U64),
+                    @Field(name = "clOrdID", type = TEXT, length = 20),
+                    @Field(name = "orderRejectReason", type = CHAR),
+                    @Field(name = "text", type = TEXT, length = 60),
+                    @Field(name = "reservedInternal", type = U8)
+            })
+    interface OrderRejected {}
+
+    @MessageSchema(name = "OrderModified", type = 0x27, spec = "Table 79", bitfields = 5,
+            fixed = {
+                    @Field(name = "transactTime", type = U64),
+                    @Field(name = "clOrdID", type = TEXT, length = 20),
+                    @Field(name = "orderID", type = U64),
+                    @Field(name = "reservedInternal", type = U8)
+            },
+            optional = {
+                    @OptionalField(bitfield = 1, mask = 0x04, name = "price", type = PRICE),
+                    @OptionalField(bitfield = 1, mask = 0x10, name = "ordType", type = CHAR),
+                    @OptionalField(bitfield = 2, mask = 0x01, name = "symbol", type = ALPHA, length = 8),
+                    @OptionalField(bitfield = 2, mask = 0x40, name = "capacity", type = CHAR),
+                    @OptionalField(bitfield = 5, mask = 0x02, name = "leavesQty", type = U32)
+            })
+    interface OrderModified {}
+
+    @MessageSchema(name = "OrderRestated", type = 0x28, spec = "Table 81",
+            fixed = {
+                    @Field(name = "transactTime", type = U64),
+                    @Field(name = "clOrdID", type = TEXT, length = 20),
+                    @Field(name = "orderID", type = U64),
+                    @Field(name = "restatementReason", type = CHAR),
+                    @Field(name = "reservedInternal", type = U8)
+            })
+    interface OrderRestated {}
+
+    @MessageSchema(name = "UserModifyRejected", type = 0x29, spec = "Table 85",
+            fixed = {
+                    @Field(name = "transactTime", type = U64),
+                    @Field(name = "clOrdID", type = TEXT, length = 20),
+                    @Field(name = "modifyRejectReason", type = CHAR),
+                    @Field(name = "text", type = TEXT, length = 60),
+                    @Field(name = "reservedInternal", type = U8)
+            })
+    interface UserModifyRejected {}
+
+    @MessageSchema(name = "OrderCancelled", type = 0x2A, spec = "Table 87",
+            fixed = {
+                    @Field(name = "transactTime", type = U64),
+                    @Field(name = "clOrdID", type = TEXT, length = 20),
+                    @Field(name = "cancelReason", type = CHAR),
+                    @Field(name = "reservedInternal", type = U8)
+            })
+    interface OrderCancelled {}
+
+    @MessageSchema(name = "CancelRejected", type = 0x2B, spec = "Table 93",
+            fixed = {
+                    @Field(name = "transactTime", type = U64),
+                    @Field(name = "clOrdID", type = TEXT, length = 20),
+                    @Field(name = "cancelRejectReason", type = CHAR),
+                    @Field(name = "text", type = TEXT, length = 60),
+                    @Field(name = "reservedInternal", type = U8)
+            })
+    interface CancelRejected {}
+
+    @MessageSchema(name = "OrderExecuted", type = 0x2C, spec = "Table 95", bitfields = 3,
+            fixed = {
+                    @Field(name = "transactTime", type = U64),
+                    @Field(name = "clOrdID", type = TEXT, length = 20),
+                    @Field(name = "execID", type = U64),
+                    @Field(name = "lastShares", type = U32),
+                    @Field(name = "lastPx", type = PRICE),
+                    @Field(name = "leavesQty", type = U32),
+                    @Field(name = "baseLiquidityIndicator", type = CHAR),
+                    @Field(name = "subLiquidityIndicator", type = CHAR),
+                    @Field(name = "contraBroker", type = ALPHA, length = 4),
+                    @Field(name = "reservedInternal", type = U8)
+            },
+            optional = {
+                    @OptionalField(bitfield = 2, mask = 0x01, name = "symbol", type = ALPHA, length = 8),
+                    @OptionalField(bitfield = 2, mask = 0x40, name = "capacity", type = CHAR),
+                    @OptionalField(bitfield = 3, mask = 0x02, name = "clearingFirm", type = ALPHA, length = 4),
+                    @OptionalField(bitfield = 3, mask = 0x04, name = "clearingAccount", type = TEXT, length = 4),
+                    @OptionalField(bitfield = 3, mask = 0x40, name = "orderQty", type = U32)
+            })
+    interface OrderExecuted {}
+
+    @MessageSchema(name = "TradeCancelOrCorrect", type = 0x2D, spec = "Table 104",
+            fixed = {
+                    @Field(name = "transactTime", type = U64),
+                    @Field(name = "clOrdID", type = TEXT, length = 20),
+                    @Field(name = "orderID", type = U64),
+                    @Field(name = "execRefID", type = U64),
+                    @Field(name = "side", type = CHAR),
+                    @Field(name = "baseLiquidityIndicator", type = CHAR),
+                    @Field(name = "clearingFirm", type = ALPHA, length = 4),
+                    @Field(name = "clearingAccount", type = TEXT, length = 4),
+                    @Field(name = "lastShares", type = U32),
+                    @Field(name = "lastPx", type = PRICE),
+                    @Field(name = "correctedPrice", type = PRICE),
+                    @Field(name = "origTime", type = U64),
+                    @Field(name = "reservedInternal", type = U8)
+            })
+    interface TradeCancelOrCorrect {}
+}
@@ -0,0 +1,17 @@
+package com.boe.simulator.protocol.schema;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/** A fixed field, in wire order after the 10-byte header. */
+@Retention(RetentionPolicy.CLASS)
+@Target({})
+public @interface Field {
+    String name();
+
+    FieldType type();
+
+    /** Size in bytes; 0 takes the natural size of {@link #type()}. */
+    int length() default 0;
+}
@@ -0,0 +1,32 @@
+package com.boe.simulator.protocol.schema;
+
+/**
+ * Wire types of the BOE spec tables, all little-endian.
+ *
+ * CHAR is one Alphanumeric character; a wider CHAR field carries the character in its first
+ * byte and NUL padding after it. TEXT is NUL-padded and ALPHA space-padded; both need an
+ * explicit length. PRICE is a Binary Price (4 implied decimals). RESERVED bits are accepted
+ * on the wire and skipped, with no accessors.
+ */
+public enum FieldType {
+    CHAR(1),
+    U8(1),
+    U16(2),
+    U32(4),
+    U64(8),
+    PRICE(8),
+    TEXT(0),
+    ALPHA(0),
+    RESERVED(0);
+
+    private final int size;
+
+    FieldType(int size) {
+        this.size = size;
+    }
+
+    /** Natural size in bytes, or 0 when the field must declare its length. */
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,33 @@
+package com.boe.simulator.protocol.schema;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declarative layout of one BOE application message, transcribed from its spec table.
+ *
+ * The header (StartOfMessage, MessageLength, MessageType, MatchingUnit, SequenceNumber) is
+ * common to every message and is not listed; the NumberOfBitfields byte follows the last
+ * fixed field. {@code CodecProcessor} turns every declaration in {@link BoeSchema} into a
+ * {@code <name>Codec} flyweight in {@code com.boe.simulator.protocol.codec} and a round-trip
+ * test for it.
+ */
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface MessageSchema {
+    String name();
+
+    int type();
+
+    /** Spec table the layout comes from, e.g. "Table 27". */
+    String spec();
+
+    /** Bitfields defined by the spec; trailing bitfields may be omitted on the wire. */
+    int bitfields() default 0;
+
+    Field[] fixed();
+
+    OptionalField[] optional() default {};
+}
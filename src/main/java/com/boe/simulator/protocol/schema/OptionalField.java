@@ -0,0 +1,26 @@
+package com.boe.simulator.protocol.schema;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * An optional field, present when its bit is set. On the wire optional fields follow the
+ * bitfields in bit order: first bitfield first, lowest bit first.
+ */
+@Retention(RetentionPolicy.CLASS)
+@Target({})
+public @interface OptionalField {
+    /** Bitfield number as in the spec tables, starting at 1. */
+    int bitfield();
+
+    /** Single-bit mask within the bitfield. */
+    int mask();
+
+    String name();
+
+    FieldType type();
+
+    /** Size in bytes; 0 takes the natural size of {@link #type()}. */
+    int length() default 0;
+}
@@ -4,14 +4,34 @@ import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.nio.ByteBuffer;
 
+/**
+ * Binary Price: signed 64-bit fixed point with 4 implied decimals (150.25 = 1_502_500).
+ *
+ * The raw {@code long} is the canonical price in the order, matching and trade model; the
+ * static helpers convert to and from {@code BigDecimal} at the REST/JSON edge and treat
+ * {@link #NO_PRICE} as "no price" (market orders, absent optional fields).
+ */
 public record BinaryPrice(long rawValue) {
+    public static final int SCALE = 4;
+    public static final long NO_PRICE = Long.MIN_VALUE;
 
     public static BinaryPrice fromPrice(BigDecimal price) {
         if (price == null) throw new IllegalArgumentException("Price cannot be null");
-        long raw = price.setScale(4, RoundingMode.HALF_UP)
-                        .multiply(BigDecimal.valueOf(10000))
-                        .longValueExact();
-        return new BinaryPrice(raw);
+        return new BinaryPrice(price.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact());
+    }
+
+    /** Raw fixed-point value of {@code price}, or {@link #NO_PRICE} for null. */
+    public static long toRaw(BigDecimal price) {
+        return price == null ? NO_PRICE : fromPrice(price).rawValue();
+    }
+
+    /** {@code BigDecimal} with scale 4, or null for {@link #NO_PRICE}. */
+    public static BigDecimal toDecimal(long raw) {
+        return raw == NO_PRICE ? null : BigDecimal.valueOf(raw, SCALE);
+    }
+
+    public static boolean isPresent(long raw) {
+        return raw != NO_PRICE;
     }
 
     public static BinaryPrice fromRaw(long rawValue) {
@@ -31,7 +51,7 @@ public record BinaryPrice(long rawValue) {
     }
 
     public BigDecimal toPrice() {
-        return BigDecimal.valueOf(rawValue).divide(BigDecimal.valueOf(10000), 4, RoundingMode.HALF_UP);
+        return BigDecimal.valueOf(rawValue, SCALE);
     }
 
     public byte[] toBytes() {
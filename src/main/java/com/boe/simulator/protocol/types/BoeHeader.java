@@ -20,6 +20,7 @@ public record BoeHeader(
 ) {
     public static final short START_OF_MESSAGE = (short) 0xBABA;
     public static final int WIRE_SIZE = 10;
+    public static final int SEQUENCE_NUMBER_OFFSET = 6;
 
     public BoeHeader {
         if (sequenceNumber < 0)
@@ -34,4 +35,17 @@ public record BoeHeader(
     public static BoeHeader sessionMessage(MessageType type) {
         return of(type, 0);
     }
+
+    /**
+     * Overwrites the SequenceNumber of an already encoded frame in place, so the number can be
+     * assigned at the moment the frame is committed to a session's outbound stream.
+     */
+    public static void stampSequenceNumber(byte[] frame, int sequenceNumber) {
+        if (frame == null || frame.length < WIRE_SIZE)
+            throw new IllegalArgumentException("Frame too short for a BOE header");
+        frame[SEQUENCE_NUMBER_OFFSET]     = (byte) sequenceNumber;
+        frame[SEQUENCE_NUMBER_OFFSET + 1] = (byte) (sequenceNumber >>> 8);
+        frame[SEQUENCE_NUMBER_OFFSET + 2] = (byte) (sequenceNumber >>> 16);
+        frame[SEQUENCE_NUMBER_OFFSET + 3] = (byte) (sequenceNumber >>> 24);
+    }
 }
@@ -39,4 +39,9 @@ public enum Capacity {
                     "Unknown Capacity: '" + (char) b + "' (0x" + Integer.toHexString(b & 0xFF) + ")");
         return c;
     }
+
+    /** Allocation- and exception-free counterpart of {@link #fromByte(byte)} for hot-path validation. */
+    public static boolean isValid(byte b) {
+        return BY_WIRE.containsKey(b);
+    }
 }
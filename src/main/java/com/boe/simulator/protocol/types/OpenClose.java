@@ -24,4 +24,12 @@ public enum OpenClose {
                     "Unknown OpenClose: '" + (char) b + "'");
         };
     }
+
+    /** Allocation- and exception-free counterpart of {@link #fromByte(byte)} for hot-path validation. */
+    public static boolean isValid(byte b) {
+        return switch (b) {
+            case (byte) 'O', (byte) 'C', (byte) ' ', (byte) 'N', 0 -> true;
+            default -> false;
+        };
+    }
 }
@@ -30,4 +30,12 @@ public enum PutOrCall {
                     "Unknown PutOrCall: 0x" + Integer.toHexString(b & 0xFF));
         };
     }
+
+    /** Allocation- and exception-free counterpart of {@link #fromByte(byte)} for hot-path validation. */
+    public static boolean isValid(byte b) {
+        return switch (b) {
+            case (byte) '0', 0, (byte) '1', 1, (byte) 'P', (byte) 'C' -> true;
+            default -> false;
+        };
+    }
 }
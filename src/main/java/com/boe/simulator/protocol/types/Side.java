@@ -30,4 +30,12 @@ public enum Side {
                     "Unknown Side: 0x" + Integer.toHexString(b & 0xFF));
         };
     }
+
+    /** Allocation- and exception-free counterpart of {@link #fromByte(byte)} for hot-path validation. */
+    public static boolean isValid(byte b) {
+        return switch (b) {
+            case (byte) '1', 1, (byte) '2', 2, (byte) 'B', (byte) 'S' -> true;
+            default -> false;
+        };
+    }
 }
@@ -4,10 +4,17 @@ import java.io.IOException;
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.net.SocketTimeoutException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.time.LocalTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.Locale;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
@@ -15,26 +22,38 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
+import java.util.function.Supplier;
 import java.util.logging.Logger;
 
 import com.boe.simulator.api.RestApiServer;
 import com.boe.simulator.bot.MarketSimulator;
+import com.boe.simulator.protocol.message.BoeMessageFactory;
 import com.boe.simulator.server.auth.AuthenticationService;
+import com.boe.simulator.server.auth.CredentialVerifier;
 import com.boe.simulator.server.config.ServerConfiguration;
 import com.boe.simulator.server.connection.ClientConnectionHandler;
+import com.boe.simulator.server.connection.SharedMemoryGateway;
 import com.boe.simulator.server.error.ErrorHandler;
+import com.boe.simulator.server.matching.FairShareWeights;
+import com.boe.simulator.server.matching.MatchingEngine;
 import com.boe.simulator.server.matching.TradeRepositoryService;
 import com.boe.simulator.server.metrics.HealthMetrics;
 import com.boe.simulator.server.order.OrderManager;
 import com.boe.simulator.server.order.OrderRepository;
+import com.boe.simulator.server.order.OrderValidator;
+import com.boe.simulator.server.persistence.DurabilityMode;
 import com.boe.simulator.server.persistence.RocksDBManager;
+import com.boe.simulator.server.persistence.WriteBehindJournal;
 import com.boe.simulator.server.persistence.repository.SessionRepository;
 import com.boe.simulator.server.persistence.repository.StatisticsRepository;
 import com.boe.simulator.server.persistence.service.SessionRepositoryService;
 import com.boe.simulator.server.persistence.service.StatisticsGeneratorService;
 import com.boe.simulator.server.persistence.service.StatisticsRepositoryService;
+import com.boe.simulator.server.persistence.service.UserRepositoryService;
+import com.boe.simulator.server.ratelimit.OverloadController;
 import com.boe.simulator.server.ratelimit.RateLimiter;
 import com.boe.simulator.server.session.ClientSessionManager;
+import com.boe.simulator.server.session.SessionJournalStore;
 
 public class CboeServer {
     private static final Logger LOGGER = Logger.getLogger(CboeServer.class.getName());
@@ -46,16 +65,23 @@ public class CboeServer {
     private final RocksDBManager dbManager;
     private final AuthenticationService authService;
     private final ClientSessionManager sessionManager;
+    private final SessionJournalStore journalStore;
     private final ErrorHandler errorHandler;
     private final RateLimiter rateLimiter;
+    private final OverloadController overloadController; // null when overload control is off
     private final HealthMetrics healthMetrics;
     private final StatisticsGeneratorService statisticsGenerator;
     private final OrderManager orderManager;
+    private final TradeRepositoryService tradeRepository;
     private final MarketSimulator marketSimulator;
     private final RestApiServer restApiServer;
 
     private ServerSocket serverSocket;
     private static Thread acceptorThread;
+    private ServerSocketChannel unixServerChannel;
+    private Thread unixAcceptorThread;
+    private SharedMemoryGateway sharedMemoryGateway;
+    private Thread sharedMemoryThread;
 
     public CboeServer(ServerConfiguration config) {
         this.config = config;
@@ -63,20 +89,37 @@ public class CboeServer {
         this.running = new AtomicBoolean(false);
         this.activeConnections = new AtomicInteger(0);
         this.dbManager = RocksDBManager.getInstance(
-                System.getProperty("cboe.db.path", "./data/cboe_server"));
+                System.getProperty("cboe.db.path", "./data/cboe_server"),
+                config.getTuningProfiles(), config.getBlockCacheBytes());
+        config.getRecordFormats().forEach(dbManager::setRecordFormat);
+        dbManager.setDurabilityMode(config.getDurabilityMode());
 
         LOGGER.info("Initializing persistence layer...");
 
         SessionRepository sessionRepo = new SessionRepositoryService(dbManager);
         StatisticsRepository statsRepo = new StatisticsRepositoryService(dbManager);
 
-        this.authService = new AuthenticationService(dbManager);
+        this.authService = new AuthenticationService(new UserRepositoryService(dbManager), new CredentialVerifier(
+                config.getLoginVerifierThreads(), config.getLoginVerifierQueueCapacity(),
+                Duration.ofSeconds(config.getLoginCacheTtlSeconds())));
         this.sessionManager = new ClientSessionManager(sessionRepo);
         this.errorHandler = new ErrorHandler();
-        this.rateLimiter = new RateLimiter(config.getRateLimitPerMinute(), Duration.ofMinutes(1));
+        this.rateLimiter = createRateLimiter(config);
         this.healthMetrics = new HealthMetrics();
-        this.orderManager = new OrderManager(dbManager);
+        OrderRepository orderRepository = new OrderRepository(dbManager, openWriteBehindJournal(config, "orders", dbManager));
+        this.tradeRepository = new TradeRepositoryService(dbManager, openWriteBehindJournal(config, "trades", dbManager));
+        this.orderManager = new OrderManager(orderRepository, new OrderValidator(),
+                new MatchingEngine(orderRepository, tradeRepository, false));
         this.orderManager.setSessionManager(sessionManager);
+        this.orderManager.getMatchingEngine().setFairShareWeights(
+                new FairShareWeights(config.getMatchingUserWeights(), config.getMatchingFirmWeights()));
+        this.overloadController = createOverloadController(config, orderManager);
+        if (overloadController != null) {
+            orderManager.setOverloadController(overloadController);
+            rateLimiter.setOverloadController(overloadController);
+        }
+        this.journalStore = openJournalStore(config);
+        this.sessionManager.setJournalStore(journalStore);
 
         // Initialize statistics generator
         this.statisticsGenerator = new StatisticsGeneratorService(
@@ -86,7 +129,6 @@ public class CboeServer {
                 errorHandler
         );
 
-        TradeRepositoryService tradeRepository = new TradeRepositoryService(dbManager);
         this.marketSimulator = new MarketSimulator(
                 orderManager,
                 orderManager.getMatchingEngine(),
@@ -142,6 +184,8 @@ public class CboeServer {
 
         // Start acceptor thread
         acceptorThread = Thread.ofVirtual().name("ServerAcceptor").start(this::acceptConnections);
+        if (config.getUnixSocketPath() != null) startUnixListener(Path.of(config.getUnixSocketPath()));
+        if (config.getSharedMemoryDirectory() != null) startSharedMemoryGateway(Path.of(config.getSharedMemoryDirectory()));
 
         LOGGER.log(Level.INFO, "✓ CBOE Server started successfully on {0}:{1}",
                 new Object[]{config.getHost(), config.getPort()});
@@ -178,6 +222,12 @@ public class CboeServer {
                     continue;
                 }
 
+                if (isShedding()) {
+                    LOGGER.log(Level.WARNING, "Server overloaded, rejecting connection from {0}", clientSocket.getRemoteSocketAddress());
+                    clientSocket.close();
+                    continue;
+                }
+
                 // Configure socket
                 clientSocket.setSoTimeout(config.getConnectionTimeout());
                 clientSocket.setTcpNoDelay(true);
@@ -187,7 +237,11 @@ public class CboeServer {
                     connectionId, clientSocket.getRemoteSocketAddress(), activeConnections.get(), config.getMaxConnections()
                 });
 
-                clientExecutor.submit(() -> handleClient(clientSocket, connectionId));
+                clientExecutor.submit(() -> handleClient(connectionId, () -> new ClientConnectionHandler(
+                        clientSocket, connectionId, config, authService,
+                        sessionManager, errorHandler, rateLimiter,
+                        orderManager
+                )));
 
             } catch (SocketTimeoutException ignored) {
             } catch (IOException e) {
@@ -198,16 +252,106 @@ public class CboeServer {
         LOGGER.info("Acceptor thread stopped");
     }
 
-    private void handleClient(Socket socket, int connectionId) {
+    /**
+     * Co-located clients skip the loopback TCP stack. Sessions on this listener share the
+     * connection limit, authentication and order flow with TCP sessions.
+     */
+    private void startUnixListener(Path path) throws IOException {
+        Files.deleteIfExists(path); // stale socket file from an unclean shutdown
+        unixServerChannel = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        unixServerChannel.bind(UnixDomainSocketAddress.of(path));
+
+        unixAcceptorThread = Thread.ofVirtual().name("UnixAcceptor").start(this::acceptUnixConnections);
+        LOGGER.log(Level.INFO, "✓ Unix domain socket listener on {0}", path.toAbsolutePath());
+    }
+
+    private void acceptUnixConnections() {
+        while (running.get()) {
+            try {
+                SocketChannel channel = unixServerChannel.accept();
+
+                if (activeConnections.get() >= config.getMaxConnections()) {
+                    LOGGER.log(Level.WARNING, "Connection limit reached ({0}), rejecting Unix domain connection", config.getMaxConnections());
+                    channel.close();
+                    continue;
+                }
+
+                if (isShedding()) {
+                    LOGGER.warning("Server overloaded, rejecting Unix domain connection");
+                    channel.close();
+                    continue;
+                }
+
+                int connectionId = activeConnections.incrementAndGet();
+                LOGGER.log(Level.INFO, "✓ New Unix domain connection accepted [ID: {0}] (Active: {1}/{2})", new Object[]{
+                    connectionId, activeConnections.get(), config.getMaxConnections()
+                });
+
+                clientExecutor.submit(() -> handleClient(connectionId, () -> new ClientConnectionHandler(
+                        channel, connectionId, config, authService,
+                        sessionManager, errorHandler, rateLimiter,
+                        orderManager
+                )));
+
+            } catch (IOException e) {
+                // Closing the channel in stop() is how this loop ends
+                if (running.get()) LOGGER.log(Level.SEVERE, "Error accepting Unix domain connection", e);
+            }
+        }
+
+        LOGGER.info("Unix acceptor thread stopped");
+    }
+
+    /** In-host clients exchange BOE frames through mapped rings; sessions are served one at a time. */
+    private void startSharedMemoryGateway(Path directory) throws IOException {
+        sharedMemoryGateway = new SharedMemoryGateway(directory, config.getSharedMemoryRingBytes());
+        sharedMemoryThread = Thread.ofPlatform().name("SharedMemoryGateway").daemon(true).start(this::serveSharedMemorySessions);
+        LOGGER.log(Level.INFO, "✓ Shared-memory gateway on {0}", directory.toAbsolutePath());
+    }
+
+    private void serveSharedMemorySessions() {
+        while (running.get()) {
+            try {
+                if (!sharedMemoryGateway.awaitClient()) break;
+
+                if (activeConnections.get() >= config.getMaxConnections()) {
+                    LOGGER.log(Level.WARNING, "Connection limit reached ({0}), rejecting shared-memory connection", config.getMaxConnections());
+                    sharedMemoryGateway.rejectClient();
+                    continue;
+                }
+
+                if (isShedding()) {
+                    LOGGER.warning("Server overloaded, rejecting shared-memory connection");
+                    sharedMemoryGateway.rejectClient();
+                    continue;
+                }
+
+                int connectionId = activeConnections.incrementAndGet();
+                LOGGER.log(Level.INFO, "✓ New shared-memory connection accepted [ID: {0}] (Active: {1}/{2})", new Object[]{
+                    connectionId, activeConnections.get(), config.getMaxConnections()
+                });
+
+                handleClient(connectionId, () -> sharedMemoryGateway.newHandler(
+                        connectionId, config, authService,
+                        sessionManager, errorHandler, rateLimiter,
+                        orderManager
+                ));
+
+            } catch (IOException e) {
+                if (running.get()) LOGGER.log(Level.SEVERE, "Error publishing shared-memory rings", e);
+                break;
+            }
+        }
+
+        LOGGER.info("Shared-memory gateway stopped");
+    }
+
+    private void handleClient(int connectionId, Supplier<ClientConnectionHandler> handlerFactory) {
         LOGGER.log(Level.INFO, "[Connection {0}] Handler started", connectionId);
         ClientConnectionHandler handler = null;
 
         try {
-            handler = new ClientConnectionHandler(
-                    socket, connectionId, config, authService,
-                    sessionManager, errorHandler, rateLimiter,
-                    orderManager
-            );
+            handler = handlerFactory.get();
             sessionManager.registerHandler(handler);
             healthMetrics.updatePeakConnections(activeConnections.get());
             handler.run();
@@ -247,6 +391,23 @@ public class CboeServer {
             LOGGER.log(Level.WARNING, "Error closing server socket", e);
         }
 
+        if (unixServerChannel != null) {
+            try {
+                unixServerChannel.close();
+                Files.deleteIfExists(Path.of(config.getUnixSocketPath()));
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Error closing Unix domain socket listener", e);
+            }
+        }
+
+        if (sharedMemoryGateway != null) {
+            try {
+                sharedMemoryGateway.close();
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Error closing shared-memory gateway", e);
+            }
+        }
+
         // Wait for acceptor thread
         if (acceptorThread != null) {
             try {
@@ -260,6 +421,56 @@ public class CboeServer {
         LOGGER.info("✓ CBOE Server stopped");
     }
 
+    private static RateLimiter createRateLimiter(ServerConfiguration config) {
+        Duration minute = Duration.ofMinutes(1);
+        RateLimiter.Builder builder = RateLimiter.builder().perConnection(config.getRateLimitPerMinute(), minute);
+
+        if (config.getUserRateLimitPerMinute() > 0) builder.perUser(config.getUserRateLimitPerMinute(), minute);
+        if (config.getNewOrderRateLimitPerMinute() > 0) builder.perMessageType(BoeMessageFactory.NEW_ORDER, config.getNewOrderRateLimitPerMinute(), minute);
+        if (config.getCancelOrderRateLimitPerMinute() > 0) builder.perMessageType(BoeMessageFactory.CANCEL_ORDER, config.getCancelOrderRateLimitPerMinute(), minute);
+        if (config.getModifyOrderRateLimitPerMinute() > 0) builder.perMessageType(BoeMessageFactory.MODIFY_ORDER, config.getModifyOrderRateLimitPerMinute(), minute);
+        return builder.build();
+    }
+
+    private static OverloadController createOverloadController(ServerConfiguration config, OrderManager orderManager) {
+        if (!config.isOverloadControlEnabled()) return null;
+
+        OverloadController.Thresholds thresholds = new OverloadController.Thresholds(
+                config.getOverloadMatchingQueueDepth(),
+                config.getOverloadPersistenceBacklog(),
+                config.getOverloadAckLatencyMicros());
+        return new OverloadController(thresholds, orderManager::getMatchingQueueDepth, orderManager::getPersistenceBacklog);
+    }
+
+    private boolean isShedding() {
+        return overloadController != null && overloadController.shouldShedConnections();
+    }
+
+    private static WriteBehindJournal openWriteBehindJournal(ServerConfiguration config, String name, RocksDBManager dbManager) {
+        if (config.getWriteBehindJournalDirectory() == null) return null;
+
+        // Without the WAL, applied records sit in memtables; the journal keeps them until a flush
+        WriteBehindJournal.Barrier barrier = config.getDurabilityMode() == DurabilityMode.NO_WAL ? dbManager::flush : null;
+        try {
+            return WriteBehindJournal.open(Path.of(config.getWriteBehindJournalDirectory()), name, barrier);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Write-behind journal " + name + " unavailable - pending writes are kept in memory only", e);
+            return null;
+        }
+    }
+
+    private static SessionJournalStore openJournalStore(ServerConfiguration config) {
+        if (config.getSessionJournalDirectory() == null) return null;
+
+        try {
+            return new SessionJournalStore(Path.of(config.getSessionJournalDirectory()),
+                    Duration.ofHours(config.getSessionJournalMaxAgeHours()));
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Session journal directory unavailable - replay on login disabled", e);
+            return null;
+        }
+    }
+
     public void shutdown() {
         LOGGER.info("======= SERVER SHUTDOWN INITIATED =======");
 
@@ -267,6 +478,7 @@ public class CboeServer {
             // Print statistics (con try-catch para proteger)
             try {
                 LOGGER.info(healthMetrics.getHealthSummary());
+                if (dbManager != null && !dbManager.isClosed()) LOGGER.info(dbManager.getStatisticsSummary());
                 LOGGER.log(Level.INFO, "Error stats: Errors={0}, Warnings={1}, Recoveries={2}", new Object[]{
                         errorHandler.getTotalErrors(),
                         errorHandler.getTotalWarnings(),
@@ -316,15 +528,19 @@ public class CboeServer {
                 Thread.currentThread().interrupt();
                 clientExecutor.shutdownNow();
             }
+            authService.getCredentialVerifier().shutdown();
 
             // Flush async persistence queue before closing DB
             try {
                 orderManager.getOrderRepository().stopAsyncPersistence();
+                tradeRepository.stopAsyncPersistence();
                 LOGGER.info("✓ Async persistence queue flushed");
             } catch (Exception e) {
                 LOGGER.log(Level.WARNING, "Error flushing persistence queue", e);
             }
 
+            if (journalStore != null) journalStore.close();
+
             // Cerrar base de datos al FINAL
             LOGGER.info("Closing persistence layer...");
             if (dbManager != null && !dbManager.isClosed()) {
@@ -350,10 +566,12 @@ public class CboeServer {
             orderManager.reset();
 
             dbManager.clearColumnFamily(com.boe.simulator.server.persistence.RocksDBManager.CF_MESSAGES);
+            dbManager.clearColumnFamily(com.boe.simulator.server.persistence.RocksDBManager.CF_TRADES);
             dbManager.clearColumnFamily(com.boe.simulator.server.persistence.RocksDBManager.CF_AUDIT);
             dbManager.clearColumnFamily(com.boe.simulator.server.persistence.RocksDBManager.CF_SESSIONS);
+            if (journalStore != null) journalStore.reset();
 
-            LOGGER.info("Daily reset complete: orders, trades, audit and sessions cleared. Users and config preserved.");
+            LOGGER.info("Daily reset complete: orders, trades, audit, sessions and session journals cleared. Users and config preserved.");
         } catch (Exception e) {
             LOGGER.log(Level.SEVERE, "Daily reset failed", e);
         }
@@ -418,6 +636,9 @@ public class CboeServer {
                 .host("0.0.0.0")
                 .port(boePort)
                 .maxConnections(10_000)
+                .unixSocketPath(System.getenv("BOE_UNIX_SOCKET"))
+                .sharedMemoryDirectory(System.getenv("BOE_SHM_DIR"))
+                .durabilityMode(DurabilityMode.valueOf(System.getenv().getOrDefault("BOE_DURABILITY", "WAL").toUpperCase(Locale.ROOT)))
                 .logLevel(Level.INFO)
                 .build();
 
@@ -14,6 +14,7 @@ public class AuthenticationService {
     private static final Logger LOGGER = Logger.getLogger(AuthenticationService.class.getName());
 
     private final UserRepository userRepository;
+    private final CredentialVerifier credentialVerifier;
 
     private final ConcurrentHashMap<String, String> activeSessions;
 
@@ -26,7 +27,12 @@ public class AuthenticationService {
     }
 
     public AuthenticationService(UserRepository userRepository) {
+        this(userRepository, CredentialVerifier.withDefaults());
+    }
+
+    public AuthenticationService(UserRepository userRepository, CredentialVerifier credentialVerifier) {
         this.userRepository = userRepository;
+        this.credentialVerifier = credentialVerifier;
         this.activeSessions = new ConcurrentHashMap<>();
 
         initializeDefaultUsers();
@@ -75,8 +81,10 @@ public class AuthenticationService {
             return AuthenticationResult.rejected("User account is inactive");
         }
 
-        // Verify password
-        if (!PasswordHasher.verify(password, user.passwordHash())) {
+        // Verify password (bcrypt runs on the verifier pool, not this thread)
+        CredentialVerifier.Outcome outcome = credentialVerifier.verify(username, password, user.passwordHash());
+        if (outcome == CredentialVerifier.Outcome.BUSY) return AuthenticationResult.rejected("Login service busy, retry later");
+        if (outcome == CredentialVerifier.Outcome.REJECTED) {
             LOGGER.log(Level.WARNING, "Invalid password for user: {0}", username);
             return AuthenticationResult.rejected("Invalid username or password");
         }
@@ -118,7 +126,7 @@ public class AuthenticationService {
         if (userOpt.isEmpty()) return false;
         PersistedUser user = userOpt.get();
         if (!user.active()) return false;
-        return PasswordHasher.verify(password, user.passwordHash());
+        return credentialVerifier.verify(username, password, user.passwordHash()) == CredentialVerifier.Outcome.VERIFIED;
     }
 
     public boolean userExists(String username) {
@@ -129,6 +137,10 @@ public class AuthenticationService {
         return userRepository.count();
     }
 
+    public CredentialVerifier getCredentialVerifier() {
+        return credentialVerifier;
+    }
+
     public UserRepository getUserRepository() {
         return userRepository;
     }
@@ -0,0 +1,167 @@
+package com.boe.simulator.server.auth;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.boe.simulator.server.persistence.util.PasswordHasher;
+
+/**
+ * Runs bcrypt password checks on a small, bounded pool instead of on the caller's (virtual)
+ * thread, so a reconnect storm queues on the pool rather than pinning every carrier thread.
+ * When the queue is full the login is refused as {@link Outcome#BUSY}.
+ *
+ * Successful checks are remembered for {@code cacheTtl} as a salted SHA-256 of the stored hash
+ * and the password, never the password itself; a changed password changes the stored hash and
+ * misses. Concurrent checks of the same credentials share one bcrypt run.
+ */
+public class CredentialVerifier {
+    private static final Logger LOGGER = Logger.getLogger(CredentialVerifier.class.getName());
+
+    public enum Outcome { VERIFIED, REJECTED, BUSY }
+
+    private record Verified(String storedHash, byte[] digest, long expiresAt) {}
+
+    private record InFlight(String storedHash, byte[] digest, CompletableFuture<Boolean> result) {}
+
+    private final ThreadPoolExecutor pool;
+    private final ConcurrentHashMap<String, Verified> cache = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, InFlight> inFlight = new ConcurrentHashMap<>();
+    private final long cacheTtlNanos;
+    private final LongSupplier clock;
+    private final byte[] salt = new byte[16];
+
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong bcryptRuns = new AtomicLong();
+
+    public CredentialVerifier(int threads, int queueCapacity, Duration cacheTtl) {
+        this(threads, queueCapacity, cacheTtl, System::nanoTime);
+    }
+
+    CredentialVerifier(int threads, int queueCapacity, Duration cacheTtl, LongSupplier clock) {
+        if (threads < 1) throw new IllegalArgumentException("Verifier threads must be at least 1");
+        if (queueCapacity < 1) throw new IllegalArgumentException("Verifier queue capacity must be at least 1");
+
+        AtomicInteger threadIds = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                task -> Thread.ofPlatform().name("login-verify-" + threadIds.incrementAndGet()).daemon(true).unstarted(task));
+        this.pool.allowCoreThreadTimeOut(true); // idle services hold no threads
+        this.cacheTtlNanos = cacheTtl.toNanos();
+        this.clock = clock;
+        new SecureRandom().nextBytes(salt);
+    }
+
+    public static CredentialVerifier withDefaults() {
+        return new CredentialVerifier(Math.max(1, Runtime.getRuntime().availableProcessors() / 2), 1024, Duration.ofSeconds(60));
+    }
+
+    /** Checks {@code password} against the user's bcrypt {@code storedHash}; blocks until known. */
+    public Outcome verify(String username, String password, String storedHash) {
+        if (password == null || storedHash == null) return Outcome.REJECTED;
+
+        byte[] digest = digest(storedHash, password);
+        long now = clock.getAsLong();
+
+        Verified verified = cache.get(username);
+        if (verified != null) {
+            if (now - verified.expiresAt() < 0 && verified.storedHash().equals(storedHash) && MessageDigest.isEqual(verified.digest(), digest)) {
+                cacheHits.incrementAndGet();
+                return Outcome.VERIFIED;
+            }
+            if (now - verified.expiresAt() >= 0) cache.remove(username, verified);
+        }
+
+        CompletableFuture<Boolean> result = verifyOnPool(username, password, storedHash, digest);
+        if (result == null) {
+            LOGGER.log(Level.WARNING, "Login verification queue full, refusing {0}", username);
+            return Outcome.BUSY;
+        }
+
+        try {
+            return result.get() ? Outcome.VERIFIED : Outcome.REJECTED;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Outcome.BUSY;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RejectedExecutionException) return Outcome.BUSY; // joined a check that was refused
+            LOGGER.log(Level.WARNING, "Login verification failed for " + username, e.getCause());
+            return Outcome.REJECTED;
+        }
+    }
+
+    public void invalidate(String username) {
+        cache.remove(username);
+    }
+
+    public long getCacheHits() {
+        return cacheHits.get();
+    }
+
+    public long getBcryptRuns() {
+        return bcryptRuns.get();
+    }
+
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    // Joins an identical check already running, else queues a new one; null if the queue is full
+    private CompletableFuture<Boolean> verifyOnPool(String username, String password, String storedHash, byte[] digest) {
+        InFlight mine = new InFlight(storedHash, digest, new CompletableFuture<>());
+        InFlight running = inFlight.putIfAbsent(username, mine);
+        if (running != null && running.storedHash().equals(storedHash) && MessageDigest.isEqual(running.digest(), digest)) {
+            return running.result();
+        }
+        boolean shared = running == null; // a different password is being checked: run alone
+
+        try {
+            pool.execute(() -> {
+                boolean matches;
+                try {
+                    bcryptRuns.incrementAndGet();
+                    matches = PasswordHasher.verify(password, storedHash);
+                    if (matches && cacheTtlNanos > 0) cache.put(username, new Verified(storedHash, digest, clock.getAsLong() + cacheTtlNanos));
+                } catch (RuntimeException e) {
+                    if (shared) inFlight.remove(username, mine);
+                    mine.result().completeExceptionally(e);
+                    return;
+                }
+                // Unpublish before completing, so no later caller joins a finished check
+                if (shared) inFlight.remove(username, mine);
+                mine.result().complete(matches);
+            });
+        } catch (RejectedExecutionException e) {
+            if (shared) inFlight.remove(username, mine);
+            mine.result().completeExceptionally(e); // anyone who joined is refused too
+            return null;
+        }
+        return mine.result();
+    }
+
+    private byte[] digest(String storedHash, String password) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            sha256.update(salt);
+            sha256.update(storedHash.getBytes(StandardCharsets.UTF_8));
+            sha256.update((byte) 0);
+            return sha256.digest(password.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+    }
+}
@@ -1,7 +1,13 @@
 package com.boe.simulator.server.config;
 
+import java.util.Map;
 import java.util.logging.Level;
 
+import com.boe.simulator.server.persistence.DurabilityMode;
+import com.boe.simulator.server.persistence.RocksDBManager;
+import com.boe.simulator.server.persistence.TuningProfile;
+import com.boe.simulator.server.persistence.codec.RecordFormat;
+
 public class ServerConfiguration {
     
     // Network settings
@@ -9,6 +15,9 @@ public class ServerConfiguration {
     private final int port;
     private final int maxConnections;
     private final int connectionTimeout;
+    private final String unixSocketPath; // optional listener for co-located clients; null disables it
+    private final String sharedMemoryDirectory; // optional mapped-ring gateway; null disables it
+    private final int sharedMemoryRingBytes;
     
     // Heartbeat settings
     private final long heartbeatIntervalSeconds;
@@ -16,6 +25,46 @@ public class ServerConfiguration {
 
     // Rate limiting
     private final int rateLimitPerMinute;
+    private final int userRateLimitPerMinute;        // across all of a user's sessions; 0 disables
+    private final int newOrderRateLimitPerMinute;    // per connection; 0 disables
+    private final int cancelOrderRateLimitPerMinute;
+    private final int modifyOrderRateLimitPerMinute;
+
+    // Overload control: elevated thresholds, critical is twice each
+    private final boolean overloadControlEnabled;
+    private final int overloadMatchingQueueDepth;
+    private final int overloadPersistenceBacklog;
+    private final long overloadAckLatencyMicros;
+
+    // Fair matching access: turns per round at a contended symbol, by user or clearing firm
+    private final Map<String, Integer> matchingUserWeights;
+    private final Map<String, Integer> matchingFirmWeights;
+
+    // Login verification: bounded bcrypt pool and cache of recent successful logins
+    private final int loginVerifierThreads;
+    private final int loginVerifierQueueCapacity;
+    private final int loginCacheTtlSeconds;           // 0 disables the cache
+
+    // Outbound queueing
+    private final int outboundQueueCapacity;
+    private final SlowConsumerPolicy slowConsumerPolicy;
+    private final boolean outboundBatching;
+
+    // Outbound journal (replay on login); null disables journaling
+    private final String sessionJournalDirectory;
+    private final int sessionJournalMaxAgeHours;       // 0 keeps journals until the daily reset
+
+    // Record format per column family; unlisted ones are written as JSON
+    private final Map<String, RecordFormat> recordFormats;
+
+    // RocksDB tuning profile per column family (unlisted ones get DEFAULT), sharing one block cache
+    private final Map<String, TuningProfile> tuningProfiles;
+    private final long blockCacheBytes;
+
+    // How durable a RocksDB write is when it returns; concurrent writes share one commit
+    private final DurabilityMode durabilityMode;
+    // Write-behind orders and trades are journaled here until applied; null keeps them in memory
+    private final String writeBehindJournalDirectory;
 
     // Logging
     private final Level logLevel;
@@ -27,9 +76,35 @@ public class ServerConfiguration {
         this.port = builder.port;
         this.maxConnections = builder.maxConnections;
         this.connectionTimeout = builder.connectionTimeout;
+        this.unixSocketPath = builder.unixSocketPath;
+        this.sharedMemoryDirectory = builder.sharedMemoryDirectory;
+        this.sharedMemoryRingBytes = builder.sharedMemoryRingBytes;
         this.heartbeatIntervalSeconds = builder.heartbeatIntervalSeconds;
         this.heartbeatTimeoutSeconds = builder.heartbeatTimeoutSeconds;
         this.rateLimitPerMinute = builder.rateLimitPerMinute;
+        this.userRateLimitPerMinute = builder.userRateLimitPerMinute;
+        this.newOrderRateLimitPerMinute = builder.newOrderRateLimitPerMinute;
+        this.cancelOrderRateLimitPerMinute = builder.cancelOrderRateLimitPerMinute;
+        this.modifyOrderRateLimitPerMinute = builder.modifyOrderRateLimitPerMinute;
+        this.overloadControlEnabled = builder.overloadControlEnabled;
+        this.overloadMatchingQueueDepth = builder.overloadMatchingQueueDepth;
+        this.overloadPersistenceBacklog = builder.overloadPersistenceBacklog;
+        this.overloadAckLatencyMicros = builder.overloadAckLatencyMicros;
+        this.matchingUserWeights = builder.matchingUserWeights;
+        this.matchingFirmWeights = builder.matchingFirmWeights;
+        this.loginVerifierThreads = builder.loginVerifierThreads;
+        this.loginVerifierQueueCapacity = builder.loginVerifierQueueCapacity;
+        this.loginCacheTtlSeconds = builder.loginCacheTtlSeconds;
+        this.outboundQueueCapacity = builder.outboundQueueCapacity;
+        this.slowConsumerPolicy = builder.slowConsumerPolicy;
+        this.outboundBatching = builder.outboundBatching;
+        this.sessionJournalDirectory = builder.sessionJournalDirectory;
+        this.sessionJournalMaxAgeHours = builder.sessionJournalMaxAgeHours;
+        this.recordFormats = builder.recordFormats;
+        this.tuningProfiles = builder.tuningProfiles;
+        this.blockCacheBytes = builder.blockCacheBytes;
+        this.durabilityMode = builder.durabilityMode;
+        this.writeBehindJournalDirectory = builder.writeBehindJournalDirectory;
         this.logLevel = builder.logLevel;
     }
     
@@ -54,9 +129,35 @@ public class ServerConfiguration {
     public int getPort() { return port; }
     public int getMaxConnections() { return maxConnections; }
     public int getConnectionTimeout() { return connectionTimeout; }
+    public String getUnixSocketPath() { return unixSocketPath; }
+    public String getSharedMemoryDirectory() { return sharedMemoryDirectory; }
+    public int getSharedMemoryRingBytes() { return sharedMemoryRingBytes; }
     public long getHeartbeatIntervalSeconds() { return heartbeatIntervalSeconds; }
     public long getHeartbeatTimeoutSeconds() { return heartbeatTimeoutSeconds; }
     public int getRateLimitPerMinute() { return rateLimitPerMinute; }
+    public int getUserRateLimitPerMinute() { return userRateLimitPerMinute; }
+    public int getNewOrderRateLimitPerMinute() { return newOrderRateLimitPerMinute; }
+    public int getCancelOrderRateLimitPerMinute() { return cancelOrderRateLimitPerMinute; }
+    public int getModifyOrderRateLimitPerMinute() { return modifyOrderRateLimitPerMinute; }
+    public boolean isOverloadControlEnabled() { return overloadControlEnabled; }
+    public int getOverloadMatchingQueueDepth() { return overloadMatchingQueueDepth; }
+    public int getOverloadPersistenceBacklog() { return overloadPersistenceBacklog; }
+    public long getOverloadAckLatencyMicros() { return overloadAckLatencyMicros; }
+    public Map<String, Integer> getMatchingUserWeights() { return matchingUserWeights; }
+    public Map<String, Integer> getMatchingFirmWeights() { return matchingFirmWeights; }
+    public int getLoginVerifierThreads() { return loginVerifierThreads; }
+    public int getLoginVerifierQueueCapacity() { return loginVerifierQueueCapacity; }
+    public int getLoginCacheTtlSeconds() { return loginCacheTtlSeconds; }
+    public int getOutboundQueueCapacity() { return outboundQueueCapacity; }
+    public SlowConsumerPolicy getSlowConsumerPolicy() { return slowConsumerPolicy; }
+    public boolean isOutboundBatching() { return outboundBatching; }
+    public String getSessionJournalDirectory() { return sessionJournalDirectory; }
+    public int getSessionJournalMaxAgeHours() { return sessionJournalMaxAgeHours; }
+    public Map<String, RecordFormat> getRecordFormats() { return recordFormats; }
+    public Map<String, TuningProfile> getTuningProfiles() { return tuningProfiles; }
+    public long getBlockCacheBytes() { return blockCacheBytes; }
+    public DurabilityMode getDurabilityMode() { return durabilityMode; }
+    public String getWriteBehindJournalDirectory() { return writeBehindJournalDirectory; }
     public Level getLogLevel() { return logLevel; }
     
     @Override
@@ -66,8 +167,18 @@ public class ServerConfiguration {
                 ", port=" + port +
                 ", maxConnections=" + maxConnections +
                 ", connectionTimeout=" + connectionTimeout + "ms" +
+                ", unixSocketPath=" + unixSocketPath +
+                ", sharedMemoryDirectory=" + sharedMemoryDirectory +
                 ", heartbeatInterval=" + heartbeatIntervalSeconds + "s" +
                 ", heartbeatTimeout=" + heartbeatTimeoutSeconds + "s" +
+                ", overloadControlEnabled=" + overloadControlEnabled +
+                ", outboundQueueCapacity=" + outboundQueueCapacity +
+                ", slowConsumerPolicy=" + slowConsumerPolicy +
+                ", outboundBatching=" + outboundBatching +
+                ", sessionJournalDirectory=" + sessionJournalDirectory +
+                ", sessionJournalMaxAge=" + sessionJournalMaxAgeHours + "h" +
+                ", durabilityMode=" + durabilityMode +
+                ", writeBehindJournalDirectory=" + writeBehindJournalDirectory +
                 ", logLevel=" + logLevel +
                 '}';
     }
@@ -77,9 +188,44 @@ public class ServerConfiguration {
         private int port = 8080;
         private int maxConnections = 100;
         private int connectionTimeout = 30000; // 30 seconds
+        private String unixSocketPath = null;
+        private String sharedMemoryDirectory = null;
+        private int sharedMemoryRingBytes = 1 << 20; // 1MB per direction
         private long heartbeatIntervalSeconds = 10;
         private long heartbeatTimeoutSeconds = 30;
         private int rateLimitPerMinute = 100;
+        private int userRateLimitPerMinute = 0;
+        private int newOrderRateLimitPerMinute = 0;
+        private int cancelOrderRateLimitPerMinute = 0;
+        private int modifyOrderRateLimitPerMinute = 0;
+        private boolean overloadControlEnabled = true;
+        private int overloadMatchingQueueDepth = 64;
+        private int overloadPersistenceBacklog = 100_000;
+        private long overloadAckLatencyMicros = 5_000; // 5ms
+        private Map<String, Integer> matchingUserWeights = Map.of();
+        private Map<String, Integer> matchingFirmWeights = Map.of();
+        private int loginVerifierThreads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        private int loginVerifierQueueCapacity = 1024;
+        private int loginCacheTtlSeconds = 60;
+        private int outboundQueueCapacity = 4096;
+        private SlowConsumerPolicy slowConsumerPolicy = SlowConsumerPolicy.DISCONNECT;
+        private boolean outboundBatching = true;
+        private String sessionJournalDirectory = "./data/journal";
+        private int sessionJournalMaxAgeHours = 48;
+        private Map<String, RecordFormat> recordFormats = Map.of(
+                RocksDBManager.CF_ORDERS, RecordFormat.BINARY,
+                RocksDBManager.CF_TRADES, RecordFormat.BINARY);
+        private Map<String, TuningProfile> tuningProfiles = Map.of(
+                RocksDBManager.CF_ORDERS, TuningProfile.POINT_LOOKUP,
+                RocksDBManager.CF_ORDER_INDEXES, TuningProfile.PREFIX_SCAN,
+                RocksDBManager.CF_USERS, TuningProfile.POINT_LOOKUP,
+                RocksDBManager.CF_SESSIONS, TuningProfile.POINT_LOOKUP,
+                RocksDBManager.CF_TRADES, TuningProfile.WRITE_HEAVY,
+                RocksDBManager.CF_MESSAGES, TuningProfile.WRITE_HEAVY,
+                RocksDBManager.CF_AUDIT, TuningProfile.WRITE_HEAVY);
+        private long blockCacheBytes = RocksDBManager.DEFAULT_BLOCK_CACHE_BYTES;
+        private DurabilityMode durabilityMode = DurabilityMode.WAL;
+        private String writeBehindJournalDirectory = "./data/write-behind";
         private Level logLevel = Level.INFO;
         
         public Builder host(String host) {
@@ -105,6 +251,24 @@ public class ServerConfiguration {
             return this;
         }
         
+        public Builder unixSocketPath(String path) {
+            if (path != null && path.isBlank()) throw new IllegalArgumentException("Unix socket path must not be blank");
+            this.unixSocketPath = path;
+            return this;
+        }
+
+        public Builder sharedMemoryDirectory(String directory) {
+            if (directory != null && directory.isBlank()) throw new IllegalArgumentException("Shared memory directory must not be blank");
+            this.sharedMemoryDirectory = directory;
+            return this;
+        }
+
+        public Builder sharedMemoryRingBytes(int bytes) {
+            if (bytes < 1024 || Integer.bitCount(bytes) != 1) throw new IllegalArgumentException("Shared memory ring size must be a power of two of at least 1024 bytes");
+            this.sharedMemoryRingBytes = bytes;
+            return this;
+        }
+
         public Builder heartbeatIntervalSeconds(long seconds) {
             if (seconds < 1) throw new IllegalArgumentException("Heartbeat interval must be at least 1 second");
             this.heartbeatIntervalSeconds = seconds;
@@ -122,7 +286,156 @@ public class ServerConfiguration {
             this.rateLimitPerMinute = limit;
             return this;
         }
+
+        public Builder userRateLimitPerMinute(int limit) {
+            this.userRateLimitPerMinute = requireOptionalLimit(limit);
+            return this;
+        }
+
+        public Builder newOrderRateLimitPerMinute(int limit) {
+            this.newOrderRateLimitPerMinute = requireOptionalLimit(limit);
+            return this;
+        }
+
+        public Builder cancelOrderRateLimitPerMinute(int limit) {
+            this.cancelOrderRateLimitPerMinute = requireOptionalLimit(limit);
+            return this;
+        }
+
+        public Builder modifyOrderRateLimitPerMinute(int limit) {
+            this.modifyOrderRateLimitPerMinute = requireOptionalLimit(limit);
+            return this;
+        }
+
+        public Builder overloadControlEnabled(boolean enabled) {
+            this.overloadControlEnabled = enabled;
+            return this;
+        }
+
+        public Builder overloadMatchingQueueDepth(int depth) {
+            if (depth < 1) throw new IllegalArgumentException("Overload matching queue depth must be at least 1");
+            this.overloadMatchingQueueDepth = depth;
+            return this;
+        }
+
+        public Builder overloadPersistenceBacklog(int backlog) {
+            if (backlog < 1) throw new IllegalArgumentException("Overload persistence backlog must be at least 1");
+            this.overloadPersistenceBacklog = backlog;
+            return this;
+        }
+
+        public Builder overloadAckLatencyMicros(long micros) {
+            if (micros < 1) throw new IllegalArgumentException("Overload ack latency must be at least 1us");
+            this.overloadAckLatencyMicros = micros;
+            return this;
+        }
+
+        private static int requireOptionalLimit(int limit) {
+            if (limit < 0) throw new IllegalArgumentException("Rate limit must not be negative (0 disables it)");
+            return limit;
+        }
         
+        public Builder matchingUserWeights(Map<String, Integer> weights) {
+            this.matchingUserWeights = requireWeights(weights);
+            return this;
+        }
+
+        public Builder matchingFirmWeights(Map<String, Integer> weights) {
+            this.matchingFirmWeights = requireWeights(weights);
+            return this;
+        }
+
+        private static Map<String, Integer> requireWeights(Map<String, Integer> weights) {
+            if (weights == null) throw new IllegalArgumentException("Matching weights must not be null");
+            weights.forEach((name, weight) -> {
+                if (weight == null || weight < 1) throw new IllegalArgumentException("Matching weight for " + name + " must be at least 1");
+            });
+            return Map.copyOf(weights);
+        }
+
+        public Builder loginVerifierThreads(int threads) {
+            if (threads < 1) throw new IllegalArgumentException("Login verifier threads must be at least 1");
+            this.loginVerifierThreads = threads;
+            return this;
+        }
+
+        public Builder loginVerifierQueueCapacity(int capacity) {
+            if (capacity < 1) throw new IllegalArgumentException("Login verifier queue capacity must be at least 1");
+            this.loginVerifierQueueCapacity = capacity;
+            return this;
+        }
+
+        public Builder loginCacheTtlSeconds(int seconds) {
+            if (seconds < 0) throw new IllegalArgumentException("Login cache TTL must not be negative (0 disables it)");
+            this.loginCacheTtlSeconds = seconds;
+            return this;
+        }
+
+        public Builder outboundQueueCapacity(int capacity) {
+            if (capacity < 16) throw new IllegalArgumentException("Outbound queue capacity must be at least 16");
+            this.outboundQueueCapacity = capacity;
+            return this;
+        }
+
+        public Builder slowConsumerPolicy(SlowConsumerPolicy policy) {
+            if (policy == null) throw new IllegalArgumentException("Slow consumer policy must not be null");
+            this.slowConsumerPolicy = policy;
+            return this;
+        }
+
+        public Builder outboundBatching(boolean enabled) {
+            this.outboundBatching = enabled;
+            return this;
+        }
+
+        public Builder sessionJournalDirectory(String directory) {
+            if (directory != null && directory.isBlank()) throw new IllegalArgumentException("Session journal directory must not be blank");
+            this.sessionJournalDirectory = directory;
+            return this;
+        }
+
+        public Builder sessionJournalMaxAgeHours(int hours) {
+            if (hours < 0) throw new IllegalArgumentException("Session journal max age must not be negative (0 keeps journals until the daily reset)");
+            this.sessionJournalMaxAgeHours = hours;
+            return this;
+        }
+
+        public Builder recordFormats(Map<String, RecordFormat> formats) {
+            if (formats == null) throw new IllegalArgumentException("Record formats must not be null");
+            formats.forEach((columnFamily, format) -> {
+                if (format == null) throw new IllegalArgumentException("Record format for " + columnFamily + " must not be null");
+            });
+            this.recordFormats = Map.copyOf(formats);
+            return this;
+        }
+
+        public Builder tuningProfiles(Map<String, TuningProfile> profiles) {
+            if (profiles == null) throw new IllegalArgumentException("Tuning profiles must not be null");
+            profiles.forEach((columnFamily, profile) -> {
+                if (profile == null) throw new IllegalArgumentException("Tuning profile for " + columnFamily + " must not be null");
+            });
+            this.tuningProfiles = Map.copyOf(profiles);
+            return this;
+        }
+
+        public Builder blockCacheBytes(long bytes) {
+            if (bytes <= 0) throw new IllegalArgumentException("Block cache size must be positive");
+            this.blockCacheBytes = bytes;
+            return this;
+        }
+
+        public Builder durabilityMode(DurabilityMode mode) {
+            if (mode == null) throw new IllegalArgumentException("Durability mode must not be null");
+            this.durabilityMode = mode;
+            return this;
+        }
+
+        public Builder writeBehindJournalDirectory(String directory) {
+            if (directory != null && directory.isBlank()) throw new IllegalArgumentException("Write-behind journal directory must not be blank");
+            this.writeBehindJournalDirectory = directory;
+            return this;
+        }
+
         public Builder logLevel(Level logLevel) {
             this.logLevel = logLevel;
             return this;
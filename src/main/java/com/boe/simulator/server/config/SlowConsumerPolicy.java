@@ -0,0 +1,15 @@
+package com.boe.simulator.server.config;
+
+/**
+ * What a connection does when its outbound queue cannot keep up with the client.
+ */
+public enum SlowConsumerPolicy {
+    /** Drop the session as soon as its outbound queue overflows. */
+    DISCONNECT,
+    /**
+     * Stop reading from that session while its outbound queue is above the high-water mark,
+     * so only the slow client is throttled. Producers on other threads (matching, heartbeats)
+     * still never wait: if they find the queue full the session is disconnected.
+     */
+    BLOCK
+}
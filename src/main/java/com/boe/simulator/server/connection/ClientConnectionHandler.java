@@ -4,28 +4,43 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.Socket;
+import java.nio.channels.SocketChannel;
 import java.net.SocketException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import com.boe.simulator.protocol.message.*;
 import com.boe.simulator.protocol.serialization.BoeMessageSerializer;
+import com.boe.simulator.protocol.types.BoeHeader;
 import com.boe.simulator.server.auth.AuthenticationResult;
 import com.boe.simulator.server.auth.AuthenticationService;
 import com.boe.simulator.server.config.ServerConfiguration;
+import com.boe.simulator.server.config.SlowConsumerPolicy;
 import com.boe.simulator.server.error.ErrorHandler;
 import com.boe.simulator.server.heartbeat.HeartbeatMonitor;
 import com.boe.simulator.server.order.OrderManager;
 import com.boe.simulator.server.ratelimit.RateLimiter;
 import com.boe.simulator.server.session.ClientSession;
 import com.boe.simulator.server.session.ClientSessionManager;
+import com.boe.simulator.server.session.SessionJournal;
+import com.boe.simulator.server.session.SessionJournalStore;
 import com.boe.simulator.server.validation.MessageValidator;
 
 public class ClientConnectionHandler implements Runnable {
     private static final Logger LOGGER = Logger.getLogger(ClientConnectionHandler.class.getName());
 
-    private final Socket socket;
+    private static final long OUTBOUND_BACKOFF_NANOS = 100_000L;     // 100µs
+    private static final long OUTBOUND_DRAIN_TIMEOUT_MS = 1_000L;
+    private static final int WRITE_BUFFER_BYTES = 64 * 1024;
+    private static final int INITIAL_BATCH_BYTES = 4 * 1024;
+    private static final int MAX_RETAINED_BATCH_BYTES = 256 * 1024;
+
+    private final ClientTransport transport;
     private final ClientSession session;
     private final BoeMessageSerializer serializer;
     private final AuthenticationService authService;
@@ -38,11 +53,43 @@ public class ClientConnectionHandler implements Runnable {
     private InputStream inputStream;
     private OutputStream outputStream;
     private volatile boolean running;
-    private final ReentrantLock sendLock = new ReentrantLock();
+
+    // Inbound order entry: reader-thread only
+    private final InboundDecoder inboundDecoder = new InboundDecoder();
+
+    // Outbound path: producers enqueue, a dedicated writer owns the socket
+    private final OutboundQueue outboundQueue;
+    private final SlowConsumerPolicy slowConsumerPolicy;
+    private final AtomicInteger peakOutboundDepth = new AtomicInteger(0);
+    private final AtomicBoolean slowConsumerTripped = new AtomicBoolean(false);
+    private volatile Thread readerThread;
+    private volatile Thread writerThread;
+    private volatile boolean writerParked;
+    private volatile boolean outboundOpen;
+    private final AtomicLong outboundWrites = new AtomicLong(0);
+
+    // Sequencing + batching: SequenceNumber assignment and queue/batch append happen atomically
+    private final boolean outboundBatching;
+    private final ReentrantLock outboundLock = new ReentrantLock();
+    private byte[] batchBuffer = new byte[INITIAL_BATCH_BYTES];
+    private int batchLength;
+    private boolean batchOpen;
+
+    // Outbound journal for replay on login; set once the session has authenticated
+    private volatile SessionJournal journal;
 
     public ClientConnectionHandler(Socket socket, int connectionId, ServerConfiguration config, AuthenticationService authService, ClientSessionManager sessionManager, ErrorHandler errorHandler, RateLimiter rateLimiter, OrderManager orderManager) {
-        this.socket = socket;
-        this.session = new ClientSession(connectionId, socket.getRemoteSocketAddress().toString());
+        this(ClientTransport.of(socket), connectionId, config, authService, sessionManager, errorHandler, rateLimiter, orderManager);
+    }
+
+    /** Serves a co-located client over a blocking Unix domain socket channel. */
+    public ClientConnectionHandler(SocketChannel channel, int connectionId, ServerConfiguration config, AuthenticationService authService, ClientSessionManager sessionManager, ErrorHandler errorHandler, RateLimiter rateLimiter, OrderManager orderManager) {
+        this(ClientTransport.of(channel), connectionId, config, authService, sessionManager, errorHandler, rateLimiter, orderManager);
+    }
+
+    ClientConnectionHandler(ClientTransport transport, int connectionId, ServerConfiguration config, AuthenticationService authService, ClientSessionManager sessionManager, ErrorHandler errorHandler, RateLimiter rateLimiter, OrderManager orderManager) {
+        this.transport = transport;
+        this.session = new ClientSession(connectionId, transport.remoteAddress());
         this.serializer = new BoeMessageSerializer();
         this.authService = authService;
         this.heartbeatMonitor = new HeartbeatMonitor(this, config);
@@ -51,10 +98,13 @@ public class ClientConnectionHandler implements Runnable {
         this.errorHandler = errorHandler;
         this.rateLimiter = rateLimiter;
         this.orderManager = orderManager;
+        this.outboundQueue = new OutboundQueue(config.getOutboundQueueCapacity());
+        this.slowConsumerPolicy = config.getSlowConsumerPolicy();
+        this.outboundBatching = config.isOutboundBatching();
 
         LOGGER.log(Level.INFO, "[Session {0}] Handler created for {1}", new Object[]{
                 session.getConnectionId(),
-                socket.getRemoteSocketAddress().toString()
+                transport.remoteAddress()
         });
     }
 
@@ -71,10 +121,16 @@ public class ClientConnectionHandler implements Runnable {
     }
 
     private void initialize() throws IOException {
-        inputStream = socket.getInputStream();
-        outputStream = socket.getOutputStream();
+        inputStream = transport.openInputStream();
+        outputStream = transport.openOutputStream();
         running = true;
 
+        readerThread = Thread.currentThread();
+        outboundOpen = true;
+        writerThread = Thread.ofVirtual()
+                .name("boe-writer-" + session.getConnectionId())
+                .start(this::writerLoop);
+
         session.setState(SessionState.CONNECTED);
 
         LOGGER.log(Level.INFO, "[Session {0}] Initialized - Ready to receive messages", session.getConnectionId());
@@ -84,27 +140,39 @@ public class ClientConnectionHandler implements Runnable {
     private void messageLoop() {
         while (running) {
             try {
+                awaitOutboundCapacity();
+
                 // Read message
                 BoeMessage message = serializer.deserialize(inputStream);
                 session.incrementMessagesReceived();
 
-                MessageValidator.ValidationResult validation = MessageValidator.validate(message);
-                if (!validation.isValid()) {
+                byte messageType = message.getMessageType();
+
+                // Order entry is framed, decoded and validated in one pass; everything else takes the generic path
+                byte decodeResult = InboundDecoder.OK;
+                String frameError = null;
+                if (InboundDecoder.handles(messageType)) {
+                    decodeResult = inboundDecoder.decode(message);
+                    if (InboundDecoder.isFrameReject(decodeResult)) frameError = InboundDecoder.describe(decodeResult);
+                } else {
+                    MessageValidator.ValidationResult validation = MessageValidator.validate(message);
+                    if (!validation.isValid()) frameError = validation.getMessage();
+                }
+
+                if (frameError != null) {
                     LOGGER.log(Level.WARNING, "[Session {0}] Invalid message: {1}", new Object[]{
                             session.getConnectionId(),
-                            validation.getMessage()
+                            frameError
                     });
-                    errorHandler.handleError(session.getConnectionId(), "Message validation", new IllegalArgumentException(validation.getMessage()));
+                    errorHandler.handleError(session.getConnectionId(), "Message validation", new IllegalArgumentException(frameError));
                     continue;
                 }
 
-                if (!rateLimiter.allowMessage(session.getConnectionId())) {
+                if (!rateLimiter.allowMessage(session.getConnectionId(), session.getUsername(), messageType)) {
                     LOGGER.log(Level.WARNING, "[Session {0}] Message rejected - rate limit", session.getConnectionId());
                     continue;
                 }
 
-                byte messageType = message.getMessageType();
-
                 if (LOGGER.isLoggable(Level.FINE)) {
                     LOGGER.log(Level.FINE, "[Session {0}] ← Received {1} (length: {2} bytes)", new Object[]{
                             session.getConnectionId(),
@@ -113,7 +181,14 @@ public class ClientConnectionHandler implements Runnable {
                     });
                 }
 
-                processMessage(message);
+                // Ack plus the fills it caused (or a mass-cancel burst) leave in one write
+                if (outboundBatching) beginOutboundBatch();
+                try {
+                    if (InboundDecoder.handles(messageType)) processDecodedOrderMessage(inboundDecoder.message(), decodeResult);
+                    else processMessage(message);
+                } finally {
+                    if (outboundBatching) endOutboundBatch();
+                }
 
                 if (errorHandler.shouldTerminateConnection(session.getConnectionId())) {
                     LOGGER.log(Level.SEVERE, "[Session {0}] Too many errors - terminating", session.getConnectionId());
@@ -160,6 +235,22 @@ public class ClientConnectionHandler implements Runnable {
         }
     }
 
+    private void processDecodedOrderMessage(ApplicationMessage message, byte decodeResult) {
+        try {
+            switch (message) {
+                case NewOrderMessage newOrderMessage       -> handleNewOrder(newOrderMessage, decodeResult);
+                case CancelOrderMessage cancelOrderMessage -> handleCancelOrder(cancelOrderMessage);
+                case ModifyOrderMessage modifyOrderMessage -> handleModifyOrder(modifyOrderMessage, decodeResult);
+                default -> LOGGER.log(Level.WARNING, "[Session {0}] Unsupported inbound application message: {1}", new Object[]{
+                        session.getConnectionId(),
+                        message.getClass().getSimpleName()
+                });
+            }
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "[Session " + session.getConnectionId() + "] Error processing message type 0x" + String.format("%02X", message.getMessageType()), e);
+        }
+    }
+
     private void handleSessionMessage(SessionMessage message) {
         switch (message) {
             case LoginRequestMessage loginRequestMessage -> handleLoginRequest(loginRequestMessage);
@@ -174,9 +265,9 @@ public class ClientConnectionHandler implements Runnable {
 
     private void handleApplicationMessage(ApplicationMessage message) {
         switch (message) {
-            case NewOrderMessage newOrderMessage       -> handleNewOrder(newOrderMessage);
+            case NewOrderMessage newOrderMessage       -> handleNewOrder(newOrderMessage, InboundDecoder.OK);
             case CancelOrderMessage cancelOrderMessage -> handleCancelOrder(cancelOrderMessage);
-            case ModifyOrderMessage modifyOrderMessage -> handleModifyOrder(modifyOrderMessage);
+            case ModifyOrderMessage modifyOrderMessage -> handleModifyOrder(modifyOrderMessage, InboundDecoder.OK);
             default -> LOGGER.log(Level.WARNING, "[Session {0}] Unsupported inbound application message: {1}", new Object[]{
                     session.getConnectionId(),
                     message.getClass().getSimpleName()
@@ -205,7 +296,7 @@ public class ClientConnectionHandler implements Runnable {
         );
 
         // Create and send LoginResponse
-        sendLoginResponse(authResult, request.getSequenceNumber());
+        sendLoginResponse(authResult, request.getSequenceNumber(), request.getUnitSequence());
 
         if (authResult.isAccepted()) {
             session.setState(SessionState.AUTHENTICATED);
@@ -223,16 +314,8 @@ public class ClientConnectionHandler implements Runnable {
                     authResult.message()
             });
             
-            // Close connection gracefully after failed authentication
-            try {
-                Thread.sleep(100); // Give time for LoginResponse to be sent
-                running = false;
-                socket.close();
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            } catch (IOException e) {
-                LOGGER.log(Level.FINE, "Error closing socket after failed authentication", e);
-            }
+            // Close connection after failed authentication; cleanup drains the LoginResponse first
+            running = false;
         }
     }
 
@@ -262,7 +345,7 @@ public class ClientConnectionHandler implements Runnable {
         LOGGER.log(Level.FINE, "[Session {0}] Heartbeat acknowledged", session.getConnectionId());
     }
 
-    private void handleNewOrder(NewOrderMessage newOrder) {
+    private void handleNewOrder(NewOrderMessage newOrder, byte decodeResult) {
         if (LOGGER.isLoggable(Level.FINE)) {
             LOGGER.log(Level.FINE, "[Session {0}] Processing NewOrder: ClOrdID={1}, Symbol={2}, Side={3}, Qty={4}", new Object[]{
                     session.getConnectionId(),
@@ -286,7 +369,10 @@ public class ClientConnectionHandler implements Runnable {
 
         session.updateReceivedSequenceNumber(newOrder.getSequenceNumber());
 
-        OrderManager.OrderResponse response = orderManager.processNewOrder(newOrder, session);
+        OrderManager.OrderResponse response = decodeResult == InboundDecoder.OK
+                ? orderManager.processValidatedNewOrder(newOrder, session)
+                : orderManager.rejectNewOrder(newOrder.getClOrdID(),
+                        InboundDecoder.toOrderRejectReason(decodeResult), InboundDecoder.describe(decodeResult));
 
         if (response.isAcknowledged()) sendOrderAcknowledgment(response.getOrder());
         else {
@@ -298,7 +384,7 @@ public class ClientConnectionHandler implements Runnable {
         }
     }
 
-    private void handleModifyOrder(ModifyOrderMessage modifyOrder) {
+    private void handleModifyOrder(ModifyOrderMessage modifyOrder, byte decodeResult) {
         LOGGER.log(Level.INFO, "[Session {0}] Processing ModifyOrder: origClOrdID={1}, newClOrdID={2}",
                 new Object[]{session.getConnectionId(),
                         modifyOrder.getOrigClOrdID(), modifyOrder.getClOrdID()});
@@ -313,6 +399,12 @@ public class ClientConnectionHandler implements Runnable {
 
         session.updateReceivedSequenceNumber(modifyOrder.getSequenceNumber());
 
+        if (decodeResult != InboundDecoder.OK) {
+            sendUserModifyRejected(modifyOrder.getClOrdID(),
+                    UserModifyRejectedMessage.REASON_UNKNOWN, InboundDecoder.describe(decodeResult));
+            return;
+        }
+
         OrderManager.ModifyResponse response = orderManager.processModifyOrder(modifyOrder, session);
 
         if (response.isModified()) {
@@ -348,24 +440,256 @@ public class ClientConnectionHandler implements Runnable {
 
     }
 
+    /**
+     * Commits an encoded frame to this session's outbound stream as-is. Never performs socket
+     * I/O, so it is safe to call from the matching engine while it holds a book lock.
+     */
     public void sendMessage(byte[] messageBytes) throws IOException {
-        sendLock.lock();
+        commit(messageBytes, false);
+    }
+
+    /**
+     * Like {@link #sendMessage(byte[])}, but assigns the next session SequenceNumber at commit
+     * time, so wire order and sequence order always agree even when the reader thread and the
+     * matching engine publish to the same session concurrently.
+     */
+    public void sendSequencedMessage(byte[] messageBytes) throws IOException {
+        commit(messageBytes, true);
+    }
+
+    private void commit(byte[] frame, boolean sequenced) throws IOException {
+        if (slowConsumerPolicy == SlowConsumerPolicy.BLOCK && Thread.currentThread() == readerThread) {
+            // Only this session's own reader waits, and never while holding the outbound lock
+            awaitOutboundSpace(outboundQueue.capacity());
+        }
+
+        outboundLock.lock();
         try {
-            outputStream.write(messageBytes);
-            outputStream.flush();
+            if (!outboundOpen) throw new IOException("Connection closed");
+
+            if (sequenced) {
+                BoeHeader.stampSequenceNumber(frame, session.getNextSentSequenceNumber());
+                appendToJournal(frame);
+            }
             session.incrementMessagesSent();
 
-            LOGGER.log(Level.FINE, "[Session {0}] → Sent message ({1} bytes)", new Object[]{
+            if (batchOpen) {
+                appendToBatch(frame);
+                // A long batch leaves in write-buffer-sized entries, under the queue bound like any other
+                if (batchLength < WRITE_BUFFER_BYTES) return;
+                if (!publishBatch()) throw new IOException("Outbound queue full - slow consumer disconnected");
+            } else if (!enqueue(frame)) {
+                throw new IOException("Outbound queue full - slow consumer disconnected");
+            }
+        } finally {
+            outboundLock.unlock();
+        }
+
+        signalWriter();
+    }
+
+    /**
+     * Starts collecting every frame committed to this session (by any thread) into one buffer,
+     * published as a single queue entry by {@link #endOutboundBatch()}.
+     */
+    void beginOutboundBatch() {
+        outboundLock.lock();
+        try {
+            batchOpen = true;
+        } finally {
+            outboundLock.unlock();
+        }
+    }
+
+    void endOutboundBatch() {
+        outboundLock.lock();
+        try {
+            batchOpen = false;
+            if (batchLength == 0 || !publishBatch()) return;
+        } finally {
+            outboundLock.unlock();
+        }
+
+        signalWriter();
+    }
+
+    // Caller holds outboundLock
+    private boolean publishBatch() {
+        byte[] batch = java.util.Arrays.copyOf(batchBuffer, batchLength);
+        batchLength = 0;
+        if (batchBuffer.length > MAX_RETAINED_BATCH_BYTES) batchBuffer = new byte[INITIAL_BATCH_BYTES];
+
+        return enqueue(batch);
+    }
+
+    // Caller holds outboundLock, so journal order is sequence order
+    private void appendToJournal(byte[] frame) {
+        SessionJournal current = journal;
+        if (current == null) return;
+        try {
+            current.append(frame);
+        } catch (IOException | RuntimeException e) {
+            journal = null;
+            LOGGER.log(Level.WARNING, "[Session " + session.getConnectionId() + "] Journaling disabled for this session", e);
+        }
+    }
+
+    // Writer thread: keeps region mapping out of appendToJournal, which runs inside matching
+    private void mapJournalAhead() {
+        SessionJournal current = journal;
+        if (current == null) return;
+        try {
+            current.mapAhead();
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, "[Session " + session.getConnectionId() + "] Could not map the next journal region ahead", e);
+        }
+    }
+
+    private void appendToBatch(byte[] frame) {
+        int required = batchLength + frame.length;
+        if (required > batchBuffer.length) {
+            batchBuffer = java.util.Arrays.copyOf(batchBuffer, Math.max(required, batchBuffer.length * 2));
+        }
+        System.arraycopy(frame, 0, batchBuffer, batchLength, frame.length);
+        batchLength = required;
+    }
+
+    // Caller holds outboundLock
+    private boolean enqueue(byte[] frame) {
+        if (!outboundQueue.offer(frame)) {
+            disconnectSlowConsumer();
+            return false;
+        }
+        recordOutboundDepth();
+        return true;
+    }
+
+    private void writerLoop() {
+        byte[] writeBuffer = new byte[WRITE_BUFFER_BYTES];
+
+        try {
+            while (true) {
+                int length = 0;
+                int frames = 0;
+                byte[] frame;
+
+                // Coalesce everything already queued into as few socket writes as possible
+                while ((frame = outboundQueue.poll()) != null) {
+                    frames++;
+                    if (length + frame.length > writeBuffer.length) {
+                        if (length > 0) {
+                            writeChunk(writeBuffer, length);
+                            length = 0;
+                        }
+                        if (frame.length > writeBuffer.length) {
+                            writeChunk(frame, frame.length);
+                            continue;
+                        }
+                    }
+                    System.arraycopy(frame, 0, writeBuffer, length, frame.length);
+                    length += frame.length;
+                }
+
+                if (length > 0) writeChunk(writeBuffer, length);
+                if (frames > 0) {
+                    outputStream.flush();
+                    mapJournalAhead();
+                    continue;
+                }
+
+                if (!outboundOpen) break;
+
+                writerParked = true;
+                if (outboundQueue.isEmpty() && outboundOpen) LockSupport.park(this);
+                writerParked = false;
+            }
+        } catch (IOException e) {
+            if (outboundOpen) {
+                LOGGER.log(Level.INFO, "[Session {0}] Writer stopped: {1}", new Object[]{
+                        session.getConnectionId(),
+                        e.getMessage()
+                });
+            }
+            outboundOpen = false;
+            running = false;
+        }
+    }
+
+    private void writeChunk(byte[] bytes, int length) throws IOException {
+        outputStream.write(bytes, 0, length);
+        outboundWrites.incrementAndGet();
+
+        if (LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.log(Level.FINE, "[Session {0}] → Sent {1} bytes", new Object[]{
                     session.getConnectionId(),
-                    messageBytes.length
+                    length
             });
-        } finally {
-            sendLock.unlock();
         }
     }
 
-    private void sendLoginResponse(AuthenticationResult authResult, int lastReceivedSeq) {
+    private void signalWriter() {
+        if (writerParked) LockSupport.unpark(writerThread);
+    }
+
+    private void awaitOutboundCapacity() {
+        if (slowConsumerPolicy != SlowConsumerPolicy.BLOCK) return;
+        awaitOutboundSpace(outboundQueue.capacity() / 2);
+    }
+
+    private void awaitOutboundSpace(int limit) {
+        while (outboundOpen && outboundQueue.size() >= limit) {
+            signalWriter();
+            LockSupport.parkNanos(this, OUTBOUND_BACKOFF_NANOS);
+        }
+    }
+
+    private void recordOutboundDepth() {
+        int depth = outboundQueue.size();
+        if (depth > peakOutboundDepth.get()) {
+            peakOutboundDepth.accumulateAndGet(depth, Math::max);
+            sessionManager.getStatistics().recordOutboundQueueDepth(depth);
+        }
+    }
+
+    private void disconnectSlowConsumer() {
+        if (!slowConsumerTripped.compareAndSet(false, true)) return;
+
+        LOGGER.log(Level.WARNING, "[Session {0}] Slow consumer - outbound queue full ({1} frames), disconnecting", new Object[]{
+                session.getConnectionId(),
+                outboundQueue.capacity()
+        });
+        sessionManager.getStatistics().incrementSlowConsumerDisconnects();
+
+        outboundOpen = false;
+        running = false;
+        // Closing the socket unblocks both the reader and a writer stuck in write()
+        closeQuietly(transport);
+    }
+
+    private void closeOutbound() {
+        outboundOpen = false;
+
+        Thread writer = writerThread;
+        if (writer == null) return;
+
+        LockSupport.unpark(writer);
+        try {
+            if (!writer.join(java.time.Duration.ofMillis(OUTBOUND_DRAIN_TIMEOUT_MS))) {
+                LOGGER.log(Level.WARNING, "[Session {0}] Outbound queue not drained in time ({1} frames pending)", new Object[]{
+                        session.getConnectionId(),
+                        outboundQueue.size()
+                });
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void sendLoginResponse(AuthenticationResult authResult, int lastReceivedSeq, int unitSequence) {
         try {
+            // Before the response is stamped, so numbering continues where the journal left off
+            if (authResult.isAccepted()) openJournal();
+
             LoginResponseMessage response = new LoginResponseMessage(
                     authResult.toLoginResponseStatusByte(),
                     authResult.message(),
@@ -374,9 +698,8 @@ public class ClientConnectionHandler implements Runnable {
             );
 
             response.setMatchingUnit(session.getMatchingUnit());
-            response.setSequenceNumber(session.getNextSentSequenceNumber());
 
-            sendMessage(response.toBytes());
+            sendSequencedMessage(response.toBytes());
 
             LOGGER.log(Level.INFO, "[Session {0}] → Sent LoginResponse: status={1}, msg=''{2}''", new Object[]{
                     session.getConnectionId(),
@@ -385,9 +708,14 @@ public class ClientConnectionHandler implements Runnable {
             });
 
             if (authResult.isAccepted()) {
+                long replayed = replayJournal(unitSequence);
+
                 ReplayCompleteMessage replayComplete = new ReplayCompleteMessage(session.getMatchingUnit(), 0);
                 sendMessage(replayComplete.toBytes());
-                LOGGER.log(Level.INFO, "[Session {0}] → Sent ReplayComplete", session.getConnectionId());
+                LOGGER.log(Level.INFO, "[Session {0}] → Sent ReplayComplete ({1} messages replayed)", new Object[]{
+                        session.getConnectionId(),
+                        replayed
+                });
             }
 
         } catch (IOException | IllegalStateException e) {
@@ -395,6 +723,48 @@ public class ClientConnectionHandler implements Runnable {
         }
     }
 
+    private void openJournal() {
+        SessionJournalStore store = sessionManager.getJournalStore();
+        if (store == null) return;
+
+        try {
+            SessionJournal opened = store.open(session.getUsername(), session.getSessionSubID());
+            session.resumeSentSequenceNumber(opened.getLastSequence());
+            journal = opened;
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "[Session " + session.getConnectionId() + "] Session journal unavailable - replay disabled", e);
+        }
+    }
+
+    private long replayJournal(int afterSequence) throws IOException {
+        SessionJournal current = journal;
+        if (current == null || afterSequence == LoginRequestMessage.NO_UNIT_SEQUENCE) return 0;
+
+        return current.replay(afterSequence, this::commitReplayChunk);
+    }
+
+    /**
+     * Replay runs on the reader thread before the username is routable, so nothing else is
+     * publishing to this session and it can wait for queue space under every slow consumer policy.
+     */
+    private void commitReplayChunk(byte[] chunk, int frames) throws IOException {
+        awaitOutboundSpace(outboundQueue.capacity() - 1);
+
+        outboundLock.lock();
+        try {
+            if (!outboundOpen) throw new IOException("Connection closed");
+
+            // The LoginResponse is still sitting in the open batch and must go out first
+            if (batchLength > 0 && !publishBatch()) throw new IOException("Outbound queue full - slow consumer disconnected");
+            session.addMessagesSent(frames);
+            if (!enqueue(chunk)) throw new IOException("Outbound queue full - slow consumer disconnected");
+        } finally {
+            outboundLock.unlock();
+        }
+
+        signalWriter();
+    }
+
     private void sendLogoutResponse(int lastReceivedSeq) {
         try {
             LogoutResponseMessage response = new LogoutResponseMessage(
@@ -405,10 +775,9 @@ public class ClientConnectionHandler implements Runnable {
             );
 
             response.setMatchingUnit(session.getMatchingUnit());
-            response.setSequenceNumber(session.getNextSentSequenceNumber());
 
             byte[] responseBytes = response.toBytes();
-            sendMessage(responseBytes);
+            sendSequencedMessage(responseBytes);
 
             LOGGER.log(Level.INFO, "[Session {0}] → Sent LogoutResponse", session.getConnectionId());
 
@@ -422,12 +791,12 @@ public class ClientConnectionHandler implements Runnable {
             OrderAcknowledgmentMessage ack = OrderAcknowledgmentMessage.fromOrder(
                     order,
                     session.getMatchingUnit(),
-                    session.getNextSentSequenceNumber(),
+                    0,
                     session.getReturnBitfields()
             );
 
             byte[] ackBytes = ack.toBytes();
-            sendMessage(ackBytes);
+            sendSequencedMessage(ackBytes);
 
             if (LOGGER.isLoggable(Level.FINE)) {
                 LOGGER.log(Level.FINE, "[Session {0}] → Sent OrderAcknowledgment: ClOrdID={1}, OrderID={2}", new Object[]{
@@ -446,10 +815,9 @@ public class ClientConnectionHandler implements Runnable {
         try {
             OrderRejectedMessage rejected = new OrderRejectedMessage(clOrdID, reason, text);
             rejected.setMatchingUnit(session.getMatchingUnit());
-            rejected.setSequenceNumber(session.getNextSentSequenceNumber());
 
             byte[] rejectedBytes = rejected.toBytes();
-            sendMessage(rejectedBytes);
+            sendSequencedMessage(rejectedBytes);
 
             LOGGER.log(Level.INFO, "[Session {0}] → Sent OrderRejected: ClOrdID={1}, Reason={2}", new Object[]{
                     session.getConnectionId(),
@@ -467,10 +835,10 @@ public class ClientConnectionHandler implements Runnable {
             OrderModifiedMessage modified = OrderModifiedMessage.fromOrder(
                     order,
                     session.getMatchingUnit(),
-                    session.getNextSentSequenceNumber()
+                    0
             );
 
-            sendMessage(modified.toBytes());
+            sendSequencedMessage(modified.toBytes());
 
             LOGGER.log(Level.INFO, "[Session {0}] → Sent OrderModified: ClOrdID={1}, OrderID={2}",
                     new Object[]{session.getConnectionId(),
@@ -501,10 +869,9 @@ public class ClientConnectionHandler implements Runnable {
         try {
             OrderCancelledMessage cancelled = OrderCancelledMessage.fromOrder(order, reason);
             cancelled.setMatchingUnit(session.getMatchingUnit());
-            cancelled.setSequenceNumber(session.getNextSentSequenceNumber());
 
             byte[] cancelledBytes = cancelled.toBytes();
-            sendMessage(cancelledBytes);
+            sendSequencedMessage(cancelledBytes);
 
             LOGGER.log(Level.INFO, "[Session {0}] → Sent OrderCancelled: ClOrdID={1}", new Object[]{
                     session.getConnectionId(),
@@ -535,6 +902,10 @@ public class ClientConnectionHandler implements Runnable {
         rateLimiter.clearConnection(session.getConnectionId());
 
         LOGGER.log(Level.INFO, "[Session {0}] Cleaning up connection...", session.getConnectionId());
+
+        // Let the writer flush what is already queued (e.g. LogoutResponse) before closing
+        closeOutbound();
+
         LOGGER.log(Level.INFO, "[Session {0}] Statistics: Received={1}, Sent={2}, Duration={3}s", new Object[]{
                 session.getConnectionId(),
                 session.getMessagesReceived(),
@@ -546,7 +917,7 @@ public class ClientConnectionHandler implements Runnable {
 
         closeQuietly(inputStream);
         closeQuietly(outputStream);
-        closeQuietly(socket);
+        closeQuietly(transport);
 
         session.setState(SessionState.DISCONNECTED);
         LOGGER.log(Level.INFO, "[Session {0}] Connection closed", session.getConnectionId());
@@ -570,7 +941,26 @@ public class ClientConnectionHandler implements Runnable {
         return running;
     }
 
+    public int getOutboundQueueDepth() {
+        return outboundQueue.size();
+    }
+
+    public int getPeakOutboundQueueDepth() {
+        return peakOutboundDepth.get();
+    }
+
+    public long getOutboundWriteCount() {
+        return outboundWrites.get();
+    }
+
+    public SlowConsumerPolicy getSlowConsumerPolicy() {
+        return slowConsumerPolicy;
+    }
+
     public void stop() {
         running = false;
+        // A reader blocked on a silent peer only wakes once the transport is closed; for
+        // shared-memory rings this also marks them closed so the gateway can move on
+        closeQuietly(transport);
     }
 }
@@ -0,0 +1,86 @@
+package com.boe.simulator.server.connection;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.SocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+
+/**
+ * The byte stream a {@link ClientConnectionHandler} serves: a TCP socket, a Unix domain
+ * socket channel, or a pair of shared-memory rings for co-located clients. Everything above
+ * the streams is transport-agnostic.
+ */
+final class ClientTransport implements Closeable {
+
+    private final Closeable connection;
+    private final String remoteAddress;
+    private final StreamOpener inputOpener;
+    private final StreamOpener outputOpener;
+
+    @FunctionalInterface
+    private interface StreamOpener {
+        Closeable open() throws IOException;
+    }
+
+    private ClientTransport(Closeable connection, String remoteAddress, StreamOpener inputOpener, StreamOpener outputOpener) {
+        this.connection = connection;
+        this.remoteAddress = remoteAddress;
+        this.inputOpener = inputOpener;
+        this.outputOpener = outputOpener;
+    }
+
+    static ClientTransport of(Socket socket) {
+        return new ClientTransport(socket, String.valueOf(socket.getRemoteSocketAddress()), socket::getInputStream, socket::getOutputStream);
+    }
+
+    /** The channel must be in blocking mode; reader and writer threads use its streams concurrently. */
+    static ClientTransport of(SocketChannel channel) {
+        return new ClientTransport(channel, describe(channel), () -> Channels.newInputStream(channel), () -> Channels.newOutputStream(channel));
+    }
+
+    /**
+     * Server side of a {@link SharedMemoryGateway} session: reads {@code inbound}, writes
+     * {@code outbound}. Reads time out like a socket with {@code SO_TIMEOUT = readTimeoutMillis}.
+     */
+    static ClientTransport of(MappedRing inbound, MappedRing outbound, int readTimeoutMillis) {
+        Closeable both = () -> {
+            try {
+                inbound.close();
+            } finally {
+                outbound.close();
+            }
+        };
+        return new ClientTransport(both, "shm:" + inbound.path().getParent(), () -> inbound.inputStream(readTimeoutMillis), outbound::outputStream);
+    }
+
+    InputStream openInputStream() throws IOException {
+        return (InputStream) inputOpener.open();
+    }
+
+    OutputStream openOutputStream() throws IOException {
+        return (OutputStream) outputOpener.open();
+    }
+
+    String remoteAddress() {
+        return remoteAddress;
+    }
+
+    @Override
+    public void close() throws IOException {
+        connection.close();
+    }
+
+    // Unix domain clients are usually unbound, so name the listener path instead
+    private static String describe(SocketChannel channel) {
+        try {
+            SocketAddress local = channel.getLocalAddress();
+            return "unix:" + local;
+        } catch (IOException e) {
+            return "unix:?";
+        }
+    }
+}
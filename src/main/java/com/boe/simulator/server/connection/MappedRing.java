@@ -0,0 +1,273 @@
+package com.boe.simulator.server.connection;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.net.SocketTimeoutException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Single-producer/single-consumer byte ring in a memory-mapped file, shared between two
+ * processes (or two threads) on the same host.
+ *
+ * The header keeps the producer position, the consumer position and the state flags on
+ * separate cache lines. Positions only grow; the producer publishes bytes with a release store
+ * of its position and the consumer frees space the same way, so no locks are involved. Waiting
+ * sides spin briefly (on multi-core hosts), then yield, then park in short intervals.
+ */
+public final class MappedRing implements Closeable {
+
+    private static final int MAGIC = 0x52454F42; // "BOER"
+    private static final int MAGIC_OFFSET = 0;
+    private static final int CAPACITY_OFFSET = 4;
+    private static final int WRITE_OFFSET = 64;
+    private static final int READ_OFFSET = 128;
+    private static final int STATE_OFFSET = 192;
+    private static final int HEADER_BYTES = 256;
+
+    private static final int ATTACHED = 1;
+    private static final int CLOSED = 2;
+
+    // Spinning only pays off when the peer has a core of its own
+    private static final int SPIN_TRIES = Runtime.getRuntime().availableProcessors() > 1 ? 2_000 : 0;
+    private static final int YIELD_TRIES = SPIN_TRIES + 200;
+    private static final long PARK_NANOS = 20_000L;
+
+    private static final VarHandle LONG = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+    private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+
+    private final Path path;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private final int mask;
+
+    private MappedRing(Path path, FileChannel channel, MappedByteBuffer buffer, int capacity) {
+        this.path = path;
+        this.channel = channel;
+        this.buffer = buffer;
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+    }
+
+    /** Creates (or replaces) the ring file. Attaching sides wait for the header written here. */
+    public static MappedRing create(Path path, int capacity) throws IOException {
+        if (capacity < 1024 || Integer.bitCount(capacity) != 1) throw new IllegalArgumentException("Ring capacity must be a power of two >= 1024");
+
+        Files.deleteIfExists(path);
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + capacity);
+
+        INT.set(buffer, CAPACITY_OFFSET, capacity);
+        LONG.set(buffer, WRITE_OFFSET, 0L);
+        LONG.set(buffer, READ_OFFSET, 0L);
+        INT.set(buffer, STATE_OFFSET, 0);
+        INT.setRelease(buffer, MAGIC_OFFSET, MAGIC);
+        return new MappedRing(path, channel, buffer, capacity);
+    }
+
+    /** Maps a ring created by {@link #create}; fails if the file is not an initialised, open ring. */
+    public static MappedRing attach(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (channel.size() < HEADER_BYTES) throw new IOException("Not a ring file: " + path);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            if ((int) INT.getAcquire(buffer, MAGIC_OFFSET) != MAGIC) throw new IOException("Ring not initialised: " + path);
+
+            int capacity = (int) INT.get(buffer, CAPACITY_OFFSET);
+            if (HEADER_BYTES + (long) capacity != channel.size()) throw new IOException("Ring size mismatch: " + path);
+            if (((int) INT.getAcquire(buffer, STATE_OFFSET) & CLOSED) != 0) throw new IOException("Ring closed: " + path);
+            return new MappedRing(path, channel, buffer, capacity);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /** Producer side. Blocks while the ring is full; fails once either side has closed it. */
+    public void write(byte[] src, int offset, int length) throws IOException {
+        long writePosition = (long) LONG.get(buffer, WRITE_OFFSET);
+        int idle = 0;
+
+        while (length > 0) {
+            if (isClosed()) throw new IOException("Ring closed: " + path);
+
+            long free = capacity - (writePosition - (long) LONG.getAcquire(buffer, READ_OFFSET));
+            if (free == 0) {
+                idle = idle(idle);
+                continue;
+            }
+            idle = 0;
+
+            int chunk = (int) Math.min(free, length);
+            copyIn(writePosition, src, offset, chunk);
+            writePosition += chunk;
+            offset += chunk;
+            length -= chunk;
+            LONG.setRelease(buffer, WRITE_OFFSET, writePosition);
+        }
+    }
+
+    /**
+     * Consumer side. Blocks until at least one byte is available and returns how many were
+     * copied, or -1 once the ring is closed and drained.
+     */
+    public int read(byte[] dst, int offset, int length) throws IOException {
+        return read(dst, offset, length, 0);
+    }
+
+    /**
+     * Like {@link #read(byte[], int, int)}, but gives up with a {@link SocketTimeoutException}
+     * after {@code timeoutMillis} without data, as a socket with {@code SO_TIMEOUT} would.
+     * Zero waits forever. Without it, a peer that dies without closing the ring is never noticed.
+     */
+    public int read(byte[] dst, int offset, int length, int timeoutMillis) throws IOException {
+        if (length == 0) return 0;
+
+        long readPosition = (long) LONG.get(buffer, READ_OFFSET);
+        long deadline = 0;
+        int idle = 0;
+        while (true) {
+            long available = (long) LONG.getAcquire(buffer, WRITE_OFFSET) - readPosition;
+            if (available > 0) {
+                int chunk = (int) Math.min(available, length);
+                copyOut(readPosition, dst, offset, chunk);
+                LONG.setRelease(buffer, READ_OFFSET, readPosition + chunk);
+                return chunk;
+            }
+            if (isClosed()) return -1;
+
+            // The clock is only read once the ring has gone idle
+            if (timeoutMillis > 0) {
+                if (idle == 0) {
+                    deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+                } else if (idle >= YIELD_TRIES && System.nanoTime() - deadline >= 0) {
+                    throw new SocketTimeoutException("Ring read timed out after " + timeoutMillis + "ms: " + path);
+                }
+            }
+            idle = idle(idle);
+        }
+    }
+
+    public InputStream inputStream() {
+        return inputStream(0);
+    }
+
+    /** Stream whose reads time out after {@code timeoutMillis} without data; zero waits forever. */
+    public InputStream inputStream(int timeoutMillis) {
+        return new InputStream() {
+            @Override
+            public int read() throws IOException {
+                byte[] one = new byte[1];
+                return MappedRing.this.read(one, 0, 1, timeoutMillis) < 0 ? -1 : one[0] & 0xFF;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                return MappedRing.this.read(b, off, len, timeoutMillis);
+            }
+
+            @Override
+            public void close() throws IOException {
+                MappedRing.this.close();
+            }
+        };
+    }
+
+    public OutputStream outputStream() {
+        return new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                MappedRing.this.write(new byte[]{(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                MappedRing.this.write(b, off, len);
+            }
+
+            @Override
+            public void close() throws IOException {
+                MappedRing.this.close();
+            }
+        };
+    }
+
+    /** Claims the ring for one peer; false if another peer got there first. */
+    public boolean claim() {
+        int state;
+        do {
+            state = (int) INT.getVolatile(buffer, STATE_OFFSET);
+            if ((state & (ATTACHED | CLOSED)) != 0) return false;
+        } while (!INT.compareAndSet(buffer, STATE_OFFSET, state, state | ATTACHED));
+        return true;
+    }
+
+    public boolean isAttached() {
+        return ((int) INT.getAcquire(buffer, STATE_OFFSET) & ATTACHED) != 0;
+    }
+
+    public boolean isClosed() {
+        return ((int) INT.getAcquire(buffer, STATE_OFFSET) & CLOSED) != 0;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public Path path() {
+        return path;
+    }
+
+    /** Marks the ring closed for both sides and releases this side's file handle. */
+    @Override
+    public void close() throws IOException {
+        if (!channel.isOpen()) return;
+
+        int state;
+        do {
+            state = (int) INT.getVolatile(buffer, STATE_OFFSET);
+        } while (!INT.compareAndSet(buffer, STATE_OFFSET, state, state | CLOSED));
+        channel.close();
+    }
+
+    /** Releases this side's file handle without signalling the peer, e.g. after a failed {@link #claim()}. */
+    public void release() throws IOException {
+        channel.close();
+    }
+
+    private void copyIn(long position, byte[] src, int offset, int length) {
+        int index = (int) (position & mask);
+        int first = Math.min(length, capacity - index);
+        buffer.put(HEADER_BYTES + index, src, offset, first);
+        if (first < length) buffer.put(HEADER_BYTES, src, offset + first, length - first);
+    }
+
+    private void copyOut(long position, byte[] dst, int offset, int length) {
+        int index = (int) (position & mask);
+        int first = Math.min(length, capacity - index);
+        buffer.get(HEADER_BYTES + index, dst, offset, first);
+        if (first < length) buffer.get(HEADER_BYTES, dst, offset + first, length - first);
+    }
+
+    private static int idle(int tries) {
+        if (tries < SPIN_TRIES) {
+            Thread.onSpinWait();
+        } else if (tries < YIELD_TRIES) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+        return tries + 1;
+    }
+}
@@ -0,0 +1,75 @@
+package com.boe.simulator.server.connection;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded, lock-free multi-producer / single-consumer ring of encoded BOE frames.
+ *
+ * Any thread (session reader, matching engine, heartbeat scheduler) may offer; only the
+ * connection's writer thread polls. Producers claim a slot with a CAS on the producer
+ * index and publish with a lazy store, so an offer never blocks and never touches the socket.
+ */
+public final class OutboundQueue {
+
+    private final AtomicReferenceArray<byte[]> buffer;
+    private final int mask;
+    private final int capacity;
+
+    private final AtomicLong producerIndex = new AtomicLong();
+    private final AtomicLong consumerIndex = new AtomicLong();
+
+    public OutboundQueue(int requestedCapacity) {
+        if (requestedCapacity < 2) throw new IllegalArgumentException("Capacity must be at least 2");
+        this.capacity = 1 << (32 - Integer.numberOfLeadingZeros(requestedCapacity - 1));
+        this.mask = capacity - 1;
+        this.buffer = new AtomicReferenceArray<>(capacity);
+    }
+
+    /** Returns false when the ring is full; never blocks. */
+    public boolean offer(byte[] frame) {
+        if (frame == null) throw new NullPointerException("frame");
+
+        long index;
+        do {
+            index = producerIndex.get();
+            if (index - consumerIndex.get() >= capacity) return false;
+        } while (!producerIndex.compareAndSet(index, index + 1));
+
+        buffer.lazySet((int) (index & mask), frame);
+        return true;
+    }
+
+    /** Single-consumer poll. Returns null when nothing has been published yet. */
+    public byte[] poll() {
+        long index = consumerIndex.get();
+        int offset = (int) (index & mask);
+
+        byte[] frame = buffer.get(offset);
+        if (frame == null) {
+            if (index == producerIndex.get()) return null;
+            // A producer claimed the slot but has not published it yet
+            do {
+                Thread.onSpinWait();
+                frame = buffer.get(offset);
+            } while (frame == null);
+        }
+
+        buffer.lazySet(offset, null);
+        consumerIndex.lazySet(index + 1);
+        return frame;
+    }
+
+    public int size() {
+        long size = producerIndex.get() - consumerIndex.get();
+        return (int) Math.max(0, Math.min(size, capacity));
+    }
+
+    public boolean isEmpty() {
+        return producerIndex.get() == consumerIndex.get();
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+}
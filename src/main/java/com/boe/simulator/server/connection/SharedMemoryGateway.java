@@ -0,0 +1,100 @@
+package com.boe.simulator.server.connection;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.boe.simulator.server.auth.AuthenticationService;
+import com.boe.simulator.server.config.ServerConfiguration;
+import com.boe.simulator.server.error.ErrorHandler;
+import com.boe.simulator.server.order.OrderManager;
+import com.boe.simulator.server.ratelimit.RateLimiter;
+import com.boe.simulator.server.session.ClientSessionManager;
+
+/**
+ * In-host order entry without sockets. The gateway publishes two {@link MappedRing}s in a
+ * directory: {@code inbound.ring} (client → server) and {@code outbound.ring} (server → client).
+ * A client claims the inbound ring and then speaks plain BOE frames over the pair; on the
+ * server side the rings are served by an ordinary {@link ClientConnectionHandler}, so messages
+ * go through the same decoding, validation and {@link OrderManager} pipeline as TCP.
+ *
+ * Each ring has exactly one producer and one consumer, so the gateway serves one session at
+ * a time and publishes a fresh pair once it ends. Run the handler on a platform thread: an idle
+ * ring reader yields its thread, which only frees the CPU when that thread is an OS thread.
+ */
+public final class SharedMemoryGateway implements Closeable {
+    private static final Logger LOGGER = Logger.getLogger(SharedMemoryGateway.class.getName());
+
+    public static final String INBOUND_RING = "inbound.ring";
+    public static final String OUTBOUND_RING = "outbound.ring";
+
+    private static final long ATTACH_POLL_NANOS = 1_000_000L; // 1ms
+
+    private final Path directory;
+    private final int ringCapacity;
+
+    private volatile MappedRing inbound;
+    private volatile MappedRing outbound;
+    private volatile boolean closed;
+
+    public SharedMemoryGateway(Path directory, int ringCapacity) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.ringCapacity = ringCapacity;
+    }
+
+    /**
+     * Publishes a fresh ring pair and waits for a client to claim it. Returns false if the
+     * gateway was closed while waiting.
+     */
+    public boolean awaitClient() throws IOException {
+        // Outbound first: a client that can see the inbound ring must find both
+        outbound = MappedRing.create(directory.resolve(OUTBOUND_RING), ringCapacity);
+        inbound = MappedRing.create(directory.resolve(INBOUND_RING), ringCapacity);
+        LOGGER.log(Level.FINE, "Shared-memory rings published in {0}", directory);
+
+        while (!closed && !inbound.isAttached()) {
+            LockSupport.parkNanos(ATTACH_POLL_NANOS);
+        }
+        return !closed;
+    }
+
+    /**
+     * Handler for the client that {@link #awaitClient()} just admitted; closing it closes both rings.
+     * Inbound reads time out after the configured connection timeout, as TCP reads do.
+     */
+    public ClientConnectionHandler newHandler(int connectionId, ServerConfiguration config, AuthenticationService authService, ClientSessionManager sessionManager, ErrorHandler errorHandler, RateLimiter rateLimiter, OrderManager orderManager) {
+        return new ClientConnectionHandler(ClientTransport.of(inbound, outbound, config.getConnectionTimeout()), connectionId, config, authService, sessionManager, errorHandler, rateLimiter, orderManager);
+    }
+
+    /** Turns away the client that {@link #awaitClient()} just admitted; it sees both rings closed. */
+    public void rejectClient() {
+        closeQuietly(inbound);
+        closeQuietly(outbound);
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        closeQuietly(inbound);
+        closeQuietly(outbound);
+        Files.deleteIfExists(directory.resolve(INBOUND_RING));
+        Files.deleteIfExists(directory.resolve(OUTBOUND_RING));
+    }
+
+    private static void closeQuietly(MappedRing ring) {
+        if (ring == null) return;
+        try {
+            ring.close();
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, "Error closing ring " + ring.path(), e);
+        }
+    }
+}
@@ -1,36 +1,34 @@
 package com.boe.simulator.server.heartbeat;
 
 import java.io.IOException;
-import java.time.Duration;
-import java.time.Instant;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import com.boe.simulator.protocol.message.ServerHeartbeatMessage;
 import com.boe.simulator.server.config.ServerConfiguration;
 import com.boe.simulator.server.connection.ClientConnectionHandler;
+import com.boe.simulator.server.session.ClientSession;
 
 public class HeartbeatMonitor {
     private static final Logger LOGGER = Logger.getLogger(HeartbeatMonitor.class.getName());
 
-    // Shared across all sessions — avoids 2 platform threads per connection
-    private static final ScheduledExecutorService SHARED_SCHEDULER =
-            Executors.newScheduledThreadPool(Runtime.getRuntime().availableProcessors());
+    private static final long CHECK_INTERVAL_MILLIS = 5_000;
 
     private final ClientConnectionHandler handler;
     private final ServerConfiguration config;
+    private final HeartbeatWheel wheel;
 
-    private ScheduledFuture<?> sendTask;
-    private ScheduledFuture<?> checkTask;
+    private volatile SessionTimer timer;
     private volatile boolean active;
 
     public HeartbeatMonitor(ClientConnectionHandler handler, ServerConfiguration config) {
+        this(handler, config, HeartbeatWheel.shared());
+    }
+
+    HeartbeatMonitor(ClientConnectionHandler handler, ServerConfiguration config, HeartbeatWheel wheel) {
         this.handler = handler;
         this.config = config;
+        this.wheel = wheel;
         this.active = false;
     }
 
@@ -43,63 +41,80 @@ public class HeartbeatMonitor {
         active = true;
 
         long sendInterval = config.getHeartbeatIntervalSeconds();
-        sendTask = SHARED_SCHEDULER.scheduleAtFixedRate(
-                this::sendHeartbeat,
-                sendInterval,
-                sendInterval,
-                TimeUnit.SECONDS
-        );
-
-        long checkInterval = 5;
-        checkTask = SHARED_SCHEDULER.scheduleAtFixedRate(
-                this::checkTimeout,
-                checkInterval,
-                checkInterval,
-                TimeUnit.SECONDS
-        );
+        SessionTimer next = new SessionTimer(wheel.now(), sendInterval * 1000);
+        timer = next;
+        wheel.schedule(next, Math.min(sendInterval * 1000, CHECK_INTERVAL_MILLIS));
 
         LOGGER.log(Level.INFO, "[Session {0}] Heartbeat monitor started (send every {1}s, timeout {2}s)", new Object[]{handler.getSession().getConnectionId(), sendInterval, config.getHeartbeatTimeoutSeconds()});
     }
 
-    private void sendHeartbeat() {
-        if (!active) return;
+    // One wheel entry per session covers both the heartbeat send and the timeout check
+    private final class SessionTimer extends HeartbeatWheel.Timer {
+        private final long sendIntervalMillis;
+        private long nextSendAt;
+        private long nextCheckAt;
+
+        SessionTimer(long nowMillis, long sendIntervalMillis) {
+            this.sendIntervalMillis = sendIntervalMillis;
+            this.nextSendAt = nowMillis + sendIntervalMillis;
+            this.nextCheckAt = nowMillis + CHECK_INTERVAL_MILLIS;
+        }
 
+        @Override
+        protected long expire(long nowMillis) {
+            if (!active) return -1;
+
+            if (nowMillis >= nextCheckAt) {
+                if (checkTimeout(nowMillis)) return -1;
+                nextCheckAt = nowMillis + CHECK_INTERVAL_MILLIS;
+            }
+            if (nowMillis >= nextSendAt) {
+                if (!sendHeartbeat()) return -1;
+                nextSendAt = nowMillis + sendIntervalMillis;
+            }
+            return Math.min(nextSendAt, nextCheckAt) - nowMillis;
+        }
+    }
+
+    private boolean sendHeartbeat() {
         try {
             ServerHeartbeatMessage heartbeat = new ServerHeartbeatMessage();
             heartbeat.setMatchingUnit(handler.getSession().getMatchingUnit());
-            heartbeat.setSequenceNumber(handler.getSession().getNextSentSequenceNumber());
 
             byte[] heartbeatBytes = heartbeat.toBytes();
-            handler.sendMessage(heartbeatBytes);
+            handler.sendSequencedMessage(heartbeatBytes);
 
             handler.getSession().updateHeartbeatSent();
 
-            LOGGER.log(Level.FINE, "[Session {0}] → Sent ServerHeartbeat (seq={1})", new Object[]{handler.getSession().getConnectionId(), heartbeat.getSequenceNumber()});
+            LOGGER.log(Level.FINE, "[Session {0}] → Sent ServerHeartbeat", handler.getSession().getConnectionId());
+            return true;
 
         } catch (IOException e) {
             LOGGER.log(Level.WARNING, "[Session " + handler.getSession().getConnectionId() + "] Error sending heartbeat", e);
             stop();
+            return false;
         }
     }
 
-    private void checkTimeout() {
-        if (!active) return;
-
-        Instant lastReceived = handler.getSession().getLastHeartbeatReceived();
+    private boolean checkTimeout(long nowMillis) {
+        ClientSession session = handler.getSession();
 
         // If never received a heartbeat yet, don't check (client might be just connecting)
-        if (lastReceived == null) return;
+        if (session.getLastHeartbeatReceivedMillis() == 0) return false;
 
-        Duration timeSinceLastHeartbeat = Duration.between(lastReceived, Instant.now());
+        // Both sides are System.nanoTime()-based, so a wall-clock step cannot fake or hide a timeout
+        long secondsSinceLastHeartbeat = (nowMillis - session.getLastHeartbeatReceivedNanos() / 1_000_000) / 1000;
         long timeoutSeconds = config.getHeartbeatTimeoutSeconds();
 
-        if (timeSinceLastHeartbeat.getSeconds() > timeoutSeconds) {
-            LOGGER.log(Level.WARNING, "[Session {0}] Client heartbeat timeout! Last received {1}s ago (timeout={2}s)", new Object[]{handler.getSession().getConnectionId(), timeSinceLastHeartbeat.getSeconds(), timeoutSeconds});
+        if (secondsSinceLastHeartbeat > timeoutSeconds) {
+            LOGGER.log(Level.WARNING, "[Session {0}] Client heartbeat timeout! Last received {1}s ago (timeout={2}s)", new Object[]{handler.getSession().getConnectionId(), secondsSinceLastHeartbeat, timeoutSeconds});
 
             // Disconnect client
             handler.stop();
             stop();
+            return true;
         }
+        return false;
     }
 
     public void stop() {
@@ -107,14 +122,14 @@ public class HeartbeatMonitor {
 
         active = false;
 
-        if (sendTask != null) sendTask.cancel(false);
-        if (checkTask != null) checkTask.cancel(false);
+        SessionTimer current = timer;
+        if (current != null) current.cancel();
         LOGGER.log(Level.INFO, "[Session {0}] Heartbeat monitor stopped", handler.getSession().getConnectionId());
     }
 
     public void shutdown() {
         stop();
-        // SHARED_SCHEDULER is intentionally not shut down here — it's application-scoped
+        // The wheel is intentionally not stopped here — it's application-scoped
     }
 
     public boolean isActive() {
@@ -0,0 +1,196 @@
+package com.boe.simulator.server.heartbeat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Hashed timing wheel that drives heartbeat sends and timeout checks for every session from a
+ * single tick thread.
+ *
+ * Timers hash into {@code slots} buckets by deadline tick; a bucket holds every timer whose
+ * deadline falls on that slot in any lap, so a tick only compares deadlines in one bucket.
+ * Other threads hand timers over through a queue; the tick thread owns the buckets, expires a
+ * whole bucket as one batch and re-arms recurring timers in place. Cancelling only sets a flag;
+ * the timer is dropped when its bucket next comes round.
+ */
+public final class HeartbeatWheel {
+    private static final Logger LOGGER = Logger.getLogger(HeartbeatWheel.class.getName());
+
+    static final long DEFAULT_TICK_MILLIS = 100;
+    static final int DEFAULT_SLOTS = 512; // 51.2s per lap
+
+    // Monotonic, so a wall-clock step neither stalls nor bunches up the ticks
+    private static final HeartbeatWheel SHARED = new HeartbeatWheel(DEFAULT_TICK_MILLIS, DEFAULT_SLOTS, HeartbeatWheel::monotonicMillis).start();
+
+    /** A wheel entry. {@link #expire} returns the delay until it should fire again, or -1 to retire. */
+    public abstract static class Timer {
+        private Timer next;          // bucket chain, tick thread only
+        private long deadlineTick;   // tick thread only once queued
+        private long deadlineMillis; // published to the tick thread by the pending queue
+        private volatile boolean cancelled;
+
+        protected abstract long expire(long nowMillis);
+
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    private final long tickMillis;
+    private final int mask;
+    private final Timer[] buckets;
+    private final LongSupplier clock;
+    private final long startMillis;
+    private final ConcurrentLinkedQueue<Timer> pending = new ConcurrentLinkedQueue<>();
+    private final List<Timer> expiredBatch = new ArrayList<>();
+    private final AtomicInteger scheduled = new AtomicInteger();
+
+    private long currentTick;
+    private volatile boolean running;
+
+    public static HeartbeatWheel shared() {
+        return SHARED;
+    }
+
+    HeartbeatWheel(long tickMillis, int slots, LongSupplier clock) {
+        if (tickMillis < 1) throw new IllegalArgumentException("Tick must be at least 1ms");
+        if (slots < 2 || Integer.bitCount(slots) != 1) throw new IllegalArgumentException("Slots must be a power of two");
+
+        this.tickMillis = tickMillis;
+        this.mask = slots - 1;
+        this.buckets = new Timer[slots];
+        this.clock = clock;
+        this.startMillis = clock.getAsLong();
+    }
+
+    /** Arms {@code timer} to fire after {@code delayMillis}. A timer must be armed at most once. */
+    public void schedule(Timer timer, long delayMillis) {
+        timer.deadlineMillis = clock.getAsLong() + Math.max(0, delayMillis);
+        scheduled.incrementAndGet();
+        pending.offer(timer);
+    }
+
+    /**
+     * The wheel's clock in millis, {@link System#nanoTime()}-based for the shared wheel: an elapsed
+     * time, not a timestamp. Deadlines passed to {@link #schedule} are relative to it.
+     */
+    public long now() {
+        return clock.getAsLong();
+    }
+
+    static long monotonicMillis() {
+        return System.nanoTime() / 1_000_000;
+    }
+
+    /** Timers armed and not yet retired, cancelled ones included until their bucket comes round. */
+    public int size() {
+        return scheduled.get();
+    }
+
+    HeartbeatWheel start() {
+        running = true;
+        Thread.ofPlatform().name("HeartbeatWheel").daemon(true).start(this::run);
+        return this;
+    }
+
+    void stop() {
+        running = false;
+    }
+
+    private void run() {
+        while (running) {
+            long sleep = startMillis + (currentTick + 1) * tickMillis - clock.getAsLong();
+            if (sleep > 0) {
+                try {
+                    Thread.sleep(sleep);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+            advance(clock.getAsLong());
+        }
+    }
+
+    /** Runs every tick up to {@code nowMillis}; returns how many timers fired. Tick thread only. */
+    int advance(long nowMillis) {
+        long targetTick = (nowMillis - startMillis) / tickMillis;
+        int fired = 0;
+
+        while (currentTick < targetTick) {
+            currentTick++;
+            drainPending();
+            fired += expireBucket(nowMillis);
+        }
+        return fired;
+    }
+
+    private void drainPending() {
+        Timer timer;
+        while ((timer = pending.poll()) != null) {
+            insert(timer);
+        }
+    }
+
+    private void insert(Timer timer) {
+        // Round up so a timer never fires early; never into a tick that has already run
+        long deadlineTick = (timer.deadlineMillis - startMillis + tickMillis - 1) / tickMillis;
+        timer.deadlineTick = Math.max(deadlineTick, currentTick);
+
+        int slot = (int) (timer.deadlineTick & mask);
+        timer.next = buckets[slot];
+        buckets[slot] = timer;
+    }
+
+    private int expireBucket(long nowMillis) {
+        int slot = (int) (currentTick & mask);
+        Timer timer = buckets[slot];
+        Timer kept = null;
+
+        while (timer != null) {
+            Timer next = timer.next;
+            if (timer.cancelled) {
+                scheduled.decrementAndGet();
+            } else if (timer.deadlineTick <= currentTick) {
+                expiredBatch.add(timer);
+            } else {
+                timer.next = kept; // a later lap
+                kept = timer;
+            }
+            timer = next;
+        }
+        buckets[slot] = kept;
+
+        int fired = expiredBatch.size();
+        for (Timer expired : expiredBatch) {
+            expired.next = null;
+            long again = fire(expired, nowMillis);
+            if (again >= 0 && !expired.cancelled) {
+                expired.deadlineMillis = nowMillis + Math.max(again, tickMillis);
+                insert(expired);
+            } else {
+                scheduled.decrementAndGet();
+            }
+        }
+        expiredBatch.clear();
+        return fired;
+    }
+
+    private static long fire(Timer timer, long nowMillis) {
+        try {
+            return timer.expire(nowMillis);
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Heartbeat timer failed", e);
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.boe.simulator.server.matching;
+
+import java.util.Map;
+
+import com.boe.simulator.server.order.Order;
+
+/**
+ * Matching-access weights for {@link FairSymbolLock}: a user's weight if one is set, else its
+ * clearing firm's, else 1. A session with weight {@code w} gets up to {@code w} turns at a
+ * contended symbol per round.
+ */
+public final class FairShareWeights {
+
+    public static final FairShareWeights EQUAL = new FairShareWeights(Map.of(), Map.of());
+
+    private final Map<String, Integer> byUser;
+    private final Map<String, Integer> byFirm;
+
+    public FairShareWeights(Map<String, Integer> userWeights, Map<String, Integer> firmWeights) {
+        this.byUser = copyOf(userWeights);
+        this.byFirm = copyOf(firmWeights);
+    }
+
+    int weightOf(Order order) {
+        if (byUser.isEmpty() && byFirm.isEmpty()) return 1;
+
+        Integer weight = order.getUsername() == null ? null : byUser.get(order.getUsername());
+        if (weight == null && order.getClearingFirm() != null) weight = byFirm.get(order.getClearingFirm());
+        return weight == null ? 1 : weight;
+    }
+
+    private static Map<String, Integer> copyOf(Map<String, Integer> weights) {
+        weights.forEach((name, weight) -> {
+            if (weight == null || weight < 1) throw new IllegalArgumentException("Matching weight for " + name + " must be at least 1");
+        });
+        return Map.copyOf(weights);
+    }
+}
@@ -0,0 +1,120 @@
+package com.boe.simulator.server.matching;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Per-symbol matching lock that is granted across sessions by deficit round robin instead of by
+ * whoever grabs it first. Waiters queue per flow (an order's session); on release the lock is
+ * handed straight to the next flow in the ring, so a session that releases and immediately
+ * asks again queues behind everyone already waiting rather than barging back in. A flow with
+ * weight {@code w} is granted up to {@code w} times per round while it has waiters.
+ *
+ * Uncontended, acquire and release are a short critical section on an internal mutex. Not
+ * reentrant.
+ */
+final class FairSymbolLock {
+
+    private static final class Waiter {
+        final Thread thread = Thread.currentThread();
+        volatile boolean granted;
+    }
+
+    private static final class Flow {
+        final String key;
+        final ArrayDeque<Waiter> waiters = new ArrayDeque<>(2);
+        int weight;
+        int credits;
+        boolean inRing;
+
+        Flow(String key) {
+            this.key = key;
+        }
+    }
+
+    private final ReentrantLock mutex = new ReentrantLock();
+    private final Map<String, Flow> flows = new HashMap<>();
+    private final ArrayDeque<Flow> ring = new ArrayDeque<>();
+    private boolean held;
+    private int waiting;
+
+    void lock(String flowKey, int weight) {
+        Waiter waiter;
+        mutex.lock();
+        try {
+            if (!held) {
+                held = true;
+                return;
+            }
+            Flow flow = flows.computeIfAbsent(flowKey, Flow::new);
+            flow.weight = Math.max(1, weight);
+            waiter = new Waiter();
+            flow.waiters.addLast(waiter);
+            if (!flow.inRing) {
+                flow.inRing = true;
+                ring.addLast(flow);
+            }
+            waiting++;
+        } finally {
+            mutex.unlock();
+        }
+
+        boolean interrupted = false;
+        while (!waiter.granted) {
+            LockSupport.park(this);
+            if (Thread.interrupted()) interrupted = true;
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+    }
+
+    void unlock() {
+        Waiter next;
+        mutex.lock();
+        try {
+            next = nextWaiter();
+            if (next == null) {
+                held = false;
+                return;
+            }
+            waiting--;
+        } finally {
+            mutex.unlock();
+        }
+        // Ownership passes straight to the waiter; held stays true
+        next.granted = true;
+        LockSupport.unpark(next.thread);
+    }
+
+    /** Threads queued for the lock, not counting the holder. */
+    int queueLength() {
+        mutex.lock();
+        try {
+            return waiting;
+        } finally {
+            mutex.unlock();
+        }
+    }
+
+    private Waiter nextWaiter() {
+        Flow flow = ring.peekFirst();
+        if (flow == null) return null;
+
+        if (flow.credits == 0) flow.credits = flow.weight; // start of this flow's turn
+        flow.credits--;
+        Waiter waiter = flow.waiters.pollFirst();
+
+        if (flow.waiters.isEmpty()) {
+            // Leaves the ring; if it asks again it rejoins at the back
+            ring.pollFirst();
+            flow.inRing = false;
+            flow.credits = 0;
+            flows.remove(flow.key);
+        } else if (flow.credits == 0) {
+            ring.addLast(ring.pollFirst());
+        }
+        return waiter;
+    }
+}
@@ -1,14 +1,15 @@
 package com.boe.simulator.server.matching;
 
 import com.boe.simulator.api.websocket.WebSocketService;
+import com.boe.simulator.protocol.types.BinaryPrice;
 import com.boe.simulator.protocol.types.OrdType;
 import com.boe.simulator.protocol.types.Side;
 import com.boe.simulator.server.order.Order;
 import com.boe.simulator.server.order.OrderRepository;
 
-import java.math.BigDecimal;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -17,7 +18,7 @@ public class MatchingEngine {
     private static final Logger LOGGER = Logger.getLogger(MatchingEngine.class.getName());
 
     private final Map<String, OrderBook> orderBooks;
-    private final Map<String, Object> symbolLocks;
+    private final Map<String, FairSymbolLock> symbolLocks; // shared fairly between sessions
     private final OrderRepository orderRepository;
     private final TradeRepository tradeRepository;
     private final AtomicLong tradeIdGenerator;
@@ -25,7 +26,9 @@ public class MatchingEngine {
     private final boolean allowSelfTrade;
     private final AtomicLong totalMatches;
     private final AtomicLong totalTradeVolume;
+    private final AtomicInteger ordersInFlight; // matching or waiting on a symbol lock
     private WebSocketService webSocketService;
+    private volatile FairShareWeights fairShareWeights = FairShareWeights.EQUAL;
 
     public MatchingEngine(OrderRepository orderRepository, TradeRepository tradeRepository) {
         this(orderRepository, tradeRepository, false);
@@ -41,53 +44,70 @@ public class MatchingEngine {
         this.allowSelfTrade = allowSelfTrade;
         this.totalMatches = new AtomicLong(0);
         this.totalTradeVolume = new AtomicLong(0);
+        this.ordersInFlight = new AtomicInteger(0);
 
         LOGGER.info("MatchingEngine initialized (Self-trade: " + allowSelfTrade + ")");
     }
 
+    public void setFairShareWeights(FairShareWeights fairShareWeights) {
+        this.fairShareWeights = fairShareWeights;
+    }
+
     public void setWebSocketService(WebSocketService webSocketService) {
         this.webSocketService = webSocketService;
     }
 
     public List<Trade> processOrder(Order order) {
+        ordersInFlight.incrementAndGet();
+        try {
+            return matchOrder(order);
+        } finally {
+            ordersInFlight.decrementAndGet();
+        }
+    }
+
+    private List<Trade> matchOrder(Order order) {
         String symbol = order.getSymbol();
-        Object symbolLock = symbolLocks.computeIfAbsent(symbol, k -> new Object());
+        FairSymbolLock symbolLock = lockSymbol(order);
 
-        synchronized (symbolLock) {
-        OrderBook book = orderBooks.computeIfAbsent(symbol, OrderBook::new);
+        try {
+            OrderBook book = orderBooks.computeIfAbsent(symbol, OrderBook::new);
 
-        List<Trade> trades = new ArrayList<>();
+            List<Trade> trades = new ArrayList<>();
 
-        // If it is a market order or can be matched immediately, attempt matching.
-        if (canMatch(order, book)) trades = executeMatching(order, book);
+            // If it is a market order or can be matched immediately, attempt matching.
+            if (canMatch(order, book)) trades = executeMatching(order, book);
 
-        // If there is an outstanding amount, add it to the book.
-        if (order.getLeavesQty() > 0 && order.isLive()) {
-            book.addOrder(order);
-            notifyOrderAdded(order, book);
+            // If there is an outstanding amount, add it to the book.
+            if (order.getLeavesQty() > 0 && order.isLive()) {
+                book.addOrder(order);
+                notifyOrderAdded(order, book);
 
-            if (LOGGER.isLoggable(Level.FINE)) {
-                LOGGER.log(Level.FINE, "Order added to book: {0} ({1} @ {2})",
-                        new Object[]{order.getClOrdID(), order.getLeavesQty(), order.getPrice()});
+                if (LOGGER.isLoggable(Level.FINE)) {
+                    LOGGER.log(Level.FINE, "Order added to book: {0} ({1} @ {2})",
+                            new Object[]{order.getClOrdID(), order.getLeavesQty(), order.getPrice()});
+                }
             }
-        }
 
-        return trades;
-        } // end synchronized
+            return trades;
+        } finally {
+            symbolLock.unlock();
+        }
     }
 
     /**
      * Modify an order in the book.
      * Sequence: remove at old price → apply delta/update → re-add at new price → try match.
+     * {@code newPrice} is a raw Binary Price; {@link BinaryPrice#NO_PRICE} keeps the current one.
      * Returns trades generated by the new price crossing the book, or empty list if auto-cancelled.
      */
-    public List<Trade> modifyOrder(Order order, String newClOrdID, BigDecimal newPrice,
+    public List<Trade> modifyOrder(Order order, String newClOrdID, long newPrice,
                                    com.boe.simulator.protocol.types.OrdType newOrdType,
                                    int newOrderQty) {
         String symbol = order.getSymbol();
-        Object symbolLock = symbolLocks.computeIfAbsent(symbol, k -> new Object());
+        FairSymbolLock symbolLock = lockSymbol(order);
 
-        synchronized (symbolLock) {
+        try {
             OrderBook book = orderBooks.computeIfAbsent(symbol, OrderBook::new);
 
             // 1. Remove at current (old) price — must happen BEFORE updating price on the order
@@ -125,9 +145,17 @@ public class MatchingEngine {
             }
 
             return trades;
+        } finally {
+            symbolLock.unlock();
         }
     }
 
+    private FairSymbolLock lockSymbol(Order order) {
+        FairSymbolLock symbolLock = symbolLocks.computeIfAbsent(order.getSymbol(), k -> new FairSymbolLock());
+        symbolLock.lock(order.getSessionSubID(), fairShareWeights.weightOf(order));
+        return symbolLock;
+    }
+
     public boolean cancelOrder(Order order) {
         OrderBook book = orderBooks.get(order.getSymbol());
         if (book == null) return false;
@@ -144,15 +172,15 @@ public class MatchingEngine {
     private boolean canMatch(Order incomingOrder, OrderBook book) {
         if (incomingOrder.getOrdType() == OrdType.MARKET) return true;
 
-        BigDecimal incomingPrice = incomingOrder.getPrice();
-        if (incomingPrice == null) return false;
+        long incomingPrice = incomingOrder.getPriceRaw();
+        if (incomingPrice == BinaryPrice.NO_PRICE) return false;
 
         if (incomingOrder.getSide() == Side.BUY) {
-            BigDecimal bestAsk = book.getBestAsk();
-            return bestAsk != null && incomingPrice.compareTo(bestAsk) >= 0;
+            long bestAsk = book.getBestAskRaw();
+            return bestAsk != BinaryPrice.NO_PRICE && incomingPrice >= bestAsk;
         } else { // Sell
-            BigDecimal bestBid = book.getBestBid();
-            return bestBid != null && incomingPrice.compareTo(bestBid) <= 0;
+            long bestBid = book.getBestBidRaw();
+            return bestBid != BinaryPrice.NO_PRICE && incomingPrice <= bestBid;
         }
     }
 
@@ -193,7 +221,7 @@ public class MatchingEngine {
             int fillQty = Math.min(aggressiveOrder.getLeavesQty(), passiveOrder.getLeavesQty());
 
             // Execution price is the price of the passive order (price-time priority).
-            BigDecimal execPrice = passiveOrder.getPrice();
+            long execPrice = passiveOrder.getPriceRaw();
 
             // Create trade
             Trade trade = createTrade(aggressiveOrder, passiveOrder, fillQty, execPrice);
@@ -218,17 +246,19 @@ public class MatchingEngine {
             totalMatches.incrementAndGet();
             totalTradeVolume.addAndGet(fillQty);
 
-            LOGGER.log(Level.INFO, "Trade executed: {0} x {1} @ {2}", new Object[]{
-                    trade.getSymbol(),
-                    fillQty,
-                    execPrice
-            });
+            if (LOGGER.isLoggable(Level.INFO)) {
+                LOGGER.log(Level.INFO, "Trade executed: {0} x {1} @ {2}", new Object[]{
+                        trade.getSymbol(),
+                        fillQty,
+                        trade.getPrice()
+                });
+            }
         }
 
         return trades;
     }
 
-    private Trade createTrade(Order aggressive, Order passive, int qty, BigDecimal price) {
+    private Trade createTrade(Order aggressive, Order passive, int qty, long price) {
         long tradeId = tradeIdGenerator.getAndIncrement();
 
         boolean aggressiveIsBuy = aggressive.getSide() == Side.BUY;
@@ -243,7 +273,7 @@ public class MatchingEngine {
                 .sellClOrdID(aggressiveIsBuy ? passive.getClOrdID() : aggressive.getClOrdID())
                 .sellUsername(aggressiveIsBuy ? passive.getUsername() : aggressive.getUsername())
                 .quantity(qty)
-                .price(price)
+                .priceRaw(price)
                 .matchingUnit(aggressive.getMatchingUnit())
                 .clearingFirm(aggressive.getClearingFirm())
                 .build();
@@ -297,6 +327,16 @@ public class MatchingEngine {
         return totalTradeVolume.get();
     }
 
+    /** Orders being matched or queued behind a symbol lock right now. */
+    public int getOrdersInFlight() {
+        return ordersInFlight.get();
+    }
+
+    /** Orders and trades queued for write-behind persistence by this engine's repositories. */
+    public int getPendingWrites() {
+        return orderRepository.getPendingWrites() + tradeRepository.getPendingWrites();
+    }
+
     public int getTotalOrdersInBooks() {
         return orderBooks.values().stream()
                 .mapToInt(OrderBook::size)
@@ -1,5 +1,6 @@
 package com.boe.simulator.server.matching;
 
+import com.boe.simulator.protocol.types.BinaryPrice;
 import com.boe.simulator.protocol.types.Side;
 import com.boe.simulator.server.order.Order;
 
@@ -16,16 +17,17 @@ public class OrderBook {
     private final String symbol;
     private final StampedLock lock = new StampedLock();
 
+    // Price levels keyed by raw Binary Price (4 implied decimals)
     // Bid side: descending price (the best bid first)
-    private final TreeMap<BigDecimal, LinkedList<Order>> bids;
+    private final TreeMap<Long, LinkedList<Order>> bids;
 
     // Ask side: ascending price (best ask first)
-    private final TreeMap<BigDecimal, LinkedList<Order>> asks;
+    private final TreeMap<Long, LinkedList<Order>> asks;
 
     // Index for quick search by OrderID — ConcurrentHashMap, no lock needed
     private final Map<Long, Order> orderIndex;
 
-    private volatile BigDecimal lastTradePrice;
+    private volatile long lastTradePrice = BinaryPrice.NO_PRICE;
     private volatile int totalBidQuantity;
     private volatile int totalAskQuantity;
 
@@ -39,21 +41,21 @@ public class OrderBook {
     }
 
     // Private helpers — caller must already hold a read or write stamp
-    private BigDecimal bestBidUnlocked() { return bids.isEmpty() ? null : bids.firstKey(); }
-    private BigDecimal bestAskUnlocked() { return asks.isEmpty() ? null : asks.firstKey(); }
+    private long bestBidUnlocked() { return bids.isEmpty() ? BinaryPrice.NO_PRICE : bids.firstKey(); }
+    private long bestAskUnlocked() { return asks.isEmpty() ? BinaryPrice.NO_PRICE : asks.firstKey(); }
 
     public void addOrder(Order order) {
         if (!symbol.equals(order.getSymbol())) throw new IllegalArgumentException("Order symbol mismatch");
 
-        BigDecimal price = order.getPrice();
-        if (price == null) {
+        long price = order.getPriceRaw();
+        if (price == BinaryPrice.NO_PRICE) {
             LOGGER.warning("Cannot add market order to book: " + order.getClOrdID());
             return;
         }
 
         long stamp = lock.writeLock();
         try {
-            TreeMap<BigDecimal, LinkedList<Order>> side = order.getSide() == Side.BUY ? bids : asks;
+            TreeMap<Long, LinkedList<Order>> side = order.getSide() == Side.BUY ? bids : asks;
             side.computeIfAbsent(price, k -> new LinkedList<>()).addLast(order);
             orderIndex.put(order.getOrderID(), order);
 
@@ -63,7 +65,9 @@ public class OrderBook {
             lock.unlockWrite(stamp);
         }
 
-        LOGGER.log(Level.FINE, "Added order to book: {0} @ {1}", new Object[]{order.getClOrdID(), price});
+        if (LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.log(Level.FINE, "Added order to book: {0} @ {1}", new Object[]{order.getClOrdID(), order.getPrice()});
+        }
     }
 
     public boolean removeOrder(Order order) {
@@ -72,8 +76,8 @@ public class OrderBook {
             Order removed = orderIndex.remove(order.getOrderID());
             if (removed == null) return false;
 
-            BigDecimal price = order.getPrice();
-            TreeMap<BigDecimal, LinkedList<Order>> side = order.getSide() == Side.BUY ? bids : asks;
+            long price = order.getPriceRaw();
+            TreeMap<Long, LinkedList<Order>> side = order.getSide() == Side.BUY ? bids : asks;
 
             LinkedList<Order> level = side.get(price);
             if (level != null) {
@@ -92,9 +96,10 @@ public class OrderBook {
         }
     }
 
-    public BigDecimal getBestBid() {
+    /** Best bid as a raw Binary Price, or {@link BinaryPrice#NO_PRICE} when the side is empty. */
+    public long getBestBidRaw() {
         long stamp = lock.tryOptimisticRead();
-        BigDecimal result = bestBidUnlocked();
+        long result = bestBidUnlocked();
         if (!lock.validate(stamp)) {
             stamp = lock.readLock();
             try { result = bestBidUnlocked(); } finally { lock.unlockRead(stamp); }
@@ -102,9 +107,10 @@ public class OrderBook {
         return result;
     }
 
-    public BigDecimal getBestAsk() {
+    /** Best ask as a raw Binary Price, or {@link BinaryPrice#NO_PRICE} when the side is empty. */
+    public long getBestAskRaw() {
         long stamp = lock.tryOptimisticRead();
-        BigDecimal result = bestAskUnlocked();
+        long result = bestAskUnlocked();
         if (!lock.validate(stamp)) {
             stamp = lock.readLock();
             try { result = bestAskUnlocked(); } finally { lock.unlockRead(stamp); }
@@ -112,12 +118,15 @@ public class OrderBook {
         return result;
     }
 
+    public BigDecimal getBestBid() { return BinaryPrice.toDecimal(getBestBidRaw()); }
+    public BigDecimal getBestAsk() { return BinaryPrice.toDecimal(getBestAskRaw()); }
+
     public BigDecimal getSpread() {
         long stamp = lock.readLock();
         try {
-            BigDecimal bid = bestBidUnlocked();
-            BigDecimal ask = bestAskUnlocked();
-            return (bid == null || ask == null) ? null : ask.subtract(bid);
+            long bid = bestBidUnlocked();
+            long ask = bestAskUnlocked();
+            return (bid == BinaryPrice.NO_PRICE || ask == BinaryPrice.NO_PRICE) ? null : BinaryPrice.toDecimal(ask - bid);
         } finally {
             lock.unlockRead(stamp);
         }
@@ -126,9 +135,10 @@ public class OrderBook {
     public BigDecimal getMidPrice() {
         long stamp = lock.readLock();
         try {
-            BigDecimal bid = bestBidUnlocked();
-            BigDecimal ask = bestAskUnlocked();
-            return (bid == null || ask == null) ? null : bid.add(ask).divide(BigDecimal.valueOf(2));
+            long bid = bestBidUnlocked();
+            long ask = bestAskUnlocked();
+            if (bid == BinaryPrice.NO_PRICE || ask == BinaryPrice.NO_PRICE) return null;
+            return BinaryPrice.toDecimal(bid).add(BinaryPrice.toDecimal(ask)).divide(BigDecimal.valueOf(2));
         } finally {
             lock.unlockRead(stamp);
         }
@@ -137,8 +147,8 @@ public class OrderBook {
     public List<Order> getTopBidOrders() {
         long stamp = lock.readLock();
         try {
-            BigDecimal bestBid = bestBidUnlocked();
-            if (bestBid == null) return List.of();
+            long bestBid = bestBidUnlocked();
+            if (bestBid == BinaryPrice.NO_PRICE) return List.of();
             return new ArrayList<>(bids.get(bestBid));
         } finally {
             lock.unlockRead(stamp);
@@ -148,8 +158,8 @@ public class OrderBook {
     public List<Order> getTopAskOrders() {
         long stamp = lock.readLock();
         try {
-            BigDecimal bestAsk = bestAskUnlocked();
-            if (bestAsk == null) return List.of();
+            long bestAsk = bestAskUnlocked();
+            if (bestAsk == BinaryPrice.NO_PRICE) return List.of();
             return new ArrayList<>(asks.get(bestAsk));
         } finally {
             lock.unlockRead(stamp);
@@ -181,20 +191,20 @@ public class OrderBook {
             List<PriceLevel> askLevels = new ArrayList<>();
 
             int count = 0;
-            for (Map.Entry<BigDecimal, LinkedList<Order>> entry : bids.entrySet()) {
+            for (Map.Entry<Long, LinkedList<Order>> entry : bids.entrySet()) {
                 if (count++ >= depth) break;
                 int totalQty = entry.getValue().stream().mapToInt(Order::getLeavesQty).sum();
-                bidLevels.add(new PriceLevel(entry.getKey(), totalQty, entry.getValue().size()));
+                bidLevels.add(new PriceLevel(BinaryPrice.toDecimal(entry.getKey()), totalQty, entry.getValue().size()));
             }
 
             count = 0;
-            for (Map.Entry<BigDecimal, LinkedList<Order>> entry : asks.entrySet()) {
+            for (Map.Entry<Long, LinkedList<Order>> entry : asks.entrySet()) {
                 if (count++ >= depth) break;
                 int totalQty = entry.getValue().stream().mapToInt(Order::getLeavesQty).sum();
-                askLevels.add(new PriceLevel(entry.getKey(), totalQty, entry.getValue().size()));
+                askLevels.add(new PriceLevel(BinaryPrice.toDecimal(entry.getKey()), totalQty, entry.getValue().size()));
             }
 
-            return new BookSnapshot(symbol, bidLevels, askLevels, lastTradePrice);
+            return new BookSnapshot(symbol, bidLevels, askLevels, BinaryPrice.toDecimal(lastTradePrice));
         } finally {
             lock.unlockRead(stamp);
         }
@@ -202,11 +212,12 @@ public class OrderBook {
 
     // Getters
     public String getSymbol() { return symbol; }
-    public BigDecimal getLastTradePrice() { return lastTradePrice; }
+    public long getLastTradePriceRaw() { return lastTradePrice; }
+    public BigDecimal getLastTradePrice() { return BinaryPrice.toDecimal(lastTradePrice); }
     public int getTotalBidQuantity() { return totalBidQuantity; }
     public int getTotalAskQuantity() { return totalAskQuantity; }
 
-    public void setLastTradePrice(BigDecimal price) {
+    public void setLastTradePrice(long price) {
         this.lastTradePrice = price;
     }
 
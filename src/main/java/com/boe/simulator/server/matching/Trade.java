@@ -1,5 +1,7 @@
 package com.boe.simulator.server.matching;
 
+import com.boe.simulator.protocol.types.BinaryPrice;
+
 import java.math.BigDecimal;
 import java.time.Instant;
 
@@ -13,7 +15,7 @@ public record Trade(
         String sellClOrdID,
         String sellUsername,
         int quantity,
-        BigDecimal price,
+        long priceRaw,
         Instant executionTime,
         byte matchingUnit,
         String clearingFirm
@@ -21,12 +23,12 @@ public record Trade(
     public Trade {
         if (symbol == null || symbol.isEmpty()) throw new IllegalArgumentException("Symbol is required");
         if (quantity <= 0) throw new IllegalArgumentException("Quantity must be positive");
-        if (price == null || price.compareTo(BigDecimal.ZERO) <= 0) throw new IllegalArgumentException("Price must be positive");
+        if (priceRaw <= 0) throw new IllegalArgumentException("Price must be positive");
         if (executionTime == null) executionTime = Instant.now();
     }
 
     public BigDecimal getNotionalValue() {
-        return price.multiply(BigDecimal.valueOf(quantity));
+        return BigDecimal.valueOf(Math.multiplyExact(priceRaw, quantity), BinaryPrice.SCALE);
     }
 
     public boolean isSelfTrade() {
@@ -43,7 +45,8 @@ public record Trade(
     public String getSellClOrdID() { return sellClOrdID; }
     public String getSellUsername() { return sellUsername; }
     public int getQuantity() { return quantity; }
-    public BigDecimal getPrice() { return price; }
+    public long getPriceRaw() { return priceRaw; }
+    public BigDecimal getPrice() { return BinaryPrice.toDecimal(priceRaw); }
     public Instant getExecutionTime() { return executionTime; }
     public byte getMatchingUnit() { return matchingUnit; }
     public String getClearingFirm() { return clearingFirm; }
@@ -51,7 +54,7 @@ public record Trade(
     @Override
     public String toString() {
         return "Trade{id=%d, symbol='%s', qty=%d, price=%s, buy=%s, sell=%s}"
-                .formatted(tradeId, symbol, quantity, price, buyClOrdID, sellClOrdID);
+                .formatted(tradeId, symbol, quantity, getPrice(), buyClOrdID, sellClOrdID);
     }
 
     public static Builder builder() {
@@ -68,7 +71,7 @@ public record Trade(
         private String sellClOrdID;
         private String sellUsername;
         private int quantity;
-        private BigDecimal price;
+        private long priceRaw;
         private Instant executionTime;
         private byte matchingUnit;
         private String clearingFirm;
@@ -82,14 +85,15 @@ public record Trade(
         public Builder sellClOrdID(String sellClOrdID) { this.sellClOrdID = sellClOrdID; return this; }
         public Builder sellUsername(String sellUsername) { this.sellUsername = sellUsername; return this; }
         public Builder quantity(int quantity) { this.quantity = quantity; return this; }
-        public Builder price(BigDecimal price) { this.price = price; return this; }
+        public Builder price(BigDecimal price) { this.priceRaw = price == null ? 0 : BinaryPrice.toRaw(price); return this; }
+        public Builder priceRaw(long priceRaw) { this.priceRaw = priceRaw; return this; }
         public Builder executionTime(Instant executionTime) { this.executionTime = executionTime; return this; }
         public Builder matchingUnit(byte matchingUnit) { this.matchingUnit = matchingUnit; return this; }
         public Builder clearingFirm(String clearingFirm) { this.clearingFirm = clearingFirm; return this; }
 
         public Trade build() {
             return new Trade(tradeId, symbol, buyOrderId, buyClOrdID, buyUsername,
-                    sellOrderId, sellClOrdID, sellUsername, quantity, price,
+                    sellOrderId, sellClOrdID, sellUsername, quantity, priceRaw,
                     executionTime, matchingUnit, clearingFirm);
         }
     }
@@ -0,0 +1,117 @@
+package com.boe.simulator.server.matching;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+
+/**
+ * Binary, big-endian keys of the trades column family, ordered the way they are scanned:
+ *
+ * <pre>
+ *   trade record  0x03 |                   epoch nanos | tradeId   -> record
+ *   symbol index  0x01 | symbol   | 0x00 | epoch nanos | tradeId
+ *   user index    0x02 | username | 0x00 | epoch nanos | tradeId
+ *   order index   0x04 | orderId  |        epoch nanos | tradeId
+ *   id index      0x05 | tradeId                                   -> record key
+ * </pre>
+ *
+ * Records are stored in time order, so time ranges and "latest N" read the records directly.
+ * Longs have their sign bit flipped so unsigned byte order is numeric order, and the 0x00
+ * terminator keeps "AAPL" from prefix-matching "AAPLX". The trade id makes every key unique
+ * (trades in the same instant no longer collide). Symbol, user and order index values are
+ * empty: the record key is their last sixteen bytes.
+ */
+final class TradeIndexKeys {
+
+    static final byte SYMBOL = 0x01;
+    static final byte USER = 0x02;
+    static final byte TIME = 0x03;
+    static final byte ORDER = 0x04;
+    static final byte ID = 0x05;
+
+    static final byte[] EMPTY = new byte[0];
+
+    private TradeIndexKeys() {}
+
+    static byte[] symbol(Trade trade) {
+        return key(SYMBOL, trade.getSymbol(), epochNanos(trade.getExecutionTime()), trade.getTradeId());
+    }
+
+    static byte[] user(String username, Trade trade) {
+        return key(USER, username, epochNanos(trade.getExecutionTime()), trade.getTradeId());
+    }
+
+    /** The record key. */
+    static byte[] time(Trade trade) {
+        return key(TIME, null, epochNanos(trade.getExecutionTime()), trade.getTradeId());
+    }
+
+    static byte[] order(long orderId, Trade trade) {
+        return ByteBuffer.allocate(1 + 3 * Long.BYTES).put(ORDER).putLong(orderId ^ Long.MIN_VALUE)
+                .putLong(epochNanos(trade.getExecutionTime()) ^ Long.MIN_VALUE)
+                .putLong(trade.getTradeId() ^ Long.MIN_VALUE).array();
+    }
+
+    static byte[] orderPrefix(long orderId) {
+        return ByteBuffer.allocate(1 + Long.BYTES).put(ORDER).putLong(orderId ^ Long.MIN_VALUE).array();
+    }
+
+    static byte[] id(long tradeId) {
+        return ByteBuffer.allocate(1 + Long.BYTES).put(ID).putLong(tradeId ^ Long.MIN_VALUE).array();
+    }
+
+    /** The record key a symbol, user, order or time key points at. */
+    static byte[] recordKey(byte[] indexKey) {
+        byte[] key = new byte[1 + 2 * Long.BYTES];
+        key[0] = TIME;
+        System.arraycopy(indexKey, indexKey.length - 2 * Long.BYTES, key, 1, 2 * Long.BYTES);
+        return key;
+    }
+
+    /** Every key for {@code name} in the {@code tag} index. */
+    static byte[] prefix(byte tag, String name) {
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        return ByteBuffer.allocate(1 + nameBytes.length + 1).put(tag).put(nameBytes).put((byte) 0).array();
+    }
+
+    /** First key at or after {@code instant}; pass {@code name} null for the time index. */
+    static byte[] lowerBound(byte tag, String name, Instant instant) {
+        return key(tag, name, boundNanos(instant), Long.MIN_VALUE);
+    }
+
+    /** First key after {@code instant}, for an exclusive upper bound of an inclusive range. */
+    static byte[] upperBound(byte tag, String name, Instant instant) {
+        long nanos = boundNanos(instant);
+        if (nanos == Long.MAX_VALUE) {
+            byte[] last = key(tag, name, nanos, Long.MAX_VALUE);
+            return Arrays.copyOf(last, last.length + 1); // sorts just after the last possible key
+        }
+        return key(tag, name, nanos + 1, Long.MIN_VALUE);
+    }
+
+    static long tradeId(byte[] key) {
+        return ByteBuffer.wrap(key, key.length - Long.BYTES, Long.BYTES).getLong() ^ Long.MIN_VALUE;
+    }
+
+    static long epochNanos(Instant instant) {
+        return Math.addExact(Math.multiplyExact(instant.getEpochSecond(), 1_000_000_000L), instant.getNano());
+    }
+
+    // Instants beyond the ~584-year nanosecond range clamp, so Instant.MIN/MAX work as bounds
+    private static long boundNanos(Instant instant) {
+        try {
+            return epochNanos(instant);
+        } catch (ArithmeticException e) {
+            return instant.getEpochSecond() < 0 ? Long.MIN_VALUE : Long.MAX_VALUE;
+        }
+    }
+
+    private static byte[] key(byte tag, String name, long nanos, long tradeId) {
+        byte[] nameBytes = name == null ? null : name.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer key = ByteBuffer.allocate(1 + (nameBytes == null ? 0 : nameBytes.length + 1) + 2 * Long.BYTES);
+        key.put(tag);
+        if (nameBytes != null) key.put(nameBytes).put((byte) 0);
+        return key.putLong(nanos ^ Long.MIN_VALUE).putLong(tradeId ^ Long.MIN_VALUE).array();
+    }
+}
@@ -0,0 +1,124 @@
+package com.boe.simulator.server.matching;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import com.boe.simulator.server.persistence.codec.BinaryRecordReader;
+import com.boe.simulator.server.persistence.codec.BinaryRecordWriter;
+import com.boe.simulator.server.persistence.codec.RecordFormat;
+import com.boe.simulator.server.persistence.util.SerializationUtil;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Trade records, as JSON or in the compact binary layout; {@link #decode} reads either.
+ * Binary fields are append-only: add new ones at the end and bump {@link #VERSION}.
+ */
+public final class TradeRecordCodec {
+
+    static final byte RECORD_TYPE = 'T';
+    static final int VERSION = 1;
+
+    private final SerializationUtil serializer = SerializationUtil.getInstance();
+
+    public byte[] encode(Trade trade, RecordFormat format) {
+        return format == RecordFormat.BINARY ? encodeBinary(trade) : serializer.serialize(PersistedTrade.fromTrade(trade));
+    }
+
+    public Trade decode(byte[] record) {
+        if (RecordFormat.of(record) == RecordFormat.BINARY) return decodeBinary(record);
+        return serializer.deserialize(record, PersistedTrade.class).toTrade();
+    }
+
+    private static byte[] encodeBinary(Trade trade) {
+        return new BinaryRecordWriter(RECORD_TYPE, VERSION)
+                .writeVarLong(trade.getTradeId())
+                .writeString(trade.getSymbol())
+                .writeVarLong(trade.getBuyOrderId())
+                .writeString(trade.getBuyClOrdID())
+                .writeString(trade.getBuyUsername())
+                .writeVarLong(trade.getSellOrderId())
+                .writeString(trade.getSellClOrdID())
+                .writeString(trade.getSellUsername())
+                .writeVarInt(trade.getQuantity())
+                .writeTickPrice(trade.getPriceRaw())
+                .writeEpochNanos(trade.getExecutionTime())
+                .writeByte(trade.getMatchingUnit())
+                .writeString(trade.getClearingFirm())
+                .toByteArray();
+    }
+
+    private static Trade decodeBinary(byte[] record) {
+        BinaryRecordReader in = new BinaryRecordReader(record, RECORD_TYPE);
+        return Trade.builder()
+                .tradeId(in.readVarLong())
+                .symbol(in.readString())
+                .buyOrderId(in.readVarLong())
+                .buyClOrdID(in.readString())
+                .buyUsername(in.readString())
+                .sellOrderId(in.readVarLong())
+                .sellClOrdID(in.readString())
+                .sellUsername(in.readString())
+                .quantity(in.readVarInt())
+                .priceRaw(in.readTickPrice())
+                .executionTime(in.readEpochNanos())
+                .matchingUnit(in.readByte())
+                .clearingFirm(in.readString())
+                .build();
+    }
+
+    private record PersistedTrade(
+            @JsonProperty("tradeId") long tradeId,
+            @JsonProperty("symbol") String symbol,
+            @JsonProperty("buyOrderId") long buyOrderId,
+            @JsonProperty("buyClOrdID") String buyClOrdID,
+            @JsonProperty("buyUsername") String buyUsername,
+            @JsonProperty("sellOrderId") long sellOrderId,
+            @JsonProperty("sellClOrdID") String sellClOrdID,
+            @JsonProperty("sellUsername") String sellUsername,
+            @JsonProperty("quantity") int quantity,
+            @JsonProperty("price") String price,
+            @JsonProperty("executionTime") String executionTime,
+            @JsonProperty("matchingUnit") byte matchingUnit,
+            @JsonProperty("clearingFirm") String clearingFirm
+    ) {
+        @JsonCreator
+        public PersistedTrade {}
+
+        static PersistedTrade fromTrade(Trade trade) {
+            return new PersistedTrade(
+                    trade.getTradeId(),
+                    trade.getSymbol(),
+                    trade.getBuyOrderId(),
+                    trade.getBuyClOrdID(),
+                    trade.getBuyUsername(),
+                    trade.getSellOrderId(),
+                    trade.getSellClOrdID(),
+                    trade.getSellUsername(),
+                    trade.getQuantity(),
+                    trade.getPrice().toString(),
+                    trade.getExecutionTime().toString(),
+                    trade.getMatchingUnit(),
+                    trade.getClearingFirm()
+            );
+        }
+
+        Trade toTrade() {
+            return Trade.builder()
+                    .tradeId(tradeId)
+                    .symbol(symbol)
+                    .buyOrderId(buyOrderId)
+                    .buyClOrdID(buyClOrdID)
+                    .buyUsername(buyUsername)
+                    .sellOrderId(sellOrderId)
+                    .sellClOrdID(sellClOrdID)
+                    .sellUsername(sellUsername)
+                    .quantity(quantity)
+                    .price(new BigDecimal(price))
+                    .executionTime(Instant.parse(executionTime))
+                    .matchingUnit(matchingUnit)
+                    .clearingFirm(clearingFirm)
+                    .build();
+        }
+    }
+}
@@ -11,6 +11,8 @@ public interface TradeRepository {
 
     default void saveAsync(Trade trade) { save(trade); }
 
+    default int getPendingWrites() { return 0; }
+
     Optional<Trade> findById(long tradeId);
 
     List<Trade> findBySymbol(String symbol);
@@ -1,41 +1,89 @@
 package com.boe.simulator.server.matching;
 
+import com.boe.simulator.server.persistence.KeyRange;
+import com.boe.simulator.server.persistence.RocksCursor;
 import com.boe.simulator.server.persistence.RocksDBManager;
-import com.boe.simulator.server.persistence.util.SerializationUtil;
-import com.fasterxml.jackson.annotation.JsonCreator;
-import com.fasterxml.jackson.annotation.JsonProperty;
+import com.boe.simulator.server.persistence.WriteBehindJournal;
+import com.boe.simulator.server.persistence.codec.RecordFormat;
+import org.rocksdb.RocksDBException;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.*;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 import java.util.logging.Level;
+import java.util.function.Predicate;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class TradeRepositoryService implements TradeRepository {
     private static final Logger LOGGER = Logger.getLogger(TradeRepositoryService.class.getName());
 
     private final RocksDBManager dbManager;
-    private final SerializationUtil serializer;
+    private final TradeRecordCodec codec;
 
-    private static final String CF_TRADES = RocksDBManager.CF_MESSAGES;
+    private static final String CF_TRADES = RocksDBManager.CF_TRADES;
+    private static final int OPERATIONS_PER_TRADE = 7;
+    private static final int MIGRATION_BATCH_TRADES = 500;
+
+    // Trades used to be kept in the messages column family: "trade:<id>" records, the string
+    // indexes, then binary index keys tagged 0x01-0x03
+    private static final String CF_LEGACY = RocksDBManager.CF_MESSAGES;
+    private static final String LEGACY_RECORD_PREFIX = "trade:";
+    private static final List<byte[]> LEGACY_INDEX_PREFIXES = List.of(
+            "trade-symbol:".getBytes(), "trade-user:".getBytes(), "trade-date:".getBytes(),
+            new byte[]{TradeIndexKeys.SYMBOL}, new byte[]{TradeIndexKeys.USER}, new byte[]{TradeIndexKeys.TIME});
+
+    private static final KeyRange RECORDS = KeyRange.prefix(new byte[]{TradeIndexKeys.TIME});
 
     private final LinkedBlockingQueue<Trade> writeQueue = new LinkedBlockingQueue<>(500_000);
     private volatile boolean asyncRunning;
     private Thread asyncThread;
+    // When set, write-behind trades go through this crash-safe journal instead of the queue
+    private final WriteBehindJournal journal;
+    private static final long JOURNAL_RETRY_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    // False while legacy trades are moved into the trades column family; queries then scan both
+    private volatile boolean indexesReady = true;
 
     public TradeRepositoryService(RocksDBManager dbManager) {
+        this(dbManager, null);
+    }
+
+    /** Takes ownership of {@code journal}, applying what it still holds before returning. */
+    public TradeRepositoryService(RocksDBManager dbManager, WriteBehindJournal journal) {
         this.dbManager = dbManager;
-        this.serializer = SerializationUtil.getInstance();
+        this.codec = new TradeRecordCodec();
+        this.journal = journal;
+        if (journal != null && journal.getPendingRecords() > 0) {
+            LOGGER.log(Level.INFO, "Applied {0} trades left in the write-behind journal", drainJournal());
+        }
         startAsyncPersistence();
+        migrateLegacyTradesInBackground();
         LOGGER.info("TradeRepositoryService initialized");
     }
 
     @Override
     public void saveAsync(Trade trade) {
-        if (!writeQueue.offer(trade)) save(trade);
+        if (journal != null) {
+            try {
+                journal.append(codec.encode(trade, RecordFormat.BINARY));
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Journal append failed, saving trade synchronously: " + trade.getTradeId(), e);
+                save(trade);
+            }
+        } else if (!writeQueue.offer(trade)) {
+            save(trade);
+        }
+    }
+
+    @Override
+    public int getPendingWrites() {
+        return journal != null ? (int) Math.min(Integer.MAX_VALUE, journal.getPendingRecords()) : writeQueue.size();
     }
 
     public void stopAsyncPersistence() {
@@ -44,39 +92,108 @@ public class TradeRepositoryService implements TradeRepository {
             asyncThread.interrupt();
             try { asyncThread.join(5_000); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
         }
-        List<Trade> remaining = new ArrayList<>();
-        writeQueue.drainTo(remaining);
-        remaining.forEach(t -> { try { save(t); } catch (Exception ignored) {} });
+        flushRemaining();
+        if (journal != null) {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Failed to close the trade journal", e);
+            }
+        }
     }
 
     private void startAsyncPersistence() {
         asyncRunning = true;
-        asyncThread = Thread.ofVirtual().name("trade-persist").start(() -> {
-            while (asyncRunning) {
-                try {
-                    Trade first = writeQueue.poll(1, TimeUnit.MILLISECONDS);
-                    if (first == null) continue;
-                    try { save(first); } catch (Exception e) {
-                        LOGGER.log(Level.SEVERE, "Async trade persist error", e);
-                    }
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    break;
+        asyncThread = Thread.ofVirtual().name("trade-persist").start(journal != null ? this::runJournalApplier : this::runAsyncWriter);
+    }
+
+    private void runAsyncWriter() {
+        List<Trade> batch = new ArrayList<>(256);
+        while (asyncRunning) {
+            try {
+                Trade first = writeQueue.poll(1, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                writeQueue.drainTo(batch, 255); // up to 256 trades per WriteBatch
+                flushBatch(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                LOGGER.log(Level.SEVERE, "Async trade persist error", e);
+                batch.clear();
+            }
+        }
+        flushRemaining();
+    }
+
+    private void runJournalApplier() {
+        while (asyncRunning) {
+            try {
+                if (applyJournal() == 0) Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                LOGGER.log(Level.SEVERE, "Journaled trades could not be set aside, retrying", e);
+                LockSupport.parkNanos(JOURNAL_RETRY_NANOS);
+            }
+        }
+        flushRemaining();
+    }
+
+    // Up to 256 journaled trades per WriteBatch; one RocksDB refuses on its own is set aside by the journal
+    private int applyJournal() throws IOException {
+        return journal.apply(256, records -> writeBatch(records.stream().map(codec::decode).toList()));
+    }
+
+    private long drainJournal() {
+        long applied = 0;
+        try {
+            for (int count; (count = applyJournal()) > 0; ) applied += count;
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(Level.SEVERE, "Journaled trades could not be applied, they stay in the journal", e);
+        }
+        return applied;
+    }
+
+    private void flushRemaining() {
+        if (journal != null) {
+            drainJournal();
+            return;
+        }
+        List<Trade> remaining = new ArrayList<>();
+        writeQueue.drainTo(remaining);
+        if (!remaining.isEmpty()) flushBatch(remaining);
+    }
+
+    private void flushBatch(List<Trade> trades) {
+        try {
+            writeBatch(trades);
+        } catch (RocksDBException e) {
+            LOGGER.log(Level.SEVERE, "Trade batch flush failed, falling back to individual saves", e);
+            for (Trade trade : trades) {
+                try { save(trade); } catch (Exception ex) {
+                    LOGGER.log(Level.SEVERE, "Individual save failed for trade " + trade.getTradeId(), ex);
                 }
             }
-        });
+        }
+    }
+
+    private void writeBatch(List<Trade> trades) throws RocksDBException {
+        RecordFormat format = dbManager.getRecordFormat(CF_TRADES);
+        List<RocksDBManager.WriteBatchOperation> ops = new ArrayList<>(trades.size() * OPERATIONS_PER_TRADE);
+        for (Trade trade : trades) addOperations(trade, format, ops);
+        dbManager.writeBatch(ops.toArray(RocksDBManager.WriteBatchOperation[]::new));
     }
 
     @Override
     public void save(Trade trade) {
         try {
-            String key = buildKey(trade.getTradeId());
-            PersistedTrade persistedTrade = PersistedTrade.fromTrade(trade);
-            byte[] value = serializer.serialize(persistedTrade);
-
-            dbManager.put(CF_TRADES, key.getBytes(), value);
-
-            saveIndexes(trade);
+            List<RocksDBManager.WriteBatchOperation> ops = new ArrayList<>(OPERATIONS_PER_TRADE);
+            addOperations(trade, dbManager.getRecordFormat(CF_TRADES), ops);
+            dbManager.writeBatch(ops.toArray(RocksDBManager.WriteBatchOperation[]::new));
 
             LOGGER.log(Level.FINE, "Saved trade: {0}", trade.getTradeId());
         } catch (Exception e) {
@@ -85,41 +202,44 @@ public class TradeRepositoryService implements TradeRepository {
         }
     }
 
-    private void saveIndexes(Trade trade) throws Exception {
-        byte[] tradeIdBytes = String.valueOf(trade.getTradeId()).getBytes();
+    // The time-ordered record and its id, symbol, user and order index entries, in the same batch
+    private void addOperations(Trade trade, RecordFormat format, List<RocksDBManager.WriteBatchOperation> ops) {
+        byte[] recordKey = TradeIndexKeys.time(trade);
+        ops.add(put(recordKey, codec.encode(trade, format)));
+        ops.add(put(TradeIndexKeys.id(trade.getTradeId()), recordKey));
+        for (byte[] key : indexKeys(trade)) ops.add(put(key, TradeIndexKeys.EMPTY));
+    }
 
-        // Symbol index
-        String symbolKey = String.format("trade-symbol:%s:%d",
-                trade.getSymbol(), trade.getExecutionTime().toEpochMilli());
-        dbManager.put(CF_TRADES, symbolKey.getBytes(), tradeIdBytes);
+    private static List<byte[]> indexKeys(Trade trade) {
+        return List.of(
+                TradeIndexKeys.symbol(trade),
+                TradeIndexKeys.user(trade.getBuyUsername(), trade),
+                TradeIndexKeys.user(trade.getSellUsername(), trade),
+                TradeIndexKeys.order(trade.getBuyOrderId(), trade),
+                TradeIndexKeys.order(trade.getSellOrderId(), trade));
+    }
 
-        // Buy user index
-        String buyUserKey = String.format("trade-user:%s:%d",
-                trade.getBuyUsername(), trade.getExecutionTime().toEpochMilli());
-        dbManager.put(CF_TRADES, buyUserKey.getBytes(), tradeIdBytes);
+    private static void addDeleteOperations(Trade trade, List<RocksDBManager.WriteBatchOperation> ops) {
+        ops.add(delete(CF_TRADES, TradeIndexKeys.time(trade)));
+        ops.add(delete(CF_TRADES, TradeIndexKeys.id(trade.getTradeId())));
+        for (byte[] key : indexKeys(trade)) ops.add(delete(CF_TRADES, key));
+    }
 
-        // Sell user index
-        String sellUserKey = String.format("trade-user:%s:%d",
-                trade.getSellUsername(), trade.getExecutionTime().toEpochMilli());
-        dbManager.put(CF_TRADES, sellUserKey.getBytes(), tradeIdBytes);
+    private static RocksDBManager.WriteBatchOperation put(byte[] key, byte[] value) {
+        return new RocksDBManager.WriteBatchOperation(RocksDBManager.OperationType.PUT, CF_TRADES, key, value);
+    }
 
-        // Date index
-        String date = trade.getExecutionTime().toString().substring(0, 10);
-        String dateKey = String.format("trade-date:%s:%d",
-                date, trade.getExecutionTime().toEpochMilli());
-        dbManager.put(CF_TRADES, dateKey.getBytes(), tradeIdBytes);
+    private static RocksDBManager.WriteBatchOperation delete(String columnFamily, byte[] key) {
+        return new RocksDBManager.WriteBatchOperation(RocksDBManager.OperationType.DELETE, columnFamily, key);
     }
 
     @Override
     public Optional<Trade> findById(long tradeId) {
         try {
-            String key = buildKey(tradeId);
-            byte[] data = dbManager.get(CF_TRADES, key.getBytes());
-
-            if (data == null) return Optional.empty();
-
-            PersistedTrade persistedTrade = serializer.deserialize(data, PersistedTrade.class);
-            return Optional.of(persistedTrade.toTrade());
+            byte[] recordKey = dbManager.get(CF_TRADES, TradeIndexKeys.id(tradeId));
+            byte[] data = recordKey != null ? dbManager.get(CF_TRADES, recordKey) : null;
+            if (data == null && !indexesReady) data = dbManager.get(CF_LEGACY, (LEGACY_RECORD_PREFIX + tradeId).getBytes());
+            return data != null ? Optional.of(codec.decode(data)) : Optional.empty();
         } catch (Exception e) {
             LOGGER.log(Level.SEVERE, "Failed to find trade: " + tradeId, e);
             return Optional.empty();
@@ -129,8 +249,8 @@ public class TradeRepositoryService implements TradeRepository {
     @Override
     public List<Trade> findBySymbol(String symbol) {
         try {
-            String prefix = String.format("trade-symbol:%s:", symbol);
-            return findByIndexPrefix(prefix);
+            if (!indexesReady) return scanAll(t -> symbol.equals(t.getSymbol()));
+            return findByIndex(KeyRange.prefix(TradeIndexKeys.prefix(TradeIndexKeys.SYMBOL, symbol)), Long.MAX_VALUE);
         } catch (Exception e) {
             LOGGER.log(Level.SEVERE, "Failed to find trades by symbol: " + symbol, e);
             return new ArrayList<>();
@@ -139,17 +259,27 @@ public class TradeRepositoryService implements TradeRepository {
 
     @Override
     public List<Trade> findBySymbol(String symbol, Instant start, Instant end) {
-        return findBySymbol(symbol).stream()
-                .filter(t -> !t.getExecutionTime().isBefore(start)
-                        && !t.getExecutionTime().isAfter(end))
-                .collect(Collectors.toList());
+        if (!indexesReady) {
+            return findBySymbol(symbol).stream()
+                    .filter(t -> !t.getExecutionTime().isBefore(start)
+                            && !t.getExecutionTime().isAfter(end))
+                    .collect(Collectors.toList());
+        }
+        try {
+            return findByIndex(KeyRange.between(
+                    TradeIndexKeys.lowerBound(TradeIndexKeys.SYMBOL, symbol, start),
+                    TradeIndexKeys.upperBound(TradeIndexKeys.SYMBOL, symbol, end)), Long.MAX_VALUE);
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Failed to find trades by symbol: " + symbol, e);
+            return new ArrayList<>();
+        }
     }
 
     @Override
     public List<Trade> findByUsername(String username) {
         try {
-            String prefix = String.format("trade-user:%s:", username);
-            return findByIndexPrefix(prefix);
+            if (!indexesReady) return scanAll(t -> username.equals(t.getBuyUsername()) || username.equals(t.getSellUsername()));
+            return findByIndex(KeyRange.prefix(TradeIndexKeys.prefix(TradeIndexKeys.USER, username)), Long.MAX_VALUE);
         } catch (Exception e) {
             LOGGER.log(Level.SEVERE, "Failed to find trades by username: " + username, e);
             return new ArrayList<>();
@@ -158,34 +288,54 @@ public class TradeRepositoryService implements TradeRepository {
 
     @Override
     public List<Trade> findByOrderId(long orderId) {
-        return findAll().stream()
-                .filter(t -> t.getBuyOrderId() == orderId || t.getSellOrderId() == orderId)
-                .collect(Collectors.toList());
+        try {
+            if (!indexesReady) return scanAll(t -> t.getBuyOrderId() == orderId || t.getSellOrderId() == orderId);
+            return findByIndex(KeyRange.prefix(TradeIndexKeys.orderPrefix(orderId)), Long.MAX_VALUE);
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Failed to find trades by order: " + orderId, e);
+            return new ArrayList<>();
+        }
     }
 
     @Override
     public List<Trade> findByDateRange(Instant start, Instant end) {
-        return findAll().stream()
-                .filter(t -> !t.getExecutionTime().isBefore(start)
-                        && !t.getExecutionTime().isAfter(end))
-                .sorted(Comparator.comparing(Trade::getExecutionTime))
-                .collect(Collectors.toList());
+        if (!indexesReady) {
+            return findAll().stream()
+                    .filter(t -> !t.getExecutionTime().isBefore(start)
+                            && !t.getExecutionTime().isAfter(end))
+                    .sorted(Comparator.comparing(Trade::getExecutionTime))
+                    .collect(Collectors.toList());
+        }
+        try (Stream<Trade> trades = records(KeyRange.between(
+                TradeIndexKeys.lowerBound(TradeIndexKeys.TIME, null, start),
+                TradeIndexKeys.upperBound(TradeIndexKeys.TIME, null, end)))) {
+            return trades.collect(Collectors.toList());
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Failed to find trades by date range", e);
+            return new ArrayList<>();
+        }
     }
 
     @Override
     public List<Trade> findLatest(int limit) {
-        return findAll().stream()
-                .sorted(Comparator.comparing(Trade::getExecutionTime).reversed())
-                .limit(limit)
-                .collect(Collectors.toList());
+        if (!indexesReady) return scanAll(t -> true).stream().limit(limit).collect(Collectors.toList());
+        try (Stream<Trade> trades = records(RECORDS.reversed())) {
+            return trades.limit(limit).collect(Collectors.toList());
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Failed to find latest trades", e);
+            return new ArrayList<>();
+        }
     }
 
     @Override
     public List<Trade> findLatestBySymbol(String symbol, int limit) {
-        return findBySymbol(symbol).stream()
-                .sorted(Comparator.comparing(Trade::getExecutionTime).reversed())
-                .limit(limit)
-                .collect(Collectors.toList());
+        if (!indexesReady) return findBySymbol(symbol).stream().limit(limit).collect(Collectors.toList());
+        try {
+            return findByIndex(KeyRange.prefix(TradeIndexKeys.prefix(TradeIndexKeys.SYMBOL, symbol)), limit);
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Failed to find latest trades by symbol: " + symbol, e);
+            return new ArrayList<>();
+        }
     }
 
     @Override
@@ -204,29 +354,42 @@ public class TradeRepositoryService implements TradeRepository {
 
     @Override
     public long count() {
-        return findAll().size();
+        if (!indexesReady) return findAll().size();
+        try {
+            return dbManager.count(CF_TRADES, RECORDS);
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Failed to count trades", e);
+            return 0;
+        }
     }
 
     @Override
     public long countBySymbol(String symbol) {
-        return findBySymbol(symbol).size();
+        if (!indexesReady) return findBySymbol(symbol).size();
+        try {
+            return dbManager.count(CF_TRADES, KeyRange.prefix(TradeIndexKeys.prefix(TradeIndexKeys.SYMBOL, symbol)));
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Failed to count trades by symbol: " + symbol, e);
+            return 0;
+        }
     }
 
     @Override
     public int deleteOlderThan(Instant cutoffDate) {
-        List<Trade> oldTrades = findAll().stream()
-                .filter(t -> t.getExecutionTime().isBefore(cutoffDate))
-                .toList();
-
         int deleted = 0;
-        for (Trade trade : oldTrades) {
-            try {
-                String key = buildKey(trade.getTradeId());
-                dbManager.delete(CF_TRADES, key.getBytes());
-                deleted++;
-            } catch (Exception e) {
-                LOGGER.log(Level.WARNING, "Failed to delete trade: " + trade.getTradeId(), e);
+        try {
+            byte[] cutoff = TradeIndexKeys.lowerBound(TradeIndexKeys.TIME, null, cutoffDate);
+            KeyRange older = KeyRange.between(RECORDS.fromInclusive(), cutoff);
+            List<Trade> oldTrades;
+            // Oldest first, a batch at a time; only the deleted records are read
+            while (!(oldTrades = readRecords(older, MIGRATION_BATCH_TRADES)).isEmpty()) {
+                List<RocksDBManager.WriteBatchOperation> ops = new ArrayList<>(oldTrades.size() * OPERATIONS_PER_TRADE);
+                for (Trade trade : oldTrades) addDeleteOperations(trade, ops);
+                dbManager.writeBatch(ops.toArray(RocksDBManager.WriteBatchOperation[]::new));
+                deleted += oldTrades.size();
             }
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, "Failed to delete trades older than " + cutoffDate, e);
         }
 
         LOGGER.log(Level.INFO, "Deleted {0} trades older than {1}", new Object[]{
@@ -238,171 +401,179 @@ public class TradeRepositoryService implements TradeRepository {
 
     @Override
     public List<Trade> search(TradeSearchCriteria criteria) {
-        List<Trade> results = findAll();
-
+        Predicate<Trade> matches = t -> true;
         if (criteria.symbol() != null) {
-            results = results.stream()
-                    .filter(t -> criteria.symbol().equals(t.getSymbol()))
-                    .collect(Collectors.toList());
+            matches = matches.and(t -> criteria.symbol().equals(t.getSymbol()));
         }
-
         if (criteria.username() != null) {
-            results = results.stream()
-                    .filter(t -> criteria.username().equals(t.getBuyUsername())
-                            || criteria.username().equals(t.getSellUsername()))
-                    .collect(Collectors.toList());
+            matches = matches.and(t -> criteria.username().equals(t.getBuyUsername())
+                    || criteria.username().equals(t.getSellUsername()));
         }
-
         if (criteria.orderId() != null) {
-            results = results.stream()
-                    .filter(t -> t.getBuyOrderId() == criteria.orderId()
-                            || t.getSellOrderId() == criteria.orderId())
-                    .collect(Collectors.toList());
+            matches = matches.and(t -> t.getBuyOrderId() == criteria.orderId()
+                    || t.getSellOrderId() == criteria.orderId());
         }
-
         if (criteria.minPrice() != null) {
-            results = results.stream()
-                    .filter(t -> t.getPrice().compareTo(criteria.minPrice()) >= 0)
-                    .collect(Collectors.toList());
+            matches = matches.and(t -> t.getPrice().compareTo(criteria.minPrice()) >= 0);
         }
-
         if (criteria.maxPrice() != null) {
-            results = results.stream()
-                    .filter(t -> t.getPrice().compareTo(criteria.maxPrice()) <= 0)
-                    .collect(Collectors.toList());
+            matches = matches.and(t -> t.getPrice().compareTo(criteria.maxPrice()) <= 0);
         }
-
         if (criteria.minQuantity() != null) {
-            results = results.stream()
-                    .filter(t -> t.getQuantity() >= criteria.minQuantity())
-                    .collect(Collectors.toList());
+            matches = matches.and(t -> t.getQuantity() >= criteria.minQuantity());
         }
-
         if (criteria.maxQuantity() != null) {
-            results = results.stream()
-                    .filter(t -> t.getQuantity() <= criteria.maxQuantity())
-                    .collect(Collectors.toList());
+            matches = matches.and(t -> t.getQuantity() <= criteria.maxQuantity());
         }
-
         if (criteria.startDate() != null) {
-            results = results.stream()
-                    .filter(t -> !t.getExecutionTime().isBefore(criteria.startDate()))
-                    .collect(Collectors.toList());
+            matches = matches.and(t -> !t.getExecutionTime().isBefore(criteria.startDate()));
         }
-
         if (criteria.endDate() != null) {
-            results = results.stream()
-                    .filter(t -> !t.getExecutionTime().isAfter(criteria.endDate()))
-                    .collect(Collectors.toList());
+            matches = matches.and(t -> !t.getExecutionTime().isAfter(criteria.endDate()));
         }
+        long limit = criteria.limit() != null && criteria.limit() > 0 ? criteria.limit() : Long.MAX_VALUE;
 
-        results = results.stream()
-                .sorted(Comparator.comparing(Trade::getExecutionTime).reversed())
-                .collect(Collectors.toList());
+        if (!indexesReady) return scanAll(matches).stream().limit(limit).collect(Collectors.toList());
 
-        if (criteria.limit() != null && criteria.limit() > 0) {
-            results = results.stream()
-                    .limit(criteria.limit())
-                    .collect(Collectors.toList());
+        // Newest first within the date bounds, stopping at the limit
+        KeyRange range = KeyRange.between(
+                criteria.startDate() != null ? TradeIndexKeys.lowerBound(TradeIndexKeys.TIME, null, criteria.startDate()) : RECORDS.fromInclusive(),
+                criteria.endDate() != null ? TradeIndexKeys.upperBound(TradeIndexKeys.TIME, null, criteria.endDate()) : RECORDS.toExclusive());
+        try (Stream<Trade> trades = records(range.reversed())) {
+            return trades.filter(matches).limit(limit).collect(Collectors.toList());
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Failed to search trades", e);
+            return new ArrayList<>();
         }
-
-        return results;
     }
 
     private List<Trade> findAll() {
         try {
-            List<Trade> trades = new ArrayList<>();
-            List<byte[]> keys = dbManager.getKeysWithPrefix(CF_TRADES, "trade:".getBytes());
-
-            for (byte[] key : keys) {
-                byte[] data = dbManager.get(CF_TRADES, key);
-                if (data != null) {
-                    PersistedTrade persistedTrade = serializer.deserialize(data, PersistedTrade.class);
-                    trades.add(persistedTrade.toTrade());
-                }
-            }
+            if (indexesReady) return readRecords(RECORDS, Long.MAX_VALUE);
 
-            return trades;
+            // Legacy records first: a trade moved after that scan is already in the trades column
+            // family when it is scanned, so a trade can be read twice but never missed
+            Map<Long, Trade> trades = new LinkedHashMap<>();
+            try (Stream<Map.Entry<byte[], byte[]>> legacy = dbManager.scan(CF_LEGACY, KeyRange.prefix(LEGACY_RECORD_PREFIX))) {
+                legacy.map(entry -> codec.decode(entry.getValue())).forEach(t -> trades.put(t.getTradeId(), t));
+            }
+            try (Stream<Trade> moved = records(RECORDS)) {
+                moved.forEach(t -> trades.put(t.getTradeId(), t));
+            }
+            return new ArrayList<>(trades.values());
         } catch (Exception e) {
             LOGGER.log(Level.SEVERE, "Failed to find all trades", e);
             return new ArrayList<>();
         }
     }
 
-    private List<Trade> findByIndexPrefix(String prefix) throws Exception {
-        List<Trade> trades = new ArrayList<>();
-        List<byte[]> indexKeys = dbManager.getKeysWithPrefix(CF_TRADES, prefix.getBytes());
+    // Close the stream to release the iterator
+    private Stream<Trade> records(KeyRange range) {
+        return dbManager.scan(CF_TRADES, range).map(entry -> codec.decode(entry.getValue()));
+    }
 
-        for (byte[] indexKey : indexKeys) {
-            byte[] tradeIdBytes = dbManager.get(CF_TRADES, indexKey);
-            if (tradeIdBytes != null) {
-                long tradeId = Long.parseLong(new String(tradeIdBytes));
-                Optional<Trade> tradeOpt = findById(tradeId);
-                tradeOpt.ifPresent(trades::add);
-            }
+    private List<Trade> readRecords(KeyRange range, long limit) {
+        try (Stream<Trade> trades = records(range)) {
+            return trades.limit(limit).collect(Collectors.toCollection(ArrayList::new));
         }
+    }
+
+    // Walks the index keys newest first and reads the records they point at in one multiGet
+    private List<Trade> findByIndex(KeyRange indexRange, long limit) throws RocksDBException {
+        List<byte[]> recordKeys;
+        try (Stream<byte[]> indexKeys = dbManager.scanKeys(CF_TRADES, indexRange.reversed())) {
+            recordKeys = indexKeys.limit(limit).map(TradeIndexKeys::recordKey).toList();
+        }
+
+        List<Trade> trades = new ArrayList<>(recordKeys.size());
+        for (byte[] data : dbManager.multiGet(CF_TRADES, recordKeys)) {
+            if (data != null) trades.add(codec.decode(data));
+        }
+        return trades;
+    }
 
-        return trades.stream()
+    private List<Trade> scanAll(Predicate<Trade> filter) {
+        return findAll().stream()
+                .filter(filter)
                 .sorted(Comparator.comparing(Trade::getExecutionTime).reversed())
                 .collect(Collectors.toList());
     }
 
-    private String buildKey(long tradeId) {
-        return "trade:" + tradeId;
-    }
-
-    private record PersistedTrade(
-            @JsonProperty("tradeId") long tradeId,
-            @JsonProperty("symbol") String symbol,
-            @JsonProperty("buyOrderId") long buyOrderId,
-            @JsonProperty("buyClOrdID") String buyClOrdID,
-            @JsonProperty("buyUsername") String buyUsername,
-            @JsonProperty("sellOrderId") long sellOrderId,
-            @JsonProperty("sellClOrdID") String sellClOrdID,
-            @JsonProperty("sellUsername") String sellUsername,
-            @JsonProperty("quantity") int quantity,
-            @JsonProperty("price") String price,
-            @JsonProperty("executionTime") String executionTime,
-            @JsonProperty("matchingUnit") byte matchingUnit,
-            @JsonProperty("clearingFirm") String clearingFirm
-    ) {
-        @JsonCreator
-        public PersistedTrade {}
-
-        static PersistedTrade fromTrade(Trade trade) {
-            return new PersistedTrade(
-                    trade.getTradeId(),
-                    trade.getSymbol(),
-                    trade.getBuyOrderId(),
-                    trade.getBuyClOrdID(),
-                    trade.getBuyUsername(),
-                    trade.getSellOrderId(),
-                    trade.getSellClOrdID(),
-                    trade.getSellUsername(),
-                    trade.getQuantity(),
-                    trade.getPrice().toString(),
-                    trade.getExecutionTime().toString(),
-                    trade.getMatchingUnit(),
-                    trade.getClearingFirm()
-            );
-        }
-
-        Trade toTrade() {
-            return Trade.builder()
-                    .tradeId(tradeId)
-                    .symbol(symbol)
-                    .buyOrderId(buyOrderId)
-                    .buyClOrdID(buyClOrdID)
-                    .buyUsername(buyUsername)
-                    .sellOrderId(sellOrderId)
-                    .sellClOrdID(sellClOrdID)
-                    .sellUsername(sellUsername)
-                    .quantity(quantity)
-                    .price(new BigDecimal(price))
-                    .executionTime(Instant.parse(executionTime))
-                    .matchingUnit(matchingUnit)
-                    .clearingFirm(clearingFirm)
-                    .build();
-        }
-    }
-}
\ No newline at end of file
+    /**
+     * Moves trades left in the messages column family by earlier versions into the trades column
+     * family, indexing them on the way, then drops their old index keys. Each batch moves its
+     * trades atomically, so an interrupted run simply resumes. Returns the number of trades moved.
+     */
+    public int migrateLegacyTrades() throws RocksDBException {
+        RecordFormat format = dbManager.getRecordFormat(CF_TRADES);
+        List<RocksDBManager.WriteBatchOperation> ops = new ArrayList<>();
+        int moved = 0;
+        try (RocksCursor cursor = dbManager.openCursor(CF_LEGACY, KeyRange.prefix(LEGACY_RECORD_PREFIX))) {
+            for (; cursor.isValid(); cursor.next()) {
+                addOperations(codec.decode(cursor.value()), format, ops);
+                ops.add(delete(CF_LEGACY, cursor.key()));
+                if (++moved % MIGRATION_BATCH_TRADES == 0) flush(ops);
+            }
+        }
+        flush(ops);
+
+        for (byte[] prefix : LEGACY_INDEX_PREFIXES) {
+            try (RocksCursor cursor = dbManager.openCursor(CF_LEGACY, KeyRange.prefix(prefix))) {
+                for (; cursor.isValid(); cursor.next()) {
+                    ops.add(delete(CF_LEGACY, cursor.key()));
+                    if (ops.size() >= MIGRATION_BATCH_TRADES * OPERATIONS_PER_TRADE) flush(ops);
+                }
+            }
+        }
+        flush(ops);
+
+        indexesReady = true;
+        LOGGER.log(Level.INFO, "Moved {0} trades into the trades column family", moved);
+        return moved;
+    }
+
+    private void flush(List<RocksDBManager.WriteBatchOperation> ops) throws RocksDBException {
+        if (ops.isEmpty()) return;
+        dbManager.writeBatch(ops.toArray(RocksDBManager.WriteBatchOperation[]::new));
+        ops.clear();
+    }
+
+    private void migrateLegacyTradesInBackground() {
+        try {
+            boolean legacy = dbManager.hasKeysWithPrefix(CF_LEGACY, LEGACY_RECORD_PREFIX.getBytes());
+            for (byte[] prefix : LEGACY_INDEX_PREFIXES) legacy |= dbManager.hasKeysWithPrefix(CF_LEGACY, prefix);
+            if (!legacy) return;
+        } catch (RocksDBException e) {
+            LOGGER.log(Level.WARNING, "Could not check for legacy trades", e);
+            return;
+        }
+
+        indexesReady = false;
+        LOGGER.info("Trades found in the messages column family, moving them in the background");
+        Thread.ofVirtual().name("trade-migration").start(() -> {
+            try {
+                migrateLegacyTrades();
+            } catch (Exception e) {
+                LOGGER.log(Level.SEVERE, "Trade migration failed; queries keep scanning records", e);
+            }
+        });
+    }
+
+    /** Rewrites every stored trade in {@code format}; returns the number rewritten. */
+    public int migrateRecords(RecordFormat format) throws RocksDBException {
+        List<RocksDBManager.WriteBatchOperation> ops = new ArrayList<>();
+        int migrated = 0;
+        try (RocksCursor cursor = dbManager.openCursor(CF_TRADES, RECORDS)) {
+            for (; cursor.isValid(); cursor.next()) {
+                byte[] data = cursor.value();
+                if (RecordFormat.of(data) == format) continue;
+                ops.add(put(cursor.key(), codec.encode(codec.decode(data), format)));
+                if (ops.size() == 1_000) flush(ops);
+                migrated++;
+            }
+        }
+        flush(ops);
+        LOGGER.log(Level.INFO, "Migrated {0} trades to {1}", new Object[]{migrated, format});
+        return migrated;
+    }
+}
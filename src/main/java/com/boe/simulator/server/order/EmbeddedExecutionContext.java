@@ -0,0 +1,14 @@
+package com.boe.simulator.server.order;
+
+/** In-process callers (bots, benchmarks): created once per caller and reused for every order. */
+public record EmbeddedExecutionContext(String username) implements OrderExecutionContext {
+
+    @Override
+    public String getUsername() { return username; }
+
+    @Override
+    public String getSessionIdentifier() { return "EMBEDDED"; }
+
+    @Override
+    public boolean supportsNotifications() { return false; }
+}
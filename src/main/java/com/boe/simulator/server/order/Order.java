@@ -5,6 +5,7 @@ import java.time.Instant;
 import java.util.HashMap;
 import java.util.Map;
 
+import com.boe.simulator.protocol.types.BinaryPrice;
 import com.boe.simulator.protocol.types.Capacity;
 import com.boe.simulator.protocol.types.OpenClose;
 import com.boe.simulator.protocol.types.OrdType;
@@ -25,13 +26,13 @@ public class Order {
     private final int orderQty;
     private int leavesQty;
     private int cumQty;
-    private final BigDecimal price;
+    private final long price;       // Binary Price raw value, NO_PRICE for market orders
     private final OrdType ordType;
 
     // Symbology
     private final String symbol;
     private final Instant maturityDate;
-    private final BigDecimal strikePrice;
+    private final long strikePrice;
     private final PutOrCall putOrCall;
 
     // Atributos de cuenta
@@ -50,7 +51,7 @@ public class Order {
 
     // Mutable overrides applied by Modify Order
     private volatile String modifiedClOrdID;
-    private volatile BigDecimal modifiedPrice;
+    private volatile long modifiedPrice = BinaryPrice.NO_PRICE;
     private volatile OrdType modifiedOrdType;
     private volatile int modifiedOrderQty;  // 0 = not modified
 
@@ -115,7 +116,7 @@ public class Order {
         this.lastModified = Instant.now();
     }
 
-    public void fill(int qty, BigDecimal execPrice) {
+    public void fill(int qty, long execPrice) {
         if (qty <= 0 || qty > leavesQty) throw new IllegalArgumentException("Invalid fill quantity: " + qty);
 
         this.cumQty += qty;
@@ -127,13 +128,13 @@ public class Order {
         this.lastModified = Instant.now();
     }
 
-    public void modify(String newClOrdID, BigDecimal newPrice, OrdType newOrdType,
+    public void modify(String newClOrdID, long newPrice, OrdType newOrdType,
                        int newOrderQty, int newLeavesQty) {
         if (!state.isActive()) {
             throw new IllegalStateException("Cannot modify order in state: " + state);
         }
         if (newClOrdID != null && !newClOrdID.isEmpty()) this.modifiedClOrdID = newClOrdID;
-        if (newPrice    != null) this.modifiedPrice    = newPrice;
+        if (newPrice != BinaryPrice.NO_PRICE) this.modifiedPrice = newPrice;
         if (newOrdType  != null) this.modifiedOrdType  = newOrdType;
         if (newOrderQty  > 0)   this.modifiedOrderQty  = newOrderQty;
         this.leavesQty    = newLeavesQty;
@@ -158,11 +159,13 @@ public class Order {
     public int getEffectiveOrderQty() { return modifiedOrderQty > 0 ? modifiedOrderQty : orderQty; }
     public int getLeavesQty() { return leavesQty; }
     public int getCumQty() { return cumQty; }
-    public BigDecimal getPrice() { return modifiedPrice != null ? modifiedPrice : price; }
+    public long getPriceRaw() { return modifiedPrice != BinaryPrice.NO_PRICE ? modifiedPrice : price; }
+    public BigDecimal getPrice() { return BinaryPrice.toDecimal(getPriceRaw()); }
     public OrdType getOrdType() { return modifiedOrdType != null ? modifiedOrdType : ordType; }
     public String getSymbol() { return symbol; }
     public Instant getMaturityDate() { return maturityDate; }
-    public BigDecimal getStrikePrice() { return strikePrice; }
+    public long getStrikePriceRaw() { return strikePrice; }
+    public BigDecimal getStrikePrice() { return BinaryPrice.toDecimal(strikePrice); }
     public PutOrCall getPutOrCall() { return putOrCall; }
     public Capacity getCapacity() { return capacity; }
     public String getAccount() { return account; }
@@ -212,7 +215,7 @@ public class Order {
                 ", symbol='" + symbol + '\'' +
                 ", side=" + side +
                 ", qty=" + orderQty +
-                ", price=" + price +
+                ", price=" + BinaryPrice.toDecimal(price) +
                 ", state=" + state +
                 '}';
     }
@@ -233,11 +236,11 @@ public class Order {
         private String username;
         private Side side;
         private int orderQty;
-        private BigDecimal price;
+        private long price = BinaryPrice.NO_PRICE;
         private OrdType ordType = OrdType.LIMIT;
         private String symbol;
         private Instant maturityDate;
-        private BigDecimal strikePrice;
+        private long strikePrice = BinaryPrice.NO_PRICE;
         private PutOrCall putOrCall;
         private Capacity capacity;
         private String account = "";
@@ -285,6 +288,11 @@ public class Order {
         }
 
         public Builder price(BigDecimal price) {
+            this.price = BinaryPrice.toRaw(price);
+            return this;
+        }
+
+        public Builder priceRaw(long price) {
             this.price = price;
             return this;
         }
@@ -305,6 +313,11 @@ public class Order {
         }
 
         public Builder strikePrice(BigDecimal strikePrice) {
+            this.strikePrice = BinaryPrice.toRaw(strikePrice);
+            return this;
+        }
+
+        public Builder strikePriceRaw(long strikePrice) {
             this.strikePrice = strikePrice;
             return this;
         }
@@ -364,7 +377,7 @@ public class Order {
 
             if (symbol == null || symbol.isEmpty()) throw new IllegalArgumentException("Symbol is required");
 
-            if (ordType == OrdType.LIMIT && price == null) throw new IllegalArgumentException("Price is required for limit orders");
+            if (ordType == OrdType.LIMIT && price == BinaryPrice.NO_PRICE) throw new IllegalArgumentException("Price is required for limit orders");
 
             return new Order(this);
         }
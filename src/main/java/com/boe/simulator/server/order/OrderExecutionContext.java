@@ -3,7 +3,7 @@ package com.boe.simulator.server.order;
 
 import com.boe.simulator.server.session.ClientSession;
 
-public sealed interface OrderExecutionContext permits RestExecutionContext, TcpExecutionContext {
+public sealed interface OrderExecutionContext permits EmbeddedExecutionContext, RestExecutionContext, TcpExecutionContext {
     String getUsername();
     String getSessionIdentifier();
     boolean supportsNotifications();
@@ -15,4 +15,8 @@ public sealed interface OrderExecutionContext permits RestExecutionContext, TcpE
     static OrderExecutionContext fromRestApi(String username) {
         return new RestExecutionContext(username);
     }
+
+    static OrderExecutionContext embedded(String username) {
+        return new EmbeddedExecutionContext(username);
+    }
 }
\ No newline at end of file
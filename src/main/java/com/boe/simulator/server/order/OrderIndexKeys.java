@@ -0,0 +1,57 @@
+package com.boe.simulator.server.order;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Keys of the orders and order index column families. Records are keyed by orderID, which
+ * never changes, and every index value is that primary key.
+ *
+ * <pre>
+ *   order record   0x01 | orderID                      (orders)          -> record
+ *   user index     0x02 | username | 0x00 | orderID    (order_indexes)
+ *   active set     0x03 | orderID                      (order_indexes, present while the order is live)
+ *   ClOrdID alias  0x04 | clOrdID                      (order_indexes, one per ClOrdID the order has had)
+ * </pre>
+ *
+ * OrderIDs are big-endian with the sign bit flipped, so records and indexes are in orderID
+ * order, which is entry order: user scans come back oldest first and the last record key is
+ * the highest orderID. Tag 0x01 in the index column family is the retired orderID index.
+ */
+final class OrderIndexKeys {
+
+    static final byte PRIMARY = 0x01;
+    static final byte LEGACY_ORDER_ID = 0x01;
+    static final byte USER = 0x02;
+    static final byte ACTIVE = 0x03;
+    static final byte CL_ORD_ID = 0x04;
+
+    private OrderIndexKeys() {}
+
+    static byte[] primary(long orderID) {
+        return ByteBuffer.allocate(1 + Long.BYTES).put(PRIMARY).putLong(orderID ^ Long.MIN_VALUE).array();
+    }
+
+    static byte[] user(String username, long orderID) {
+        byte[] prefix = userPrefix(username);
+        return ByteBuffer.allocate(prefix.length + Long.BYTES).put(prefix).putLong(orderID ^ Long.MIN_VALUE).array();
+    }
+
+    static byte[] userPrefix(String username) {
+        byte[] name = username.getBytes(StandardCharsets.UTF_8);
+        return ByteBuffer.allocate(1 + name.length + 1).put(USER).put(name).put((byte) 0).array();
+    }
+
+    static byte[] active(long orderID) {
+        return ByteBuffer.allocate(1 + Long.BYTES).put(ACTIVE).putLong(orderID ^ Long.MIN_VALUE).array();
+    }
+
+    static byte[] clOrdID(String clOrdID) {
+        byte[] id = clOrdID.getBytes(StandardCharsets.UTF_8);
+        return ByteBuffer.allocate(1 + id.length).put(CL_ORD_ID).put(id).array();
+    }
+
+    static long orderID(byte[] key) {
+        return ByteBuffer.wrap(key, key.length - Long.BYTES, Long.BYTES).getLong() ^ Long.MIN_VALUE;
+    }
+}
@@ -3,7 +3,6 @@ package com.boe.simulator.server.order;
 import java.io.IOException;
 import java.util.List;
 import java.util.Optional;
-import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
@@ -13,7 +12,6 @@ import com.boe.simulator.api.websocket.WebSocketService;
 import com.boe.simulator.protocol.message.CancelOrderMessage;
 import com.boe.simulator.protocol.message.ModifyOrderMessage;
 import com.boe.simulator.protocol.message.NewOrderMessage;
-import java.math.BigDecimal;
 import com.boe.simulator.protocol.types.Capacity;
 import com.boe.simulator.protocol.types.OpenClose;
 import com.boe.simulator.protocol.types.OrdType;
@@ -30,6 +28,7 @@ import com.boe.simulator.server.matching.OrderBook;
 import com.boe.simulator.server.matching.Trade;
 import com.boe.simulator.server.matching.TradeRepositoryService;
 import com.boe.simulator.server.persistence.RocksDBManager;
+import com.boe.simulator.server.ratelimit.OverloadController;
 import com.boe.simulator.server.session.ClientSession;
 import com.boe.simulator.server.session.ClientSessionManager;
 
@@ -42,6 +41,7 @@ public class OrderManager {
 
     private ClientSessionManager sessionManager;
     private WebSocketService webSocketService;
+    private volatile OverloadController overloadController;
 
     private final ConcurrentHashMap<String, Order> activeOrdersByClOrdID;
     private final ConcurrentHashMap<Long, Order> activeOrdersByOrderID;
@@ -56,7 +56,11 @@ public class OrderManager {
     private final AtomicLong totalOrdersFilled;
 
     public OrderManager(RocksDBManager dbManager) {
-        this(new OrderRepository(dbManager), new OrderValidator(), new MatchingEngine(new OrderRepository(dbManager), new TradeRepositoryService(dbManager), false));
+        this(new OrderRepository(dbManager), dbManager);
+    }
+
+    private OrderManager(OrderRepository orderRepository, RocksDBManager dbManager) {
+        this(orderRepository, new OrderValidator(), new MatchingEngine(orderRepository, new TradeRepositoryService(dbManager), false));
     }
 
     public OrderManager(OrderRepository orderRepository, OrderValidator orderValidator, MatchingEngine matchingEngine) {
@@ -65,7 +69,8 @@ public class OrderManager {
         this.matchingEngine = matchingEngine;
         this.activeOrdersByClOrdID = new ConcurrentHashMap<>();
         this.activeOrdersByOrderID = new ConcurrentHashMap<>();
-        this.orderIDGenerator = new AtomicLong(1000000);
+        // Continue after stored orders so orderIDs stay unique across restarts
+        this.orderIDGenerator = new AtomicLong(Math.max(1000000, orderRepository.findMaxOrderID() + 1));
 
         this.totalOrdersReceived = new AtomicLong(0);
         this.totalOrdersAccepted = new AtomicLong(0);
@@ -87,6 +92,10 @@ public class OrderManager {
         this.webSocketService = webSocketService;
     }
 
+    public void setOverloadController(OverloadController overloadController) {
+        this.overloadController = overloadController;
+    }
+
     private void setupMatchingEngineListeners() {
         matchingEngine.addEventListener(new MatchingEngine.MatchingEventListener() {
             @Override
@@ -96,8 +105,10 @@ public class OrderManager {
 
             @Override
             public void onOrderAdded(Order order, OrderBook book) {
-                LOGGER.log(Level.FINE, "Order added to book: {0} @ {1}",
-                        new Object[]{order.getClOrdID(), order.getPrice()});
+                if (LOGGER.isLoggable(Level.FINE)) {
+                    LOGGER.log(Level.FINE, "Order added to book: {0} @ {1}",
+                            new Object[]{order.getClOrdID(), order.getPrice()});
+                }
             }
 
             @Override
@@ -110,16 +121,73 @@ public class OrderManager {
     // ========== TCP/BOE Entry Point ==========
     public OrderResponse processNewOrder(NewOrderMessage message, ClientSession session) {
         OrderExecutionContext context = OrderExecutionContext.fromTcpSession(session);
-        return processNewOrderInternal(message, context);
+        return processNewOrderInternal(message, context, false);
+    }
+
+    // Fields were already validated while the frame was decoded (InboundDecoder)
+    public OrderResponse processValidatedNewOrder(NewOrderMessage message, ClientSession session) {
+        OrderExecutionContext context = OrderExecutionContext.fromTcpSession(session);
+        return processNewOrderInternal(message, context, true);
+    }
+
+    public OrderResponse rejectNewOrder(String clOrdID, byte reason, String text) {
+        totalOrdersReceived.incrementAndGet();
+        totalOrdersRejected.incrementAndGet();
+        return OrderResponse.rejected(clOrdID, reason, text);
     }
 
     // ========== REST API Entry Point ==========
     public OrderResponse processNewOrder(NewOrderMessage message, String username) {
         OrderExecutionContext context = OrderExecutionContext.fromRestApi(username);
-        return processNewOrderInternal(message, context);
+        return processNewOrderInternal(message, context, false);
+    }
+
+    // ========== Embedded Entry Point ==========
+    /**
+     * In-process order entry for bots, the REST API and benchmarks: no wire message is built or
+     * decoded. Prices are {@link com.boe.simulator.protocol.types.BinaryPrice} ticks
+     * ({@code NO_PRICE} for market orders), {@code side}, {@code ordType} and {@code capacity}
+     * take their BOE byte values, and {@code symbolId} comes from {@link Symbols#id}.
+     */
+    public OrderResponse submitNewOrder(OrderExecutionContext context, String clOrdID, int symbolId,
+                                        byte side, int orderQty, long priceTicks, byte ordType, byte capacity) {
+        return submitNewOrder(context, clOrdID, symbolId, side, orderQty, priceTicks, ordType, capacity, "");
+    }
+
+    public OrderResponse submitNewOrder(OrderExecutionContext context, String clOrdID, int symbolId,
+                                        byte side, int orderQty, long priceTicks, byte ordType, byte capacity, String account) {
+        totalOrdersReceived.incrementAndGet();
+
+        if (!Symbols.isValid(symbolId)) {
+            totalOrdersRejected.incrementAndGet();
+            return OrderResponse.rejected(clOrdID, OrderRejectedMessage.REASON_INVALID_SYMBOL, "Invalid or unknown symbol ID: " + symbolId);
+        }
+        String error = orderValidator.validateNewOrderFields(clOrdID, side, orderQty, priceTicks, ordType, capacity);
+        if (error != null) {
+            LOGGER.log(Level.WARNING, "[{0}] Order rejected - validation failed: {1}",
+                    new Object[]{context.getSessionIdentifier(), error});
+            totalOrdersRejected.incrementAndGet();
+            return OrderResponse.rejected(clOrdID, OrderRejectedMessage.REASON_MISSING_REQUIRED_FIELD, error);
+        }
+
+        Order.Builder builder = Order.builder()
+                .clOrdID(clOrdID)
+                .sessionSubID(context.getSessionIdentifier())
+                .username(context.getUsername())
+                .side(Side.fromByte(side))
+                .orderQty(orderQty)
+                .priceRaw(priceTicks)
+                .ordType(OrdType.fromByte(ordType))
+                .symbol(Symbols.name(symbolId))
+                .capacity(Capacity.fromByte(capacity))
+                .openClose(OpenClose.NONE)
+                .account(account)
+                .clearingFirm("")
+                .routingInst(RoutingInst.BOOK_ONLY);
+        return enterOrder(builder, clOrdID, context);
     }
 
-    private OrderResponse processNewOrderInternal(NewOrderMessage message, OrderExecutionContext context) {
+    private OrderResponse processNewOrderInternal(NewOrderMessage message, OrderExecutionContext context, boolean validated) {
         totalOrdersReceived.incrementAndGet();
 
         if (LOGGER.isLoggable(Level.FINE)) {
@@ -128,7 +196,7 @@ public class OrderManager {
         }
 
         // 1. Validate message
-        OrderValidator.ValidationResult validation = orderValidator.validateNewOrder(message);
+        OrderValidator.ValidationResult validation = validated ? OrderValidator.ValidationResult.valid() : orderValidator.validateNewOrder(message);
         if (!validation.isValid()) {
             LOGGER.log(Level.WARNING, "[{0}] Order rejected - validation failed: {1}",
                     new Object[]{context.getSessionIdentifier(), validation.errorMessage()});
@@ -141,7 +209,7 @@ public class OrderManager {
         }
         
         // 2. Validate symbol
-        if (!isValidSymbol(message.getSymbol())) {
+        if (!Symbols.isValid(message.getSymbol())) {
             if (LOGGER.isLoggable(Level.WARNING)) {
                 LOGGER.log(Level.WARNING, "[{0}] Order rejected - invalid symbol: {1}",
                         new Object[]{context.getSessionIdentifier(), message.getSymbol()});
@@ -154,32 +222,15 @@ public class OrderManager {
             );
         }
 
-        // 3. Verify duplicate ClOrdID
-        if (activeOrdersByClOrdID.containsKey(message.getClOrdID())) {
-            if (LOGGER.isLoggable(Level.WARNING)) {
-                LOGGER.log(Level.WARNING, "[{0}] Order rejected - duplicate ClOrdID: {1}",
-                        new Object[]{context.getSessionIdentifier(), message.getClOrdID()});
-            }
-            totalOrdersRejected.incrementAndGet();
-            return OrderResponse.rejected(
-                    message.getClOrdID(),
-                    OrderRejectedMessage.REASON_DUPLICATE_CLORDID,
-                    "Duplicate ClOrdID: " + message.getClOrdID()
-            );
-        }
-
-        // 3. Create order
+        Order.Builder builder;
         try {
-            long orderID = orderIDGenerator.getAndIncrement();
-
-            Order order = Order.builder()
+            builder = Order.builder()
                     .clOrdID(message.getClOrdID())
-                    .orderID(orderID)
                     .sessionSubID(context.getSessionIdentifier()) // "TCP-123" o "REST-API"
                     .username(context.getUsername())
                     .side(Side.fromByte(message.getSide()))
                     .orderQty(message.getOrderQty())
-                    .price(message.getPrice())
+                    .priceRaw(message.getPriceRaw())
                     .ordType(message.getOrdType() != 0 ? OrdType.fromByte(message.getOrdType()) : OrdType.LIMIT)
                     .symbol(message.getSymbol())
                     .capacity(message.getCapacity() != 0 ? Capacity.fromByte(message.getCapacity()) : Capacity.AGENCY)
@@ -189,23 +240,58 @@ public class OrderManager {
                     .clearingFirm(message.getClearingFirm() != null ? message.getClearingFirm() : "")
                     .routingInst(message.getRoutingInst() != 0 ? RoutingInst.fromByte(message.getRoutingInst()) : RoutingInst.BOOK_ONLY)
                     .receivedSequence(message.getSequenceNumber())
-                    .matchingUnit(message.getMatchingUnit())
-                    .build();
+                    .matchingUnit(message.getMatchingUnit());
+        } catch (IllegalArgumentException e) {
+            LOGGER.log(Level.SEVERE, "[" + context.getSessionIdentifier() + "] Error processing order", e);
+            totalOrdersRejected.incrementAndGet();
+            return OrderResponse.rejected(message.getClOrdID(), OrderRejectedMessage.REASON_UNKNOWN_ERROR, "Internal error: " + e.getMessage());
+        }
+        return enterOrder(builder, message.getClOrdID(), context);
+    }
 
-            // 4. Acknowledge order
+    // Shared by the wire and embedded paths once the fields are known to be well-formed
+    private OrderResponse enterOrder(Order.Builder builder, String clOrdID, OrderExecutionContext context) {
+        // Shed before the order reaches the books or the persistence queue
+        OverloadController overload = overloadController;
+        if (overload != null && overload.shouldRejectNewOrders()) {
+            totalOrdersRejected.incrementAndGet();
+            return OrderResponse.rejected(clOrdID, OrderRejectedMessage.REASON_SYSTEM_BUSY, "System busy");
+        }
+        long startNanos = overload != null ? System.nanoTime() : 0;
+
+        // 3. Verify duplicate ClOrdID
+        if (activeOrdersByClOrdID.containsKey(clOrdID)) {
+            if (LOGGER.isLoggable(Level.WARNING)) {
+                LOGGER.log(Level.WARNING, "[{0}] Order rejected - duplicate ClOrdID: {1}",
+                        new Object[]{context.getSessionIdentifier(), clOrdID});
+            }
+            totalOrdersRejected.incrementAndGet();
+            return OrderResponse.rejected(
+                    clOrdID,
+                    OrderRejectedMessage.REASON_DUPLICATE_CLORDID,
+                    "Duplicate ClOrdID: " + clOrdID
+            );
+        }
+
+        // 4. Create order
+        try {
+            Order order = builder.orderID(orderIDGenerator.getAndIncrement()).build();
+
+            // 5. Acknowledge order
             order.acknowledge();
 
-            // 5. Add to cache
+            // 6. Add to cache
             activeOrdersByClOrdID.put(order.getClOrdID(), order);
             activeOrdersByOrderID.put(order.getOrderID(), order);
 
-            // 6. Send to matching engine
+            // 7. Send to matching engine
             List<Trade> trades = matchingEngine.processOrder(order);
 
-            // 7. Enqueue for async persistence — keeps disk I/O off the NewOrder → ACK hot path
+            // 8. Enqueue for async persistence — keeps disk I/O off the NewOrder → ACK hot path
             orderRepository.saveAsync(order);
 
             totalOrdersAccepted.incrementAndGet();
+            if (overload != null) overload.recordAckLatency(System.nanoTime() - startNanos);
 
             if (LOGGER.isLoggable(Level.FINE)) {
                 LOGGER.log(Level.FINE, "[{0}] Order accepted: {1} (OrderID: {2}, Trades: {3})",
@@ -223,7 +309,7 @@ public class OrderManager {
             LOGGER.log(Level.SEVERE, "[" + context.getSessionIdentifier() + "] Error processing order", e);
             totalOrdersRejected.incrementAndGet();
             return OrderResponse.rejected(
-                    message.getClOrdID(),
+                    clOrdID,
                     OrderRejectedMessage.REASON_UNKNOWN_ERROR,
                     "Internal error: " + e.getMessage()
             );
@@ -277,7 +363,7 @@ public class OrderManager {
         }
 
         // 6. Resolve new values
-        BigDecimal newPrice  = message.hasPrice() ? message.getPrice() : order.getPrice();
+        long       newPrice   = message.hasPrice() ? message.getPriceRaw() : order.getPriceRaw();
         OrdType    newOrdType = message.getOrdType() != 0
                 ? OrdType.fromByte(message.getOrdType()) : null;
         int        newOrderQty = message.getOrderQty();
@@ -447,14 +533,6 @@ public class OrderManager {
                 .toList();
     }
 
-    private static final Set<String> VALID_SYMBOLS = Set.of(
-            "AAPL", "MSFT", "GOOGL", "GOOG", "AMZN", "META", "TSLA", "NFLX"
-    );
-
-    private boolean isValidSymbol(String symbol) {
-        return symbol != null && VALID_SYMBOLS.contains(symbol);
-    }
-
     private void handleTradeExecution(Trade trade) {
         LOGGER.log(Level.INFO, "Trade executed: {0}", trade);
 
@@ -500,10 +578,9 @@ public class OrderManager {
                         handler.getSession().getReturnBitfields()
                 );
                 execMsg.setMatchingUnit(handler.getSession().getMatchingUnit());
-                execMsg.setSequenceNumber(handler.getSession().getNextSentSequenceNumber());
 
                 byte[] msgBytes = execMsg.toBytes();
-                handler.sendMessage(msgBytes);
+                handler.sendSequencedMessage(msgBytes);
 
                 LOGGER.log(Level.INFO, "Sent execution to {0}: {1}",
                         new Object[]{order.getUsername(), execMsg});
@@ -537,6 +614,15 @@ public class OrderManager {
     public long getTotalOrdersCancelled() { return totalOrdersCancelled.get(); }
     public long getTotalOrdersFilled() { return totalOrdersFilled.get(); }
     public MatchingEngine getMatchingEngine() {return matchingEngine; }
+
+    public int getMatchingQueueDepth() {
+        return matchingEngine.getOrdersInFlight();
+    }
+
+    // The engine shares our order repository and counts it with its trade repository
+    public int getPersistenceBacklog() {
+        return matchingEngine.getPendingWrites();
+    }
     public int getActiveOrderCount() { return activeOrdersByClOrdID.size(); }
 
     public Optional<Order> findByClOrdID(String clOrdID) {
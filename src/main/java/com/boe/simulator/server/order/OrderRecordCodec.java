@@ -0,0 +1,249 @@
+package com.boe.simulator.server.order;
+
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.boe.simulator.protocol.types.Capacity;
+import com.boe.simulator.protocol.types.OpenClose;
+import com.boe.simulator.protocol.types.OrdType;
+import com.boe.simulator.protocol.types.PutOrCall;
+import com.boe.simulator.protocol.types.RoutingInst;
+import com.boe.simulator.protocol.types.Side;
+import com.boe.simulator.server.persistence.codec.BinaryRecordReader;
+import com.boe.simulator.server.persistence.codec.BinaryRecordWriter;
+import com.boe.simulator.server.persistence.codec.RecordFormat;
+import com.boe.simulator.server.persistence.util.SerializationUtil;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Order records for the orders column family, as JSON or in the compact binary layout.
+ * {@link #decode} reads either, so existing JSON records stay readable after the column
+ * family switches to binary.
+ *
+ * Binary fields are append-only: add new ones at the end and bump {@link #VERSION}. The
+ * order state is stored by ordinal, so new {@link OrderState} constants go at the end too.
+ */
+public final class OrderRecordCodec {
+    private static final Logger LOGGER = Logger.getLogger(OrderRecordCodec.class.getName());
+
+    static final byte RECORD_TYPE = 'O';
+    static final int VERSION = 1;
+
+    private static final Field STATE_FIELD = orderField("state");
+    private static final Field LEAVES_QTY_FIELD = orderField("leavesQty");
+    private static final Field CUM_QTY_FIELD = orderField("cumQty");
+    private static final Field LAST_MODIFIED_FIELD = orderField("lastModified");
+    private static final Field ORDER_ID_FIELD = orderField("orderID");
+
+    private final SerializationUtil serializer = SerializationUtil.getInstance();
+
+    public byte[] encode(Order order, RecordFormat format) {
+        return format == RecordFormat.BINARY ? encodeBinary(order) : serializer.serialize(PersistedOrder.fromOrder(order));
+    }
+
+    public Order decode(byte[] record) {
+        if (RecordFormat.of(record) == RecordFormat.BINARY) return decodeBinary(record);
+        return serializer.deserialize(record, PersistedOrder.class).toOrder();
+    }
+
+    private static byte[] encodeBinary(Order order) {
+        return new BinaryRecordWriter(RECORD_TYPE, VERSION)
+                .writeString(order.getClOrdID())
+                .writeVarLong(order.getOrderID())
+                .writeString(order.getSessionSubID())
+                .writeString(order.getUsername())
+                .writeByte(order.getSide().wireValue())
+                .writeVarInt(order.getOrderQty())
+                .writeVarInt(order.getLeavesQty())
+                .writeVarInt(order.getCumQty())
+                .writeTickPrice(order.getPriceRaw())
+                .writeByte(order.getOrdType().wireValue())
+                .writeString(order.getSymbol())
+                .writeEpochNanos(order.getMaturityDate())
+                .writeTickPrice(order.getStrikePriceRaw())
+                .writeByte(order.getPutOrCall() != null ? order.getPutOrCall().wireValue() : 0)
+                .writeByte(order.getCapacity() != null ? order.getCapacity().wireValue() : 0)
+                .writeString(order.getAccount())
+                .writeString(order.getClearingFirm())
+                .writeString(order.getClearingAccount())
+                .writeByte(order.getOpenClose() != null ? order.getOpenClose().wireValue() : OpenClose.NONE.wireValue())
+                .writeByte((byte) order.getState().ordinal())
+                .writeEpochNanos(order.getCreatedAt())
+                .writeEpochNanos(order.getLastModified())
+                .writeByte(order.getRoutingInst() != null ? order.getRoutingInst().wireValue() : RoutingInst.BOOK_ONLY.wireValue())
+                .writeVarInt(order.getReceivedSequence())
+                .writeVarInt(order.getLastSentSequence())
+                .toByteArray();
+    }
+
+    private static Order decodeBinary(byte[] record) {
+        BinaryRecordReader in = new BinaryRecordReader(record, RECORD_TYPE);
+
+        Order.Builder builder = Order.builder()
+                .clOrdID(in.readString())
+                .orderID(in.readVarLong())
+                .sessionSubID(in.readString())
+                .username(in.readString())
+                .side(Side.fromByte(in.readByte()))
+                .orderQty(in.readVarInt());
+        int leavesQty = in.readVarInt();
+        int cumQty = in.readVarInt();
+        builder.priceRaw(in.readTickPrice())
+                .ordType(OrdType.fromByte(in.readByte()))
+                .symbol(in.readString())
+                .maturityDate(in.readEpochNanos())
+                .strikePriceRaw(in.readTickPrice());
+
+        byte putOrCall = in.readByte();
+        if (putOrCall != 0) builder.putOrCall(PutOrCall.fromByte(putOrCall));
+        byte capacity = in.readByte();
+        builder.capacity(capacity != 0 ? Capacity.fromByte(capacity) : Capacity.AGENCY)
+                .account(in.readString())
+                .clearingFirm(in.readString())
+                .clearingAccount(in.readString());
+        byte openClose = in.readByte();
+        builder.openClose(openClose != 0 ? OpenClose.fromByte(openClose) : OpenClose.NONE);
+
+        OrderState state = OrderState.values()[in.readByte()];
+        in.readEpochNanos(); // createdAt: not restored, as for JSON records
+        Instant lastModified = in.readEpochNanos();
+        builder.routingInst(RoutingInst.fromByte(in.readByte()))
+                .receivedSequence(in.readVarInt());
+        int lastSentSequence = in.readVarInt();
+
+        return restore(builder.build(), state, leavesQty, cumQty, lastModified, lastSentSequence);
+    }
+
+    // Restore state (using reflection to bypass state machine)
+    private static Order restore(Order order, OrderState state, int leavesQty, int cumQty, Instant lastModified, int lastSentSequence) {
+        try {
+            STATE_FIELD.set(order, state);
+            LEAVES_QTY_FIELD.set(order, leavesQty);
+            CUM_QTY_FIELD.set(order, cumQty);
+            LAST_MODIFIED_FIELD.set(order, lastModified);
+            order.setLastSentSequence(lastSentSequence);
+        } catch (IllegalAccessException | IllegalArgumentException e) {
+            LOGGER.log(Level.WARNING, "Failed to restore order state", e);
+        }
+        return order;
+    }
+
+    // Gives a stored order a new orderID, for records whose orderID was handed out twice
+    static Order reassignOrderID(Order order, long orderID) {
+        try {
+            ORDER_ID_FIELD.setLong(order, orderID);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Cannot reassign orderID of " + order.getClOrdID(), e);
+        }
+        return order;
+    }
+
+    private static Field orderField(String name) {
+        try {
+            Field field = Order.class.getDeclaredField(name);
+            field.setAccessible(true);
+            return field;
+        } catch (NoSuchFieldException | SecurityException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private record PersistedOrder(
+            @JsonProperty("clOrdID") String clOrdID,
+            @JsonProperty("orderID") long orderID,
+            @JsonProperty("sessionSubID") String sessionSubID,
+            @JsonProperty("username") String username,
+            @JsonProperty("side") byte side,
+            @JsonProperty("orderQty") int orderQty,
+            @JsonProperty("leavesQty") int leavesQty,
+            @JsonProperty("cumQty") int cumQty,
+            @JsonProperty("price") String price,
+            @JsonProperty("ordType") byte ordType,
+            @JsonProperty("symbol") String symbol,
+            @JsonProperty("maturityDate") String maturityDate,
+            @JsonProperty("strikePrice") String strikePrice,
+            @JsonProperty("putOrCall") byte putOrCall,
+            @JsonProperty("capacity") byte capacity,
+            @JsonProperty("account") String account,
+            @JsonProperty("clearingFirm") String clearingFirm,
+            @JsonProperty("clearingAccount") String clearingAccount,
+            @JsonProperty("openClose") byte openClose,
+            @JsonProperty("state") String state,
+            @JsonProperty("createdAt") String createdAt,
+            @JsonProperty("lastModified") String lastModified,
+            @JsonProperty("routingInst") byte routingInst,
+            @JsonProperty("receivedSequence") int receivedSequence,
+            @JsonProperty("lastSentSequence") int lastSentSequence
+    ) {
+
+        @JsonCreator
+        public PersistedOrder {
+        }
+
+        static PersistedOrder fromOrder(Order order) {
+            return new PersistedOrder(
+                    order.getClOrdID(),
+                    order.getOrderID(),
+                    order.getSessionSubID(),
+                    order.getUsername(),
+                    order.getSide().wireValue(),
+                    order.getOrderQty(),
+                    order.getLeavesQty(),
+                    order.getCumQty(),
+                    order.getPrice() != null ? order.getPrice().toString() : null,
+                    order.getOrdType().wireValue(),
+                    order.getSymbol(),
+                    order.getMaturityDate() != null ? order.getMaturityDate().toString() : null,
+                    order.getStrikePrice() != null ? order.getStrikePrice().toString() : null,
+                    order.getPutOrCall() != null ? order.getPutOrCall().wireValue() : 0,
+                    order.getCapacity() != null ? order.getCapacity().wireValue() : 0,
+                    order.getAccount(),
+                    order.getClearingFirm(),
+                    order.getClearingAccount(),
+                    order.getOpenClose() != null ? order.getOpenClose().wireValue() : OpenClose.NONE.wireValue(),
+                    order.getState().name(),
+                    order.getCreatedAt().toString(),
+                    order.getLastModified().toString(),
+                    order.getRoutingInst() != null ? order.getRoutingInst().wireValue() : RoutingInst.BOOK_ONLY.wireValue(),
+                    order.getReceivedSequence(),
+                    order.getLastSentSequence()
+            );
+        }
+
+        Order toOrder() {
+            Order.Builder builder = Order.builder()
+                    .clOrdID(clOrdID)
+                    .orderID(orderID)
+                    .sessionSubID(sessionSubID)
+                    .username(username)
+                    .side(Side.fromByte(side))
+                    .orderQty(orderQty)
+                    .ordType(OrdType.fromByte(ordType))
+                    .symbol(symbol)
+                    .capacity(capacity != 0 ? Capacity.fromByte(capacity) : Capacity.AGENCY)
+                    .account(account)
+                    .clearingFirm(clearingFirm)
+                    .clearingAccount(clearingAccount)
+                    .openClose(openClose != 0 ? OpenClose.fromByte(openClose) : OpenClose.NONE)
+                    .routingInst(RoutingInst.fromByte(routingInst))
+                    .receivedSequence(receivedSequence);
+
+            if (price != null) builder.price(new BigDecimal(price));
+
+
+            if (maturityDate != null) builder.maturityDate(Instant.parse(maturityDate));
+
+
+            if (strikePrice != null) builder.strikePrice(new BigDecimal(strikePrice));
+
+
+            if (putOrCall != 0) builder.putOrCall(PutOrCall.fromByte(putOrCall));
+
+            return restore(builder.build(), OrderState.valueOf(state), leavesQty, cumQty, Instant.parse(lastModified), lastSentSequence);
+        }
+    }
+}
@@ -1,60 +1,86 @@
 package com.boe.simulator.server.order;
 
-import java.math.BigDecimal;
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
-import java.time.Instant;
-
-import com.boe.simulator.protocol.types.Capacity;
-import com.boe.simulator.protocol.types.OpenClose;
-import com.boe.simulator.protocol.types.OrdType;
-import com.boe.simulator.protocol.types.PutOrCall;
-import com.boe.simulator.protocol.types.RoutingInst;
-import com.boe.simulator.protocol.types.Side;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import static java.util.Optional.empty;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.rocksdb.RocksDBException;
 
+import com.boe.simulator.protocol.types.Side;
+import com.boe.simulator.server.persistence.KeyRange;
+import com.boe.simulator.server.persistence.RocksCursor;
 import com.boe.simulator.server.persistence.RocksDBManager;
-import com.boe.simulator.server.persistence.util.SerializationUtil;
-import com.fasterxml.jackson.annotation.JsonCreator;
-import com.fasterxml.jackson.annotation.JsonProperty;
+import com.boe.simulator.server.persistence.WriteBehindJournal;
+import com.boe.simulator.server.persistence.codec.RecordFormat;
 
 public class OrderRepository {
     private static final Logger LOGGER = Logger.getLogger(OrderRepository.class.getName());
 
     private final RocksDBManager dbManager;
-    private final SerializationUtil serializer;
+    private final OrderRecordCodec codec;
 
     private static final String CF_ORDERS = RocksDBManager.CF_ORDERS;
+    private static final String CF_INDEXES = RocksDBManager.CF_ORDER_INDEXES;
+    private static final KeyRange RECORDS = KeyRange.prefix(new byte[]{OrderIndexKeys.PRIMARY});
+    private static final KeyRange ACTIVE = KeyRange.prefix(new byte[]{OrderIndexKeys.ACTIVE});
+    private static final int OPERATIONS_PER_ORDER = 5;
+
+    // Records keyed by ClOrdID, and their orderID index, from before records were keyed by orderID
+    private static final KeyRange LEGACY_RECORDS = KeyRange.prefix("order:");
+    private static final KeyRange LEGACY_ORDER_IDS = KeyRange.prefix(new byte[]{OrderIndexKeys.LEGACY_ORDER_ID});
+    private static final int COMPACTION_BATCH_OPERATIONS = 4_000;
+    // OrderManager hands out orderIDs from here up; the compaction reassigns reused ones below it
+    private static final long FIRST_GENERATED_ORDER_ID = 1_000_000;
+    // Every repository over the database runs a compaction; the later ones find nothing left
+    private static final Object COMPACTION_LOCK = new Object();
 
     // Write-behind queue: keeps disk I/O off the NewOrder → ACK hot path
     private final LinkedBlockingQueue<Order> writeQueue = new LinkedBlockingQueue<>(1_000_000);
     private volatile boolean asyncRunning;
     private Thread asyncThread;
+    // When set, write-behind orders go through this crash-safe journal instead of the queue
+    private final WriteBehindJournal journal;
+    private static final long JOURNAL_RETRY_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    // False until ClOrdID-keyed records are compacted into orderID-keyed ones; lookups scan until then
+    private volatile boolean indexesReady = true;
 
     public OrderRepository(RocksDBManager dbManager) {
+        this(dbManager, null);
+    }
+
+    /** Takes ownership of {@code journal}, applying what it still holds before returning. */
+    public OrderRepository(RocksDBManager dbManager, WriteBehindJournal journal) {
         this.dbManager = dbManager;
-        this.serializer = SerializationUtil.getInstance();
+        this.codec = new OrderRecordCodec();
+        this.journal = journal;
+        if (journal != null && journal.getPendingRecords() > 0) {
+            LOGGER.log(Level.INFO, "Applied {0} orders left in the write-behind journal", drainJournal());
+        }
+        compactLegacyRecordsOnStart();
         startAsyncPersistence();
         LOGGER.info("OrderRepository initialized");
     }
 
     public void save(Order order) {
         try {
-            String key = buildKey(order.getClOrdID());
-            PersistedOrder persistedOrder = PersistedOrder.fromOrder(order);
-            byte[] value = serializer.serialize(persistedOrder);
-
-            dbManager.put(CF_ORDERS, key.getBytes(), value);
+            List<RocksDBManager.WriteBatchOperation> ops = new ArrayList<>(OPERATIONS_PER_ORDER);
+            addOperations(order, dbManager.getRecordFormat(CF_ORDERS), ops);
+            dbManager.writeBatch(ops.toArray(RocksDBManager.WriteBatchOperation[]::new));
             LOGGER.log(Level.FINE, "Saved order: {0}", order.getClOrdID());
         } catch (RocksDBException e) {
             LOGGER.log(Level.SEVERE, "Failed to save order: " + order.getClOrdID(), e);
@@ -64,14 +90,25 @@ public class OrderRepository {
 
     // Enqueue order for async write — does not block the calling thread
     public void saveAsync(Order order) {
-        if (!writeQueue.offer(order)) {
+        if (journal != null) {
+            try {
+                journal.append(codec.encode(order, RecordFormat.BINARY));
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Journal append failed, saving order synchronously: " + order.getClOrdID(), e);
+                save(order);
+            }
+        } else if (!writeQueue.offer(order)) {
             save(order); // queue full: sync fallback
         }
     }
 
+    public int getPendingWrites() {
+        return journal != null ? (int) Math.min(Integer.MAX_VALUE, journal.getPendingRecords()) : writeQueue.size();
+    }
+
     private void startAsyncPersistence() {
         asyncRunning = true;
-        asyncThread = Thread.ofVirtual().name("order-persist").start(this::runAsyncWriter);
+        asyncThread = Thread.ofVirtual().name("order-persist").start(journal != null ? this::runJournalApplier : this::runAsyncWriter);
     }
 
     public void stopAsyncPersistence() {
@@ -81,6 +118,13 @@ public class OrderRepository {
             try { asyncThread.join(5_000); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
         }
         flushRemaining();
+        if (journal != null) {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Failed to close the order journal", e);
+            }
+        }
     }
 
     private void runAsyncWriter() {
@@ -104,7 +148,41 @@ public class OrderRepository {
         flushRemaining();
     }
 
+    private void runJournalApplier() {
+        while (asyncRunning) {
+            try {
+                if (applyJournal() == 0) Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                LOGGER.log(Level.SEVERE, "Journaled orders could not be set aside, retrying", e);
+                LockSupport.parkNanos(JOURNAL_RETRY_NANOS);
+            }
+        }
+        flushRemaining();
+    }
+
+    // Up to 256 journaled orders in one batch; one RocksDB refuses on its own is set aside by the journal
+    private int applyJournal() throws IOException {
+        return journal.apply(256, records -> writeBatch(records.stream().map(codec::decode).toList()));
+    }
+
+    private long drainJournal() {
+        long applied = 0;
+        try {
+            for (int count; (count = applyJournal()) > 0; ) applied += count;
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(Level.SEVERE, "Journaled orders could not be applied, they stay in the journal", e);
+        }
+        return applied;
+    }
+
     private void flushRemaining() {
+        if (journal != null) {
+            drainJournal();
+            return;
+        }
         List<Order> remaining = new ArrayList<>();
         writeQueue.drainTo(remaining);
         if (!remaining.isEmpty()) flushBatch(remaining);
@@ -116,14 +194,7 @@ public class OrderRepository {
             return;
         }
         try {
-            RocksDBManager.WriteBatchOperation[] ops = new RocksDBManager.WriteBatchOperation[orders.size()];
-            for (int i = 0; i < orders.size(); i++) {
-                Order o = orders.get(i);
-                byte[] key   = buildKey(o.getClOrdID()).getBytes();
-                byte[] value = serializer.serialize(PersistedOrder.fromOrder(o));
-                ops[i] = new RocksDBManager.WriteBatchOperation(RocksDBManager.OperationType.PUT, CF_ORDERS, key, value);
-            }
-            dbManager.writeBatch(ops);
+            writeBatch(orders);
         } catch (RocksDBException e) {
             LOGGER.log(Level.SEVERE, "Batch flush failed, falling back to individual saves", e);
             for (Order o : orders) {
@@ -134,17 +205,46 @@ public class OrderRepository {
         }
     }
 
+    private void writeBatch(List<Order> orders) throws RocksDBException {
+        RecordFormat format = dbManager.getRecordFormat(CF_ORDERS);
+        List<RocksDBManager.WriteBatchOperation> ops = new ArrayList<>(orders.size() * OPERATIONS_PER_ORDER);
+        for (Order o : orders) addOperations(o, format, ops);
+        dbManager.writeBatch(ops.toArray(RocksDBManager.WriteBatchOperation[]::new));
+    }
+
+    // The record under its orderID, and its user, active-set and ClOrdID entries, in the same batch
+    private void addOperations(Order order, RecordFormat format, List<RocksDBManager.WriteBatchOperation> ops) {
+        byte[] key = OrderIndexKeys.primary(order.getOrderID());
+        ops.add(new RocksDBManager.WriteBatchOperation(RocksDBManager.OperationType.PUT, CF_ORDERS, key, codec.encode(order, format)));
+        addIndexOperations(order, key, ops);
+    }
+
+    private static void addIndexOperations(Order order, byte[] key, List<RocksDBManager.WriteBatchOperation> ops) {
+        if (order.getUsername() != null) ops.add(indexPut(OrderIndexKeys.user(order.getUsername(), order.getOrderID()), key));
+        byte[] active = OrderIndexKeys.active(order.getOrderID());
+        ops.add(order.isLive()
+                ? indexPut(active, key)
+                : new RocksDBManager.WriteBatchOperation(RocksDBManager.OperationType.DELETE, CF_INDEXES, active));
+        ops.add(indexPut(OrderIndexKeys.clOrdID(order.getClOrdID()), key));
+        if (!order.getClOrdID().equals(order.getOrigClOrdID())) {
+            ops.add(indexPut(OrderIndexKeys.clOrdID(order.getOrigClOrdID()), key)); // a modify keeps the old ClOrdID taken
+        }
+    }
+
+    private static RocksDBManager.WriteBatchOperation indexPut(byte[] indexKey, byte[] key) {
+        return new RocksDBManager.WriteBatchOperation(RocksDBManager.OperationType.PUT, CF_INDEXES, indexKey, key);
+    }
+
     public Optional<Order> findByClOrdID(String clOrdID) {
         try {
-            String key = buildKey(clOrdID);
-            byte[] data = dbManager.get(CF_ORDERS, key.getBytes());
+            byte[] key = primaryKey(clOrdID);
+            byte[] data = key != null ? dbManager.get(CF_ORDERS, key) : null;
 
             if (data == null) {
                 return Optional.empty();
             }
 
-            PersistedOrder persistedOrder = serializer.deserialize(data, PersistedOrder.class);
-            return Optional.of(persistedOrder.toOrder());
+            return Optional.of(codec.decode(data));
         } catch (RocksDBException e) {
             LOGGER.log(Level.SEVERE, "Failed to find order: " + clOrdID, e);
             return Optional.empty();
@@ -153,15 +253,11 @@ public class OrderRepository {
 
     public Optional<Order> findByOrderID(long orderID) {
         try {
-            Map<byte[], byte[]> allData = dbManager.getAll(CF_ORDERS);
-
-            for (byte[] data : allData.values()) {
-                PersistedOrder persistedOrder = serializer.deserialize(data, PersistedOrder.class);
-                if (persistedOrder.orderID() == orderID) return Optional.of(persistedOrder.toOrder());
-            }
-
-            return Optional.empty();
-        } catch (RocksDBException e) {
+            byte[] data = dbManager.get(CF_ORDERS, OrderIndexKeys.primary(orderID));
+            if (data != null) return Optional.of(codec.decode(data));
+            if (indexesReady) return empty();
+            return latestRecords().stream().filter(order -> order.getOrderID() == orderID).findFirst();
+        } catch (RocksDBException | RuntimeException e) {
             LOGGER.log(Level.SEVERE, "Failed to find order by OrderID: " + orderID, e);
             return empty();
         }
@@ -173,54 +269,36 @@ public class OrderRepository {
             return new ArrayList<>();
         }
 
-        Map<byte[], byte[]> allData;
         try {
-            allData = dbManager.getAll(CF_ORDERS);
-        } catch (RocksDBException e) {
+            List<Order> orders;
+            if (indexesReady) {
+                orders = findByIndex(KeyRange.prefix(OrderIndexKeys.userPrefix(username)));
+            } else {
+                orders = latestRecords().stream().filter(order -> username.equals(order.getUsername())).collect(Collectors.toList());
+            }
+            LOGGER.log(Level.FINE, "Found {0} orders for user: {1}", new Object[]{orders.size(), username});
+            return orders;
+        } catch (RocksDBException | RuntimeException e) {
             LOGGER.log(Level.SEVERE, "Failed to find orders by username: " + username, e);
             return new ArrayList<>();
         }
-
-        List<Order> orders = new ArrayList<>();
-        for (Map.Entry<byte[], byte[]> entry : allData.entrySet()) {
-            try {
-                PersistedOrder persisted = serializer.deserialize(entry.getValue(), PersistedOrder.class);
-                if (username.equals(persisted.username())) {
-                    orders.add(persisted.toOrder());
-                }
-            } catch (Exception e) {
-                String keyStr = new String(entry.getKey(), StandardCharsets.UTF_8);
-                LOGGER.log(Level.WARNING, "Failed to deserialize order: {0}, skipping...", keyStr);
-            }
-        }
-
-        LOGGER.log(Level.FINE, "Found {0} orders for user: {1}", new Object[]{orders.size(), username});
-        return orders;
     }
 
     public List<Order> findActiveOrders() {
-        Map<byte[], byte[]> allData;
         try {
-            allData = dbManager.getAll(CF_ORDERS);
-        } catch (RocksDBException e) {
+            List<Order> activeOrders;
+            if (indexesReady) {
+                activeOrders = findByIndex(ACTIVE);
+                activeOrders.removeIf(order -> !order.isLive()); // guards against a stale active-set entry
+            } else {
+                activeOrders = latestRecords().stream().filter(Order::isLive).collect(Collectors.toList());
+            }
+            LOGGER.log(Level.INFO, "Loaded {0} active orders from database", activeOrders.size());
+            return activeOrders;
+        } catch (RocksDBException | RuntimeException e) {
             LOGGER.log(Level.SEVERE, "Failed to get orders from database", e);
             return new ArrayList<>();
         }
-
-        List<Order> activeOrders = new ArrayList<>();
-        for (Map.Entry<byte[], byte[]> entry : allData.entrySet()) {
-            try {
-                PersistedOrder persistedOrder = serializer.deserialize(entry.getValue(), PersistedOrder.class);
-                Order order = persistedOrder.toOrder();
-                if (order.isLive()) activeOrders.add(order);
-            } catch (Exception e) {
-                String key = new String(entry.getKey(), StandardCharsets.UTF_8);
-                LOGGER.log(Level.WARNING, "Failed to deserialize order: " + key + ", skipping...", e);
-            }
-        }
-
-        LOGGER.log(Level.INFO, "Loaded {0} active orders from database", activeOrders.size());
-        return activeOrders;
     }
 
     public List<Order> findActiveOrdersByClearingFirm(String clearingFirm) {
@@ -237,8 +315,22 @@ public class OrderRepository {
 
     public void delete(String clOrdID) {
         try {
-            String key = buildKey(clOrdID);
-            dbManager.delete(CF_ORDERS, key.getBytes());
+            byte[] key = primaryKey(clOrdID);
+            byte[] data = key != null ? dbManager.get(CF_ORDERS, key) : null;
+            if (data == null) return;
+
+            Order order = codec.decode(data);
+            List<RocksDBManager.WriteBatchOperation> ops = new ArrayList<>(OPERATIONS_PER_ORDER);
+            ops.add(new RocksDBManager.WriteBatchOperation(RocksDBManager.OperationType.DELETE, CF_ORDERS, key));
+            if (order.getUsername() != null) {
+                ops.add(new RocksDBManager.WriteBatchOperation(RocksDBManager.OperationType.DELETE, CF_INDEXES, OrderIndexKeys.user(order.getUsername(), order.getOrderID())));
+            }
+            ops.add(new RocksDBManager.WriteBatchOperation(RocksDBManager.OperationType.DELETE, CF_INDEXES, OrderIndexKeys.active(order.getOrderID())));
+            ops.add(new RocksDBManager.WriteBatchOperation(RocksDBManager.OperationType.DELETE, CF_INDEXES, OrderIndexKeys.clOrdID(clOrdID)));
+            if (!clOrdID.equals(order.getClOrdID())) {
+                ops.add(new RocksDBManager.WriteBatchOperation(RocksDBManager.OperationType.DELETE, CF_INDEXES, OrderIndexKeys.clOrdID(order.getClOrdID())));
+            }
+            dbManager.writeBatch(ops.toArray(RocksDBManager.WriteBatchOperation[]::new));
             LOGGER.log(Level.INFO, "Deleted order: {0}", clOrdID);
         } catch (RocksDBException e) {
             LOGGER.log(Level.SEVERE, "Failed to delete order: " + clOrdID, e);
@@ -248,8 +340,7 @@ public class OrderRepository {
 
     public boolean existsByClOrdID(String clOrdID) {
         try {
-            String key = buildKey(clOrdID);
-            return dbManager.exists(CF_ORDERS, key.getBytes());
+            return primaryKey(clOrdID) != null;
         } catch (RocksDBException | IllegalArgumentException e) {
             LOGGER.log(Level.WARNING, "Failed to check if order exists: " + clOrdID, e);
             return false;
@@ -258,139 +349,197 @@ public class OrderRepository {
 
     public long count() {
         try {
-            Map<byte[], byte[]> allData = dbManager.getAll(CF_ORDERS);
-            return allData.size();
-        } catch (RocksDBException e) {
+            return indexesReady ? dbManager.count(CF_ORDERS, RECORDS) : latestRecords().size();
+        } catch (RuntimeException e) {
             LOGGER.log(Level.WARNING, "Failed to count orders", e);
             return 0;
         }
     }
 
     public long countActive() {
-        return findActiveOrders().size();
-    }
-
-    private String buildKey(String clOrdID) {
-        return "order:" + clOrdID;
-    }
-
-    private record PersistedOrder(
-            @JsonProperty("clOrdID") String clOrdID,
-            @JsonProperty("orderID") long orderID,
-            @JsonProperty("sessionSubID") String sessionSubID,
-            @JsonProperty("username") String username,
-            @JsonProperty("side") byte side,
-            @JsonProperty("orderQty") int orderQty,
-            @JsonProperty("leavesQty") int leavesQty,
-            @JsonProperty("cumQty") int cumQty,
-            @JsonProperty("price") String price,
-            @JsonProperty("ordType") byte ordType,
-            @JsonProperty("symbol") String symbol,
-            @JsonProperty("maturityDate") String maturityDate,
-            @JsonProperty("strikePrice") String strikePrice,
-            @JsonProperty("putOrCall") byte putOrCall,
-            @JsonProperty("capacity") byte capacity,
-            @JsonProperty("account") String account,
-            @JsonProperty("clearingFirm") String clearingFirm,
-            @JsonProperty("clearingAccount") String clearingAccount,
-            @JsonProperty("openClose") byte openClose,
-            @JsonProperty("state") String state,
-            @JsonProperty("createdAt") String createdAt,
-            @JsonProperty("lastModified") String lastModified,
-            @JsonProperty("routingInst") byte routingInst,
-            @JsonProperty("receivedSequence") int receivedSequence,
-            @JsonProperty("lastSentSequence") int lastSentSequence
-    ) {
-
-        @JsonCreator
-        public PersistedOrder {
+        if (!indexesReady) return findActiveOrders().size();
+        try {
+            return dbManager.count(CF_INDEXES, ACTIVE);
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Failed to count active orders", e);
+            return 0;
         }
+    }
 
-        static PersistedOrder fromOrder(Order order) {
-            return new PersistedOrder(
-                    order.getClOrdID(),
-                    order.getOrderID(),
-                    order.getSessionSubID(),
-                    order.getUsername(),
-                    order.getSide().wireValue(),
-                    order.getOrderQty(),
-                    order.getLeavesQty(),
-                    order.getCumQty(),
-                    order.getPrice() != null ? order.getPrice().toString() : null,
-                    order.getOrdType().wireValue(),
-                    order.getSymbol(),
-                    order.getMaturityDate() != null ? order.getMaturityDate().toString() : null,
-                    order.getStrikePrice() != null ? order.getStrikePrice().toString() : null,
-                    order.getPutOrCall() != null ? order.getPutOrCall().wireValue() : 0,
-                    order.getCapacity() != null ? order.getCapacity().wireValue() : 0,
-                    order.getAccount(),
-                    order.getClearingFirm(),
-                    order.getClearingAccount(),
-                    order.getOpenClose() != null ? order.getOpenClose().wireValue() : OpenClose.NONE.wireValue(),
-                    order.getState().name(),
-                    order.getCreatedAt().toString(),
-                    order.getLastModified().toString(),
-                    order.getRoutingInst() != null ? order.getRoutingInst().wireValue() : RoutingInst.BOOK_ONLY.wireValue(),
-                    order.getReceivedSequence(),
-                    order.getLastSentSequence()
-            );
+    /** The highest orderID stored, or 0 when there are no orders. */
+    public long findMaxOrderID() {
+        try {
+            if (!indexesReady) {
+                return latestRecords().stream().mapToLong(Order::getOrderID).max().orElse(0);
+            }
+            try (Stream<byte[]> keys = dbManager.scanKeys(CF_ORDERS, RECORDS.reversed())) {
+                return keys.findFirst().map(OrderIndexKeys::orderID).orElse(0L);
+            }
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Failed to find the highest orderID", e);
+            return 0;
         }
+    }
 
-        Order toOrder() {
-            Order.Builder builder = Order.builder()
-                    .clOrdID(clOrdID)
-                    .orderID(orderID)
-                    .sessionSubID(sessionSubID)
-                    .username(username)
-                    .side(Side.fromByte(side))
-                    .orderQty(orderQty)
-                    .ordType(OrdType.fromByte(ordType))
-                    .symbol(symbol)
-                    .capacity(capacity != 0 ? Capacity.fromByte(capacity) : Capacity.AGENCY)
-                    .account(account)
-                    .clearingFirm(clearingFirm)
-                    .clearingAccount(clearingAccount)
-                    .openClose(openClose != 0 ? OpenClose.fromByte(openClose) : OpenClose.NONE)
-                    .routingInst(RoutingInst.fromByte(routingInst))
-                    .receivedSequence(receivedSequence);
-
-            if (price != null) builder.price(new BigDecimal(price));
-
-
-            if (maturityDate != null) builder.maturityDate(Instant.parse(maturityDate));
+    // Reads the orders whose primary keys are the values of indexRange, in index order
+    private List<Order> findByIndex(KeyRange indexRange) throws RocksDBException {
+        List<byte[]> keys;
+        try (Stream<Map.Entry<byte[], byte[]>> index = dbManager.scan(CF_INDEXES, indexRange)) {
+            keys = index.map(Map.Entry::getValue).toList();
+        }
 
+        List<Order> orders = new ArrayList<>(keys.size());
+        for (byte[] data : dbManager.multiGet(CF_ORDERS, keys)) {
+            if (data != null) orders.add(codec.decode(data));
+        }
+        return orders;
+    }
 
-            if (strikePrice != null) builder.strikePrice(new BigDecimal(strikePrice));
+    /**
+     * Moves orders stored under their ClOrdID to their orderID and drops the extra records a
+     * modify left behind, keeping the latest version of each order; returns the number of old
+     * records removed. Idempotent. It buffers writes based on what it read, so a save of the same
+     * order while it runs could be overwritten: the constructor runs it before anything can save.
+     */
+    int compactLegacyRecords() throws RocksDBException {
+        synchronized (COMPACTION_LOCK) {
+            RecordFormat format = dbManager.getRecordFormat(CF_ORDERS);
+            List<RocksDBManager.WriteBatchOperation> ops = new ArrayList<>();
+            Map<Long, Order> unwritten = new HashMap<>();
+            Map<Identity, Long> reassigned = new HashMap<>();
+            long freeOrderID = FIRST_GENERATED_ORDER_ID - 1;
+            int removed = 0;
+            int duplicates = 0;
+
+            try (RocksCursor cursor = dbManager.openCursor(CF_ORDERS, LEGACY_RECORDS)) {
+                for (; cursor.isValid(); cursor.next()) {
+                    Order order = codec.decode(cursor.value());
+                    Identity identity = Identity.of(order);
+                    Long orderID = reassigned.get(identity);
+                    if (orderID != null) order = OrderRecordCodec.reassignOrderID(order, orderID);
+
+                    Order current = unwritten.containsKey(order.getOrderID()) ? unwritten.get(order.getOrderID()) : stored(order.getOrderID());
+                    if (current != null && !Identity.of(current).equals(Identity.of(order))) {
+                        // OrderIDs restarted at the same value on every start before they were seeded
+                        // from the database; the order found second takes one below the generated range
+                        while (unwritten.containsKey(freeOrderID) || dbManager.exists(CF_ORDERS, OrderIndexKeys.primary(freeOrderID))) freeOrderID--;
+                        if (order.getUsername() != null && !order.getUsername().equals(current.getUsername())) {
+                            ops.add(new RocksDBManager.WriteBatchOperation(RocksDBManager.OperationType.DELETE, CF_INDEXES, OrderIndexKeys.user(order.getUsername(), order.getOrderID())));
+                        }
+                        reassigned.put(identity, freeOrderID);
+                        order = OrderRecordCodec.reassignOrderID(order, freeOrderID--);
+                        current = null;
+                    }
+
+                    if (current == null || order.getLastModified().isAfter(current.getLastModified())) {
+                        addOperations(order, format, ops);
+                        unwritten.put(order.getOrderID(), order);
+                    } else {
+                        ops.add(indexPut(OrderIndexKeys.clOrdID(order.getClOrdID()), OrderIndexKeys.primary(order.getOrderID())));
+                    }
+                    if (current != null) duplicates++;
+                    ops.add(new RocksDBManager.WriteBatchOperation(RocksDBManager.OperationType.DELETE, CF_ORDERS, cursor.key()));
+                    removed++;
+
+                    if (ops.size() >= COMPACTION_BATCH_OPERATIONS) {
+                        dbManager.writeBatch(ops.toArray(RocksDBManager.WriteBatchOperation[]::new));
+                        ops.clear();
+                        unwritten.clear();
+                    }
+                }
+            }
 
+            try (Stream<byte[]> keys = dbManager.scanKeys(CF_INDEXES, LEGACY_ORDER_IDS)) {
+                keys.forEach(key -> ops.add(new RocksDBManager.WriteBatchOperation(RocksDBManager.OperationType.DELETE, CF_INDEXES, key)));
+            }
+            if (!ops.isEmpty()) dbManager.writeBatch(ops.toArray(RocksDBManager.WriteBatchOperation[]::new));
+            indexesReady = true;
+
+            if (removed > 0) {
+                dbManager.compactRange(CF_ORDERS);
+                dbManager.compactRange(CF_INDEXES);
+                LOGGER.log(Level.INFO, "Compacted {0} ClOrdID-keyed order records: {1} duplicates dropped, {2} orderIDs reassigned",
+                        new Object[]{removed, duplicates, reassigned.size()});
+            }
+            return removed;
+        }
+    }
 
-            if (putOrCall != 0) builder.putOrCall(PutOrCall.fromByte(putOrCall));
+    private void compactLegacyRecordsOnStart() {
+        try {
+            if (!dbManager.hasKeysWithPrefix(CF_ORDERS, LEGACY_RECORDS.fromInclusive())) return;
+        } catch (RocksDBException e) {
+            LOGGER.log(Level.WARNING, "Could not check for ClOrdID-keyed orders", e);
+            return;
+        }
 
-            Order order = builder.build();
+        indexesReady = false;
+        LOGGER.info("Stored orders are keyed by ClOrdID, compacting them before accepting orders");
+        try {
+            compactLegacyRecords();
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Order compaction failed; lookups keep scanning records", e);
+        }
+    }
 
-            // Restore state (using reflection to bypass state machine)
-            try {
-                java.lang.reflect.Field stateField = Order.class.getDeclaredField("state");
-                stateField.setAccessible(true);
-                stateField.set(order, OrderState.valueOf(state));
+    /** Rewrites every stored order in {@code format}; returns the number rewritten. */
+    public int migrateRecords(RecordFormat format) throws RocksDBException {
+        compactLegacyRecords();
+        List<RocksDBManager.WriteBatchOperation> ops = new ArrayList<>();
+        int migrated = 0;
+        try (RocksCursor cursor = dbManager.openCursor(CF_ORDERS, RECORDS)) {
+            for (; cursor.isValid(); cursor.next()) {
+                byte[] data = cursor.value();
+                if (RecordFormat.of(data) == format) continue;
+                byte[] value = codec.encode(codec.decode(data), format);
+                ops.add(new RocksDBManager.WriteBatchOperation(RocksDBManager.OperationType.PUT, CF_ORDERS, cursor.key(), value));
+                if (ops.size() == 1_000) {
+                    dbManager.writeBatch(ops.toArray(RocksDBManager.WriteBatchOperation[]::new));
+                    ops.clear();
+                }
+                migrated++;
+            }
+        }
+        if (!ops.isEmpty()) dbManager.writeBatch(ops.toArray(RocksDBManager.WriteBatchOperation[]::new));
+        LOGGER.log(Level.INFO, "Migrated {0} orders to {1}", new Object[]{migrated, format});
+        return migrated;
+    }
 
-                java.lang.reflect.Field leavesQtyField = Order.class.getDeclaredField("leavesQty");
-                leavesQtyField.setAccessible(true);
-                leavesQtyField.set(order, leavesQty);
+    private Order stored(long orderID) throws RocksDBException {
+        byte[] data = dbManager.get(CF_ORDERS, OrderIndexKeys.primary(orderID));
+        return data != null ? codec.decode(data) : null;
+    }
 
-                java.lang.reflect.Field cumQtyField = Order.class.getDeclaredField("cumQty");
-                cumQtyField.setAccessible(true);
-                cumQtyField.set(order, cumQty);
+    // The record key for clOrdID: its alias or, until compaction finishes, its ClOrdID key
+    private byte[] primaryKey(String clOrdID) throws RocksDBException {
+        byte[] key = dbManager.get(CF_INDEXES, OrderIndexKeys.clOrdID(clOrdID));
+        if (key != null || indexesReady) return key;
 
-                java.lang.reflect.Field lastModifiedField = Order.class.getDeclaredField("lastModified");
-                lastModifiedField.setAccessible(true);
-                lastModifiedField.set(order, Instant.parse(lastModified));
+        byte[] legacyKey = ("order:" + clOrdID).getBytes(StandardCharsets.UTF_8);
+        return dbManager.exists(CF_ORDERS, legacyKey) ? legacyKey : null;
+    }
 
-                order.setLastSentSequence(lastSentSequence);
-            } catch (IllegalAccessException | IllegalArgumentException | NoSuchFieldException | SecurityException e) {
-                LOGGER.log(Level.WARNING, "Failed to restore order state", e);
-            }
+    // Every stored record, ClOrdID-keyed ones included, reduced to the latest version of each order
+    private Collection<Order> latestRecords() {
+        Map<Identity, Order> latest = new LinkedHashMap<>();
+        try (Stream<Map.Entry<byte[], byte[]>> entries = dbManager.scan(CF_ORDERS, KeyRange.all())) {
+            entries.forEach(entry -> {
+                try {
+                    Order order = codec.decode(entry.getValue());
+                    latest.merge(Identity.of(order), order, (a, b) -> b.getLastModified().isAfter(a.getLastModified()) ? b : a);
+                } catch (Exception e) {
+                    String key = new String(entry.getKey(), StandardCharsets.UTF_8);
+                    LOGGER.log(Level.WARNING, "Failed to deserialize order: {0}, skipping...", key);
+                }
+            });
+        }
+        return latest.values();
+    }
 
-            return order;
+    // Two records are versions of one order when these match; a reused orderID differs in the rest
+    private record Identity(long orderID, String username, String symbol, Side side) {
+        static Identity of(Order order) {
+            return new Identity(order.getOrderID(), order.getUsername(), order.getSymbol(), order.getSide());
         }
     }
-}
\ No newline at end of file
+}
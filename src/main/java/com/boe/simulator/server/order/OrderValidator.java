@@ -1,12 +1,12 @@
 package com.boe.simulator.server.order;
 
-import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.Logger;
 import java.util.regex.Pattern;
 
 import com.boe.simulator.protocol.message.NewOrderMessage;
+import com.boe.simulator.protocol.types.BinaryPrice;
 import com.boe.simulator.protocol.types.Capacity;
 import com.boe.simulator.protocol.types.OpenClose;
 import com.boe.simulator.protocol.types.OrdType;
@@ -19,6 +19,7 @@ public class OrderValidator {
 
     // Límites del sistema
     private static final int MAX_ORDER_QTY = 999999;
+    private static final long MAX_PRICE_RAW = 9_999_999_999L; // 999999.9999
     private static final int MIN_ORDER_QTY = 1;
 
     // Patrones para validación
@@ -50,9 +51,9 @@ public class OrderValidator {
         // 5. Validar Price (requerido para limit orders)
         OrdType ordType = message.getOrdType() != 0 ? OrdType.fromByte(message.getOrdType()) : OrdType.LIMIT;
         if (ordType == OrdType.LIMIT) {
-            if (message.getPrice() == null) errors.add("Price is required for limit orders");
+            if (!BinaryPrice.isPresent(message.getPriceRaw())) errors.add("Price is required for limit orders");
             else {
-                String priceError = validatePrice(message.getPrice());
+                String priceError = validatePrice(message.getPriceRaw());
                 if (priceError != null) errors.add(priceError);
             }
         }
@@ -72,18 +73,19 @@ public class OrderValidator {
         }
 
         // 8. Validar symbology completa (si es option)
-        if (message.getMaturityDate() != null || message.getStrikePrice() != null) {
+        boolean hasStrike = BinaryPrice.isPresent(message.getStrikePriceRaw());
+        if (message.getMaturityDate() != null || hasStrike) {
             String symbologyError = validateOptionSymbology(
                     message.getMaturityDate() != null,
-                    message.getStrikePrice() != null,
+                    hasStrike,
                     message.getPutOrCall() != 0
             );
             if (symbologyError != null) errors.add(symbologyError);
         }
 
         // 9. Validar StrikePrice (si está presente)
-        if (message.getStrikePrice() != null) {
-            String strikePriceError = validatePrice(message.getStrikePrice());
+        if (hasStrike) {
+            String strikePriceError = validatePrice(message.getStrikePriceRaw());
             if (strikePriceError != null) errors.add("Invalid StrikePrice: " + strikePriceError);
         }
 
@@ -98,6 +100,30 @@ public class OrderValidator {
 
     }
 
+    /**
+     * Field checks for {@link OrderManager#submitNewOrder}: primitives in, the first error (or
+     * null) out, so a valid order allocates nothing here.
+     */
+    public String validateNewOrderFields(String clOrdID, byte side, int orderQty, long priceRaw, byte ordType, byte capacity) {
+        if (clOrdID == null || clOrdID.isEmpty() || clOrdID.length() > 20) return "ClOrdID must be 1 to 20 characters";
+
+        if (!Side.isValid(side)) return "Invalid Side: 0x" + Integer.toHexString(side & 0xFF);
+
+        String qtyError = validateOrderQty(orderQty);
+        if (qtyError != null) return qtyError;
+
+        if (!OrdType.isValid(ordType)) return "Invalid OrdType: 0x" + Integer.toHexString(ordType & 0xFF);
+        if (OrdType.fromByte(ordType) == OrdType.LIMIT) {
+            if (!BinaryPrice.isPresent(priceRaw)) return "Price is required for limit orders";
+            String priceError = validatePrice(priceRaw);
+            if (priceError != null) return priceError;
+        }
+
+        if (!Capacity.isValid(capacity)) return "Invalid Capacity: 0x" + Integer.toHexString(capacity & 0xFF);
+
+        return null;
+    }
+
     private String validateClOrdID(String clOrdID) {
         if (clOrdID == null || clOrdID.isEmpty()) return "ClOrdID cannot be empty";
 
@@ -117,13 +143,11 @@ public class OrderValidator {
         return null;
     }
 
-    private String validatePrice(BigDecimal price) {
-        if (price == null) return "Price cannot be null";
-
-        if (price.compareTo(BigDecimal.ZERO) < 0) return "Price cannot be negative";
+    private String validatePrice(long price) {
+        if (price < 0) return "Price cannot be negative";
 
         // Validar que no exceda límites razonables
-        if (price.compareTo(new BigDecimal("999999.9999")) > 0) return "Price exceeds maximum value";
+        if (price > MAX_PRICE_RAW) return "Price exceeds maximum value";
 
 
         return null;
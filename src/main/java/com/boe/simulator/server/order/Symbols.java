@@ -0,0 +1,37 @@
+package com.boe.simulator.server.order;
+
+/**
+ * The tradable symbols and their dense integer IDs. In-process callers resolve a symbol once
+ * and pass the ID to {@link OrderManager#submitNewOrder}; the wire path keeps using names.
+ */
+public final class Symbols {
+
+    private static final String[] NAMES = {"AAPL", "MSFT", "GOOGL", "GOOG", "AMZN", "META", "TSLA", "NFLX"};
+
+    public static final int UNKNOWN = -1;
+
+    private Symbols() {}
+
+    /** ID of {@code symbol}, or {@link #UNKNOWN}. */
+    public static int id(String symbol) {
+        if (symbol == null) return UNKNOWN;
+        for (int i = 0; i < NAMES.length; i++) {
+            if (NAMES[i].equals(symbol)) return i;
+        }
+        return UNKNOWN;
+    }
+
+    /** Name for a valid {@code id}. */
+    public static String name(int id) {
+        if (!isValid(id)) throw new IllegalArgumentException("Unknown symbol ID: " + id);
+        return NAMES[id];
+    }
+
+    public static boolean isValid(int id) {
+        return id >= 0 && id < NAMES.length;
+    }
+
+    public static boolean isValid(String symbol) {
+        return id(symbol) != UNKNOWN;
+    }
+}
@@ -0,0 +1,20 @@
+package com.boe.simulator.server.persistence;
+
+import org.rocksdb.WriteOptions;
+
+/** How far a committed write has reached when {@link RocksDBManager#writeBatch} returns. */
+public enum DurabilityMode {
+
+    /** In the write-ahead log and fsynced: survives a power loss. */
+    SYNC,
+
+    /** In the write-ahead log, flushed to disk by the OS: survives a process crash, not a power loss. */
+    WAL,
+
+    /** Memtables only until they flush; a crash loses recent writes. For load testing. */
+    NO_WAL;
+
+    WriteOptions writeOptions() {
+        return new WriteOptions().setSync(this == SYNC).setDisableWAL(this == NO_WAL);
+    }
+}
@@ -0,0 +1,95 @@
+package com.boe.simulator.server.persistence;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.rocksdb.RocksDBException;
+
+/**
+ * Merges batches committed concurrently into one write: every writer queues its batch and takes
+ * the commit lock, and whoever holds the lock writes everything queued so far - one WAL append
+ * and, in {@link DurabilityMode#SYNC}, one fsync for the group. A writer whose batch went out
+ * in another's group finds it done when it gets the lock.
+ */
+final class GroupCommitter {
+
+    interface Writer {
+        void write(List<RocksDBManager.WriteBatchOperation[]> batches) throws RocksDBException;
+    }
+
+    // Bounds a group so the writer that leads it is not held up indefinitely under load
+    static final int MAX_GROUP_OPERATIONS = 16_384;
+
+    private final Writer writer;
+    private final ConcurrentLinkedQueue<Commit> queue = new ConcurrentLinkedQueue<>();
+    private final ReentrantLock lock = new ReentrantLock(); // not synchronized: writers may be virtual threads
+    private final LongAdder groups = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+
+    GroupCommitter(Writer writer) {
+        this.writer = writer;
+    }
+
+    void commit(RocksDBManager.WriteBatchOperation[] operations) throws RocksDBException {
+        Commit commit = new Commit(operations);
+        queue.add(commit);
+        lock.lock();
+        try {
+            while (!commit.done) writeGroup();
+        } finally {
+            lock.unlock();
+        }
+
+        if (commit.failure instanceof RocksDBException e) throw e;
+        if (commit.failure instanceof RuntimeException e) throw e;
+    }
+
+    private void writeGroup() {
+        List<Commit> group = new ArrayList<>();
+        List<RocksDBManager.WriteBatchOperation[]> operations = new ArrayList<>();
+        int size = 0;
+        Commit next;
+        while (size < MAX_GROUP_OPERATIONS && (next = queue.poll()) != null) {
+            group.add(next);
+            operations.add(next.operations);
+            size += next.operations.length;
+        }
+
+        Exception failure = null;
+        try {
+            writer.write(operations);
+        } catch (RocksDBException | RuntimeException e) {
+            failure = e;
+        }
+        for (Commit commit : group) {
+            commit.failure = failure;
+            commit.done = true;
+        }
+        groups.increment();
+        batches.add(group.size());
+    }
+
+    /** Group writes so far. */
+    long groups() {
+        return groups.sum();
+    }
+
+    /** Batches committed so far; divided by {@link #groups()}, the mean group size. */
+    long batches() {
+        return batches.sum();
+    }
+
+    // Fields are written and read under the commit lock
+    private static final class Commit {
+        final RocksDBManager.WriteBatchOperation[] operations;
+        boolean done;
+        Exception failure;
+
+        Commit(RocksDBManager.WriteBatchOperation[] operations) {
+            this.operations = operations;
+        }
+    }
+}
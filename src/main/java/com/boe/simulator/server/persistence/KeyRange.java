@@ -0,0 +1,61 @@
+package com.boe.simulator.server.persistence;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Keys from {@code fromInclusive} up to {@code toExclusive} in unsigned byte order, walked
+ * forwards or, when {@code reverse}, last key first. A null bound leaves that end open.
+ */
+public record KeyRange(byte[] fromInclusive, byte[] toExclusive, boolean reverse) {
+
+    public static KeyRange all() {
+        return new KeyRange(null, null, false);
+    }
+
+    public static KeyRange between(byte[] fromInclusive, byte[] toExclusive) {
+        return new KeyRange(fromInclusive, toExclusive, false);
+    }
+
+    public static KeyRange prefix(byte[] prefix) {
+        return new KeyRange(prefix, successor(prefix), false);
+    }
+
+    public static KeyRange prefix(String prefix) {
+        return prefix(prefix.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public KeyRange reversed() {
+        return new KeyRange(fromInclusive, toExclusive, !reverse);
+    }
+
+    // The first key after every key starting with prefix; null when there is none (all 0xFF)
+    private static byte[] successor(byte[] prefix) {
+        for (int i = prefix.length - 1; i >= 0; i--) {
+            if (prefix[i] != (byte) 0xFF) {
+                byte[] next = Arrays.copyOf(prefix, i + 1);
+                next[i]++;
+                return next;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof KeyRange other
+                && reverse == other.reverse
+                && Arrays.equals(fromInclusive, other.fromInclusive)
+                && Arrays.equals(toExclusive, other.toExclusive);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * Arrays.hashCode(fromInclusive) + Arrays.hashCode(toExclusive)) + Boolean.hashCode(reverse);
+    }
+
+    @Override
+    public String toString() {
+        return "KeyRange[" + Arrays.toString(fromInclusive) + ", " + Arrays.toString(toExclusive) + (reverse ? ", reversed]" : "]");
+    }
+}
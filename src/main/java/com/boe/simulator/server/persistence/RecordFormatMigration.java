@@ -0,0 +1,46 @@
+package com.boe.simulator.server.persistence;
+
+import java.util.Locale;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.boe.simulator.server.matching.TradeRepositoryService;
+import com.boe.simulator.server.order.OrderRepository;
+import com.boe.simulator.server.persistence.codec.RecordFormat;
+
+/**
+ * Rewrites every stored order and trade in one record format, so an existing database can be
+ * converted in one pass rather than record by record as they are next written. Run with the
+ * server stopped:
+ *
+ * <pre>
+ *   mvn exec:java@migrate-records -Dexec.args="./data/cboe_server BINARY"
+ * </pre>
+ */
+public final class RecordFormatMigration {
+    private static final Logger LOGGER = Logger.getLogger(RecordFormatMigration.class.getName());
+
+    private RecordFormatMigration() {}
+
+    public static void main(String[] args) {
+        String dbPath = args.length > 0 ? args[0] : "./data/cboe_server";
+        RecordFormat format = args.length > 1 ? RecordFormat.valueOf(args[1].toUpperCase(Locale.ROOT)) : RecordFormat.BINARY;
+
+        RocksDBManager dbManager = RocksDBManager.getInstance(dbPath);
+        OrderRepository orders = new OrderRepository(dbManager);
+        TradeRepositoryService trades = new TradeRepositoryService(dbManager);
+        try {
+            int migratedOrders = orders.migrateRecords(format);
+            int migratedTrades = trades.migrateRecords(format);
+            LOGGER.log(Level.INFO, "Rewrote {0} orders and {1} trades as {2} in {3}",
+                    new Object[]{migratedOrders, migratedTrades, format, dbPath});
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Record migration failed", e);
+            System.exit(1);
+        } finally {
+            orders.stopAsyncPersistence();
+            trades.stopAsyncPersistence();
+            dbManager.close();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.boe.simulator.server.persistence;
+
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+import org.rocksdb.AbstractSlice;
+import org.rocksdb.ColumnFamilyHandle;
+import org.rocksdb.ReadOptions;
+import org.rocksdb.RocksDB;
+import org.rocksdb.RocksDBException;
+import org.rocksdb.RocksIterator;
+import org.rocksdb.Slice;
+
+/**
+ * A position in one column family, confined to a {@link KeyRange} by the iterator's own bounds
+ * and moving in the range's direction. Nothing is read ahead: a scan holds one entry at a time
+ * and stops wherever the caller does. Close it to release the native iterator.
+ */
+public final class RocksCursor implements AutoCloseable {
+
+    private final ReadOptions readOptions;
+    private final AbstractSlice<?> lowerBound;
+    private final AbstractSlice<?> upperBound;
+    private final RocksIterator iterator;
+    private final boolean reverse;
+
+    RocksCursor(RocksDB db, ColumnFamilyHandle handle, KeyRange range) {
+        this.readOptions = new ReadOptions().setAutoPrefixMode(true); // prefix blooms only where the bounds share a prefix
+        this.lowerBound = range.fromInclusive() != null ? new Slice(range.fromInclusive()) : null;
+        this.upperBound = range.toExclusive() != null ? new Slice(range.toExclusive()) : null;
+        if (lowerBound != null) readOptions.setIterateLowerBound(lowerBound);
+        if (upperBound != null) readOptions.setIterateUpperBound(upperBound);
+        this.iterator = db.newIterator(handle, readOptions);
+        this.reverse = range.reverse();
+
+        if (reverse) iterator.seekToLast();
+        else iterator.seekToFirst();
+    }
+
+    /** False once the cursor has run off its range. */
+    public boolean isValid() {
+        if (iterator.isValid()) return true;
+        try {
+            iterator.status();
+        } catch (RocksDBException e) {
+            throw new RuntimeException("Cursor iteration failed", e);
+        }
+        return false;
+    }
+
+    public byte[] key() {
+        return iterator.key();
+    }
+
+    public byte[] value() {
+        return iterator.value();
+    }
+
+    public void next() {
+        if (reverse) iterator.prev();
+        else iterator.next();
+    }
+
+    /** Moves to the first key at {@code target} or beyond it in the cursor's direction. */
+    public void seek(byte[] target) {
+        if (reverse) iterator.seekForPrev(target);
+        else iterator.seek(target);
+    }
+
+    /** The remaining entries, from the current position. */
+    public Spliterator<Map.Entry<byte[], byte[]>> entries() {
+        return new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super Map.Entry<byte[], byte[]>> action) {
+                if (!isValid()) return false;
+                action.accept(Map.entry(key(), value()));
+                next();
+                return true;
+            }
+        };
+    }
+
+    /** The remaining keys, from the current position; values are never copied out. */
+    public Spliterator<byte[]> keys() {
+        return new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super byte[]> action) {
+                if (!isValid()) return false;
+                action.accept(key());
+                next();
+                return true;
+            }
+        };
+    }
+
+    @Override
+    public void close() {
+        iterator.close();
+        readOptions.close();
+        if (lowerBound != null) lowerBound.close();
+        if (upperBound != null) upperBound.close();
+    }
+}
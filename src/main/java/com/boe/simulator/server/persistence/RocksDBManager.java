@@ -5,25 +5,38 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import org.rocksdb.Cache;
 import org.rocksdb.ColumnFamilyDescriptor;
 import org.rocksdb.ColumnFamilyHandle;
 import org.rocksdb.ColumnFamilyOptions;
 import org.rocksdb.DBOptions;
+import org.rocksdb.FlushOptions;
+import org.rocksdb.LRUCache;
 import org.rocksdb.Options;
 import org.rocksdb.RocksDB;
 import org.rocksdb.RocksDBException;
 import org.rocksdb.RocksIterator;
+import org.rocksdb.Statistics;
+import org.rocksdb.TickerType;
 import org.rocksdb.WriteBatch;
 import org.rocksdb.WriteOptions;
 
+import com.boe.simulator.server.persistence.codec.RecordFormat;
+
 public class RocksDBManager {
     private static final Logger LOGGER = Logger.getLogger(RocksDBManager.class.getName());
     private static RocksDBManager instance;
@@ -31,6 +44,15 @@ public class RocksDBManager {
     private final String dbPath;
     private RocksDB db;
     private final Map<String, ColumnFamilyHandle> columnFamilyHandles;
+    private final Map<String, RecordFormat> recordFormats;
+    private final Map<String, TuningProfile> tuningProfiles;
+    private final long blockCacheBytes;
+    private final List<ColumnFamilyOptions> columnFamilyOptions = new ArrayList<>();
+    private Cache blockCache;
+    private Statistics statistics;
+    private final Map<DurabilityMode, WriteOptions> writeOptions = new EnumMap<>(DurabilityMode.class);
+    private volatile DurabilityMode durabilityMode = DurabilityMode.WAL;
+    private final GroupCommitter groupCommitter = new GroupCommitter(this::writeGroup);
 
     // Column Family names
     public static final String CF_DEFAULT = "default";
@@ -40,15 +62,44 @@ public class RocksDBManager {
     public static final String CF_MESSAGES = "messages";
     public static final String CF_AUDIT = "audit";
     public static final String CF_ORDERS = "orders";
-
-    private RocksDBManager(String dbPath) {
+    public static final String CF_TRADES = "trades";
+    public static final String CF_ORDER_INDEXES = "order_indexes";
+
+    public static final long DEFAULT_BLOCK_CACHE_BYTES = 64L << 20;
+    // Caps the memtables of all column families together; WRITE_HEAVY ones may each take 128MB
+    private static final long DB_WRITE_BUFFER_BYTES = 256L << 20;
+
+    // Tickers getStatistics reports: cache and bloom effectiveness, memtable hits, I/O and stalls
+    private static final List<TickerType> REPORTED_TICKERS = List.of(
+            TickerType.BLOCK_CACHE_HIT, TickerType.BLOCK_CACHE_MISS,
+            TickerType.BLOOM_FILTER_USEFUL, TickerType.BLOOM_FILTER_FULL_POSITIVE, TickerType.BLOOM_FILTER_FULL_TRUE_POSITIVE,
+            TickerType.BLOOM_FILTER_PREFIX_CHECKED, TickerType.BLOOM_FILTER_PREFIX_USEFUL,
+            TickerType.MEMTABLE_HIT, TickerType.MEMTABLE_MISS,
+            TickerType.NUMBER_KEYS_WRITTEN, TickerType.NUMBER_KEYS_READ, TickerType.NUMBER_MULTIGET_KEYS_READ,
+            TickerType.BYTES_WRITTEN, TickerType.BYTES_READ, TickerType.ITER_BYTES_READ,
+            TickerType.COMPACT_READ_BYTES, TickerType.COMPACT_WRITE_BYTES, TickerType.STALL_MICROS,
+            TickerType.WAL_FILE_SYNCED);
+
+    private RocksDBManager(String dbPath, Map<String, TuningProfile> tuningProfiles, long blockCacheBytes) {
         this.dbPath = dbPath;
         this.columnFamilyHandles = new ConcurrentHashMap<>();
+        this.recordFormats = new ConcurrentHashMap<>();
+        this.tuningProfiles = Map.copyOf(tuningProfiles);
+        this.blockCacheBytes = blockCacheBytes;
+    }
+
+    public static RocksDBManager getInstance(String dbPath) {
+        return getInstance(dbPath, Map.of(), DEFAULT_BLOCK_CACHE_BYTES);
     }
 
-    public static synchronized RocksDBManager getInstance(String dbPath) {
+    /**
+     * Opens the database with a {@link TuningProfile} per column family (unlisted ones get
+     * {@link TuningProfile#DEFAULT}) and a block cache they all share. Once the database is open
+     * the same instance is returned whatever is passed.
+     */
+    public static synchronized RocksDBManager getInstance(String dbPath, Map<String, TuningProfile> tuningProfiles, long blockCacheBytes) {
         if (instance == null) {
-            instance = new RocksDBManager(dbPath);
+            instance = new RocksDBManager(dbPath, tuningProfiles, blockCacheBytes);
             instance.initialize();
         }
         return instance;
@@ -84,21 +135,25 @@ public class RocksDBManager {
                     LOGGER.info("No existing column families found, will create new DB");
                 }
 
+                for (DurabilityMode mode : DurabilityMode.values()) writeOptions.put(mode, mode.writeOptions());
+                blockCache = new LRUCache(blockCacheBytes);
+                statistics = new Statistics();
+
                 // Prepare column family descriptors
                 List<ColumnFamilyDescriptor> columnFamilyDescriptors = new ArrayList<>();
 
                 // Add default CF (always exists)
                 columnFamilyDescriptors.add(new ColumnFamilyDescriptor(
                         RocksDB.DEFAULT_COLUMN_FAMILY,
-                        new ColumnFamilyOptions()
+                        columnFamilyOptions(CF_DEFAULT)
                 ));
 
                 // Add custom CFs
-                Set<String> cfNames = Set.of(CF_USERS, CF_SESSIONS, CF_CONFIG, CF_MESSAGES, CF_AUDIT, CF_ORDERS);
+                Set<String> cfNames = Set.of(CF_USERS, CF_SESSIONS, CF_CONFIG, CF_MESSAGES, CF_AUDIT, CF_ORDERS, CF_TRADES, CF_ORDER_INDEXES);
                 for (String cfName : cfNames) {
                     columnFamilyDescriptors.add(new ColumnFamilyDescriptor(
                             cfName.getBytes(),
-                            new ColumnFamilyOptions()
+                            columnFamilyOptions(cfName)
                     ));
                 }
 
@@ -106,7 +161,10 @@ public class RocksDBManager {
                 List<ColumnFamilyHandle> handles = new ArrayList<>();
                 try (DBOptions dbOptions = new DBOptions()
                         .setCreateIfMissing(true)
-                        .setCreateMissingColumnFamilies(true)) {
+                        .setCreateMissingColumnFamilies(true)
+                        .setStatistics(statistics)
+                        .setDbWriteBufferSize(DB_WRITE_BUFFER_BYTES)
+                        .setMaxBackgroundJobs(Math.max(2, Runtime.getRuntime().availableProcessors() / 2))) {
                     db = RocksDB.open(dbOptions, dbPath, columnFamilyDescriptors, handles);
                 }
 
@@ -117,7 +175,8 @@ public class RocksDBManager {
                 }
 
                 LOGGER.log(Level.INFO, "RocksDB initialized successfully at: {0}", dbPath);
-                LOGGER.log(Level.INFO, "Column families: {0}", columnFamilyHandles.keySet());
+                LOGGER.log(Level.INFO, "Column families: {0}, tuning: {1}, block cache: {2}MB",
+                        new Object[]{columnFamilyHandles.keySet(), tuningProfiles, blockCacheBytes >> 20});
             }
         } catch (IOException | RocksDBException | UnsatisfiedLinkError e) {
             LOGGER.log(Level.SEVERE, "Failed to initialize RocksDB", e);
@@ -125,9 +184,46 @@ public class RocksDBManager {
         }
     }
 
+    private ColumnFamilyOptions columnFamilyOptions(String columnFamily) {
+        ColumnFamilyOptions options = getTuningProfile(columnFamily).options(blockCache);
+        columnFamilyOptions.add(options);
+        return options;
+    }
+
+    public TuningProfile getTuningProfile(String columnFamily) {
+        return tuningProfiles.getOrDefault(columnFamily, TuningProfile.DEFAULT);
+    }
+
+    /** RocksDB counters since the database opened, by ticker name; empty once it is closed. */
+    public Map<String, Long> getStatistics() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        Statistics stats = statistics;
+        if (stats == null || db == null) return counts;
+        for (TickerType ticker : REPORTED_TICKERS) counts.put(ticker.name().toLowerCase(), stats.getTickerCount(ticker));
+        counts.put("group_commits", groupCommitter.groups());
+        counts.put("grouped_batches", groupCommitter.batches());
+        return counts;
+    }
+
+    public String getStatisticsSummary() {
+        Map<String, Long> counts = getStatistics();
+        return String.format(
+                "RocksDB (%s): BlockCacheHit=%d, BlockCacheMiss=%d, BloomUseful=%d, PrefixBloomUseful=%d, MemtableHit=%d, BytesWritten=%d, BytesRead=%d, StallMicros=%d, GroupCommits=%d, GroupedBatches=%d",
+                durabilityMode,
+                counts.getOrDefault("block_cache_hit", 0L),
+                counts.getOrDefault("block_cache_miss", 0L),
+                counts.getOrDefault("bloom_filter_useful", 0L),
+                counts.getOrDefault("bloom_filter_prefix_useful", 0L),
+                counts.getOrDefault("memtable_hit", 0L),
+                counts.getOrDefault("bytes_written", 0L),
+                counts.getOrDefault("bytes_read", 0L),
+                counts.getOrDefault("stall_micros", 0L),
+                counts.getOrDefault("group_commits", 0L),
+                counts.getOrDefault("grouped_batches", 0L));
+    }
+
     public void put(String columnFamily, byte[] key, byte[] value) throws RocksDBException {
-        ColumnFamilyHandle handle = getColumnFamilyHandle(columnFamily);
-        db.put(handle, key, value);
+        writeBatch(new WriteBatchOperation(OperationType.PUT, columnFamily, key, value));
     }
 
     public byte[] get(String columnFamily, byte[] key) throws RocksDBException {
@@ -136,8 +232,7 @@ public class RocksDBManager {
     }
 
     public void delete(String columnFamily, byte[] key) throws RocksDBException {
-        ColumnFamilyHandle handle = getColumnFamilyHandle(columnFamily);
-        db.delete(handle, key);
+        writeBatch(new WriteBatchOperation(OperationType.DELETE, columnFamily, key));
     }
 
     public boolean exists(String columnFamily, byte[] key) throws RocksDBException {
@@ -145,55 +240,132 @@ public class RocksDBManager {
         return value != null;
     }
 
+    /**
+     * A cursor over {@code range} of {@code columnFamily}. Close it when done; prefer
+     * {@link #scan} unless the caller needs to seek.
+     */
+    public RocksCursor openCursor(String columnFamily, KeyRange range) {
+        return new RocksCursor(db, getColumnFamilyHandle(columnFamily), range);
+    }
+
+    /**
+     * The entries of {@code range}, read lazily one at a time. Close the stream (try-with-resources)
+     * to release the iterator; short-circuiting operations such as limit or findFirst stop the scan.
+     */
+    public Stream<Map.Entry<byte[], byte[]>> scan(String columnFamily, KeyRange range) {
+        RocksCursor cursor = openCursor(columnFamily, range);
+        return StreamSupport.stream(cursor.entries(), false).onClose(cursor::close);
+    }
+
+    /** As {@link #scan}, without copying values. */
+    public Stream<byte[]> scanKeys(String columnFamily, KeyRange range) {
+        RocksCursor cursor = openCursor(columnFamily, range);
+        return StreamSupport.stream(cursor.keys(), false).onClose(cursor::close);
+    }
+
+    public long count(String columnFamily, KeyRange range) {
+        try (RocksCursor cursor = openCursor(columnFamily, range)) {
+            long count = 0;
+            for (; cursor.isValid(); cursor.next()) count++;
+            return count;
+        }
+    }
+
     public List<byte[]> getKeysWithPrefix(String columnFamily, byte[] prefix) throws RocksDBException {
-        List<byte[]> keys = new ArrayList<>();
-        ColumnFamilyHandle handle = getColumnFamilyHandle(columnFamily);
+        try (Stream<byte[]> keys = scanKeys(columnFamily, KeyRange.prefix(prefix))) {
+            return keys.collect(Collectors.toCollection(ArrayList::new));
+        }
+    }
 
-        try (RocksIterator iterator = db.newIterator(handle)) {
-            iterator.seek(prefix);
-            while (iterator.isValid()) {
-                byte[] key = iterator.key();
-                // Check if key starts with prefix
-                if (startsWith(key, prefix)) {
-                    keys.add(key);
-                    iterator.next();
-                } else {
-                    break;
-                }
-            }
+    public boolean hasKeysWithPrefix(String columnFamily, byte[] prefix) throws RocksDBException {
+        try (RocksCursor cursor = openCursor(columnFamily, KeyRange.prefix(prefix))) {
+            return cursor.isValid();
         }
-        return keys;
     }
 
-    public Map<byte[], byte[]> getAll(String columnFamily) throws RocksDBException {
-        Map<byte[], byte[]> result = new HashMap<>();
+    /** Values of {@code keys}, in order; null where a key is missing. */
+    public List<byte[]> multiGet(String columnFamily, List<byte[]> keys) throws RocksDBException {
+        if (keys.isEmpty()) return new ArrayList<>();
         ColumnFamilyHandle handle = getColumnFamilyHandle(columnFamily);
+        return db.multiGetAsList(Collections.nCopies(keys.size(), handle), keys);
+    }
 
-        try (RocksIterator iterator = db.newIterator(handle)) {
-            iterator.seekToFirst();
-            while (iterator.isValid()) {
-                result.put(iterator.key(), iterator.value());
-                iterator.next();
-            }
+    /**
+     * @deprecated copies the whole column family onto the heap, keyed by identity-hashed byte
+     * arrays. Use {@link #scan}.
+     */
+    @Deprecated
+    public Map<byte[], byte[]> getAll(String columnFamily) throws RocksDBException {
+        Map<byte[], byte[]> result = new HashMap<>();
+        try (Stream<Map.Entry<byte[], byte[]>> entries = scan(columnFamily, KeyRange.all())) {
+            entries.forEach(entry -> result.put(entry.getKey(), entry.getValue()));
         }
         return result;
     }
 
+    /**
+     * Writes {@code operations} atomically, as durable as {@link #getDurabilityMode()} makes them.
+     * Batches written concurrently, from any thread, are committed together in one write.
+     */
     public void writeBatch(WriteBatchOperation... operations) throws RocksDBException {
-        try (WriteBatch batch = new WriteBatch();
-             WriteOptions writeOptions = new WriteOptions()) {
-
-            for (WriteBatchOperation op : operations) {
-                ColumnFamilyHandle handle = getColumnFamilyHandle(op.columnFamily());
-                switch (op.type()) {
-                    case PUT -> batch.put(handle, op.key(), op.value());
-                    case DELETE -> batch.delete(handle, op.key());
+        for (WriteBatchOperation op : operations) getColumnFamilyHandle(op.columnFamily()); // fail the caller, not its group
+        groupCommitter.commit(operations);
+    }
+
+    private void writeGroup(List<WriteBatchOperation[]> batches) throws RocksDBException {
+        try (WriteBatch batch = new WriteBatch()) {
+            for (WriteBatchOperation[] operations : batches) {
+                for (WriteBatchOperation op : operations) {
+                    ColumnFamilyHandle handle = getColumnFamilyHandle(op.columnFamily());
+                    switch (op.type()) {
+                        case PUT -> batch.put(handle, op.key(), op.value());
+                        case DELETE -> batch.delete(handle, op.key());
+                    }
                 }
             }
-            db.write(writeOptions, batch);
+            db.write(writeOptions.get(durabilityMode), batch);
+        }
+    }
+
+    public DurabilityMode getDurabilityMode() {
+        return durabilityMode;
+    }
+
+    public void setDurabilityMode(DurabilityMode mode) {
+        this.durabilityMode = mode;
+        LOGGER.log(Level.INFO, "RocksDB writes are committed with durability {0}", mode);
+    }
+
+    /**
+     * Flushes the memtables of every column family to disk and waits for it. Writes committed
+     * under {@link DurabilityMode#NO_WAL} only survive a crash once this has returned.
+     */
+    public void flush() throws RocksDBException {
+        try (FlushOptions options = new FlushOptions().setWaitForFlush(true)) {
+            db.flush(options, new ArrayList<>(columnFamilyHandles.values()));
         }
     }
 
+    /** Compacts all of {@code columnFamily}, dropping deleted and overwritten entries; blocks until done. */
+    public void compactRange(String columnFamily) throws RocksDBException {
+        db.compactRange(getColumnFamilyHandle(columnFamily));
+    }
+
+    /**
+     * Format new records in {@code columnFamily} are written in; JSON unless set. Records already
+     * stored keep their format and stay readable. Column families whose records have no binary
+     * codec are written as JSON regardless.
+     */
+    public RecordFormat getRecordFormat(String columnFamily) {
+        return recordFormats.getOrDefault(columnFamily, RecordFormat.JSON);
+    }
+
+    public void setRecordFormat(String columnFamily, RecordFormat format) {
+        getColumnFamilyHandle(columnFamily);
+        recordFormats.put(columnFamily, format);
+        LOGGER.log(Level.INFO, "Column family {0} writes {1} records", new Object[]{columnFamily, format});
+    }
+
     private ColumnFamilyHandle getColumnFamilyHandle(String columnFamily) {
         ColumnFamilyHandle handle = columnFamilyHandles.get(columnFamily);
         if (handle == null) throw new IllegalArgumentException("Unknown column family: " + columnFamily);
@@ -201,15 +373,6 @@ public class RocksDBManager {
         return handle;
     }
 
-    private boolean startsWith(byte[] array, byte[] prefix) {
-        if (array.length < prefix.length) return false;
-
-        for (int i = 0; i < prefix.length; i++) {
-            if (array[i] != prefix[i]) return false;
-        }
-        return true;
-    }
-
     public synchronized void close() {
         if (db != null) {
 
@@ -221,6 +384,14 @@ public class RocksDBManager {
             // Close DB
             db.close();
             db = null;
+
+            columnFamilyOptions.forEach(ColumnFamilyOptions::close);
+            columnFamilyOptions.clear();
+            writeOptions.values().forEach(WriteOptions::close);
+            writeOptions.clear();
+            blockCache.close();
+            statistics.close();
+            statistics = null;
             LOGGER.info("RocksDB closed successfully");
         }
     }
@@ -235,12 +406,11 @@ public class RocksDBManager {
                 it.next();
             }
         }
-        try (WriteBatch batch = new WriteBatch();
-             WriteOptions opts = new WriteOptions()) {
+        try (WriteBatch batch = new WriteBatch()) {
             for (byte[] key : keys) {
                 batch.delete(handle, key);
             }
-            db.write(opts, batch);
+            db.write(writeOptions.get(durabilityMode), batch);
         }
         LOGGER.log(Level.INFO, "Cleared {0} keys from column family: {1}", new Object[]{keys.size(), cfName});
     }
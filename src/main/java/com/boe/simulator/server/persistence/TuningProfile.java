@@ -0,0 +1,71 @@
+package com.boe.simulator.server.persistence;
+
+import org.rocksdb.BlockBasedTableConfig;
+import org.rocksdb.BloomFilter;
+import org.rocksdb.Cache;
+import org.rocksdb.ColumnFamilyOptions;
+import org.rocksdb.CompressionType;
+
+/**
+ * Named RocksDB settings for a column family, chosen per column family in the server
+ * configuration. Every profile reads through the block cache the whole database shares.
+ * Profiles can be changed between runs: a column family opens with whatever it is given.
+ */
+public enum TuningProfile {
+
+    /** RocksDB's own defaults. */
+    DEFAULT,
+
+    /** Gets by whole key: bloom filters, with filter and index blocks held in the block cache. */
+    POINT_LOOKUP,
+
+    /**
+     * Range scans within a key prefix: prefix blooms over the first {@value #PREFIX_LENGTH}
+     * bytes (a tag byte and a big-endian id) in SST files and memtables, plus whole-key blooms.
+     */
+    PREFIX_SCAN,
+
+    /** Many small writes: larger and more memtables, and fewer level-0 compactions and stalls. */
+    WRITE_HEAVY;
+
+    static final int PREFIX_LENGTH = 9;
+
+    private static final int BLOOM_BITS_PER_KEY = 10;
+    private static final double MEMTABLE_BLOOM_RATIO = 0.1;
+    private static final long WRITE_HEAVY_BUFFER_BYTES = 32L << 20;
+
+    ColumnFamilyOptions options(Cache blockCache) {
+        ColumnFamilyOptions options = new ColumnFamilyOptions();
+        BlockBasedTableConfig table = new BlockBasedTableConfig().setBlockCache(blockCache);
+
+        switch (this) {
+            case DEFAULT -> { }
+            case POINT_LOOKUP -> {
+                table.setFilterPolicy(new BloomFilter(BLOOM_BITS_PER_KEY))
+                        .setCacheIndexAndFilterBlocks(true)
+                        .setPinL0FilterAndIndexBlocksInCache(true);
+                options.setMemtablePrefixBloomSizeRatio(MEMTABLE_BLOOM_RATIO)
+                        .setMemtableWholeKeyFiltering(true)
+                        .setCompressionType(CompressionType.LZ4_COMPRESSION);
+            }
+            case PREFIX_SCAN -> {
+                table.setFilterPolicy(new BloomFilter(BLOOM_BITS_PER_KEY))
+                        .setWholeKeyFiltering(true)
+                        .setCacheIndexAndFilterBlocks(true)
+                        .setPinL0FilterAndIndexBlocksInCache(true);
+                options.useCappedPrefixExtractor(PREFIX_LENGTH)
+                        .setMemtablePrefixBloomSizeRatio(MEMTABLE_BLOOM_RATIO)
+                        .setCompressionType(CompressionType.LZ4_COMPRESSION);
+            }
+            case WRITE_HEAVY -> options.setWriteBufferSize(WRITE_HEAVY_BUFFER_BYTES)
+                    .setMaxWriteBufferNumber(4)
+                    .setMinWriteBufferNumberToMerge(2)
+                    .setLevel0FileNumCompactionTrigger(8)
+                    .setTargetFileSizeBase(2 * WRITE_HEAVY_BUFFER_BYTES)
+                    .setMaxBytesForLevelBase(16 * WRITE_HEAVY_BUFFER_BYTES)
+                    .setCompressionType(CompressionType.LZ4_COMPRESSION)
+                    .setBottommostCompressionType(CompressionType.ZSTD_COMPRESSION);
+        }
+        return options.setTableFormatConfig(table);
+    }
+}
@@ -0,0 +1,502 @@
+package com.boe.simulator.server.persistence;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+import org.rocksdb.RocksDBException;
+
+/**
+ * Append-only, memory-mapped journal in front of a write-behind repository: records are
+ * appended on the hot path and applied to RocksDB later, and the ones not yet applied when the
+ * process dies are applied again on the next start.
+ *
+ * The journal is a run of fixed-size segment files, {@code <name>-<index>.journal}, each mapped
+ * whole. A record is its length, a CRC32C of its payload and the payload, 4-byte aligned, and
+ * never straddles two segments: a length of -1 sends the reader to the next one. The payload is
+ * written before the length, so a record torn by a crash reads as the end of the journal.
+ * {@code <name>.applied} holds the position up to which records reached RocksDB; segments
+ * entirely behind it are deleted. A record RocksDB refuses on its own is appended, in the same
+ * format, to {@code <name>.rejected} and skipped, so it cannot hold up the records behind it.
+ *
+ * When RocksDB runs without its write-ahead log, applied records only live in memtables, so a
+ * journal opened with a {@link Barrier} moves its checkpoint and deletes segments only once a
+ * segment has been left behind and the barrier (a memtable flush) has returned.
+ *
+ * Appends survive a process crash (they land in the page cache) but are only forced to disk on
+ * {@link #close()}. Once the current segment is half full, {@link #apply} also creates and
+ * zero-fills the next one, so rolling over on the append path is normally a pointer swap.
+ */
+public final class WriteBehindJournal implements Closeable {
+    private static final Logger LOGGER = Logger.getLogger(WriteBehindJournal.class.getName());
+
+    static final int DEFAULT_SEGMENT_BYTES = 64 * 1024 * 1024;
+    private static final int HEADER_BYTES = 8;
+    private static final int CRC_OFFSET = 4;
+    private static final int END_OF_SEGMENT = -1;
+    private static final String SUFFIX = ".journal";
+    private static final String REJECTED_SUFFIX = ".rejected";
+    private static final int ZERO_FILL_BYTES = 1024 * 1024;
+
+    /** Writes a batch of journaled records to RocksDB; a failed batch is handed over again one record at a time. */
+    @FunctionalInterface
+    public interface Applier {
+        void apply(List<byte[]> records) throws RocksDBException;
+    }
+
+    /** Makes everything the {@link Applier} has written so far survive a crash. */
+    @FunctionalInterface
+    public interface Barrier {
+        void await() throws RocksDBException;
+    }
+
+    private record Segment(Path path, FileChannel channel, MappedByteBuffer buffer) { }
+
+    private final Path directory;
+    private final String name;
+    private final int segmentBytes;
+    private final Barrier barrier;
+    private final Map<Long, Segment> segments = new ConcurrentHashMap<>();
+    private final FileChannel checkpointChannel;
+    private final MappedByteBuffer checkpoint;
+    private final Object applyLock = new Object();
+    private final Object spareLock = new Object();
+
+    // Appender state, guarded by this
+    private Segment current;
+    private long currentIndex;
+    private volatile Segment spare; // the segment after current, written under this
+    private boolean closed;
+
+    // Published to the applier after each append
+    private volatile long writePosition;
+    private volatile long appendedRecords;
+
+    // Applier state, guarded by applyLock
+    private volatile long appliedPosition;
+    private volatile long appliedRecords;
+    private long oldestIndex;
+    private FileChannel rejected;
+    private volatile long rejectedRecords;
+
+    private WriteBehindJournal(Path directory, String name, int segmentBytes, Barrier barrier) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.name = name;
+        this.segmentBytes = segmentBytes;
+        this.barrier = barrier;
+        this.checkpointChannel = FileChannel.open(directory.resolve(name + ".applied"),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.checkpoint = checkpointChannel.map(FileChannel.MapMode.READ_WRITE, 0, Long.BYTES);
+        recover();
+    }
+
+    public static WriteBehindJournal open(Path directory, String name) throws IOException {
+        return open(directory, name, null);
+    }
+
+    /** A journal whose applied records stay on disk until {@code barrier} has made them durable; null trusts the applier. */
+    public static WriteBehindJournal open(Path directory, String name, Barrier barrier) throws IOException {
+        return new WriteBehindJournal(directory, name, DEFAULT_SEGMENT_BYTES, barrier);
+    }
+
+    static WriteBehindJournal open(Path directory, String name, int segmentBytes) throws IOException {
+        return open(directory, name, segmentBytes, null);
+    }
+
+    static WriteBehindJournal open(Path directory, String name, int segmentBytes, Barrier barrier) throws IOException {
+        if (segmentBytes < 2 * HEADER_BYTES || segmentBytes % 4 != 0) throw new IllegalArgumentException("Invalid segment size: " + segmentBytes);
+        return new WriteBehindJournal(directory, name, segmentBytes, barrier);
+    }
+
+    /** Appends one record: a copy into the mapped segment, and a new segment file each time one fills. */
+    public void append(byte[] record) throws IOException {
+        int length = record.length;
+        int size = recordBytes(length);
+        if (length == 0 || size > segmentBytes) throw new IllegalArgumentException("Invalid record length: " + length);
+        int checksum = checksum(record);
+
+        synchronized (this) {
+            if (closed) throw new IOException("Write-behind journal " + name + " is closed");
+
+            long position = writePosition;
+            int offset = offsetInSegment(position);
+            if (offset + size > segmentBytes || segmentOf(position) != currentIndex) {
+                if (offset != 0) {
+                    current.buffer().putInt(offset, END_OF_SEGMENT);
+                    position = nextSegmentStart(position);
+                }
+                current = nextSegment(segmentOf(position));
+                currentIndex = segmentOf(position);
+                offset = 0;
+            }
+
+            MappedByteBuffer buffer = current.buffer();
+            buffer.put(offset + HEADER_BYTES, record);
+            buffer.putInt(offset + CRC_OFFSET, checksum);
+            buffer.putInt(offset, length);
+
+            appendedRecords++;
+            writePosition = position + size;
+        }
+    }
+
+    /**
+     * Hands up to {@code maxRecords} unapplied records to {@code applier} and, once it returns,
+     * moves the applied position past them and deletes segments left entirely behind it. When the
+     * batch fails its records are handed over one at a time, and any that still fails is set aside.
+     *
+     * @return the number of records applied or set aside
+     * @throws IOException if a record could not be set aside; the batch then stays unapplied
+     */
+    public int apply(int maxRecords, Applier applier) throws IOException {
+        int applied = applyBatch(maxRecords, applier);
+        prepareSpare();
+        return applied;
+    }
+
+    private int applyBatch(int maxRecords, Applier applier) throws IOException {
+        synchronized (applyLock) {
+            long position = appliedPosition;
+            long end = writePosition;
+            List<byte[]> records = new ArrayList<>(Math.min(maxRecords, 256));
+
+            while (records.size() < maxRecords && position < end) {
+                MappedByteBuffer buffer = segments.get(segmentOf(position)).buffer();
+                int offset = offsetInSegment(position);
+                int length = buffer.getInt(offset);
+                if (length == END_OF_SEGMENT) {
+                    position = nextSegmentStart(position);
+                    continue;
+                }
+                byte[] record = new byte[length];
+                buffer.get(offset + HEADER_BYTES, record);
+                records.add(record);
+                position += recordBytes(length);
+            }
+
+            if (!records.isEmpty()) applyOrSetAside(records, applier);
+            if (position != appliedPosition) advance(position, records.size());
+            return records.size();
+        }
+    }
+
+    private void applyOrSetAside(List<byte[]> records, Applier applier) throws IOException {
+        try {
+            applier.apply(records);
+            return;
+        } catch (RocksDBException | RuntimeException e) {
+            if (records.size() == 1) {
+                setAside(records.get(0), e);
+                return;
+            }
+            LOGGER.log(Level.WARNING, "A batch of " + records.size() + " records from write-behind journal " + name + " failed, applying them one at a time", e);
+        }
+        for (byte[] record : records) {
+            try {
+                applier.apply(List.of(record));
+            } catch (RocksDBException | RuntimeException e) {
+                setAside(record, e);
+            }
+        }
+    }
+
+    private void setAside(byte[] record, Exception cause) throws IOException {
+        if (rejected == null) {
+            rejected = FileChannel.open(directory.resolve(name + REJECTED_SUFFIX),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        ByteBuffer entry = ByteBuffer.allocate(recordBytes(record.length)).order(ByteOrder.LITTLE_ENDIAN);
+        entry.putInt(record.length).putInt(checksum(record)).put(record).rewind();
+        while (entry.hasRemaining()) rejected.write(entry);
+        rejected.force(false);
+        rejectedRecords++;
+        LOGGER.log(Level.SEVERE, "A record in write-behind journal " + name + " could not be applied, moved it to " + name + REJECTED_SUFFIX, cause);
+    }
+
+    public long getPendingRecords() {
+        long applied = appliedRecords;
+        return appendedRecords - applied;
+    }
+
+    public long getPendingBytes() {
+        long applied = appliedPosition;
+        return writePosition - applied;
+    }
+
+    /** Records set aside in {@code <name>.rejected} since this journal was opened. */
+    public long getRejectedRecords() {
+        return rejectedRecords;
+    }
+
+    public int getSegmentCount() {
+        return segments.size();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (applyLock) {
+            synchronized (this) {
+                if (closed) return;
+                closed = true;
+                if (barrier != null && appliedPosition != checkpoint.getLong(0)) checkpointDurable(appliedPosition);
+                for (Segment segment : segments.values()) {
+                    segment.buffer().force();
+                    segment.channel().close();
+                }
+                if (spare != null) spare.channel().close();
+                checkpoint.force();
+                checkpointChannel.close();
+                if (rejected != null) rejected.close();
+            }
+        }
+    }
+
+    private void advance(long position, int records) {
+        appliedPosition = position;
+        appliedRecords += records;
+
+        if (barrier == null) {
+            checkpoint.putLong(0, position);
+            deleteSegmentsBefore(segmentOf(position));
+        } else if (segmentOf(position) > oldestIndex) {
+            // One barrier per segment; until it returns the checkpoint stays where records were last durable
+            checkpointDurable(position);
+        }
+    }
+
+    private void checkpointDurable(long position) {
+        try {
+            barrier.await();
+        } catch (RocksDBException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Could not make applied records of write-behind journal " + name + " durable, keeping their segments", e);
+            return;
+        }
+        checkpoint.putLong(0, position);
+        deleteSegmentsBefore(segmentOf(position));
+    }
+
+    // The appender is already past any segment the applied position has left
+    private void deleteSegmentsBefore(long last) {
+        for (; oldestIndex < last; oldestIndex++) {
+            Segment segment = segments.remove(oldestIndex);
+            if (segment == null) continue;
+            try {
+                segment.channel().close();
+                Files.deleteIfExists(segment.path());
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Could not delete applied journal segment " + segment.path(), e);
+            }
+        }
+    }
+
+    // Maps the existing segments and finds the first unapplied record and the end of the journal
+    private void recover() throws IOException {
+        TreeMap<Long, Path> files = new TreeMap<>();
+        String prefix = name + "-";
+        try (Stream<Path> paths = Files.list(directory)) {
+            paths.forEach(path -> {
+                String file = path.getFileName().toString();
+                if (file.startsWith(prefix) && file.endsWith(SUFFIX)) {
+                    try {
+                        files.put(Long.parseLong(file.substring(prefix.length(), file.length() - SUFFIX.length())), path);
+                    } catch (NumberFormatException e) {
+                        LOGGER.log(Level.WARNING, "Ignoring unexpected file in the journal directory: {0}", path);
+                    }
+                }
+            });
+        }
+
+        long applied = checkpoint.getLong(0);
+        if (files.isEmpty()) {
+            applied = 0;
+        } else if (segmentOf(applied) < files.firstKey()) {
+            applied = files.firstKey() * segmentBytes;
+        }
+        for (Long index : files.keySet()) {
+            if (index < segmentOf(applied)) Files.deleteIfExists(files.get(index));
+            else mapSegment(index);
+        }
+
+        long position = applied;
+        long records = 0;
+        while (true) {
+            Segment segment = segments.get(segmentOf(position));
+            if (segment == null) {
+                mapSegment(segmentOf(position));
+                break;
+            }
+            int offset = offsetInSegment(position);
+            int length = segment.buffer().getInt(offset);
+            if (length == END_OF_SEGMENT) {
+                position = nextSegmentStart(position);
+                continue;
+            }
+            if (!isValidRecord(segment.buffer(), offset, length)) break;
+            position += recordBytes(length);
+            records++;
+        }
+
+        discardAfter(position);
+        this.oldestIndex = segmentOf(applied);
+        this.appliedPosition = applied;
+        this.writePosition = position;
+        this.appendedRecords = records;
+        this.currentIndex = segmentOf(position);
+        this.current = segments.get(currentIndex);
+        checkpoint.putLong(0, applied);
+
+        if (records > 0) {
+            LOGGER.log(Level.INFO, "Write-behind journal {0} holds {1} unapplied records", new Object[]{name, records});
+        }
+    }
+
+    private boolean isValidRecord(MappedByteBuffer buffer, int offset, int length) {
+        if (length <= 0 || offset + recordBytes(length) > segmentBytes) return false;
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(offset + HEADER_BYTES, length));
+        return (int) crc.getValue() == buffer.getInt(offset + CRC_OFFSET);
+    }
+
+    // A torn record ends the journal: clear what follows it so a later append never runs into a stale record
+    private void discardAfter(long position) throws IOException {
+        long index = segmentOf(position);
+        MappedByteBuffer buffer = segments.get(index).buffer();
+        int offset = offsetInSegment(position);
+        if (offset < segmentBytes && buffer.getInt(offset) != 0) {
+            LOGGER.log(Level.WARNING, "Write-behind journal {0} ends in a torn record at {1}, discarding the rest", new Object[]{name, position});
+            buffer.put(offset, new byte[segmentBytes - offset]);
+        }
+        for (Long later : List.copyOf(segments.keySet())) {
+            if (later <= index) continue;
+            Segment segment = segments.remove(later);
+            segment.channel().close();
+            Files.deleteIfExists(segment.path());
+        }
+    }
+
+    // Called under this: takes the prepared spare, and maps the segment inline only if it is not ready
+    private Segment nextSegment(long index) throws IOException {
+        Segment next = spare;
+        spare = null;
+        if (next != null && next.path().equals(segmentPath(index))) {
+            segments.put(index, next);
+            return next;
+        }
+        if (next != null) next.channel().close();
+        // The applier may be zero-filling this very file; let it finish rather than fill it twice
+        synchronized (spareLock) {
+            return mapSegment(index);
+        }
+    }
+
+    // Runs on the applier thread, so the zero-fill and the mmap stay off the append path
+    private void prepareSpare() {
+        if (spare != null || offsetInSegment(writePosition) < segmentBytes / 2) return;
+
+        long index;
+        synchronized (this) {
+            if (closed || spare != null) return;
+            index = currentIndex + 1;
+        }
+
+        Segment segment;
+        synchronized (spareLock) {
+            try {
+                segment = openSegment(index);
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Could not prepare the next segment of write-behind journal " + name + ", the appender will map it", e);
+                return;
+            }
+        }
+
+        synchronized (this) {
+            // The appender may have rolled over on its own meanwhile; the file is then already its current segment
+            if (!closed && spare == null && currentIndex + 1 == index) {
+                spare = segment;
+                return;
+            }
+        }
+        try {
+            segment.channel().close();
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, "Error closing unused journal segment " + segment.path(), e);
+        }
+    }
+
+    private Segment mapSegment(long index) throws IOException {
+        Segment segment = openSegment(index);
+        segments.put(index, segment);
+        return segment;
+    }
+
+    private Segment openSegment(long index) throws IOException {
+        Path path = segmentPath(index);
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            preallocate(channel);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            return new Segment(path, channel, buffer);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private Path segmentPath(long index) {
+        return directory.resolve(String.format("%s-%016d%s", name, index, SUFFIX));
+    }
+
+    // Zero-fills the segment through the channel: mapped over a sparse file, a full disk would
+    // surface as SIGBUS on the first write to a page instead of as an IOException here
+    private void preallocate(FileChannel channel) throws IOException {
+        long position = channel.size();
+        if (position >= segmentBytes) return;
+        ByteBuffer zeros = ByteBuffer.allocate(Math.min(ZERO_FILL_BYTES, segmentBytes));
+        while (position < segmentBytes) {
+            zeros.clear().limit((int) Math.min(zeros.capacity(), segmentBytes - position));
+            position += channel.write(zeros, position);
+        }
+    }
+
+    private static int checksum(byte[] record) {
+        CRC32C crc = new CRC32C();
+        crc.update(record);
+        return (int) crc.getValue();
+    }
+
+    private static int recordBytes(int length) {
+        return (HEADER_BYTES + length + 3) & ~3;
+    }
+
+    private long segmentOf(long position) {
+        return position / segmentBytes;
+    }
+
+    private int offsetInSegment(long position) {
+        return (int) (position % segmentBytes);
+    }
+
+    private long nextSegmentStart(long position) {
+        return (segmentOf(position) + 1) * segmentBytes;
+    }
+}
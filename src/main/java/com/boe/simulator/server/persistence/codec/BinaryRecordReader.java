@@ -0,0 +1,113 @@
+package com.boe.simulator.server.persistence.codec;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+import com.boe.simulator.protocol.types.BinaryPrice;
+
+/**
+ * Reads a record written by {@link BinaryRecordWriter}, in the same field order. Reading past
+ * the record's field count returns the field's default (0, null or NO_PRICE), so a reader can
+ * be newer than the record; fields a newer writer appended are simply not read.
+ */
+public final class BinaryRecordReader {
+
+    private static final long[] POWERS_OF_TEN = new long[15];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+    }
+
+    private final byte[] record;
+    private int position;
+    private final int version;
+    private int remainingFields;
+
+    public BinaryRecordReader(byte[] record, byte expectedType) {
+        if (RecordFormat.of(record) != RecordFormat.BINARY) throw new IllegalArgumentException("Not a binary record");
+        if (record.length < 2 || record[1] != expectedType) {
+            throw new IllegalArgumentException("Expected record type " + (char) expectedType + " but found " + (record.length < 2 ? "none" : (char) record[1]));
+        }
+        this.record = record;
+        this.position = 2;
+        this.version = (int) readUnsignedVarLong();
+        this.remainingFields = (int) readUnsignedVarLong();
+    }
+
+    public int version() {
+        return version;
+    }
+
+    public byte readByte() {
+        if (!nextField()) return 0;
+        require(1);
+        return record[position++];
+    }
+
+    public int readVarInt() {
+        return (int) readVarLong();
+    }
+
+    public long readVarLong() {
+        if (!nextField()) return 0;
+        long zigzag = readUnsignedVarLong();
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+
+    public String readString() {
+        if (!nextField()) return null;
+        long length = readUnsignedVarLong();
+        if (length == 0) return null;
+        int bytes = (int) (length - 1);
+        require(bytes);
+        String value = new String(record, position, bytes, StandardCharsets.UTF_8);
+        position += bytes;
+        return value;
+    }
+
+    public long readTickPrice() {
+        if (!nextField()) return BinaryPrice.NO_PRICE;
+        long encoded = readUnsignedVarLong();
+        if (encoded == 0) return BinaryPrice.NO_PRICE;
+        encoded--;
+        int zeros = (int) (encoded & 0xF);
+        if (zeros == 15) {
+            long zigzag = readUnsignedVarLong();
+            return (zigzag >>> 1) ^ -(zigzag & 1);
+        }
+        long zigzag = encoded >>> 4;
+        return ((zigzag >>> 1) ^ -(zigzag & 1)) * POWERS_OF_TEN[zeros];
+    }
+
+    public Instant readEpochNanos() {
+        if (!nextField()) return null;
+        require(1);
+        if (record[position++] == 0) return null;
+        require(8);
+        long nanos = 0;
+        for (int i = 0; i < 8; i++) nanos |= (record[position++] & 0xFFL) << (8 * i);
+        return Instant.ofEpochSecond(Math.floorDiv(nanos, 1_000_000_000L), Math.floorMod(nanos, 1_000_000_000L));
+    }
+
+    private boolean nextField() {
+        if (remainingFields == 0) return false;
+        remainingFields--;
+        return true;
+    }
+
+    private long readUnsignedVarLong() {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            require(1);
+            byte b = record[position++];
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) return value;
+        }
+        throw new IllegalArgumentException("Malformed varint at offset " + position);
+    }
+
+    private void require(int bytes) {
+        if (position + bytes > record.length) throw new IllegalArgumentException("Truncated record at offset " + position);
+    }
+}
@@ -0,0 +1,139 @@
+package com.boe.simulator.server.persistence.codec;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+
+import com.boe.simulator.protocol.types.BinaryPrice;
+
+/**
+ * Writes one record in the compact binary layout:
+ *
+ * <pre>
+ *   magic 0xB1 | record type | version (varint) | field count (varint) | fields...
+ * </pre>
+ *
+ * Fields carry no names or tags; their order is the schema. A schema evolves by appending
+ * fields and bumping the version, and the field count lets {@link BinaryRecordReader} default
+ * fields an older record lacks and skip ones a newer writer added.
+ *
+ * Integers are zig-zag varints, strings a varint length (0 for null) and UTF-8, prices
+ * {@linkplain #writeTickPrice ticks} and instants fixed 8-byte epoch nanos.
+ */
+public final class BinaryRecordWriter {
+
+    private byte[] buffer = new byte[128];
+    private int position;
+    private int fieldCount;
+    private final byte recordType;
+    private final int version;
+
+    public BinaryRecordWriter(byte recordType, int version) {
+        this.recordType = recordType;
+        this.version = version;
+    }
+
+    public BinaryRecordWriter writeByte(byte value) {
+        ensure(1);
+        buffer[position++] = value;
+        fieldCount++;
+        return this;
+    }
+
+    public BinaryRecordWriter writeVarInt(int value) {
+        return writeVarLong(value);
+    }
+
+    public BinaryRecordWriter writeVarLong(long value) {
+        putUnsignedVarLong((value << 1) ^ (value >> 63));
+        fieldCount++;
+        return this;
+    }
+
+    public BinaryRecordWriter writeString(String value) {
+        if (value == null) {
+            putUnsignedVarLong(0);
+        } else {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            putUnsignedVarLong(bytes.length + 1L);
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+        fieldCount++;
+        return this;
+    }
+
+    /**
+     * A raw {@link BinaryPrice} as its significant digits and a count of trailing decimal zeros
+     * (low 4 bits), so whole-cent prices take two or three bytes. 0 encodes NO_PRICE; 15 in the
+     * low bits escapes to the full value.
+     */
+    public BinaryRecordWriter writeTickPrice(long raw) {
+        if (raw == BinaryPrice.NO_PRICE) {
+            putUnsignedVarLong(0);
+        } else {
+            long digits = raw;
+            int zeros = 0;
+            while (zeros < 14 && digits != 0 && digits % 10 == 0) {
+                digits /= 10;
+                zeros++;
+            }
+            long zigzag = (digits << 1) ^ (digits >> 63);
+            if (zigzag >>> 59 == 0) {
+                putUnsignedVarLong(((zigzag << 4) | zeros) + 1);
+            } else {
+                putUnsignedVarLong(15 + 1);
+                putUnsignedVarLong((raw << 1) ^ (raw >> 63));
+            }
+        }
+        fieldCount++;
+        return this;
+    }
+
+    /** Nanoseconds since the epoch, little-endian, or a single 0 byte for null. */
+    public BinaryRecordWriter writeEpochNanos(Instant value) {
+        if (value == null) {
+            ensure(1);
+            buffer[position++] = 0;
+        } else {
+            long nanos = Math.addExact(Math.multiplyExact(value.getEpochSecond(), 1_000_000_000L), value.getNano());
+            ensure(9);
+            buffer[position++] = 1;
+            for (int i = 0; i < 8; i++) buffer[position++] = (byte) (nanos >>> (8 * i));
+        }
+        fieldCount++;
+        return this;
+    }
+
+    public byte[] toByteArray() {
+        byte[] header = new byte[2 + 10 + 10];
+        header[0] = RecordFormat.BINARY_MAGIC;
+        header[1] = recordType;
+        int headerLength = putUnsignedVarLong(header, 2, version);
+        headerLength = putUnsignedVarLong(header, headerLength, fieldCount);
+
+        byte[] record = new byte[headerLength + position];
+        System.arraycopy(header, 0, record, 0, headerLength);
+        System.arraycopy(buffer, 0, record, headerLength, position);
+        return record;
+    }
+
+    private void putUnsignedVarLong(long value) {
+        ensure(10);
+        position = putUnsignedVarLong(buffer, position, value);
+    }
+
+    private static int putUnsignedVarLong(byte[] target, int offset, long value) {
+        while ((value & ~0x7FL) != 0) {
+            target[offset++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        target[offset++] = (byte) value;
+        return offset;
+    }
+
+    private void ensure(int bytes) {
+        if (position + bytes > buffer.length) buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + bytes));
+    }
+}
@@ -0,0 +1,16 @@
+package com.boe.simulator.server.persistence.codec;
+
+/**
+ * How a column family's records are written. Readers accept both: a binary record starts with
+ * {@link #BINARY_MAGIC}, which no JSON document does.
+ */
+public enum RecordFormat {
+    JSON,
+    BINARY;
+
+    static final byte BINARY_MAGIC = (byte) 0xB1;
+
+    public static RecordFormat of(byte[] record) {
+        return record.length > 0 && record[0] == BINARY_MAGIC ? BINARY : JSON;
+    }
+}
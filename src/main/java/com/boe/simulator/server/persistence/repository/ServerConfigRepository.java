@@ -1,5 +1,6 @@
 package com.boe.simulator.server.persistence.repository;
 
+import com.boe.simulator.server.persistence.KeyRange;
 import com.boe.simulator.server.persistence.RocksDBManager;
 import com.boe.simulator.server.persistence.config.ConfigVersion;
 import com.boe.simulator.server.persistence.config.PersistedServerConfig;
@@ -12,6 +13,7 @@ import java.util.Optional;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Stream;
 
 public class ServerConfigRepository {
     private static final Logger LOGGER = Logger.getLogger(ServerConfigRepository.class.getName());
@@ -114,18 +116,9 @@ public class ServerConfigRepository {
     public List<ConfigVersion> listVersions() {
         try {
             List<ConfigVersion> versions = new ArrayList<>();
-            Map<byte[], byte[]> allData = dbManager.getAll(RocksDBManager.CF_CONFIG);
-
-            for (Map.Entry<byte[], byte[]> entry : allData.entrySet()) {
-                String key = new String(entry.getKey());
-
-                if (key.startsWith(VERSION_PREFIX)) {
-                    PersistedServerConfig config = serializer.deserialize(
-                            entry.getValue(),
-                            PersistedServerConfig.class
-                    );
-                    versions.add(config.version());
-                }
+            try (Stream<Map.Entry<byte[], byte[]>> entries = dbManager.scan(RocksDBManager.CF_CONFIG, KeyRange.prefix(VERSION_PREFIX))) {
+                entries.forEach(entry -> versions.add(
+                        serializer.deserialize(entry.getValue(), PersistedServerConfig.class).version()));
             }
 
             versions.sort((v1, v2) -> Integer.compare(v2.version(), v1.version()));
@@ -1,5 +1,6 @@
 package com.boe.simulator.server.persistence.service;
 
+import com.boe.simulator.server.persistence.KeyRange;
 import com.boe.simulator.server.persistence.RocksDBManager;
 import com.boe.simulator.server.persistence.model.AuditEvent;
 import com.boe.simulator.server.persistence.repository.AuditRepository;
@@ -10,6 +11,7 @@ import java.util.*;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class AuditRepositoryService implements AuditRepository {
     private static final Logger LOGGER = Logger.getLogger(AuditRepositoryService.class.getName());
@@ -85,22 +87,16 @@ public class AuditRepositoryService implements AuditRepository {
     public List<AuditEvent> findAll() {
         try {
             List<AuditEvent> events = new ArrayList<>();
-            List<byte[]> keys = dbManager.getKeysWithPrefix(
-                    RocksDBManager.CF_AUDIT,
-                    "audit:".getBytes());
-
-            for (byte[] key : keys) {
-                String keyStr = new String(key);
-                // Only get main audit records, not indexes
-                if (keyStr.startsWith("audit:") && !keyStr.contains("-type:") &&
-                        !keyStr.contains("-user:") && !keyStr.contains("-severity:") &&
-                        !keyStr.contains("-date:")) {
-                    byte[] data = dbManager.get(RocksDBManager.CF_AUDIT, key);
-                    if (data != null) {
-                        AuditEvent event = serializer.deserialize(data, AuditEvent.class);
-                        events.add(event);
+            try (Stream<Map.Entry<byte[], byte[]>> entries = dbManager.scan(RocksDBManager.CF_AUDIT, KeyRange.prefix("audit:"))) {
+                entries.forEach(entry -> {
+                    String keyStr = new String(entry.getKey());
+                    // Only get main audit records, not indexes
+                    if (keyStr.startsWith("audit:") && !keyStr.contains("-type:") &&
+                            !keyStr.contains("-user:") && !keyStr.contains("-severity:") &&
+                            !keyStr.contains("-date:")) {
+                        events.add(serializer.deserialize(entry.getValue(), AuditEvent.class));
                     }
-                }
+                });
             }
 
             return events;
@@ -293,17 +289,8 @@ public class AuditRepositoryService implements AuditRepository {
 
     private List<AuditEvent> findByIndexPrefix(String prefix) throws Exception {
         List<AuditEvent> events = new ArrayList<>();
-        List<byte[]> indexKeys = dbManager.getKeysWithPrefix(
-                RocksDBManager.CF_AUDIT,
-                prefix.getBytes());
-
-        for (byte[] indexKey : indexKeys) {
-            byte[] eventIdBytes = dbManager.get(RocksDBManager.CF_AUDIT, indexKey);
-            if (eventIdBytes != null) {
-                String eventId = new String(eventIdBytes);
-                Optional<AuditEvent> eventOpt = findById(eventId);
-                eventOpt.ifPresent(events::add);
-            }
+        try (Stream<Map.Entry<byte[], byte[]>> index = dbManager.scan(RocksDBManager.CF_AUDIT, KeyRange.prefix(prefix))) {
+            index.forEach(entry -> findById(new String(entry.getValue())).ifPresent(events::add));
         }
 
         return events.stream()
@@ -1,5 +1,6 @@
 package com.boe.simulator.server.persistence.service;
 
+import com.boe.simulator.server.persistence.KeyRange;
 import com.boe.simulator.server.persistence.RocksDBManager;
 import com.boe.simulator.server.persistence.model.PersistedMessage;
 import com.boe.simulator.server.persistence.repository.MessageRepository;
@@ -10,6 +11,7 @@ import java.util.*;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class MessageRepositoryService implements MessageRepository {
     private static final Logger LOGGER = Logger.getLogger(MessageRepositoryService.class.getName());
@@ -84,20 +86,10 @@ public class MessageRepositoryService implements MessageRepository {
     @Override
     public List<PersistedMessage> findAll() {
         try {
-            List<PersistedMessage> messages = new ArrayList<>();
-            List<byte[]> keys = dbManager.getKeysWithPrefix(
-                    RocksDBManager.CF_MESSAGES,
-                    "msg:".getBytes());
-
-            for (byte[] key : keys) {
-                byte[] data = dbManager.get(RocksDBManager.CF_MESSAGES, key);
-                if (data != null) {
-                    PersistedMessage message = serializer.deserialize(data, PersistedMessage.class);
-                    messages.add(message);
-                }
+            try (Stream<Map.Entry<byte[], byte[]>> entries = dbManager.scan(RocksDBManager.CF_MESSAGES, KeyRange.prefix("msg:"))) {
+                return entries.map(entry -> serializer.deserialize(entry.getValue(), PersistedMessage.class))
+                        .collect(Collectors.toList());
             }
-
-            return messages;
         } catch (Exception e) {
             LOGGER.log(Level.SEVERE, "Failed to find all messages", e);
             return new ArrayList<>();
@@ -286,17 +278,8 @@ public class MessageRepositoryService implements MessageRepository {
 
     private List<PersistedMessage> findByIndexPrefix(String prefix) throws Exception {
         List<PersistedMessage> messages = new ArrayList<>();
-        List<byte[]> indexKeys = dbManager.getKeysWithPrefix(
-                RocksDBManager.CF_MESSAGES,
-                prefix.getBytes());
-
-        for (byte[] indexKey : indexKeys) {
-            byte[] messageIdBytes = dbManager.get(RocksDBManager.CF_MESSAGES, indexKey);
-            if (messageIdBytes != null) {
-                String messageId = new String(messageIdBytes);
-                Optional<PersistedMessage> messageOpt = findById(messageId);
-                messageOpt.ifPresent(messages::add);
-            }
+        try (Stream<Map.Entry<byte[], byte[]>> index = dbManager.scan(RocksDBManager.CF_MESSAGES, KeyRange.prefix(prefix))) {
+            index.forEach(entry -> findById(new String(entry.getValue())).ifPresent(messages::add));
         }
 
         return messages.stream()
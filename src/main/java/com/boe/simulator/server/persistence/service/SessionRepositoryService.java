@@ -8,9 +8,12 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.rocksdb.RocksDBException;
 
+import com.boe.simulator.server.persistence.KeyRange;
 import com.boe.simulator.server.persistence.RocksDBManager;
 import com.boe.simulator.server.persistence.model.PersistedSession;
 import com.boe.simulator.server.persistence.repository.SessionRepository;
@@ -57,24 +60,15 @@ public class SessionRepositoryService implements SessionRepository {
     @Override
     public List<PersistedSession> findByUsername(String username) {
         try {
-            String prefix = "session:";
-            List<byte[]> keys = dbManager.getKeysWithPrefix(RocksDBManager.CF_SESSIONS, prefix.getBytes());
-            
             List<PersistedSession> sessions = new ArrayList<>();
-            for (byte[] keyBytes : keys) {
-                String key = new String(keyBytes);
-                if (key.contains(":" + username + ":")) {
-                    byte[] data = dbManager.get(RocksDBManager.CF_SESSIONS, keyBytes);
-                    if (data != null) {
-                        PersistedSession session = serializer.deserialize(data, PersistedSession.class);
-                        sessions.add(session);
-                    }
-                }
+            try (Stream<Map.Entry<byte[], byte[]>> entries = dbManager.scan(RocksDBManager.CF_SESSIONS, KeyRange.prefix("session:"))) {
+                entries.filter(entry -> new String(entry.getKey()).contains(":" + username + ":"))
+                        .forEach(entry -> sessions.add(serializer.deserialize(entry.getValue(), PersistedSession.class)));
             }
             
             LOGGER.log(Level.FINE, "Found {0} sessions for user: {1}", new Object[]{sessions.size(), username});
             return sessions;
-        } catch (RocksDBException e) {
+        } catch (RuntimeException e) {
             LOGGER.log(Level.SEVERE, "Failed to find sessions for user: " + username, e);
             return new ArrayList<>();
         }
@@ -152,22 +146,11 @@ public class SessionRepositoryService implements SessionRepository {
     public List<PersistedSession> findByDate(LocalDate date) {
         try {
             String datePrefix = "session:" + date.toString();
-            List<byte[]> keys = dbManager.getKeysWithPrefix(
-                    RocksDBManager.CF_SESSIONS,
-                    datePrefix.getBytes()
-            );
-            
-            List<PersistedSession> sessions = new ArrayList<>();
-            for (byte[] keyBytes : keys) {
-                byte[] data = dbManager.get(RocksDBManager.CF_SESSIONS, keyBytes);
-                if (data != null) {
-                    PersistedSession session = serializer.deserialize(data, PersistedSession.class);
-                    sessions.add(session);
-                }
+            try (Stream<Map.Entry<byte[], byte[]>> entries = dbManager.scan(RocksDBManager.CF_SESSIONS, KeyRange.prefix(datePrefix))) {
+                return entries.map(entry -> serializer.deserialize(entry.getValue(), PersistedSession.class))
+                        .collect(Collectors.toCollection(ArrayList::new));
             }
-            
-            return sessions;
-        } catch (RocksDBException e) {
+        } catch (RuntimeException e) {
             LOGGER.log(Level.SEVERE, "Failed to find sessions by date: " + date, e);
             return new ArrayList<>();
         }
@@ -232,16 +215,11 @@ public class SessionRepositoryService implements SessionRepository {
 
     private List<PersistedSession> findAll() {
         try {
-            List<PersistedSession> sessions = new ArrayList<>();
-            Map<byte[], byte[]> allData = dbManager.getAll(RocksDBManager.CF_SESSIONS);
-            
-            for (byte[] data : allData.values()) {
-                PersistedSession session = serializer.deserialize(data, PersistedSession.class);
-                sessions.add(session);
+            try (Stream<Map.Entry<byte[], byte[]>> entries = dbManager.scan(RocksDBManager.CF_SESSIONS, KeyRange.all())) {
+                return entries.map(entry -> serializer.deserialize(entry.getValue(), PersistedSession.class))
+                        .collect(Collectors.toCollection(ArrayList::new));
             }
-            
-            return sessions;
-        } catch (RocksDBException e) {
+        } catch (RuntimeException e) {
             LOGGER.log(Level.SEVERE, "Failed to find all sessions", e);
             return new ArrayList<>();
         }
@@ -4,12 +4,15 @@ import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Stream;
 
 import org.rocksdb.RocksDBException;
 
+import com.boe.simulator.server.persistence.KeyRange;
 import com.boe.simulator.server.persistence.RocksDBManager;
 import com.boe.simulator.server.persistence.model.PersistedStatistics;
 import com.boe.simulator.server.persistence.repository.StatisticsRepository;
@@ -73,22 +76,12 @@ public class StatisticsRepositoryService implements StatisticsRepository {
     @Override
     public List<PersistedStatistics> findAll() {
         try {
-            List<PersistedStatistics> statistics = new ArrayList<>();
-            String prefix = "stats:";
-            List<byte[]> keys = dbManager.getKeysWithPrefix(RocksDBManager.CF_CONFIG, prefix.getBytes());
-            
-            for (byte[] keyBytes : keys) {
-                byte[] data = dbManager.get(RocksDBManager.CF_CONFIG, keyBytes);
-                if (data != null) {
-                    PersistedStatistics stats = serializer.deserialize(data, PersistedStatistics.class);
-                    statistics.add(stats);
-                }
+            try (Stream<Map.Entry<byte[], byte[]>> entries = dbManager.scan(RocksDBManager.CF_CONFIG, KeyRange.prefix("stats:"))) {
+                return entries.map(entry -> serializer.deserialize(entry.getValue(), PersistedStatistics.class))
+                        .sorted(Comparator.comparing(PersistedStatistics::date))
+                        .toList();
             }
-            
-            return statistics.stream()
-                    .sorted(Comparator.comparing(PersistedStatistics::date))
-                    .toList();
-        } catch (RocksDBException e) {
+        } catch (RuntimeException e) {
             LOGGER.log(Level.SEVERE, "Failed to find all statistics", e);
             return new ArrayList<>();
         }
@@ -1,5 +1,6 @@
 package com.boe.simulator.server.persistence.service;
 
+import com.boe.simulator.server.persistence.KeyRange;
 import com.boe.simulator.server.persistence.RocksDBManager;
 import com.boe.simulator.server.persistence.model.PersistedUser;
 import com.boe.simulator.server.persistence.repository.UserRepository;
@@ -11,6 +12,8 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class UserRepositoryService implements UserRepository {
     private static final Logger LOGGER = Logger.getLogger(UserRepositoryService.class.getName());
@@ -53,12 +56,10 @@ public class UserRepositoryService implements UserRepository {
     @Override
     public List<PersistedUser> findAll() {
         try {
-            List<PersistedUser> users = new ArrayList<>();
-            Map<byte[], byte[]> allData = dbManager.getAll(RocksDBManager.CF_USERS);
-
-            for (byte[] data : allData.values()) {
-                PersistedUser user = serializer.deserialize(data, PersistedUser.class);
-                users.add(user);
+            List<PersistedUser> users;
+            try (Stream<Map.Entry<byte[], byte[]>> entries = dbManager.scan(RocksDBManager.CF_USERS, KeyRange.all())) {
+                users = entries.map(entry -> serializer.deserialize(entry.getValue(), PersistedUser.class))
+                        .collect(Collectors.toCollection(ArrayList::new));
             }
 
             LOGGER.fine("Found " + users.size() + " users");
@@ -0,0 +1,133 @@
+package com.boe.simulator.server.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Gateway-side load shedding. Watches three signals: orders inside or queued for the matching
+ * engine, orders and trades waiting in the write-behind queues, and a moving average of
+ * NewOrder → ack latency. The worst of them sets the level:
+ *
+ * <ul>
+ *   <li>{@link LoadLevel#ELEVATED}: new connections are turned away, and NewOrder and ModifyOrder
+ *       cost double against their rate budgets;</li>
+ *   <li>{@link LoadLevel#CRITICAL} (twice the elevated thresholds): NewOrders are also rejected
+ *       up front as "system busy". Cancels still go through, since they only shrink the load.</li>
+ * </ul>
+ *
+ * Signals are sampled at most every {@link #SAMPLE_NANOS} by whichever caller finds the sample
+ * stale, so the per-message check is a volatile read. The level rises on the first sample over
+ * a threshold but falls only after {@link #COOL_DOWN_NANOS} of quieter samples.
+ */
+public class OverloadController {
+    private static final Logger LOGGER = Logger.getLogger(OverloadController.class.getName());
+
+    static final long SAMPLE_NANOS = 10_000_000L;      // 10ms
+    static final long COOL_DOWN_NANOS = 1_000_000_000L; // 1s
+    private static final int LATENCY_WEIGHT_SHIFT = 4;  // EWMA, 1/16 per sample
+
+    public enum LoadLevel { NORMAL, ELEVATED, CRITICAL }
+
+    /** Elevated thresholds; critical is twice each. */
+    public record Thresholds(int matchingQueueDepth, int persistenceBacklog, long ackLatencyMicros) {
+        public Thresholds {
+            if (matchingQueueDepth < 1) throw new IllegalArgumentException("Matching queue threshold must be at least 1");
+            if (persistenceBacklog < 1) throw new IllegalArgumentException("Persistence backlog threshold must be at least 1");
+            if (ackLatencyMicros < 1) throw new IllegalArgumentException("Ack latency threshold must be at least 1us");
+        }
+    }
+
+    private final Thresholds thresholds;
+    private final IntSupplier matchingQueueDepth;
+    private final IntSupplier persistenceBacklog;
+    private final LongSupplier clock;
+
+    private final AtomicLong ackLatencyNanos = new AtomicLong(); // EWMA
+    private final AtomicLong nextSampleAt;
+    private volatile LoadLevel level = LoadLevel.NORMAL;
+    private long quietSince;         // sampling caller only
+    private long lastSampledLatency; // sampling caller only
+
+    public OverloadController(Thresholds thresholds, IntSupplier matchingQueueDepth, IntSupplier persistenceBacklog) {
+        this(thresholds, matchingQueueDepth, persistenceBacklog, System::nanoTime);
+    }
+
+    OverloadController(Thresholds thresholds, IntSupplier matchingQueueDepth, IntSupplier persistenceBacklog, LongSupplier clock) {
+        this.thresholds = thresholds;
+        this.matchingQueueDepth = matchingQueueDepth;
+        this.persistenceBacklog = persistenceBacklog;
+        this.clock = clock;
+        this.nextSampleAt = new AtomicLong(clock.getAsLong());
+    }
+
+    /** Accepted NewOrder, from receipt to the ack being ready. */
+    public void recordAckLatency(long nanos) {
+        long current = ackLatencyNanos.get();
+        // Lost updates under contention only drop samples from the average
+        ackLatencyNanos.lazySet(current + ((nanos - current) >> LATENCY_WEIGHT_SHIFT));
+    }
+
+    public LoadLevel level() {
+        long now = clock.getAsLong();
+        long due = nextSampleAt.get();
+        if (now - due >= 0 && nextSampleAt.compareAndSet(due, now + SAMPLE_NANOS)) sample(now);
+        return level;
+    }
+
+    public boolean shouldShedConnections() {
+        return level() != LoadLevel.NORMAL;
+    }
+
+    public boolean shouldRejectNewOrders() {
+        return level() == LoadLevel.CRITICAL;
+    }
+
+    /** Tokens a NewOrder or ModifyOrder costs against its rate budgets at the current level. */
+    public int orderEntryCost() {
+        return level() == LoadLevel.NORMAL ? 1 : 2;
+    }
+
+    public long getAckLatencyMicros() {
+        return ackLatencyNanos.get() / 1_000;
+    }
+
+    private void sample(long now) {
+        int depth = matchingQueueDepth.getAsInt();
+        int backlog = persistenceBacklog.getAsInt();
+        long latencyMicros = getAckLatencyMicros();
+        decayIdleLatency();
+
+        LoadLevel measured = LoadLevel.values()[Math.max(grade(depth, thresholds.matchingQueueDepth()),
+                Math.max(grade(backlog, thresholds.persistenceBacklog()), grade(latencyMicros, thresholds.ackLatencyMicros())))];
+
+        LoadLevel current = level;
+        if (measured.compareTo(current) >= 0) {
+            quietSince = now;
+            if (measured != current) {
+                level = measured;
+                LOGGER.log(Level.WARNING, "Overload level {0} (matching queue: {1}, persistence backlog: {2}, ack latency: {3}us)",
+                        new Object[]{measured, depth, backlog, latencyMicros});
+            }
+        } else if (now - quietSince >= COOL_DOWN_NANOS) {
+            level = LoadLevel.values()[current.ordinal() - 1]; // step down one level at a time
+            quietSince = now;
+            LOGGER.log(Level.INFO, "Overload level {0}", level);
+        }
+    }
+
+    // With new orders shed, nothing refreshes the average; halve it so CRITICAL can clear
+    private void decayIdleLatency() {
+        long latency = ackLatencyNanos.get();
+        if (latency == lastSampledLatency) ackLatencyNanos.compareAndSet(latency, latency / 2);
+        lastSampledLatency = ackLatencyNanos.get();
+    }
+
+    private static int grade(long value, long elevated) {
+        if (value >= elevated * 2) return LoadLevel.CRITICAL.ordinal();
+        if (value >= elevated) return LoadLevel.ELEVATED.ordinal();
+        return LoadLevel.NORMAL.ordinal();
+    }
+}
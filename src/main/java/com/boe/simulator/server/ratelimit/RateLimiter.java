@@ -1,68 +1,166 @@
 package com.boe.simulator.server.ratelimit;
 
 import java.time.Duration;
-import java.time.Instant;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import com.boe.simulator.protocol.message.BoeMessageFactory;
+
+/**
+ * Layered message budgets: every message draws from its connection's bucket, order entry also
+ * from the connection's bucket for that message type, and logged-in traffic from a bucket
+ * shared by all sessions of the same user. A message is admitted only if every applicable
+ * budget has a token; tokens already taken are handed back when a later budget refuses.
+ * With an {@link OverloadController} attached, NewOrder and ModifyOrder cost more tokens while
+ * the server is overloaded, which tightens every budget at once.
+ */
 public class RateLimiter {
     private static final Logger LOGGER = Logger.getLogger(RateLimiter.class.getName());
-    
-    private final ConcurrentHashMap<Integer, ConnectionRateLimit> limits;
-    private final int maxMessagesPerWindow;
-    private final Duration windowDuration;
-    
+
+    private static final int NEW_ORDER = 0;
+    private static final int CANCEL_ORDER = 1;
+    private static final int MODIFY_ORDER = 2;
+    private static final int ORDER_TYPES = 3;
+
+    private final ConcurrentHashMap<Integer, ConnectionBudget> limits;
+    private final ConcurrentHashMap<String, TokenBucket> userLimits;
+    private final Budget connectionBudget;
+    private final Budget userBudget;
+    private final Budget[] typeBudgets;
+    private final LongSupplier clock;
+    private volatile OverloadController overloadController;
+
+    /** A budget of {@code messages} per {@code window}. */
+    public record Budget(int messages, Duration window) {
+        public Budget {
+            if (messages < 1) throw new IllegalArgumentException("Budget must allow at least 1 message");
+            if (window == null || window.isNegative()) throw new IllegalArgumentException("Budget window must not be negative");
+        }
+
+        TokenBucket newBucket(long nowNanos) {
+            return new TokenBucket(messages, window, nowNanos);
+        }
+    }
+
     public RateLimiter(int maxMessagesPerWindow, Duration windowDuration) {
+        this(builder().perConnection(maxMessagesPerWindow, windowDuration));
+    }
+
+    private RateLimiter(Builder builder) {
         this.limits = new ConcurrentHashMap<>();
-        this.maxMessagesPerWindow = maxMessagesPerWindow;
-        this.windowDuration = windowDuration;
+        this.userLimits = new ConcurrentHashMap<>();
+        this.connectionBudget = builder.connectionBudget;
+        this.userBudget = builder.userBudget;
+        this.typeBudgets = builder.typeBudgets.clone();
+        this.clock = builder.clock;
     }
 
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /** Connection budget only; used before a session has logged in. */
     public boolean allowMessage(int connectionId) {
-        ConnectionRateLimit limit = limits.computeIfAbsent(
-            connectionId, 
-            k -> new ConnectionRateLimit(maxMessagesPerWindow, windowDuration)
-        );
-        
-        boolean allowed = limit.tryAcquire();
-        
-        if (!allowed) LOGGER.log(Level.WARNING, "[Session {0}] Rate limit exceeded - message rejected", connectionId);
-        
-        return allowed;
+        return allowMessage(connectionId, null, (byte) 0);
+    }
+
+    public boolean allowMessage(int connectionId, String username, byte messageType) {
+        long now = clock.getAsLong();
+        ConnectionBudget budget = limits.computeIfAbsent(connectionId, k -> new ConnectionBudget(now));
+
+        int type = orderType(messageType);
+        OverloadController overload = overloadController;
+        int cost = (type == NEW_ORDER || type == MODIFY_ORDER) && overload != null ? overload.orderEntryCost() : 1;
+
+        TokenBucket typeBucket = type < 0 ? null : budget.byType[type];
+        if (typeBucket != null && !typeBucket.tryAcquire(now, cost)) {
+            return reject(connectionId, "message type");
+        }
+
+        if (budget.connection != null && !budget.connection.tryAcquire(now, cost)) {
+            if (typeBucket != null) typeBucket.release(cost);
+            return reject(connectionId, "connection");
+        }
+
+        if (userBudget != null && username != null) {
+            TokenBucket userBucket = userLimits.computeIfAbsent(username, k -> userBudget.newBucket(now));
+            if (!userBucket.tryAcquire(now, cost)) {
+                if (typeBucket != null) typeBucket.release(cost);
+                if (budget.connection != null) budget.connection.release(cost);
+                return reject(connectionId, "user " + username);
+            }
+        }
+        return true;
+    }
+
+    public void setOverloadController(OverloadController overloadController) {
+        this.overloadController = overloadController;
     }
 
     public void clearConnection(int connectionId) {
         limits.remove(connectionId);
     }
 
-    private static class ConnectionRateLimit {
-        private final int maxMessages;
-        private final Duration window;
-        private int messageCount;
-        private Instant windowStart;
-        
-        ConnectionRateLimit(int maxMessages, Duration window) {
-            this.maxMessages = maxMessages;
-            this.window = window;
-            this.messageCount = 0;
-            this.windowStart = Instant.now();
-        }
-        
-        synchronized boolean tryAcquire() {
-            Instant now = Instant.now();
-            
-            // Reset window if expired
-            if (Duration.between(windowStart, now).compareTo(window) > 0) {
-                messageCount = 0;
-                windowStart = now;
+    private static boolean reject(int connectionId, String budget) {
+        LOGGER.log(Level.WARNING, "[Session {0}] Rate limit exceeded ({1}) - message rejected", new Object[]{connectionId, budget});
+        return false;
+    }
+
+    private static int orderType(byte messageType) {
+        return switch (messageType) {
+            case BoeMessageFactory.NEW_ORDER -> NEW_ORDER;
+            case BoeMessageFactory.CANCEL_ORDER -> CANCEL_ORDER;
+            case BoeMessageFactory.MODIFY_ORDER -> MODIFY_ORDER;
+            default -> -1;
+        };
+    }
+
+    private final class ConnectionBudget {
+        private final TokenBucket connection;
+        private final TokenBucket[] byType = new TokenBucket[ORDER_TYPES];
+
+        ConnectionBudget(long nowNanos) {
+            this.connection = connectionBudget == null ? null : connectionBudget.newBucket(nowNanos);
+            for (int i = 0; i < ORDER_TYPES; i++) {
+                if (typeBudgets[i] != null) byType[i] = typeBudgets[i].newBucket(nowNanos);
             }
-            
-            // Check limit
-            if (messageCount >= maxMessages) return false;
-        
-            messageCount++;
-            return true;
+        }
+    }
+
+    public static class Builder {
+        private Budget connectionBudget;
+        private Budget userBudget;
+        private final Budget[] typeBudgets = new Budget[ORDER_TYPES];
+        private LongSupplier clock = System::nanoTime;
+
+        public Builder perConnection(int messages, Duration window) {
+            this.connectionBudget = new Budget(messages, window);
+            return this;
+        }
+
+        /** Shared by every session logged in as the same user. */
+        public Builder perUser(int messages, Duration window) {
+            this.userBudget = new Budget(messages, window);
+            return this;
+        }
+
+        /** Per connection, for NewOrder, CancelOrder or ModifyOrder. */
+        public Builder perMessageType(byte messageType, int messages, Duration window) {
+            int type = orderType(messageType);
+            if (type < 0) throw new IllegalArgumentException("Per-type budgets apply to NewOrder, CancelOrder and ModifyOrder only");
+            this.typeBudgets[type] = new Budget(messages, window);
+            return this;
+        }
+
+        Builder clock(LongSupplier nanoClock) {
+            this.clock = nanoClock;
+            return this;
+        }
+
+        public RateLimiter build() {
+            return new RateLimiter(this);
         }
     }
 }
@@ -0,0 +1,48 @@
+package com.boe.simulator.server.ratelimit;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket holding {@code capacity} tokens that refill evenly over {@code window}.
+ *
+ * The token count and the last refill time are packed into one long: the instant, in
+ * {@link System#nanoTime} units, at which the bucket will be full again. Tokens available at
+ * {@code now} are {@code (now + capacity * interval - fullAt) / interval}, so taking a token is a
+ * single CAS that pushes {@code fullAt} forward by one interval. A rejection only reads.
+ */
+final class TokenBucket {
+
+    private final long intervalNanos; // time to earn one token; 0 means unlimited
+    private final long burstNanos;    // capacity * interval
+    private final AtomicLong fullAt;
+
+    TokenBucket(int capacity, Duration window, long nowNanos) {
+        if (capacity < 1) throw new IllegalArgumentException("Capacity must be at least 1");
+
+        this.intervalNanos = window.toNanos() / capacity;
+        this.burstNanos = intervalNanos * capacity;
+        this.fullAt = new AtomicLong(nowNanos);
+    }
+
+    boolean tryAcquire(long nowNanos) {
+        return tryAcquire(nowNanos, 1);
+    }
+
+    boolean tryAcquire(long nowNanos, int tokens) {
+        if (intervalNanos == 0) return true;
+
+        while (true) {
+            long current = fullAt.get();
+            long from = current - nowNanos > 0 ? current : nowNanos; // a full bucket does not bank time
+            long next = from + intervalNanos * tokens;
+            if (next - nowNanos > burstNanos) return false;
+            if (fullAt.compareAndSet(current, next)) return true;
+        }
+    }
+
+    /** Hands back tokens taken by {@link #tryAcquire} when a later budget refused the message. */
+    void release(int tokens) {
+        if (intervalNanos != 0) fullAt.addAndGet(-intervalNanos * tokens);
+    }
+}
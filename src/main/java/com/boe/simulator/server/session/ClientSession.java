@@ -3,7 +3,6 @@ package com.boe.simulator.server.session;
 import com.boe.simulator.protocol.message.SessionState;
 import com.boe.simulator.protocol.message.ReturnBitfields;
 
-import java.time.Duration;
 import java.time.Instant;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -26,9 +25,11 @@ public class ClientSession {
     private final AtomicInteger sentSequenceNumber;
     private final AtomicInteger receivedSequenceNumber;
 
-    // Heartbeat tracking
-    private volatile Instant lastHeartbeatSent;
-    private volatile Instant lastHeartbeatReceived;
+    // Heartbeat tracking: epoch millis, 0 until the first one. Written on every check-in, so plain longs
+    private volatile long lastHeartbeatSentMillis;
+    private volatile long lastHeartbeatReceivedMillis;
+    // System.nanoTime() of the same check-in, for timeouts that must not follow wall-clock steps
+    private volatile long lastHeartbeatReceivedNanos;
 
     // Statistics
     private final AtomicInteger messagesReceived;
@@ -52,6 +53,11 @@ public class ClientSession {
         return sentSequenceNumber.getAndIncrement();
     }
 
+    /** Continues numbering after {@code lastSent}, e.g. the last sequence found in the session's journal. */
+    public void resumeSentSequenceNumber(int lastSent) {
+        sentSequenceNumber.accumulateAndGet(lastSent + 1, Math::max);
+    }
+
     public int getCurrentSentSequenceNumber() {
         return sentSequenceNumber.get();
     }
@@ -81,22 +87,27 @@ public class ClientSession {
         return messagesReceived.get();
     }
 
+    public void addMessagesSent(int count) {
+        messagesSent.addAndGet(count);
+    }
+
     public int getMessagesSent() {
         return messagesSent.get();
     }
 
     // Heartbeat tracking
     public void updateHeartbeatSent() {
-        this.lastHeartbeatSent = Instant.now();
+        this.lastHeartbeatSentMillis = System.currentTimeMillis();
     }
 
     public void updateHeartbeatReceived() {
-        this.lastHeartbeatReceived = Instant.now();
+        this.lastHeartbeatReceivedNanos = System.nanoTime();
+        this.lastHeartbeatReceivedMillis = System.currentTimeMillis();
     }
 
     public boolean isHeartbeatExpired(long timeoutSeconds) {
-        if (lastHeartbeatReceived == null) return false;
-        return Duration.between(lastHeartbeatReceived, Instant.now()).getSeconds() > timeoutSeconds;
+        if (lastHeartbeatReceivedMillis == 0) return false;
+        return System.nanoTime() - lastHeartbeatReceivedNanos > timeoutSeconds * 1_000_000_000L;
     }
 
     // State management
@@ -128,8 +139,14 @@ public class ClientSession {
     }
     public SessionState getState() { return state; }
     public void setState(SessionState state) { this.state = state; }
-    public Instant getLastHeartbeatSent() { return lastHeartbeatSent; }
-    public Instant getLastHeartbeatReceived() { return lastHeartbeatReceived; }
+    public Instant getLastHeartbeatSent() { return toInstant(lastHeartbeatSentMillis); }
+    public Instant getLastHeartbeatReceived() { return toInstant(lastHeartbeatReceivedMillis); }
+    public long getLastHeartbeatReceivedMillis() { return lastHeartbeatReceivedMillis; }
+    public long getLastHeartbeatReceivedNanos() { return lastHeartbeatReceivedNanos; }
+
+    private static Instant toInstant(long epochMillis) {
+        return epochMillis == 0 ? null : Instant.ofEpochMilli(epochMillis);
+    }
 
     @Override
     public String toString() {
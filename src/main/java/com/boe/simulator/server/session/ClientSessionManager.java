@@ -22,6 +22,7 @@ public class ClientSessionManager {
 
     private final SessionRepository sessionRepository;
     private final ConcurrentHashMap<Integer, PersistedSession> activeSessions;
+    private volatile SessionJournalStore journalStore;
     
     public ClientSessionManager(SessionRepository sessionRepository) {
         this.handlers = new ConcurrentHashMap<>();
@@ -246,6 +247,12 @@ public class ClientSessionManager {
             .count();
     }
     
+    public int getTotalOutboundQueueDepth() {
+        return handlers.values().stream()
+            .mapToInt(ClientConnectionHandler::getOutboundQueueDepth)
+            .sum();
+    }
+    
     public SessionStatistics getStatistics() {
         return statistics;
     }
@@ -263,6 +270,8 @@ public class ClientSessionManager {
         LOGGER.log(Level.INFO, "Total connections (lifetime): {0}", statistics.getTotalConnections());
         LOGGER.log(Level.INFO, "Successful logins: {0}", statistics.getSuccessfulLogins());
         LOGGER.log(Level.INFO, "Failed logins: {0}", statistics.getFailedLogins());
+        LOGGER.log(Level.INFO, "Outbound queue depth (total/peak): {0}/{1}", new Object[]{getTotalOutboundQueueDepth(), statistics.getPeakOutboundQueueDepth()});
+        LOGGER.log(Level.INFO, "Slow consumer disconnects: {0}", statistics.getSlowConsumerDisconnects());
         LOGGER.info("=====================================");
 
         if (sessionRepository != null) {
@@ -280,4 +289,13 @@ public class ClientSessionManager {
     public boolean isPersistenceEnabled() {
         return sessionRepository != null;
     }
+
+    public void setJournalStore(SessionJournalStore journalStore) {
+        this.journalStore = journalStore;
+    }
+
+    /** Outbound journals used for replay on login, or {@code null} when journaling is disabled. */
+    public SessionJournalStore getJournalStore() {
+        return journalStore;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,335 @@
+package com.boe.simulator.server.session;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.boe.simulator.protocol.types.BoeHeader;
+
+/**
+ * Append-only journal of one session's outbound sequenced frames, backed by a memory-mapped file.
+ *
+ * Frames are stored back to back exactly as they went to the socket, so a replay is a copy of
+ * contiguous file ranges. The file grows in fixed-size mapped regions, each mapped only once a
+ * frame reaches it, and a frame never straddles two of them; the unused tail of a region stays
+ * zeroed. Every frame starts with
+ * StartOfMessage, which is how {@link #open(Path)} finds the end of the journal again.
+ * {@link #mapAhead()} maps the next region early, so appends, which run inside matching, rarely
+ * map (and grow) the file themselves.
+ *
+ * Writes survive a process crash (they land in the page cache) but are only forced to disk on
+ * {@link #close()}.
+ */
+public final class SessionJournal implements Closeable {
+
+    // Every (username, sessionSubID) gets a journal, so a quiet session should cost little
+    static final int DEFAULT_REGION_BYTES = 1024 * 1024;
+    private static final int INDEX_INTERVAL = 1024;
+    private static final int REPLAY_CHUNK_BYTES = 64 * 1024;
+    private static final int LENGTH_OFFSET = 2;
+    private static final int TYPE_OFFSET = 4;
+
+    /** Receives replayed frames, several whole frames per chunk. */
+    @FunctionalInterface
+    public interface ReplaySink {
+        void accept(byte[] chunk, int frames) throws IOException;
+    }
+
+    private final Path path;
+    private final FileChannel channel;
+    private final int regionBytes;
+    private final List<MappedByteBuffer> regions = new ArrayList<>();
+
+    // Written under this; volatile so mapAhead() can tell cheaply that nothing is due
+    private volatile long writePosition;
+    private volatile long mapAheadAt;
+    private int lastSequence;
+    private long frameCount;
+
+    // Sparse index: sequence number and file offset of every INDEX_INTERVAL-th frame
+    private int[] indexSequences = new int[64];
+    private long[] indexOffsets = new long[64];
+    private int indexSize;
+
+    private SessionJournal(Path path, int regionBytes) throws IOException {
+        this.path = path;
+        this.regionBytes = regionBytes;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        long existing = channel.size();
+        int regionCount = (int) ((existing + regionBytes - 1) / regionBytes);
+        for (int i = 0; i < regionCount; i++) mapRegion(i);
+        recover();
+        updateMapAheadAt();
+    }
+
+    public static SessionJournal open(Path path) throws IOException {
+        return new SessionJournal(path, DEFAULT_REGION_BYTES);
+    }
+
+    static SessionJournal open(Path path, int regionBytes) throws IOException {
+        if (regionBytes < BoeHeader.WIRE_SIZE) throw new IllegalArgumentException("Region must hold at least one header");
+        return new SessionJournal(path, regionBytes);
+    }
+
+    /**
+     * Appends a frame whose SequenceNumber has already been stamped. Sequence numbers must be
+     * non-decreasing across appends.
+     */
+    public synchronized void append(byte[] frame) throws IOException {
+        int length = frame.length;
+        if (length < BoeHeader.WIRE_SIZE || length > regionBytes) throw new IllegalArgumentException("Invalid frame length: " + length);
+
+        if (offsetInRegion(writePosition) + length > regionBytes) writePosition = nextRegionStart(writePosition);
+        int region = regionOf(writePosition);
+        if (region == regions.size()) {
+            mapRegion(region);
+            updateMapAheadAt();
+        }
+
+        // Body first, StartOfMessage last: a frame torn by a crash is never recognised on recovery
+        MappedByteBuffer buffer = regions.get(region);
+        int offset = offsetInRegion(writePosition);
+        buffer.put(offset + LENGTH_OFFSET, frame, LENGTH_OFFSET, length - LENGTH_OFFSET);
+        buffer.put(offset, frame, 0, LENGTH_OFFSET);
+
+        indexFrame(sequenceAt(buffer, offset), writePosition);
+        writePosition += length;
+    }
+
+    /**
+     * Maps the region after the current one once the current one is half full. Call it off the
+     * append path, e.g. from the session's writer thread; it does nothing until a region is due.
+     */
+    public void mapAhead() throws IOException {
+        if (writePosition < mapAheadAt) return;
+
+        int next;
+        synchronized (this) {
+            if (!channel.isOpen() || writePosition < mapAheadAt) return;
+            next = regions.size();
+        }
+
+        // Outside the lock: mapping past the end grows the file
+        MappedByteBuffer buffer = map(next);
+        synchronized (this) {
+            if (regions.size() == next) {
+                regions.add(buffer);
+                updateMapAheadAt();
+            }
+        }
+    }
+
+    /**
+     * Empties the journal in place, e.g. at the daily reset. Sessions holding it keep appending,
+     * from sequence numbers of their own choosing; the file keeps its size.
+     */
+    public synchronized void clear() {
+        byte[] zeros = new byte[regionBytes];
+        long end = writePosition;
+        for (int region = 0; region < regions.size() && (long) region * regionBytes < end; region++) {
+            int used = (int) Math.min(regionBytes, end - (long) region * regionBytes);
+            regions.get(region).put(0, zeros, 0, used);
+        }
+        writePosition = 0;
+        lastSequence = 0;
+        frameCount = 0;
+        indexSize = 0;
+        updateMapAheadAt();
+    }
+
+    /**
+     * Streams every journaled frame with a SequenceNumber greater than {@code afterSequence} to
+     * {@code sink}, skipping session-level messages, which are never replayed. Frames appended
+     * while the replay runs are not included.
+     *
+     * @return the number of frames replayed
+     */
+    public long replay(int afterSequence, ReplaySink sink) throws IOException {
+        MappedByteBuffer[] snapshot;
+        long end;
+        long position;
+        synchronized (this) {
+            if (frameCount == 0 || afterSequence >= lastSequence) return 0;
+            snapshot = regions.toArray(new MappedByteBuffer[0]);
+            end = writePosition;
+            position = seek(afterSequence);
+        }
+
+        long replayed = 0;
+        long chunkStart = -1;
+        int chunkFrames = 0;
+
+        while (position < end) {
+            MappedByteBuffer buffer = snapshot[regionOf(position)];
+            int offset = offsetInRegion(position);
+            // A frame that exactly filled the previous region leaves no zeroed tail to end the chunk on
+            if (offset == 0 && chunkFrames > 0) {
+                replayed += emit(snapshot, chunkStart, position, chunkFrames, sink);
+                chunkFrames = 0;
+            }
+            if (offset + BoeHeader.WIRE_SIZE > regionBytes || buffer.getShort(offset) != BoeHeader.START_OF_MESSAGE) {
+                // Zeroed region tail: the next frame starts a new region, and a chunk never spans two
+                if (chunkFrames > 0) replayed += emit(snapshot, chunkStart, position, chunkFrames, sink);
+                chunkFrames = 0;
+                position = nextRegionStart(position);
+                continue;
+            }
+
+            int length = frameLength(buffer, offset);
+            boolean replayable = sequenceAt(buffer, offset) > afterSequence && isReplayable(buffer.get(offset + TYPE_OFFSET));
+
+            if (chunkFrames > 0 && (!replayable || position + length - chunkStart > REPLAY_CHUNK_BYTES)) {
+                replayed += emit(snapshot, chunkStart, position, chunkFrames, sink);
+                chunkFrames = 0;
+            }
+            if (replayable) {
+                if (chunkFrames == 0) chunkStart = position;
+                chunkFrames++;
+            }
+            position += length;
+        }
+
+        if (chunkFrames > 0) replayed += emit(snapshot, chunkStart, position, chunkFrames, sink);
+        return replayed;
+    }
+
+    /** Session-level messages describe a connection, not order state, so a replay leaves them out. */
+    static boolean isReplayable(byte messageType) {
+        return switch (messageType) {
+            case 0x24, 0x08, 0x09, 0x13 -> false; // LoginResponse, LogoutResponse, ServerHeartbeat, ReplayComplete
+            default -> true;
+        };
+    }
+
+    public synchronized int getLastSequence() {
+        return lastSequence;
+    }
+
+    public synchronized long getFrameCount() {
+        return frameCount;
+    }
+
+    public synchronized long getSizeBytes() {
+        return writePosition;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (!channel.isOpen()) return;
+        for (MappedByteBuffer region : regions) region.force();
+        channel.close();
+    }
+
+    private long emit(MappedByteBuffer[] snapshot, long from, long to, int frames, ReplaySink sink) throws IOException {
+        byte[] chunk = new byte[(int) (to - from)];
+        snapshot[regionOf(from)].get(offsetInRegion(from), chunk);
+        sink.accept(chunk, frames);
+        return frames;
+    }
+
+    private void recover() {
+        long position = 0;
+        long capacity = (long) regions.size() * regionBytes;
+
+        while (position < capacity) {
+            MappedByteBuffer buffer = regions.get(regionOf(position));
+            int offset = offsetInRegion(position);
+            if (offset + BoeHeader.WIRE_SIZE > regionBytes || buffer.getShort(offset) != BoeHeader.START_OF_MESSAGE) {
+                long next = nextRegionStart(position);
+                if (offset == 0 || next >= capacity || !startsFrame(next)) break;
+                position = next;
+                continue;
+            }
+
+            int length = frameLength(buffer, offset);
+            if (length < BoeHeader.WIRE_SIZE || offset + length > regionBytes) break;
+
+            indexFrame(sequenceAt(buffer, offset), position);
+            position += length;
+        }
+        writePosition = position;
+    }
+
+    private boolean startsFrame(long position) {
+        return regions.get(regionOf(position)).getShort(offsetInRegion(position)) == BoeHeader.START_OF_MESSAGE;
+    }
+
+    private void indexFrame(int sequence, long position) {
+        if (frameCount % INDEX_INTERVAL == 0) {
+            if (indexSize == indexSequences.length) {
+                indexSequences = Arrays.copyOf(indexSequences, indexSize * 2);
+                indexOffsets = Arrays.copyOf(indexOffsets, indexSize * 2);
+            }
+            indexSequences[indexSize] = sequence;
+            indexOffsets[indexSize] = position;
+            indexSize++;
+        }
+        lastSequence = sequence;
+        frameCount++;
+    }
+
+    // Offset of the last indexed frame at or before afterSequence; the replay scans forward from there
+    private long seek(int afterSequence) {
+        int low = 0;
+        int high = indexSize - 1;
+        int found = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (indexSequences[mid] <= afterSequence) {
+                found = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return found < 0 ? 0 : indexOffsets[found];
+    }
+
+    private void mapRegion(int region) throws IOException {
+        regions.add(map(region));
+    }
+
+    private MappedByteBuffer map(int region) throws IOException {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, (long) region * regionBytes, regionBytes);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        return buffer;
+    }
+
+    // The next region is due once writes pass the middle of the last mapped one
+    private void updateMapAheadAt() {
+        mapAheadAt = regions.isEmpty() ? 0 : (long) (regions.size() - 1) * regionBytes + regionBytes / 2;
+    }
+
+    private int regionOf(long position) {
+        return (int) (position / regionBytes);
+    }
+
+    private int offsetInRegion(long position) {
+        return (int) (position % regionBytes);
+    }
+
+    private long nextRegionStart(long position) {
+        return (position / regionBytes + 1) * regionBytes;
+    }
+
+    // MessageLength excludes StartOfMessage
+    private static int frameLength(MappedByteBuffer buffer, int offset) {
+        return (buffer.getShort(offset + LENGTH_OFFSET) & 0xFFFF) + 2;
+    }
+
+    private static int sequenceAt(MappedByteBuffer buffer, int offset) {
+        return buffer.getInt(offset + BoeHeader.SEQUENCE_NUMBER_OFFSET);
+    }
+}
@@ -0,0 +1,147 @@
+package com.boe.simulator.server.session;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Owns the per-(username, sessionSubID) {@link SessionJournal} files under one directory.
+ * Journals stay open for the life of the server, so a reconnecting session and one still
+ * shutting down append to the same instance.
+ *
+ * Journals describe one trading day: {@link #reset()} drops them all at the daily reset, and
+ * files older than the configured max age are deleted when the store opens, so journals of
+ * sessions that never come back do not pile up across restarts.
+ */
+public class SessionJournalStore implements Closeable {
+    private static final Logger LOGGER = Logger.getLogger(SessionJournalStore.class.getName());
+
+    private final Path directory;
+    private final ConcurrentHashMap<String, SessionJournal> journals = new ConcurrentHashMap<>();
+
+    public SessionJournalStore(Path directory) throws IOException {
+        this(directory, Duration.ZERO);
+    }
+
+    /** {@code maxAge} of zero keeps every journal until {@link #reset()}. */
+    public SessionJournalStore(Path directory, Duration maxAge) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        LOGGER.log(Level.INFO, "Session journals stored in {0}", directory.toAbsolutePath());
+        if (!maxAge.isZero()) deleteOlderThan(Instant.now().minus(maxAge));
+    }
+
+    public SessionJournal open(String username, String sessionSubID) throws IOException {
+        try {
+            return journals.computeIfAbsent(fileName(username, sessionSubID), name -> {
+                try {
+                    SessionJournal journal = SessionJournal.open(directory.resolve(name));
+                    LOGGER.log(Level.INFO, "Opened session journal {0}: {1} frames, last sequence {2}", new Object[]{
+                            name,
+                            journal.getFrameCount(),
+                            journal.getLastSequence()
+                    });
+                    return journal;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Drops every journal, e.g. at the daily reset. Open journals are emptied in place, since
+     * sessions still hold them; the files of the others are deleted.
+     */
+    public void reset() throws IOException {
+        int cleared = 0;
+        int deleted = 0;
+        for (Path file : journalFiles()) {
+            String name = file.getFileName().toString();
+            boolean[] open = new boolean[1];
+            try {
+                // Under the map's lock for this name, so a concurrent open() never gets a deleted file
+                journals.compute(name, (key, journal) -> {
+                    if (journal != null) {
+                        journal.clear();
+                        open[0] = true;
+                        return journal;
+                    }
+                    try {
+                        Files.deleteIfExists(file);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    return null;
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            if (open[0]) cleared++;
+            else deleted++;
+        }
+        LOGGER.log(Level.INFO, "Session journals reset: {0} emptied, {1} deleted", new Object[]{cleared, deleted});
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public int getOpenJournalCount() {
+        return journals.size();
+    }
+
+    @Override
+    public void close() {
+        for (SessionJournal journal : journals.values()) {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Error closing session journal " + journal.getPath(), e);
+            }
+        }
+        journals.clear();
+    }
+
+    private void deleteOlderThan(Instant cutoff) throws IOException {
+        int deleted = 0;
+        for (Path file : journalFiles()) {
+            if (Files.getLastModifiedTime(file).toInstant().isBefore(cutoff)) {
+                Files.deleteIfExists(file);
+                deleted++;
+            }
+        }
+        if (deleted > 0) LOGGER.log(Level.INFO, "Deleted {0} session journals last written before {1}", new Object[]{deleted, cutoff});
+    }
+
+    private List<Path> journalFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".journal")).toList();
+        }
+    }
+
+    // Usernames and SessionSubIDs are 4-character alphanumerics on the wire; anything else is escaped
+    static String fileName(String username, String sessionSubID) {
+        String subID = sessionSubID == null || sessionSubID.isEmpty() ? "_" : sessionSubID;
+        return sanitize(username) + "-" + sanitize(subID) + ".journal";
+    }
+
+    private static String sanitize(String value) {
+        StringBuilder out = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            out.append(Character.isLetterOrDigit(c) && c < 0x80 ? c : '_');
+        }
+        return out.toString();
+    }
+}
@@ -20,6 +20,10 @@ public class SessionStatistics {
     // Heartbeat statistics
     private final AtomicLong totalHeartbeatsReceived;
     private final AtomicLong totalHeartbeatsSent;
+
+    // Outbound queue statistics
+    private final AtomicLong slowConsumerDisconnects;
+    private final AtomicInteger peakOutboundQueueDepth;
     
     public SessionStatistics() {
         this.serverStartTime = Instant.now();
@@ -30,6 +34,8 @@ public class SessionStatistics {
         this.totalMessagesSent = new AtomicLong(0);
         this.totalHeartbeatsReceived = new AtomicLong(0);
         this.totalHeartbeatsSent = new AtomicLong(0);
+        this.slowConsumerDisconnects = new AtomicLong(0);
+        this.peakOutboundQueueDepth = new AtomicInteger(0);
     }
     
     // Increment methods
@@ -61,6 +67,14 @@ public class SessionStatistics {
         totalHeartbeatsSent.incrementAndGet();
     }
     
+    public void incrementSlowConsumerDisconnects() {
+        slowConsumerDisconnects.incrementAndGet();
+    }
+
+    public void recordOutboundQueueDepth(int depth) {
+        peakOutboundQueueDepth.accumulateAndGet(depth, Math::max);
+    }
+    
     // Getters
     public Instant getServerStartTime() {
         return serverStartTime;
@@ -94,6 +108,14 @@ public class SessionStatistics {
         return totalHeartbeatsSent.get();
     }
     
+    public long getSlowConsumerDisconnects() {
+        return slowConsumerDisconnects.get();
+    }
+
+    public int getPeakOutboundQueueDepth() {
+        return peakOutboundQueueDepth.get();
+    }
+    
     public long getUptimeSeconds() {
         return java.time.Duration.between(serverStartTime, Instant.now()).getSeconds();
     }
@@ -109,6 +131,8 @@ public class SessionStatistics {
                 ", messagesTx=" + totalMessagesSent.get() +
                 ", heartbeatsRx=" + totalHeartbeatsReceived.get() +
                 ", heartbeatsTx=" + totalHeartbeatsSent.get() +
+                ", slowConsumerDisconnects=" + slowConsumerDisconnects.get() +
+                ", peakOutboundQueueDepth=" + peakOutboundQueueDepth.get() +
                 '}';
     }
 }
@@ -0,0 +1,72 @@
+package com.boe.simulator.benchmark;
+
+import com.boe.simulator.server.persistence.KeyRange;
+import com.boe.simulator.server.persistence.RocksDBManager;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Column family reads through getAll against the streaming cursor, on {@code bench.records}
+ * 120-byte records (200,000 by default) in a scratch RocksDB. Reports time and heap allocated
+ * per call for a full count and for finding the record halfway through the column family.
+ * Run with {@code mvn exec:java@cursor-scan-benchmark}.
+ */
+@SuppressWarnings("deprecation")
+public final class CursorScanBenchmark {
+
+    private static final int RECORDS = Integer.getInteger("bench.records", 200_000);
+    private static final String CF = RocksDBManager.CF_ORDERS;
+
+    private CursorScanBenchmark() {}
+
+    public static void main(String[] args) throws Exception {
+        Logger root = Logger.getLogger("");
+        root.setLevel(Level.SEVERE);
+        for (Handler handler : root.getHandlers()) handler.setLevel(Level.SEVERE);
+
+        RocksDBManager db = RocksDBManager.getInstance(Files.createTempDirectory("boe-cursor").toString());
+        try {
+            byte[] value = new byte[120];
+            for (int i = 0; i < RECORDS; i++) db.put(CF, key(i), value);
+            byte[] wanted = key(RECORDS / 2);
+
+            System.out.printf("Column family scans, %,d records%n", RECORDS);
+            measure("getAll count", () -> (long) db.getAll(CF).size());
+            measure("cursor count", () -> db.count(CF, KeyRange.prefix("order:")));
+            measure("getAll find", () -> db.getAll(CF).keySet().stream().filter(k -> Arrays.equals(k, wanted)).count());
+            measure("cursor find", () -> {
+                try (Stream<Map.Entry<byte[], byte[]>> entries = db.scan(CF, KeyRange.prefix("order:"))) {
+                    return entries.filter(e -> Arrays.equals(e.getKey(), wanted)).limit(1).count();
+                }
+            });
+        } finally {
+            db.close();
+        }
+    }
+
+    private static byte[] key(int i) {
+        return String.format("order:%08d", i).getBytes();
+    }
+
+    private static void measure(String name, Callable<Long> read) throws Exception {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < 3; i++) read.call();
+        int runs = 10;
+        long bytes0 = threads.getCurrentThreadAllocatedBytes();
+        long t0 = System.nanoTime();
+        long result = 0;
+        for (int i = 0; i < runs; i++) result = read.call();
+        long nanos = System.nanoTime() - t0;
+        long bytes = threads.getCurrentThreadAllocatedBytes() - bytes0;
+        System.out.printf("  %-14s %8.1f ms  %10.1f MB allocated  (result %,d)%n",
+                name, nanos / 1e6 / runs, bytes / 1e6 / runs, result);
+    }
+}
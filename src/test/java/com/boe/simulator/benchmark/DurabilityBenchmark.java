@@ -0,0 +1,113 @@
+package com.boe.simulator.benchmark;
+
+import com.boe.simulator.server.persistence.DurabilityMode;
+import com.boe.simulator.server.persistence.RocksDBManager;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Write throughput and persistence lag in each {@link DurabilityMode}, with an order, a trade
+ * and a session writer committing batches (5, 7 and 1 operations, 200-byte values)
+ * concurrently for {@code bench.seconds} (2 by default) per mode into a scratch RocksDB. Lag is
+ * the time from handing a batch to writeBatch until it is committed at that durability; the
+ * group size is batches per RocksDB write. Run with {@code mvn exec:java@durability-benchmark}.
+ */
+public final class DurabilityBenchmark {
+
+    private static final long SECONDS = Long.getLong("bench.seconds", 2);
+    private static final byte[] VALUE = new byte[200];
+
+    private DurabilityBenchmark() {}
+
+    public static void main(String[] args) throws Exception {
+        Logger root = Logger.getLogger("");
+        root.setLevel(Level.SEVERE);
+        for (Handler handler : root.getHandlers()) handler.setLevel(Level.SEVERE);
+
+        RocksDBManager db = RocksDBManager.getInstance(Files.createTempDirectory("boe-durability").toString());
+        try {
+            System.out.printf("Durability modes, 3 concurrent writers, %ds each%n", SECONDS);
+            System.out.printf("  %-8s %12s %12s %8s %10s %10s%n", "mode", "batches/s", "ops/s", "group", "lag p50", "lag p99");
+            for (DurabilityMode mode : DurabilityMode.values()) run(db, mode);
+        } finally {
+            db.close();
+        }
+    }
+
+    private static void run(RocksDBManager db, DurabilityMode mode) throws Exception {
+        db.setDurabilityMode(mode);
+        Map<String, Long> before = db.getStatistics();
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<Writer> writers = List.of(
+                new Writer(db, RocksDBManager.CF_ORDERS, 5, running),
+                new Writer(db, RocksDBManager.CF_TRADES, 7, running),
+                new Writer(db, RocksDBManager.CF_SESSIONS, 1, running));
+        List<Thread> threads = new ArrayList<>();
+        for (Writer writer : writers) threads.add(Thread.ofPlatform().start(writer));
+        Thread.sleep(SECONDS * 1_000);
+        running.set(false);
+        for (Thread thread : threads) thread.join();
+
+        Map<String, Long> after = db.getStatistics();
+        long batches = 0, ops = 0;
+        List<long[]> samples = new ArrayList<>();
+        for (Writer writer : writers) {
+            batches += writer.batches;
+            ops += writer.operations;
+            samples.add(Arrays.copyOf(writer.lags, Math.min(writer.batches, writer.lags.length)));
+        }
+        long[] lags = samples.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        double groups = after.get("group_commits") - before.get("group_commits");
+        System.out.printf("  %-8s %,12.0f %,12.0f %8.2f %8.1fus %8.1fus%n", mode,
+                batches / (double) SECONDS, ops / (double) SECONDS,
+                (after.get("grouped_batches") - before.get("grouped_batches")) / groups,
+                lags[lags.length / 2] / 1e3, lags[(int) (lags.length * 0.99)] / 1e3);
+    }
+
+    private static final class Writer implements Runnable {
+        private final RocksDBManager db;
+        private final String columnFamily;
+        private final int size;
+        private final AtomicBoolean running;
+        private final long[] lags = new long[1 << 20];
+        private int batches;
+        private long operations;
+
+        Writer(RocksDBManager db, String columnFamily, int size, AtomicBoolean running) {
+            this.db = db;
+            this.columnFamily = columnFamily;
+            this.size = size;
+            this.running = running;
+        }
+
+        @Override
+        public void run() {
+            long key = 0;
+            try {
+                while (running.get()) {
+                    RocksDBManager.WriteBatchOperation[] batch = new RocksDBManager.WriteBatchOperation[size];
+                    for (int i = 0; i < size; i++) {
+                        batch[i] = new RocksDBManager.WriteBatchOperation(RocksDBManager.OperationType.PUT, columnFamily,
+                                ByteBuffer.allocate(Long.BYTES).putLong(key++).array(), VALUE);
+                    }
+                    long t0 = System.nanoTime();
+                    db.writeBatch(batch);
+                    if (batches < lags.length) lags[batches] = System.nanoTime() - t0;
+                    batches++;
+                    operations += size;
+                }
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.boe.simulator.benchmark;
+
+import com.boe.simulator.server.order.OrderExecutionContext;
+import com.boe.simulator.server.order.OrderManager;
+import com.boe.simulator.server.order.Symbols;
+import com.boe.simulator.server.persistence.RocksDBManager;
+import com.boe.simulator.server.session.ClientSession;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Ack latency for a quiet session while a noisy one floods the same symbol. The noisy session
+ * pipelines crossing buys and sells from {@code bench.noisyThreads} workers (4 by default) with
+ * no pause; the quiet session sends one resting order every {@code bench.paceMicros} (100) and
+ * times each one, {@code bench.orders} (20,000) in all. Both go through OrderManager and the
+ * matching engine in process, as two TCP sessions would.
+ *
+ * Run with {@code mvn exec:java@fairness-benchmark}.
+ */
+public final class FairMatchingBenchmark {
+
+    private static final int ORDERS = Integer.getInteger("bench.orders", 20_000);
+    private static final int NOISY_THREADS = Integer.getInteger("bench.noisyThreads", 4);
+    private static final long PACE_NANOS = Integer.getInteger("bench.paceMicros", 100) * 1_000L;
+    private static final int AAPL = Symbols.id("AAPL");
+
+    private FairMatchingBenchmark() {}
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Logger root = Logger.getLogger("");
+        root.setLevel(Level.SEVERE);
+        for (Handler handler : root.getHandlers()) handler.setLevel(Level.SEVERE);
+
+        RocksDBManager db = RocksDBManager.getInstance(Files.createTempDirectory("boe-bench").toString());
+        OrderManager orderManager = new OrderManager(db);
+        OrderExecutionContext noisy = OrderExecutionContext.fromTcpSession(session(1, "TRD1"));
+        OrderExecutionContext quiet = OrderExecutionContext.fromTcpSession(session(2, "TRD2"));
+
+        AtomicBoolean flooding = new AtomicBoolean(true);
+        LongAdder noisyOrders = new LongAdder();
+        Thread[] workers = new Thread[NOISY_THREADS];
+        for (int t = 0; t < NOISY_THREADS; t++) {
+            String prefix = "N" + t + "-";
+            workers[t] = Thread.ofPlatform().start(() -> {
+                for (int i = 0; flooding.get(); i++) {
+                    boolean buy = (i & 1) == 0;
+                    orderManager.submitNewOrder(noisy, prefix + i, AAPL, (byte) (buy ? '1' : '2'), 100,
+                            1_500_000L, (byte) '2', (byte) 'C');
+                    noisyOrders.increment();
+                }
+            });
+        }
+
+        quietOrders(orderManager, quiet, "W", ORDERS / 4, null); // warm-up
+        long[] latencies = new long[ORDERS];
+        long noisyBefore = noisyOrders.sum();
+        long start = System.nanoTime();
+        quietOrders(orderManager, quiet, "Q", ORDERS, latencies);
+        long elapsed = System.nanoTime() - start;
+        long noisyCount = noisyOrders.sum() - noisyBefore;
+        flooding.set(false);
+        for (Thread worker : workers) worker.join();
+
+        Arrays.sort(latencies);
+        System.out.printf("Quiet session ack latency, %,d orders, %d noisy workers on the same symbol%n", ORDERS, NOISY_THREADS);
+        System.out.printf("  mean   %9.2f us%n", Arrays.stream(latencies).average().orElse(0) / 1_000.0);
+        for (double p : new double[]{50, 90, 99, 99.9}) {
+            System.out.printf("  p%-5s %9.2f us%n", p, latencies[(int) Math.min(ORDERS - 1, ORDERS * p / 100)] / 1_000.0);
+        }
+        System.out.printf("  max    %9.2f us%n", latencies[ORDERS - 1] / 1_000.0);
+        System.out.printf("  noisy  %,.0f orders/s%n", noisyCount / (elapsed / 1e9));
+        System.exit(0);
+    }
+
+    private static void quietOrders(OrderManager orderManager, OrderExecutionContext quiet, String prefix, int count, long[] latencies) {
+        for (int i = 0; i < count; i++) {
+            long t0 = System.nanoTime();
+            OrderManager.OrderResponse response = orderManager.submitNewOrder(quiet, prefix + i, AAPL, (byte) '1', 100,
+                    1_000_000L - (i % 50) * 100, (byte) '2', (byte) 'C'); // rests well below the noisy flow
+            long t1 = System.nanoTime();
+
+            if (!response.isAcknowledged()) throw new IllegalStateException("Rejected: " + prefix + i);
+            if (latencies != null) latencies[i] = t1 - t0;
+            LockSupport.parkNanos(PACE_NANOS);
+        }
+    }
+
+    private static ClientSession session(int id, String username) {
+        ClientSession session = new ClientSession(id, "bench");
+        session.setUsername(username);
+        return session;
+    }
+}
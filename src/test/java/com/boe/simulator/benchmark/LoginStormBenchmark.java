@@ -0,0 +1,107 @@
+package com.boe.simulator.benchmark;
+
+import com.boe.simulator.server.auth.CredentialVerifier;
+import com.boe.simulator.server.persistence.util.PasswordHasher;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Reconnect storm: {@code bench.logins} logins (200 by default) spread over {@code bench.users}
+ * users (10), all started at once on virtual threads, as the connection handlers would be.
+ *
+ * "bcrypt on caller" is the previous path, where each login runs bcrypt on its own virtual
+ * thread; "verifier pool" goes through {@link CredentialVerifier} with the server defaults.
+ * Alongside each storm a virtual-thread ticker wakes every millisecond, standing in for order
+ * handling; its worst lateness shows how long the carriers were pinned. Run with
+ * {@code mvn exec:java@login-benchmark}.
+ */
+public final class LoginStormBenchmark {
+
+    private static final int LOGINS = Integer.getInteger("bench.logins", 200);
+    private static final int USERS = Integer.getInteger("bench.users", 10);
+    private static final String PASSWORD = "Pass1234!";
+
+    private LoginStormBenchmark() {}
+
+    public static void main(String[] args) throws InterruptedException {
+        Logger root = Logger.getLogger("");
+        root.setLevel(Level.SEVERE);
+        for (Handler handler : root.getHandlers()) handler.setLevel(Level.SEVERE);
+
+        String storedHash = PasswordHasher.hash(PASSWORD);
+        PasswordHasher.verify(PASSWORD, storedHash); // warm up
+
+        System.out.printf("Login storm: %,d logins over %d users, %d CPUs%n",
+                LOGINS, USERS, Runtime.getRuntime().availableProcessors());
+
+        storm("bcrypt on caller", user -> PasswordHasher.verify(PASSWORD, storedHash));
+
+        CredentialVerifier verifier = CredentialVerifier.withDefaults();
+        try {
+            storm("verifier pool", user -> verifier.verify(user, PASSWORD, storedHash) == CredentialVerifier.Outcome.VERIFIED);
+            System.out.printf("  verifier: %,d bcrypt runs, %,d cache hits%n", verifier.getBcryptRuns(), verifier.getCacheHits());
+        } finally {
+            verifier.shutdown();
+        }
+    }
+
+    private interface Login {
+        boolean attempt(String user);
+    }
+
+    private static void storm(String name, Login login) throws InterruptedException {
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicLong maxLateNanos = new AtomicLong();
+        Thread ticker = Thread.ofVirtual().start(() -> tick(running::get, maxLateNanos));
+
+        LongAdder accepted = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        long began;
+        try (ExecutorService connections = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < LOGINS; i++) {
+                String user = "USR" + (i % USERS);
+                connections.execute(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    if (login.attempt(user)) accepted.increment();
+                });
+            }
+            began = System.nanoTime();
+            start.countDown();
+        }
+        long elapsed = System.nanoTime() - began;
+        running.set(false);
+        ticker.join();
+
+        System.out.printf("%-18s %,8.0f logins/s   %,6d accepted   %,8.1f ms total   ticker max late %,8.1f ms%n",
+                name, LOGINS / (elapsed / 1e9), accepted.sum(), elapsed / 1e6, maxLateNanos.get() / 1e6);
+    }
+
+    private static void tick(BooleanSupplier running, AtomicLong maxLateNanos) {
+        long period = Duration.ofMillis(1).toNanos();
+        long next = System.nanoTime() + period;
+        while (running.getAsBoolean()) {
+            try {
+                Thread.sleep(Duration.ofNanos(Math.max(0, next - System.nanoTime())));
+            } catch (InterruptedException e) {
+                return;
+            }
+            long late = System.nanoTime() - next;
+            if (late > maxLateNanos.get()) maxLateNanos.set(late);
+            next = System.nanoTime() + period;
+        }
+    }
+}
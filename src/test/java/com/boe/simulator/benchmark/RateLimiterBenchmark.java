@@ -0,0 +1,123 @@
+package com.boe.simulator.benchmark;
+
+import com.boe.simulator.protocol.message.BoeMessageFactory;
+import com.boe.simulator.server.ratelimit.RateLimiter;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntPredicate;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Rate limiter throughput under contention: {@code bench.threads} platform threads (64 by
+ * default) call allowMessage as fast as they can for {@code bench.seconds} per scenario.
+ *
+ * "one connection" puts every thread on the same connection and user, the worst case for a
+ * single bucket; "own connection" gives each thread its own connection but one shared user
+ * budget. Budgets are large enough that every call is admitted, so the numbers measure the
+ * admission path itself. The previous synchronized fixed-window limiter runs alongside as a
+ * baseline, against a connection budget alone and against connection, user and NewOrder
+ * budgets together. Run with {@code mvn exec:java@ratelimit-benchmark}.
+ */
+public final class RateLimiterBenchmark {
+
+    private static final int THREADS = Integer.getInteger("bench.threads", 64);
+    private static final int SECONDS = Integer.getInteger("bench.seconds", 3);
+
+    private RateLimiterBenchmark() {}
+
+    public static void main(String[] args) throws InterruptedException {
+        Logger root = Logger.getLogger("");
+        root.setLevel(Level.SEVERE);
+        for (Handler handler : root.getHandlers()) handler.setLevel(Level.SEVERE);
+
+        Duration window = Duration.ofMinutes(1);
+        RateLimiter layered = RateLimiter.builder()
+                .perConnection(Integer.MAX_VALUE, window)
+                .perUser(Integer.MAX_VALUE, window)
+                .perMessageType(BoeMessageFactory.NEW_ORDER, Integer.MAX_VALUE, window)
+                .build();
+        RateLimiter single = new RateLimiter(Integer.MAX_VALUE, window);
+        LegacyRateLimiter legacy = new LegacyRateLimiter(Integer.MAX_VALUE, window);
+
+        System.out.printf("allowMessage throughput, %d threads, %ds per scenario%n", THREADS, SECONDS);
+        System.out.printf("  %-16s %14s %14s %14s%n", "", "synchronized", "1 bucket", "3 buckets");
+        for (boolean shared : new boolean[]{true, false}) {
+            run(thread -> legacy.allowMessage(shared ? 1 : thread), 1); // warm-up
+            run(thread -> layered.allowMessage(shared ? 1 : thread, "TRD1", BoeMessageFactory.NEW_ORDER), 1);
+
+            double before = run(thread -> legacy.allowMessage(shared ? 1 : thread), SECONDS);
+            double connectionOnly = run(thread -> single.allowMessage(shared ? 1 : thread), SECONDS);
+            double allLayers = run(thread -> layered.allowMessage(shared ? 1 : thread, "TRD1", BoeMessageFactory.NEW_ORDER), SECONDS);
+            System.out.printf("  %-16s %10.2f M/s %10.2f M/s %10.2f M/s%n", shared ? "one connection" : "own connection", before, connectionOnly, allLayers);
+        }
+    }
+
+    // Millions of admitted calls per second across all threads
+    private static double run(IntPredicate allow, int seconds) throws InterruptedException {
+        LongAdder admitted = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        long[] deadline = new long[1];
+        Thread[] threads = new Thread[THREADS];
+
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t + 100;
+            threads[t] = Thread.ofPlatform().start(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                long count = 0;
+                while (System.nanoTime() - deadline[0] < 0) {
+                    for (int i = 0; i < 256; i++) {
+                        if (allow.test(thread)) count++;
+                    }
+                }
+                admitted.add(count);
+            });
+        }
+        long t0 = System.nanoTime();
+        deadline[0] = t0 + seconds * 1_000_000_000L;
+        start.countDown();
+        for (Thread thread : threads) thread.join();
+        long elapsed = System.nanoTime() - t0;
+        return admitted.sum() * 1_000.0 / elapsed;
+    }
+
+    // The fixed-window limiter this replaced: one monitor per connection, Instant.now() per call
+    private static final class LegacyRateLimiter {
+        private final java.util.concurrent.ConcurrentHashMap<Integer, Window> limits = new java.util.concurrent.ConcurrentHashMap<>();
+        private final int maxMessages;
+        private final Duration window;
+
+        LegacyRateLimiter(int maxMessages, Duration window) {
+            this.maxMessages = maxMessages;
+            this.window = window;
+        }
+
+        boolean allowMessage(int connectionId) {
+            return limits.computeIfAbsent(connectionId, k -> new Window()).tryAcquire();
+        }
+
+        private final class Window {
+            private int messageCount;
+            private Instant windowStart = Instant.now();
+
+            synchronized boolean tryAcquire() {
+                Instant now = Instant.now();
+                if (Duration.between(windowStart, now).compareTo(window) > 0) {
+                    messageCount = 0;
+                    windowStart = now;
+                }
+                if (messageCount >= maxMessages) return false;
+                messageCount++;
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.boe.simulator.benchmark;
+
+import com.boe.simulator.protocol.types.Capacity;
+import com.boe.simulator.protocol.types.OrdType;
+import com.boe.simulator.protocol.types.Side;
+import com.boe.simulator.server.matching.Trade;
+import com.boe.simulator.server.matching.TradeRecordCodec;
+import com.boe.simulator.server.order.Order;
+import com.boe.simulator.server.order.OrderRecordCodec;
+import com.boe.simulator.server.persistence.codec.RecordFormat;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.function.Function;
+
+/**
+ * Persisted record size and codec throughput, JSON against the compact binary layout, for
+ * {@code bench.records} orders and trades (10,000 by default) shaped like the simulator's own.
+ * Throughput is single-threaded encode + decode of every record, best of {@code bench.rounds}
+ * rounds (5). Run with {@code mvn exec:java@codec-benchmark}.
+ */
+public final class RecordCodecBenchmark {
+
+    private static final int RECORDS = Integer.getInteger("bench.records", 10_000);
+    private static final int ROUNDS = Integer.getInteger("bench.rounds", 5);
+    private static final String[] SYMBOLS = {"AAPL", "MSFT", "GOOGL", "AMZN", "TSLA"};
+
+    private RecordCodecBenchmark() {}
+
+    public static void main(String[] args) {
+        Order[] orders = new Order[RECORDS];
+        Trade[] trades = new Trade[RECORDS];
+        Instant base = Instant.parse("2026-03-02T14:30:00Z");
+        for (int i = 0; i < RECORDS; i++) {
+            String symbol = SYMBOLS[i % SYMBOLS.length];
+            BigDecimal price = new BigDecimal("150.00").add(BigDecimal.valueOf(i % 200, 2));
+            orders[i] = Order.builder()
+                    .clOrdID("ORD-" + (100_000 + i))
+                    .orderID(1_700_000_000_000L + i)
+                    .sessionSubID("0001")
+                    .username(i % 2 == 0 ? "TRD1" : "TRD2")
+                    .side(i % 2 == 0 ? Side.BUY : Side.SELL)
+                    .orderQty(100 + i % 900)
+                    .price(price)
+                    .ordType(OrdType.LIMIT)
+                    .symbol(symbol)
+                    .capacity(Capacity.AGENCY)
+                    .account("ACCT01")
+                    .clearingFirm("CLRF")
+                    .receivedSequence(i + 1)
+                    .build();
+            trades[i] = Trade.builder()
+                    .tradeId(1_700_000_000_000L + i)
+                    .symbol(symbol)
+                    .buyOrderId(1_700_000_000_000L + i)
+                    .buyClOrdID("ORD-" + (100_000 + i))
+                    .buyUsername("TRD1")
+                    .sellOrderId(1_700_000_000_001L + i)
+                    .sellClOrdID("ORD-" + (100_001 + i))
+                    .sellUsername("TRD2")
+                    .quantity(100 + i % 900)
+                    .price(price)
+                    .executionTime(base.plusNanos(i * 1_234_567L))
+                    .clearingFirm("CLRF")
+                    .build();
+        }
+
+        OrderRecordCodec orderCodec = new OrderRecordCodec();
+        TradeRecordCodec tradeCodec = new TradeRecordCodec();
+
+        System.out.printf("Record codecs, %,d records, best of %d rounds%n", RECORDS, ROUNDS);
+        System.out.printf("  %-14s %12s %14s%n", "", "bytes/record", "records/s");
+        for (RecordFormat format : RecordFormat.values()) {
+            report("orders " + format, orders, order -> orderCodec.encode(order, format), orderCodec::decode);
+        }
+        for (RecordFormat format : RecordFormat.values()) {
+            report("trades " + format, trades, trade -> tradeCodec.encode(trade, format), tradeCodec::decode);
+        }
+    }
+
+    private static <T> void report(String name, T[] records, Function<T, byte[]> encode, Function<byte[], T> decode) {
+        long bytes = 0;
+        for (T record : records) bytes += encode.apply(record).length;
+
+        long best = Long.MAX_VALUE;
+        int sink = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long t0 = System.nanoTime();
+            for (T record : records) {
+                if (decode.apply(encode.apply(record)) != null) sink++;
+            }
+            best = Math.min(best, System.nanoTime() - t0);
+        }
+        if (sink == 42) System.out.print("");
+
+        System.out.printf("  %-14s %12.1f %,14.0f%n", name, (double) bytes / records.length, records.length / (best / 1e9));
+    }
+}
@@ -0,0 +1,80 @@
+package com.boe.simulator.benchmark;
+
+import com.boe.simulator.server.persistence.KeyRange;
+import com.boe.simulator.server.persistence.RocksDBManager;
+import com.boe.simulator.server.persistence.TuningProfile;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * One column family's reads under the {@link TuningProfile} named by {@code bench.profile}
+ * (POINT_LOOKUP by default): {@code bench.records} 200-byte records (200,000 by default) under
+ * tag-and-id keys, compacted into SST files, then gets that hit, gets that miss and scans of an
+ * id prefix with no keys. Prints the RocksDB counters afterwards. The database is a singleton,
+ * so compare profiles with one run each. Run with
+ * {@code mvn exec:java@storage-tuning-benchmark -Dbench.profile=PREFIX_SCAN}.
+ */
+public final class StorageTuningBenchmark {
+
+    private static final int RECORDS = Integer.getInteger("bench.records", 200_000);
+    private static final TuningProfile PROFILE = TuningProfile.valueOf(System.getProperty("bench.profile", "POINT_LOOKUP"));
+    private static final String CF = RocksDBManager.CF_ORDERS;
+
+    private StorageTuningBenchmark() {}
+
+    public static void main(String[] args) throws Exception {
+        Logger root = Logger.getLogger("");
+        root.setLevel(Level.SEVERE);
+        for (Handler handler : root.getHandlers()) handler.setLevel(Level.SEVERE);
+
+        RocksDBManager db = RocksDBManager.getInstance(Files.createTempDirectory("boe-tuning").toString(),
+                Map.of(CF, PROFILE), RocksDBManager.DEFAULT_BLOCK_CACHE_BYTES);
+        try {
+            byte[] value = new byte[200];
+            RocksDBManager.WriteBatchOperation[] batch = new RocksDBManager.WriteBatchOperation[1_000];
+            for (int i = 0; i < RECORDS; i += batch.length) {
+                for (int j = 0; j < batch.length; j++) {
+                    batch[j] = new RocksDBManager.WriteBatchOperation(RocksDBManager.OperationType.PUT, CF, key(2L * (i + j)), value);
+                }
+                db.writeBatch(batch);
+            }
+            db.compactRange(CF);
+
+            System.out.printf("%s, %,d records (mean per call)%n", PROFILE, RECORDS);
+            SplittableRandom random = new SplittableRandom(42);
+            measure("get hit", () -> db.get(CF, key(2L * random.nextInt(RECORDS))).length);
+            measure("get miss", () -> db.get(CF, key(2L * random.nextInt(RECORDS) + 1)) == null ? 0 : 1);
+            measure("prefix scan miss", () -> db.count(CF, KeyRange.prefix(key(2L * random.nextInt(RECORDS) + 1))));
+            db.getStatistics().forEach((ticker, count) -> {
+                if (count > 0) System.out.printf("  %-32s %,15d%n", ticker, count);
+            });
+        } finally {
+            db.close();
+        }
+    }
+
+    private static byte[] key(long id) {
+        return ByteBuffer.allocate(1 + Long.BYTES).put((byte) 0x01).putLong(id ^ Long.MIN_VALUE).array();
+    }
+
+    private interface Read {
+        long run() throws Exception;
+    }
+
+    private static void measure(String name, Read read) throws Exception {
+        for (int i = 0; i < 10_000; i++) read.run();
+        int runs = 0;
+        long t0 = System.nanoTime(), elapsed;
+        do {
+            read.run();
+            runs++;
+        } while ((elapsed = System.nanoTime() - t0) < 1_000_000_000L);
+        System.out.printf("  %-20s %,10.2f us%n", name, elapsed / 1e3 / runs);
+    }
+}
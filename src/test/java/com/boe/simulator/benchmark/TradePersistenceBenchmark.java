@@ -0,0 +1,113 @@
+package com.boe.simulator.benchmark;
+
+import com.boe.simulator.server.matching.Trade;
+import com.boe.simulator.server.matching.TradeRecordCodec;
+import com.boe.simulator.server.matching.TradeRepository;
+import com.boe.simulator.server.matching.TradeRepositoryService;
+import com.boe.simulator.server.persistence.RocksDBManager;
+import com.boe.simulator.server.persistence.codec.RecordFormat;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.util.function.IntSupplier;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Trade persistence throughput into a scratch RocksDB: {@code bench.trades} trades (50,000 by
+ * default).
+ *
+ * "put per key" replays the original writer, one trade at a time with a separate put for the
+ * record and each String.format-built index key; "batched" queues every trade with saveAsync
+ * and times until the write-behind queue is flushed. Both write binary records. The queries
+ * then run against the batched trades, next to a full decode of every record (what they used
+ * to cost). Run with {@code mvn exec:java@trade-persistence-benchmark}.
+ */
+public final class TradePersistenceBenchmark {
+
+    private static final int TRADES = Integer.getInteger("bench.trades", 50_000);
+    private static final long EPOCH_MILLIS = 1_772_461_800_000L;
+    private static final String[] SYMBOLS = {"AAPL", "MSFT", "GOOGL", "AMZN", "TSLA"};
+
+    private TradePersistenceBenchmark() {}
+
+    public static void main(String[] args) throws Exception {
+        Logger root = Logger.getLogger("");
+        root.setLevel(Level.SEVERE);
+        for (Handler handler : root.getHandlers()) handler.setLevel(Level.SEVERE);
+
+        RocksDBManager db = RocksDBManager.getInstance(Files.createTempDirectory("boe-trades").toString());
+        db.setRecordFormat(RocksDBManager.CF_TRADES, RecordFormat.BINARY);
+        try {
+            System.out.printf("Trade persistence, %,d trades%n", TRADES);
+
+            TradeRecordCodec codec = new TradeRecordCodec();
+            long t0 = System.nanoTime();
+            for (int i = 0; i < TRADES; i++) putPerKey(db, codec, trade(i));
+            report("put per key", System.nanoTime() - t0);
+
+            TradeRepositoryService repository = new TradeRepositoryService(db);
+            t0 = System.nanoTime();
+            for (int i = 0; i < TRADES; i++) repository.saveAsync(trade(TRADES + i));
+            while (repository.getPendingWrites() > 0) Thread.sleep(1);
+            repository.stopAsyncPersistence(); // waits for the last batch
+            report("batched", System.nanoTime() - t0);
+
+            Instant middle = Instant.ofEpochMilli(EPOCH_MILLIS + TRADES + TRADES / 2);
+            System.out.println("Queries (mean per call)");
+            query("full decode", () -> repository.search(TradeRepository.TradeSearchCriteria.builder().build()).size());
+            query("findLatest(100)", () -> repository.findLatest(100).size());
+            query("findByDateRange(1s)", () -> repository.findByDateRange(middle, middle.plusSeconds(1)).size());
+            query("findByOrderId", () -> repository.findByOrderId(2L * (TRADES + TRADES / 2)).size());
+        } finally {
+            db.close();
+        }
+    }
+
+    private static void query(String name, IntSupplier query) {
+        for (int i = 0; i < 3; i++) query.getAsInt();
+        int runs = 0, rows = 0;
+        long t0 = System.nanoTime(), elapsed;
+        do {
+            rows = query.getAsInt();
+            runs++;
+        } while ((elapsed = System.nanoTime() - t0) < 1_000_000_000L);
+        System.out.printf("  %-20s %,10.1f us  (%,d rows)%n", name, elapsed / 1e3 / runs, rows);
+    }
+
+    private static Trade trade(int i) {
+        return Trade.builder()
+                .tradeId(1_700_000_000_000L + i)
+                .symbol(SYMBOLS[i % SYMBOLS.length])
+                .buyOrderId(2L * i)
+                .buyClOrdID("BUY-" + i)
+                .buyUsername("TRD1")
+                .sellOrderId(2L * i + 1)
+                .sellClOrdID("SELL-" + i)
+                .sellUsername("TRD2")
+                .quantity(100)
+                .price(new BigDecimal("150.25"))
+                .executionTime(Instant.ofEpochMilli(EPOCH_MILLIS + i))
+                .clearingFirm("CLRF")
+                .build();
+    }
+
+    // The writer this replaced
+    private static void putPerKey(RocksDBManager db, TradeRecordCodec codec, Trade trade) throws Exception {
+        String cf = RocksDBManager.CF_TRADES; // string keys sort after the binary ones, out of the way
+        byte[] tradeIdBytes = String.valueOf(trade.getTradeId()).getBytes();
+        long millis = trade.getExecutionTime().toEpochMilli();
+        db.put(cf, ("trade:" + trade.getTradeId()).getBytes(), codec.encode(trade, RecordFormat.BINARY));
+        db.put(cf, String.format("trade-symbol:%s:%d", trade.getSymbol(), millis).getBytes(), tradeIdBytes);
+        db.put(cf, String.format("trade-user:%s:%d", trade.getBuyUsername(), millis).getBytes(), tradeIdBytes);
+        db.put(cf, String.format("trade-user:%s:%d", trade.getSellUsername(), millis).getBytes(), tradeIdBytes);
+        String date = trade.getExecutionTime().toString().substring(0, 10);
+        db.put(cf, String.format("trade-date:%s:%d", date, millis).getBytes(), tradeIdBytes);
+    }
+
+    private static void report(String name, long nanos) {
+        System.out.printf("  %-12s %,10.0f trades/s  (%,.0f ms)%n", name, TRADES / (nanos / 1e9), nanos / 1e6);
+    }
+}
@@ -0,0 +1,148 @@
+package com.boe.simulator.benchmark;
+
+import com.boe.simulator.protocol.message.InboundDecoder;
+import com.boe.simulator.protocol.message.NewOrderMessage;
+import com.boe.simulator.protocol.message.OrderAcknowledgmentMessage;
+import com.boe.simulator.protocol.message.ReturnBitfields;
+import com.boe.simulator.server.order.OrderExecutionContext;
+import com.boe.simulator.server.order.OrderManager;
+import com.boe.simulator.server.order.Symbols;
+import com.boe.simulator.server.persistence.RocksDBManager;
+import com.boe.simulator.server.session.ClientSession;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * New Order → Order Acknowledgment latency, in process: decode and validate the frame,
+ * run it through OrderManager and the matching engine, encode the ack. Socket I/O is left
+ * out so the numbers isolate the engine's own cost.
+ *
+ * Buy and sell orders alternate at the same price from two users, so every second order
+ * trades and the book stays small. Acks carry every supported field, prices included.
+ *
+ * Run with {@code mvn exec:java@benchmark}; {@code -Dbench.orders=N} sets the measured count.
+ * {@code -Dbench.entry=embedded} measures {@link OrderManager#submitNewOrder} instead: no frame
+ * is built or decoded and no ack is encoded, which leaves the engine on its own.
+ */
+public final class TradingLatencyBenchmark {
+
+    private static final int ORDERS = Integer.getInteger("bench.orders", 200_000);
+    private static final int WARMUP = Integer.getInteger("bench.warmup", 200_000);
+    private static final boolean EMBEDDED = "embedded".equals(System.getProperty("bench.entry", "wire"));
+    private static final byte[] ACK_FIELDS = {0x15, 0x41, 0x47, 0x0F};
+    private static final int AAPL = Symbols.id("AAPL");
+
+    private TradingLatencyBenchmark() {}
+
+    public static void main(String[] args) throws IOException {
+        Logger root = Logger.getLogger("");
+        root.setLevel(Level.WARNING);
+        for (Handler handler : root.getHandlers()) handler.setLevel(Level.WARNING);
+
+        RocksDBManager db = RocksDBManager.getInstance(Files.createTempDirectory("boe-bench").toString());
+        OrderManager orderManager = new OrderManager(db);
+        ClientSession buyer = session(1, "BUYER");
+        ClientSession seller = session(2, "SELLER");
+        InboundDecoder decoder = new InboundDecoder();
+
+        run(orderManager, decoder, buyer, seller, "W", WARMUP, null);
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long[] latencies = new long[ORDERS];
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        run(orderManager, decoder, buyer, seller, "M", ORDERS, latencies);
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+
+        Arrays.sort(latencies);
+        System.out.printf(EMBEDDED ? "Embedded submitNewOrder, %,d orders (%,d warm-up)%n" : "New Order -> Ack, %,d orders (%,d warm-up)%n", ORDERS, WARMUP);
+        System.out.printf("  mean   %8.2f us%n", Arrays.stream(latencies).average().orElse(0) / 1_000.0);
+        for (double p : new double[]{50, 90, 99, 99.9}) {
+            System.out.printf("  p%-5s %8.2f us%n", p, latencies[(int) Math.min(ORDERS - 1, ORDERS * p / 100)] / 1_000.0);
+        }
+        System.out.printf("  max    %8.2f us%n", latencies[ORDERS - 1] / 1_000.0);
+        System.out.printf("  total  %,.0f orders/s (including frame setup)%n", ORDERS / (elapsed / 1e9));
+        System.out.printf("  alloc  %,d bytes/order on the calling thread (including frame setup)%n", allocated / ORDERS);
+        System.exit(0);
+    }
+
+    private static void run(OrderManager orderManager, InboundDecoder decoder,
+                            ClientSession buyer, ClientSession seller,
+                            String prefix, int count, long[] latencies) {
+        if (EMBEDDED) {
+            runEmbedded(orderManager, buyer, seller, prefix, count, latencies);
+            return;
+        }
+        for (int i = 0; i < count; i++) {
+            boolean buy = (i & 1) == 0;
+            byte[] frame = newOrder(prefix + i, buy, i >> 1);
+            ClientSession session = buy ? buyer : seller;
+
+            long t0 = System.nanoTime();
+            if (decoder.decode(frame) != InboundDecoder.OK) throw new IllegalStateException("Rejected: " + prefix + i);
+            OrderManager.OrderResponse response = orderManager.processValidatedNewOrder((NewOrderMessage) decoder.message(), session);
+            byte[] ack = OrderAcknowledgmentMessage.fromOrder(response.getOrder(), session.getMatchingUnit(), 0, session.getReturnBitfields()).toBytes();
+            long t1 = System.nanoTime();
+
+            if (ack.length == 0) throw new IllegalStateException();
+            if (latencies != null) latencies[i] = t1 - t0;
+        }
+    }
+
+    private static void runEmbedded(OrderManager orderManager, ClientSession buyer, ClientSession seller,
+                                    String prefix, int count, long[] latencies) {
+        OrderExecutionContext buyerContext = OrderExecutionContext.embedded(buyer.getUsername());
+        OrderExecutionContext sellerContext = OrderExecutionContext.embedded(seller.getUsername());
+        for (int i = 0; i < count; i++) {
+            boolean buy = (i & 1) == 0;
+            String clOrdID = prefix + i;
+            long priceTicks = (15_000L + (i >> 1) % 50) * 100; // same ladder as the wire run, in 1/10,000ths
+
+            long t0 = System.nanoTime();
+            OrderManager.OrderResponse response = orderManager.submitNewOrder(buy ? buyerContext : sellerContext, clOrdID, AAPL,
+                    (byte) (buy ? '1' : '2'), 100, priceTicks, (byte) '2', (byte) 'C');
+            long t1 = System.nanoTime();
+
+            if (!response.isAcknowledged()) throw new IllegalStateException("Rejected: " + clOrdID);
+            if (latencies != null) latencies[i] = t1 - t0;
+        }
+    }
+
+    private static byte[] newOrder(String clOrdID, boolean buy, int pair) {
+        NewOrderMessage msg = new NewOrderMessage();
+        msg.setClOrdID(clOrdID);
+        msg.setSide((byte) (buy ? '1' : '2'));
+        msg.setOrderQty(100);
+        msg.setPrice(BigDecimal.valueOf(15_000 + pair % 50, 2));
+        msg.setOrdType((byte) '2');
+        msg.setSymbol("AAPL");
+        msg.setCapacity((byte) 'C');
+        msg.setClearingFirm("TEST");
+        return msg.toBytes();
+    }
+
+    private static ClientSession session(int id, String username) {
+        ClientSession session = new ClientSession(id, "bench");
+        session.setUsername(username);
+
+        ByteBuffer group = ByteBuffer.allocate(5 + ACK_FIELDS.length).order(ByteOrder.LITTLE_ENDIAN);
+        group.putShort((short) (5 + ACK_FIELDS.length));
+        group.put((byte) 0x81);
+        group.put((byte) 0x25);
+        group.put((byte) ACK_FIELDS.length);
+        group.put(ACK_FIELDS);
+        group.flip();
+        session.setReturnBitfields(ReturnBitfields.parse(1, group));
+        return session;
+    }
+}
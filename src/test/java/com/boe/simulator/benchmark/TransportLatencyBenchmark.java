@@ -0,0 +1,186 @@
+package com.boe.simulator.benchmark;
+
+import com.boe.simulator.client.SharedMemoryClient;
+import com.boe.simulator.protocol.message.LoginRequestMessage;
+import com.boe.simulator.protocol.message.NewOrderMessage;
+import com.boe.simulator.server.auth.AuthenticationService;
+import com.boe.simulator.server.config.ServerConfiguration;
+import com.boe.simulator.server.connection.ClientConnectionHandler;
+import com.boe.simulator.server.connection.SharedMemoryGateway;
+import com.boe.simulator.server.error.ErrorHandler;
+import com.boe.simulator.server.order.OrderManager;
+import com.boe.simulator.server.persistence.RocksDBManager;
+import com.boe.simulator.server.ratelimit.RateLimiter;
+import com.boe.simulator.server.session.ClientSessionManager;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * New Order → Order Acknowledgment round trip as a client sees it, over loopback TCP and over
+ * the shared-memory ring gateway. Both transports are served by the same in-process
+ * ClientConnectionHandler, OrderManager and matching engine, so the difference between the
+ * two runs is the transport.
+ *
+ * Orders are sent one at a time and rest on the book (buys below the market), so every reply
+ * is an ack. Run with {@code mvn exec:java@transport-benchmark}; {@code -Dbench.orders=N} sets
+ * the measured count per transport.
+ */
+public final class TransportLatencyBenchmark {
+
+    private static final int ORDERS = Integer.getInteger("bench.orders", 20_000);
+    private static final int WARMUP = Integer.getInteger("bench.warmup", 20_000);
+
+    private static final byte LOGIN_RESPONSE = 0x24;
+    private static final byte ORDER_ACK = 0x25;
+
+    private interface Link {
+        void send(byte[] frame) throws IOException;
+        byte[] receive() throws IOException;
+    }
+
+    private TransportLatencyBenchmark() {}
+
+    public static void main(String[] args) throws Exception {
+        Logger root = Logger.getLogger("");
+        root.setLevel(Level.WARNING);
+        for (Handler handler : root.getHandlers()) handler.setLevel(Level.WARNING);
+
+        RocksDBManager db = RocksDBManager.getInstance(Files.createTempDirectory("boe-bench").toString());
+        AuthenticationService authService = new AuthenticationService(db);
+        ClientSessionManager sessionManager = new ClientSessionManager();
+        OrderManager orderManager = new OrderManager(db);
+        orderManager.setSessionManager(sessionManager);
+        RateLimiter rateLimiter = new RateLimiter(Integer.MAX_VALUE, Duration.ofMinutes(1));
+        ServerConfiguration config = ServerConfiguration.builder().sessionJournalDirectory(null).build();
+
+        // TCP: one accepted socket on loopback
+        ServerSocket listener = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+        Socket socket = new Socket(InetAddress.getLoopbackAddress(), listener.getLocalPort());
+        socket.setTcpNoDelay(true);
+        Socket accepted = listener.accept();
+        accepted.setTcpNoDelay(true);
+        Thread.ofVirtual().start(new ClientConnectionHandler(accepted, 1, config, authService, sessionManager, new ErrorHandler(), rateLimiter, orderManager));
+        long[] tcp = measure("T", tcpLink(socket), "TRD1", "Pass1234!");
+
+        // Shared memory: the gateway publishes the rings, the client claims them. Like CboeServer,
+        // serve the rings from a platform thread so an idle reader yields the CPU, not a carrier
+        Path directory = Files.createTempDirectory("boe-shm");
+        SharedMemoryGateway gateway = new SharedMemoryGateway(directory, 1 << 20);
+        Thread.ofPlatform().daemon(true).start(() -> {
+            try {
+                if (gateway.awaitClient()) gateway.newHandler(2, config, authService, sessionManager, new ErrorHandler(), rateLimiter, orderManager).run();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        SharedMemoryClient client = SharedMemoryClient.connect(directory, Duration.ofSeconds(5));
+        long[] shm = measure("S", new Link() {
+            @Override
+            public void send(byte[] frame) throws IOException {
+                client.send(frame);
+            }
+
+            @Override
+            public byte[] receive() throws IOException {
+                return client.receive();
+            }
+        }, "TRD2", "Pass5678!");
+
+        System.out.printf("New Order -> Ack round trip, %,d orders per transport (%,d warm-up)%n", ORDERS, WARMUP);
+        System.out.printf("  %-6s %12s %12s%n", "", "tcp", "shm");
+        System.out.printf("  %-6s %9.2f us %9.2f us%n", "mean", mean(tcp), mean(shm));
+        for (double p : new double[]{50, 90, 99, 99.9}) {
+            System.out.printf("  p%-5s %9.2f us %9.2f us%n", p, percentile(tcp, p), percentile(shm, p));
+        }
+        System.out.printf("  %-6s %9.2f us %9.2f us%n", "max", tcp[ORDERS - 1] / 1_000.0, shm[ORDERS - 1] / 1_000.0);
+        System.exit(0);
+    }
+
+    private static long[] measure(String prefix, Link link, String username, String password) throws IOException {
+        link.send(new LoginRequestMessage(username, password, prefix + "001").toBytes());
+        byte[] response = awaitFrame(link, LOGIN_RESPONSE);
+        if (response[10] != 'A') throw new IllegalStateException("Login rejected for " + username);
+
+        roundTrips(link, prefix + "W", WARMUP, null);
+        long[] latencies = new long[ORDERS];
+        roundTrips(link, prefix + "M", ORDERS, latencies);
+        Arrays.sort(latencies);
+        return latencies;
+    }
+
+    private static void roundTrips(Link link, String prefix, int count, long[] latencies) throws IOException {
+        for (int i = 0; i < count; i++) {
+            byte[] frame = newOrder(prefix + i, i);
+            long t0 = System.nanoTime();
+            link.send(frame);
+            awaitFrame(link, ORDER_ACK);
+            long t1 = System.nanoTime();
+            if (latencies != null) latencies[i] = t1 - t0;
+        }
+    }
+
+    // Skips heartbeats and anything else that is not the expected reply
+    private static byte[] awaitFrame(Link link, byte type) throws IOException {
+        while (true) {
+            byte[] frame = link.receive();
+            if (frame == null) throw new IOException("Session closed");
+            if (frame[4] == type) return frame;
+            if (frame[4] == 0x26) throw new IllegalStateException("Order rejected");
+        }
+    }
+
+    private static byte[] newOrder(String clOrdID, int i) {
+        NewOrderMessage msg = new NewOrderMessage();
+        msg.setClOrdID(clOrdID);
+        msg.setSide((byte) '1');
+        msg.setOrderQty(100);
+        msg.setPrice(BigDecimal.valueOf(10_000 + i % 50, 2));
+        msg.setOrdType((byte) '2');
+        msg.setSymbol("AAPL");
+        msg.setCapacity((byte) 'C');
+        msg.setClearingFirm("TEST");
+        return msg.toBytes();
+    }
+
+    private static Link tcpLink(Socket socket) throws IOException {
+        DataInputStream in = new DataInputStream(socket.getInputStream());
+        OutputStream out = socket.getOutputStream();
+        return new Link() {
+            @Override
+            public void send(byte[] frame) throws IOException {
+                out.write(frame);
+            }
+
+            @Override
+            public byte[] receive() throws IOException {
+                byte[] prefix = new byte[4];
+                in.readFully(prefix);
+                byte[] frame = new byte[((prefix[2] & 0xFF) | (prefix[3] & 0xFF) << 8) + 2];
+                System.arraycopy(prefix, 0, frame, 0, 4);
+                in.readFully(frame, 4, frame.length - 4);
+                return frame;
+            }
+        };
+    }
+
+    private static double mean(long[] sorted) {
+        return Arrays.stream(sorted).average().orElse(0) / 1_000.0;
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        return sorted[(int) Math.min(sorted.length - 1, sorted.length * p / 100)] / 1_000.0;
+    }
+}
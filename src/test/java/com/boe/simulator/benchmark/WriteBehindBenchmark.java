@@ -0,0 +1,90 @@
+package com.boe.simulator.benchmark;
+
+import com.boe.simulator.protocol.types.OrdType;
+import com.boe.simulator.protocol.types.Side;
+import com.boe.simulator.server.order.Order;
+import com.boe.simulator.server.order.OrderRepository;
+import com.boe.simulator.server.persistence.RocksDBManager;
+import com.boe.simulator.server.persistence.WriteBehindJournal;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Cost of {@link OrderRepository#saveAsync} on the ack path with the in-memory write-behind
+ * queue and with the memory-mapped journal, next to a synchronous save, over a scratch RocksDB.
+ * Each run saves {@code bench.orders} (200,000 by default) orders from one thread, then waits
+ * for the applier to empty the backlog. Run with {@code mvn exec:java@write-behind-benchmark}.
+ */
+public final class WriteBehindBenchmark {
+
+    private static final int ORDERS = Integer.getInteger("bench.orders", 200_000);
+
+    private WriteBehindBenchmark() {}
+
+    public static void main(String[] args) throws Exception {
+        Logger root = Logger.getLogger("");
+        root.setLevel(Level.SEVERE);
+        for (Handler handler : root.getHandlers()) handler.setLevel(Level.SEVERE);
+
+        RocksDBManager db = RocksDBManager.getInstance(Files.createTempDirectory("boe-write-behind").toString());
+        Path journalDirectory = Files.createTempDirectory("boe-write-behind-journal");
+        try {
+            System.out.printf("Order persistence, %,d orders%n", ORDERS);
+            System.out.printf("  %-8s %10s %10s %10s %14s%n", "path", "p50", "p99", "p99.9", "drained/s");
+            // The first round warms up the JIT and the journal files and is not reported
+            for (int round = 0; round < 2; round++) {
+                boolean report = round == 1;
+                run("sync", new OrderRepository(db), 3 * round, true, report);
+                run("queue", new OrderRepository(db), 3 * round + 1, false, report);
+                run("journal", new OrderRepository(db, WriteBehindJournal.open(journalDirectory, "orders")), 3 * round + 2, false, report);
+            }
+        } finally {
+            db.close();
+        }
+    }
+
+    private static void run(String name, OrderRepository repository, int runIndex, boolean sync, boolean report) throws Exception {
+        Order[] orders = new Order[ORDERS];
+        long firstOrderID = 1_000_000L + (long) runIndex * ORDERS;
+        for (int i = 0; i < ORDERS; i++) orders[i] = order(name + "-" + i, firstOrderID + i);
+
+        long[] latencies = new long[ORDERS];
+        long start = System.nanoTime();
+        for (int i = 0; i < ORDERS; i++) {
+            long t0 = System.nanoTime();
+            if (sync) repository.save(orders[i]);
+            else repository.saveAsync(orders[i]);
+            latencies[i] = System.nanoTime() - t0;
+        }
+        while (repository.getPendingWrites() > 0) Thread.sleep(1);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        repository.stopAsyncPersistence();
+        if (!report) return;
+
+        Arrays.sort(latencies);
+        System.out.printf("  %-8s %8.2fus %8.2fus %8.2fus %,14.0f%n", name,
+                latencies[ORDERS / 2] / 1e3, latencies[(int) (ORDERS * 0.99)] / 1e3,
+                latencies[(int) (ORDERS * 0.999)] / 1e3, ORDERS / seconds);
+    }
+
+    private static Order order(String clOrdID, long orderID) {
+        Order order = Order.builder()
+                .clOrdID(clOrdID)
+                .orderID(orderID)
+                .username("TRD1")
+                .side(Side.BUY)
+                .orderQty(100)
+                .price(new BigDecimal("150.25"))
+                .ordType(OrdType.LIMIT)
+                .symbol("AAPL")
+                .build();
+        order.acknowledge();
+        return order;
+    }
+}
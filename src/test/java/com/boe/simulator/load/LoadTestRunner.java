@@ -9,6 +9,8 @@ import java.lang.management.ManagementFactory;
 import java.math.BigDecimal;
 import java.net.*;
 import java.net.http.*;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
 import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.*;
@@ -21,7 +23,8 @@ import java.util.concurrent.atomic.AtomicInteger;
  *   1. TCP Connection Capacity  — raw sockets to port 9090, no login
  *   2. BOE Login Throughput     — full login/hold/close cycle (needs unique users)
  *   3. REST API Throughput      — concurrent HTTP requests to port 8081
- *   4. Order Ack Latency        — spec-correct New Order → Order Ack RTT (μs precision)
+ *   4. Order Ack Latency        — spec-correct New Order → Order Ack RTT (μs precision),
+ *                                 over TCP and optionally a Unix domain socket
  *   5. Memory Stability         — 10,000 orders, heap growth bounded check
  *
  * HOW TO RUN:
@@ -40,6 +43,8 @@ import java.util.concurrent.atomic.AtomicInteger;
  *   --ack-sessions=N   parallel sessions for latency test      (default: 10)
  *   --ack-orders=N     orders per session for latency test     (default: 100)
  *   --mem-orders=N     total orders for memory stability test  (default: 10000)
+ *   --uds=PATH         also run Phase 4 over the server's Unix domain socket
+ *                      (server started with BOE_UNIX_SOCKET=PATH)
  *   --skip-tcp         skip Phase 1
  *   --skip-login       skip Phase 2
  *   --skip-rest        skip Phase 3
@@ -53,8 +58,8 @@ public class LoadTestRunner {
     static final int    REST_PORT = 8081;
 
     // BOE message type constants
-    static final byte MSG_SERVER_HB   = 0x01;
-    static final byte MSG_LOGIN_RESP  = 0x07;
+    static final byte MSG_SERVER_HB   = 0x09;
+    static final byte MSG_LOGIN_RESP  = 0x24;
     static final byte MSG_ORDER_ACK   = 0x25;
     static final byte MSG_ORDER_REJ   = 0x26;
 
@@ -73,6 +78,7 @@ public class LoadTestRunner {
         int ackSessions  = intArg(args, "--ack-sessions",     10);
         int ackOrders    = intArg(args, "--ack-orders",       100);
         int memOrders    = intArg(args, "--mem-orders",   10_000);
+        String udsPath   = stringArg(args, "--uds",          null);
 
         boolean skipTcp    = hasFlag(args, "--skip-tcp");
         boolean skipLogin  = hasFlag(args, "--skip-login");
@@ -88,12 +94,17 @@ public class LoadTestRunner {
         LoginThroughputResult loginResult  = null;
         RestResult            restResult   = null;
         OrderAckLatencyResult ackResult    = null;
+        OrderAckLatencyResult udsAckResult = null;
         MemoryStabilityResult memResult    = null;
 
         if (!skipTcp)    { tcpResult   = runTcpCapacityTest(tcpTarget, holdSecs);           System.out.println(); }
         if (!skipLogin)  { loginResult = runLoginThroughputTest(loginTarget, holdSecs);      System.out.println(); }
         if (!skipRest)   { restResult  = runRestTest(restTotal, concurrency);                System.out.println(); }
-        if (!skipAck)    { ackResult   = runOrderAckLatencyTest(ackSessions, ackOrders);     System.out.println(); }
+        if (!skipAck)    { ackResult   = runOrderAckLatencyTest(ackSessions, ackOrders, null); System.out.println(); }
+        if (!skipAck && udsPath != null) {
+            udsAckResult = runOrderAckLatencyTest(ackSessions, ackOrders, udsPath);
+            System.out.println();
+        }
         if (!skipMemory) { memResult   = runMemoryStabilityTest(memOrders);                  System.out.println(); }
 
         System.out.println("═══════════════════════════════════════════════════════════");
@@ -103,6 +114,11 @@ public class LoadTestRunner {
         if (loginResult != null) { printLoginReport(loginResult);         System.out.println(); }
         if (restResult  != null) { printRestReport(restResult);           System.out.println(); }
         if (ackResult   != null) { printOrderAckReport(ackResult);        System.out.println(); }
+        if (udsAckResult != null) {
+            printOrderAckReport(udsAckResult);
+            if (ackResult != null) printTransportComparison(ackResult, udsAckResult);
+            System.out.println();
+        }
         if (memResult   != null) { printMemoryReport(memResult); }
         System.out.println("═══════════════════════════════════════════════════════════");
     }
@@ -342,15 +358,18 @@ public class LoadTestRunner {
     // ── Phase 4: Order Ack Latency ────────────────────────────────────────────
     // Registers N unique users, opens N parallel BOE sessions, sends M orders
     // per session sequentially (send → read ack → repeat), measures RTT in μs.
+    // unixPath == null runs over TCP; otherwise over the Unix domain socket at that path.
 
-    static OrderAckLatencyResult runOrderAckLatencyTest(int sessions, int ordersPerSession)
+    static OrderAckLatencyResult runOrderAckLatencyTest(int sessions, int ordersPerSession, String unixPath)
             throws Exception {
-        System.out.printf("┌─ Phase 4: Order Ack Latency  sessions=%d  orders/session=%d%n",
-                sessions, ordersPerSession);
+        String transport = unixPath == null ? "TCP" : "UDS";
+        System.out.printf("┌─ Phase 4: Order Ack Latency [%s]  sessions=%d  orders/session=%d%n",
+                transport, sessions, ordersPerSession);
         System.out.println("│  (spec-correct New Order wire format: Side='1', OrdType='2')");
         System.out.println("│");
 
-        // Register test users (prefix "Q" to avoid Phase 2 conflicts)
+        // Register test users (prefix "Q", or "U" over UDS, to avoid Phase 2 and TCP-run conflicts)
+        String prefix = unixPath == null ? "Q" : "U";
         HttpClient http = HttpClient.newBuilder()
                 .executor(Executors.newVirtualThreadPerTaskExecutor())
                 .connectTimeout(Duration.ofSeconds(5))
@@ -358,7 +377,7 @@ public class LoadTestRunner {
 
         List<String[]> creds = new ArrayList<>(sessions);
         for (int i = 0; i < sessions; i++) {
-            String user = String.format("Q%02d", i);
+            String user = String.format("%s%02d", prefix, i);
             String pass = "AckTest1!";
             creds.add(new String[]{user, pass});
             registerUser(http, user, pass);
@@ -379,14 +398,16 @@ public class LoadTestRunner {
             final int sidx = si;
             final String[] cred = creds.get(si);
             exec.submit(() -> {
-                try (Socket s = loginBoe(cred[0], cred[1], String.format("QS%02d", sidx))) {
+                String subID = String.format("%sS%02d", prefix, sidx);
+                try (BoeSession s = unixPath == null
+                        ? loginBoeSession(cred[0], cred[1], subID)
+                        : loginBoeUnix(unixPath, cred[0], cred[1], subID)) {
                     if (s == null) { connErr.incrementAndGet(); return; }
-                    s.setSoTimeout(5_000);
-                    OutputStream out = s.getOutputStream();
-                    InputStream  in  = s.getInputStream();
+                    OutputStream out = s.out();
+                    InputStream  in  = s.in();
 
                     for (int oi = 0; oi < ordersPerSession; oi++) {
-                        String clOrdID = String.format("Q%02d%07d", sidx, oi);
+                        String clOrdID = String.format("%s%02d%07d", prefix, sidx, oi);
                         byte[] orderBytes = buildNewOrder(clOrdID, oi + 1);
 
                         long start = System.nanoTime();
@@ -416,7 +437,7 @@ public class LoadTestRunner {
         latch.await(300, TimeUnit.SECONDS);
         exec.shutdownNow();
 
-        return new OrderAckLatencyResult(sessions, ordersPerSession,
+        return new OrderAckLatencyResult(transport, sessions, ordersPerSession,
                 ackOk.get(), ackFailed.get(), connErr.get(),
                 System.currentTimeMillis() - t0, ackUs);
     }
@@ -502,7 +523,7 @@ public class LoadTestRunner {
         msg.setOrderQty(100);
         msg.setSequenceNumber(seqNum);
         msg.setMatchingUnit((byte) 0);
-        msg.setSymbol("SPX");
+        msg.setSymbol("AAPL");
         msg.setPrice(new BigDecimal("50.0000"));
         msg.setOrdType((byte) '2');
         msg.setCapacity((byte) 'C');
@@ -538,7 +559,7 @@ public class LoadTestRunner {
 
     /**
      * Reads messages until an Order Ack (0x25) or Order Rejected (0x26) arrives.
-     * Silently skips Server Heartbeats (0x01) and any other non-order messages.
+     * Silently skips Server Heartbeats (0x09) and any other non-order messages.
      */
     static byte[] readUntilOrderResponse(InputStream in) throws IOException {
         while (true) {
@@ -590,6 +611,43 @@ public class LoadTestRunner {
         }
     }
 
+    /** An open BOE session, over TCP or a Unix domain socket. */
+    record BoeSession(Closeable connection, InputStream in, OutputStream out) implements Closeable {
+        @Override
+        public void close() throws IOException { connection.close(); }
+    }
+
+    static BoeSession loginBoeSession(String user, String pass, String subID) throws IOException {
+        Socket s = loginBoe(user, pass, subID);
+        if (s == null) return null;
+        s.setSoTimeout(5_000);
+        return new BoeSession(s, s.getInputStream(), s.getOutputStream());
+    }
+
+    /**
+     * Same handshake as {@link #loginBoe} over the server's Unix domain socket.
+     * Returns null on login rejection.
+     */
+    static BoeSession loginBoeUnix(String path, String user, String pass, String subID) throws IOException {
+        SocketChannel ch = SocketChannel.open(UnixDomainSocketAddress.of(path));
+        try {
+            InputStream  in  = Channels.newInputStream(ch);
+            OutputStream out = Channels.newOutputStream(ch);
+            out.write(new LoginRequestMessage(user, pass, subID).toBytes());
+            byte[] resp = readAtLeast(in, 11);
+            if (resp.length >= 11
+                    && resp[4] == MSG_LOGIN_RESP
+                    && resp[LOGIN_RESP_STATUS_OFFSET] == STATUS_ACCEPTED) {
+                return new BoeSession(ch, in, out);
+            }
+            ch.close();
+            return null;
+        } catch (IOException e) {
+            ch.close();
+            throw e;
+        }
+    }
+
     // ── Report printers ───────────────────────────────────────────────────────
 
     static void printTcpCapacityReport(TcpCapacityResult r) {
@@ -654,7 +712,7 @@ public class LoadTestRunner {
 
     static void printOrderAckReport(OrderAckLatencyResult r) {
         int total = r.ackOk + r.ackFailed;
-        System.out.println("  ┌─ Phase 4: Order Ack Latency");
+        System.out.printf("  ┌─ Phase 4: Order Ack Latency [%s]%n", r.transport);
         System.out.printf("  │  Sessions             : %d%n", r.sessions);
         System.out.printf("  │  Orders/session       : %d%n", r.ordersPerSession);
         System.out.printf("  │  Total orders sent    : %,d%n", total);
@@ -674,6 +732,16 @@ public class LoadTestRunner {
         System.out.println("  └──────────────────────────────────────────────────");
     }
 
+    static void printTransportComparison(OrderAckLatencyResult tcp, OrderAckLatencyResult uds) {
+        if (tcp.ackUs.isEmpty() || uds.ackUs.isEmpty()) return;
+        long[] t = sorted(tcp.ackUs);
+        long[] u = sorted(uds.ackUs);
+        System.out.println("  ┌─ Phase 4: TCP vs UDS");
+        System.out.printf("  │  p50  TCP / UDS       : %,dμs / %,dμs%n", p(t, 50), p(u, 50));
+        System.out.printf("  │  p99  TCP / UDS       : %,dμs / %,dμs%n", p(t, 99), p(u, 99));
+        System.out.println("  └──────────────────────────────────────────────────");
+    }
+
     static void printMemoryReport(MemoryStabilityResult r) {
         long deltaMB    = r.heapAfterMB - r.heapBeforeMB;
         long bytesPerOrder = r.totalOrders > 0 && deltaMB > 0
@@ -743,6 +811,11 @@ public class LoadTestRunner {
         return def;
     }
 
+    static String stringArg(String[] args, String key, String def) {
+        for (String a : args) if (a.startsWith(key + "=")) return a.substring(key.length() + 1);
+        return def;
+    }
+
     static boolean hasFlag(String[] args, String flag) {
         for (String a : args) if (a.equals(flag)) return true;
         return false;
@@ -776,7 +849,7 @@ public class LoadTestRunner {
     ) {}
 
     record OrderAckLatencyResult(
-            int sessions, int ordersPerSession, int ackOk, int ackFailed, int connErrors,
+            String transport, int sessions, int ordersPerSession, int ackOk, int ackFailed, int connErrors,
             long elapsedMs, ConcurrentLinkedQueue<Long> ackUs
     ) {}
 
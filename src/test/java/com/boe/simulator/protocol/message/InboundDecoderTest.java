@@ -0,0 +1,321 @@
+package com.boe.simulator.protocol.message;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Random;
+
+import com.boe.simulator.server.order.OrderValidator;
+import com.boe.simulator.server.validation.MessageValidator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Differential tests: the fused decoder must agree with the reference pipeline
+ * (MessageValidator → NewOrderMessage.parse → OrderValidator.validateNewOrder).
+ */
+class InboundDecoderTest {
+
+    private static final OrderValidator REFERENCE_VALIDATOR = new OrderValidator();
+
+    private static final String[] CLORDIDS = {"ORD-1", "A", "ORDER12345678901234X", "  LEAD", "BAD ID", "BAD,ID", "BAD@ID", "", "Q\"X"};
+    private static final byte[] SIDES = {'1', '2', 1, 2, 'B', 'S', 'X', 0};
+    private static final int[] QUANTITIES = {1, 100, 999_999, 0, -5, 1_000_000};
+    private static final String[] SYMBOLS = {"AAPL", "MSFT", "SPY1", "aapl", "", "A B", "  IBM", "ABC$"};
+    private static final String[] PRICES = {"150.25", "0", "999999.9999", "-1", "1000000", "0.0001"};
+    private static final byte[] ORD_TYPES = {'1', '2', 1, 2, '3'};
+    private static final byte[] CAPACITIES = {'A', 'C', 'M', 'P', 'X', ' ', 0};
+    private static final byte[] OPEN_CLOSES = {'O', 'C', 'N', ' ', 'Z'};
+    private static final byte[] PUT_OR_CALLS = {'0', '1', 'P', 'C', 'Z'};
+
+    @Test
+    void randomNewOrders_decoderAgreesWithReference() {
+        // Arrange
+        Random random = new Random(20_240_501L);
+        InboundDecoder decoder = new InboundDecoder();
+        int accepted = 0;
+
+        for (int i = 0; i < 20_000; i++) {
+            byte[] frame = randomNewOrder(random).toBytes();
+
+            // Act
+            boolean referenceValid = referenceAccepts(frame);
+            byte code = decoder.decode(frame);
+
+            // Assert
+            assertEquals(referenceValid, code == InboundDecoder.OK,
+                    "Disagreement on iteration " + i + ": decoder=" + InboundDecoder.describe(code));
+            if (referenceValid) {
+                accepted++;
+                assertSameFields(NewOrderMessage.parse(frame), (NewOrderMessage) decoder.message());
+            }
+        }
+        assertTrue(accepted > 500, "Generator should produce a meaningful share of valid orders");
+    }
+
+    @Test
+    void decode_validNewOrder_returnsPopulatedMessage() {
+        // Arrange
+        NewOrderMessage order = validOrder();
+        InboundDecoder decoder = new InboundDecoder();
+
+        // Act
+        byte code = decoder.decode(order.toBytes());
+
+        // Assert
+        assertEquals(InboundDecoder.OK, code);
+        NewOrderMessage decoded = (NewOrderMessage) decoder.message();
+        assertEquals("ORD-1", decoded.getClOrdID());
+        assertEquals("AAPL", decoded.getSymbol());
+        assertEquals(0, new BigDecimal("150.25").compareTo(decoded.getPrice()));
+    }
+
+    @Test
+    void decode_fieldReject_keepsClOrdIdForTheReject() {
+        // Arrange
+        NewOrderMessage order = validOrder();
+        order.setOrderQty(0);
+        InboundDecoder decoder = new InboundDecoder();
+
+        // Act
+        byte code = decoder.decode(order.toBytes());
+
+        // Assert
+        assertEquals(InboundDecoder.INVALID_QUANTITY, code);
+        assertFalse(InboundDecoder.isFrameReject(code));
+        assertEquals("ORD-1", ((NewOrderMessage) decoder.message()).getClOrdID());
+        assertEquals(OrderRejectedMessage.REASON_INVALID_QUANTITY, InboundDecoder.toOrderRejectReason(code));
+    }
+
+    @Test
+    void decode_badStartMarker_isFrameReject() {
+        // Arrange
+        byte[] frame = validOrder().toBytes();
+        frame[0] = 0x00;
+        InboundDecoder decoder = new InboundDecoder();
+
+        // Act
+        byte code = decoder.decode(frame);
+
+        // Assert
+        assertEquals(InboundDecoder.FRAME_INVALID, code);
+        assertNull(decoder.message());
+    }
+
+    @Test
+    void decode_lengthFieldMismatch_isFrameReject() {
+        // Arrange
+        byte[] frame = validOrder().toBytes();
+        frame[2]++;
+
+        // Act
+        byte code = new InboundDecoder().decode(frame);
+
+        // Assert
+        assertEquals(InboundDecoder.LENGTH_MISMATCH, code);
+    }
+
+    @Test
+    void decode_trailingBytesBeyondBitfields_isRejected() {
+        // Arrange — the reference path silently ignores bytes no bitfield accounts for
+        byte[] valid = validOrder().toBytes();
+        byte[] frame = withLengthFixed(Arrays.copyOf(valid, valid.length + 4));
+
+        // Act
+        byte code = new InboundDecoder().decode(frame);
+
+        // Assert
+        assertEquals(InboundDecoder.BITFIELD_MISMATCH, code);
+    }
+
+    @Test
+    void decode_unknownBitfieldBit_isRejected() {
+        // Arrange — Bitfield 2 bit 1 has no field in this simulator
+        byte[] frame = validOrder().toBytes();
+        frame[37] |= 0x02;
+
+        // Act
+        byte code = new InboundDecoder().decode(frame);
+
+        // Assert
+        assertEquals(InboundDecoder.UNSUPPORTED_BITFIELD, code);
+    }
+
+    @Test
+    void decode_cancelOrder_matchesParse() {
+        // Arrange
+        CancelOrderMessage cancel = new CancelOrderMessage("ORD-1");
+        cancel.setSequenceNumber(7);
+        byte[] frame = cancel.toBytes();
+        InboundDecoder decoder = new InboundDecoder();
+
+        // Act
+        byte code = decoder.decode(frame);
+
+        // Assert
+        assertEquals(InboundDecoder.OK, code);
+        CancelOrderMessage decoded = (CancelOrderMessage) decoder.message();
+        assertEquals("ORD-1", decoded.getOrigClOrdID());
+        assertEquals(7, decoded.getSequenceNumber());
+    }
+
+    @Test
+    void decode_modifyWithoutOrderQty_isFieldReject() {
+        // Arrange — one bitfield carrying only Price
+        ByteBuffer buf = ByteBuffer.allocate(51 + 1 + 8).order(ByteOrder.LITTLE_ENDIAN);
+        buf.put((byte) 0xBA).put((byte) 0xBA).putShort((short) (buf.capacity() - 2));
+        buf.put(ModifyOrderMessage.MESSAGE_TYPE).put((byte) 0).putInt(3);
+        buf.put(Arrays.copyOf("MOD-2".getBytes(), 20)).put(Arrays.copyOf("MOD-1".getBytes(), 20));
+        buf.put((byte) 1).put((byte) 0x08).putLong(1_500_000L);
+        InboundDecoder decoder = new InboundDecoder();
+
+        // Act
+        byte code = decoder.decode(buf.array());
+
+        // Assert
+        assertEquals(InboundDecoder.MISSING_ORDER_QTY, code);
+        assertEquals("MOD-2", ((ModifyOrderMessage) decoder.message()).getClOrdID());
+    }
+
+    @Test
+    void decode_massCancelWithOptionalFields_matchesParse() {
+        // Arrange — ClearingFirm, MassCancelInst, Symbol and SendTime
+        ByteBuffer buf = ByteBuffer.allocate(31 + 2 + 4 + 16 + 8 + 8).order(ByteOrder.LITTLE_ENDIAN);
+        buf.put((byte) 0xBA).put((byte) 0xBA).putShort((short) (buf.capacity() - 2));
+        buf.put(CancelOrderMessage.MESSAGE_TYPE).put((byte) 0).putInt(9).put(new byte[20]);
+        buf.put((byte) 2).put((byte) 0x01).put((byte) 0x0B);
+        buf.put("FIRM".getBytes()).put(Arrays.copyOf("S-L".getBytes(), 16)).put(Arrays.copyOf("AAPL".getBytes(), 8)).putLong(123_456L);
+        byte[] frame = buf.array();
+        InboundDecoder decoder = new InboundDecoder();
+
+        // Act
+        byte code = decoder.decode(frame);
+
+        // Assert
+        assertEquals(InboundDecoder.OK, code);
+        CancelOrderMessage expected = CancelOrderMessage.parse(frame);
+        CancelOrderMessage decoded = (CancelOrderMessage) decoder.message();
+        assertTrue(decoded.isMassCancel());
+        assertEquals(expected.getClearingFirm(), decoded.getClearingFirm());
+        assertEquals(expected.getMassCancelInst(), decoded.getMassCancelInst());
+        assertEquals(expected.getSymbol(), decoded.getSymbol());
+        assertEquals(expected.getSendTime(), decoded.getSendTime());
+        assertTrue(decoded.isLockoutRequested());
+        assertArrayEquals(frame, decoded.toBytes());
+    }
+
+    @Test
+    void decode_modifyWithOptionalFields_matchesParse() {
+        // Arrange — ClearingFirm, OrderQty, Price, OrdType, Side, then MaxFloor in the second byte
+        ByteBuffer buf = ByteBuffer.allocate(51 + 2 + 4 + 4 + 8 + 1 + 1 + 4).order(ByteOrder.LITTLE_ENDIAN);
+        buf.put((byte) 0xBA).put((byte) 0xBA).putShort((short) (buf.capacity() - 2));
+        buf.put(ModifyOrderMessage.MESSAGE_TYPE).put((byte) 0).putInt(4);
+        buf.put(Arrays.copyOf("MOD-2".getBytes(), 20)).put(Arrays.copyOf("MOD-1".getBytes(), 20));
+        buf.put((byte) 2).put((byte) 0x9D).put((byte) 0x01);
+        buf.put("FIRM".getBytes()).putInt(250).putLong(1_512_500L).put((byte) '2').put((byte) '1').putInt(100);
+        byte[] frame = buf.array();
+        InboundDecoder decoder = new InboundDecoder();
+
+        // Act
+        byte code = decoder.decode(frame);
+
+        // Assert
+        assertEquals(InboundDecoder.OK, code);
+        ModifyOrderMessage expected = ModifyOrderMessage.parse(frame);
+        ModifyOrderMessage decoded = (ModifyOrderMessage) decoder.message();
+        assertEquals(expected.toString(), decoded.toString());
+        assertEquals(expected.getClearingFirm(), decoded.getClearingFirm());
+        assertEquals(expected.getPriceRaw(), decoded.getPriceRaw());
+        assertEquals(expected.getOrdType(), decoded.getOrdType());
+        assertEquals(expected.getSide(), decoded.getSide());
+        assertEquals(4, decoded.getSequenceNumber());
+    }
+
+    // ── Helpers ──────────────────────────────────────────────────────────────
+
+    private static boolean referenceAccepts(byte[] frame) {
+        if (!MessageValidator.validate(new BoeMessage(frame)).isValid()) return false;
+        try {
+            return REFERENCE_VALIDATOR.validateNewOrder(NewOrderMessage.parse(frame)).isValid();
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    private static NewOrderMessage validOrder() {
+        NewOrderMessage order = new NewOrderMessage();
+        order.setClOrdID("ORD-1");
+        order.setSide((byte) '1');
+        order.setOrderQty(100);
+        order.setPrice(new BigDecimal("150.25"));
+        order.setSymbol("AAPL");
+        order.setCapacity((byte) 'C');
+        return order;
+    }
+
+    private static NewOrderMessage randomNewOrder(Random random) {
+        NewOrderMessage order = new NewOrderMessage();
+        order.setSequenceNumber(random.nextInt(1_000_000));
+        order.setMatchingUnit((byte) random.nextInt(4));
+        order.setClOrdID(pick(random, CLORDIDS, 0.6));
+        order.setSide(pick(random, SIDES, 0.7));
+        order.setOrderQty(random.nextDouble() < 0.7 ? 1 + random.nextInt(5000) : QUANTITIES[random.nextInt(QUANTITIES.length)]);
+
+        if (random.nextDouble() < 0.3) order.setClearingFirm("FIRM");
+        if (random.nextDouble() < 0.2) order.setClearingAccount("ACCT");
+        if (random.nextDouble() < 0.85) order.setPrice(new BigDecimal(pick(random, PRICES, 0.6)));
+        if (random.nextDouble() < 0.4) order.setOrdType(pick(random, ORD_TYPES, 0.6));
+        if (random.nextDouble() < 0.3) order.setTimeInForce((byte) '0');
+        if (random.nextDouble() < 0.9) order.setSymbol(pick(random, SYMBOLS, 0.6));
+        if (random.nextDouble() < 0.9) order.setCapacity(pick(random, CAPACITIES, 0.7));
+        if (random.nextDouble() < 0.3) order.setRoutingInst((byte) 'B');
+        if (random.nextDouble() < 0.3) order.setAccount("ACCOUNT-" + random.nextInt(100));
+        if (random.nextDouble() < 0.15) order.setMaturityDate(Instant.parse("2026-12-18T12:00:00Z"));
+        if (random.nextDouble() < 0.15) order.setStrikePrice(new BigDecimal(pick(random, PRICES, 0.7)));
+        if (random.nextDouble() < 0.15) order.setPutOrCall(pick(random, PUT_OR_CALLS, 0.7));
+        if (random.nextDouble() < 0.2) order.setOpenClose(pick(random, OPEN_CLOSES, 0.7));
+        return order;
+    }
+
+    // Biased towards the first entries, which are the valid ones
+    private static <T> T pick(Random random, T[] values, double validShare) {
+        return random.nextDouble() < validShare ? values[0] : values[random.nextInt(values.length)];
+    }
+
+    private static byte pick(Random random, byte[] values, double validShare) {
+        return random.nextDouble() < validShare ? values[0] : values[random.nextInt(values.length)];
+    }
+
+    private static byte[] withLengthFixed(byte[] frame) {
+        int length = frame.length - 2;
+        frame[2] = (byte) length;
+        frame[3] = (byte) (length >> 8);
+        return frame;
+    }
+
+    private static void assertSameFields(NewOrderMessage expected, NewOrderMessage actual) {
+        assertEquals(expected.getMatchingUnit(), actual.getMatchingUnit());
+        assertEquals(expected.getSequenceNumber(), actual.getSequenceNumber());
+        assertEquals(expected.getClOrdID(), actual.getClOrdID());
+        assertEquals(expected.getSide(), actual.getSide());
+        assertEquals(expected.getOrderQty(), actual.getOrderQty());
+        assertEquals(expected.getClearingFirm(), actual.getClearingFirm());
+        assertEquals(expected.getClearingAccount(), actual.getClearingAccount());
+        assertEquals(expected.getPrice(), actual.getPrice());
+        assertEquals(expected.getOrdType(), actual.getOrdType());
+        assertEquals(expected.getTimeInForce(), actual.getTimeInForce());
+        assertEquals(expected.getSymbol(), actual.getSymbol());
+        assertEquals(expected.getCapacity(), actual.getCapacity());
+        assertEquals(expected.getRoutingInst(), actual.getRoutingInst());
+        assertEquals(expected.getAccount(), actual.getAccount());
+        assertEquals(expected.getMaturityDate(), actual.getMaturityDate());
+        assertEquals(expected.getStrikePrice(), actual.getStrikePrice());
+        assertEquals(expected.getPutOrCall(), actual.getPutOrCall());
+        assertEquals(expected.getOpenClose(), actual.getOpenClose());
+        assertArrayEquals(expected.toBytes(), actual.toBytes());
+    }
+}
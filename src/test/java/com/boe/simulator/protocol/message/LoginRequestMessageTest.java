@@ -117,4 +117,35 @@ class LoginRequestMessageTest {
         assertArrayEquals(new byte[]{0x41}, parsed.getReturnBitfields().maskFor((byte) 0x25));
         assertArrayEquals(new byte[]{0x41, 0x40}, parsed.getReturnBitfields().maskFor((byte) 0x2C));
     }
+
+    @Test
+    void parseFromBytes_shouldReadUnitSequenceAlongsideReturnBitfields() {
+        // Arrange
+        ReturnBitfields returnBitfields = ReturnBitfields.parse(1, java.nio.ByteBuffer.wrap(new byte[]{
+                0x06, 0x00, (byte) 0x81, 0x25, 0x01, 0x41
+        }).order(java.nio.ByteOrder.LITTLE_ENDIAN));
+        LoginRequestMessage original = new LoginRequestMessage("user", "pass", "S1", (byte) 1, returnBitfields);
+        original.setUnitSequence(4242);
+
+        // Act
+        LoginRequestMessage parsed = LoginRequestMessage.parseFromBytes(original.toBytes());
+
+        // Assert
+        assertTrue(parsed.hasUnitSequence());
+        assertEquals(4242, parsed.getUnitSequence());
+        assertArrayEquals(new byte[]{0x41}, parsed.getReturnBitfields().maskFor((byte) 0x25));
+    }
+
+    @Test
+    void parseFromBytes_withoutUnitSequencesGroup_shouldNotRequestReplay() {
+        // Arrange
+        LoginRequestMessage original = new LoginRequestMessage("user", "pass", "S1", (byte) 1);
+
+        // Act
+        LoginRequestMessage parsed = LoginRequestMessage.parseFromBytes(original.toBytes());
+
+        // Assert
+        assertFalse(parsed.hasUnitSequence());
+        assertEquals(LoginRequestMessage.NO_UNIT_SEQUENCE, parsed.getUnitSequence());
+    }
 }
@@ -35,7 +35,7 @@ class ReturnBitfieldsPhase7Test {
     private static Trade trade() {
         return new Trade(9999L, "SPX", 42L, "ORD001", "user",
                 43L, "ORD002", "user2",
-                50, new BigDecimal("1.50"), Instant.now(), (byte) 1, "");
+                50, 15_000L, Instant.now(), (byte) 1, "");
     }
 
     @Test
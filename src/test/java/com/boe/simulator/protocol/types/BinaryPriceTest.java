@@ -7,7 +7,10 @@ import java.nio.ByteOrder;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.Test;
 
 class BinaryPriceTest {
@@ -200,4 +203,26 @@ class BinaryPriceTest {
         // Assert
         assertEquals(expectedPrice.setScale(4, RoundingMode.HALF_UP), finalPrice);
     }
-}
\ No newline at end of file
+
+    @Test
+    void toRaw_andToDecimal_areExactInverses() {
+        // Arrange
+        BigDecimal price = new BigDecimal("150.2575");
+
+        // Act
+        long raw = BinaryPrice.toRaw(price);
+
+        // Assert
+        assertEquals(1_502_575L, raw);
+        assertEquals(price, BinaryPrice.toDecimal(raw));
+    }
+
+    @Test
+    void toRaw_andToDecimal_mapNullToNoPrice() {
+        // Act & Assert
+        assertEquals(BinaryPrice.NO_PRICE, BinaryPrice.toRaw(null));
+        assertNull(BinaryPrice.toDecimal(BinaryPrice.NO_PRICE));
+        assertFalse(BinaryPrice.isPresent(BinaryPrice.NO_PRICE));
+        assertTrue(BinaryPrice.isPresent(0L));
+    }
+}
@@ -108,6 +108,24 @@ class AuthenticationServiceTest {
         assertFalse(authenticationService.hasActiveSession(TEST_USERNAME));
     }
 
+    @Test
+    void authenticate_whenVerifierBusy_returnsRejectedWithoutSession() {
+        // Arrange
+        CredentialVerifier verifier = mock(CredentialVerifier.class);
+        when(verifier.verify(TEST_USERNAME, TEST_PASSWORD, TEST_PASSWORD_HASH)).thenReturn(CredentialVerifier.Outcome.BUSY);
+        AuthenticationService service = new AuthenticationService(userRepository, verifier);
+        PersistedUser user = PersistedUser.create(TEST_USERNAME, TEST_PASSWORD_HASH);
+        when(userRepository.findByUsername(TEST_USERNAME)).thenReturn(Optional.of(user));
+
+        // Act
+        AuthenticationResult result = service.authenticate(TEST_USERNAME, TEST_PASSWORD, TEST_SESSION_ID);
+
+        // Assert
+        assertTrue(result.isRejected());
+        assertEquals("Login service busy, retry later", result.message());
+        assertFalse(service.hasActiveSession(TEST_USERNAME));
+    }
+
     @Test
     void authenticate_whenUserAlreadyHasActiveSession_returnsSessionInUse() {
         // Arrange
@@ -0,0 +1,157 @@
+package com.boe.simulator.server.auth;
+
+import com.boe.simulator.server.persistence.util.PasswordHasher;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CredentialVerifierTest {
+
+    private static final String PASSWORD = "Pass1234!";
+    private static String storedHash;
+
+    private final AtomicLong clock = new AtomicLong();
+    private CredentialVerifier verifier;
+
+    @BeforeAll
+    static void hashOnce() {
+        storedHash = PasswordHasher.hash(PASSWORD);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (verifier != null) verifier.shutdown();
+    }
+
+    @Test
+    void verify_whenPasswordMatches_returnsVerifiedAndCachesIt() {
+        // Arrange
+        verifier = new CredentialVerifier(1, 8, Duration.ofSeconds(60), clock::get);
+
+        // Act
+        CredentialVerifier.Outcome first = verifier.verify("TRD1", PASSWORD, storedHash);
+        CredentialVerifier.Outcome second = verifier.verify("TRD1", PASSWORD, storedHash);
+
+        // Assert
+        assertEquals(CredentialVerifier.Outcome.VERIFIED, first);
+        assertEquals(CredentialVerifier.Outcome.VERIFIED, second);
+        assertEquals(1, verifier.getBcryptRuns());
+        assertEquals(1, verifier.getCacheHits());
+    }
+
+    @Test
+    void verify_whenPasswordWrong_isRejectedEvenAfterASuccess() {
+        // Arrange
+        verifier = new CredentialVerifier(1, 8, Duration.ofSeconds(60), clock::get);
+        verifier.verify("TRD1", PASSWORD, storedHash);
+
+        // Act
+        CredentialVerifier.Outcome outcome = verifier.verify("TRD1", "wrong", storedHash);
+
+        // Assert
+        assertEquals(CredentialVerifier.Outcome.REJECTED, outcome);
+        assertEquals(2, verifier.getBcryptRuns());
+        assertEquals(0, verifier.getCacheHits());
+    }
+
+    @Test
+    void verify_whenStoredHashChanged_missesTheCache() {
+        // Arrange
+        verifier = new CredentialVerifier(1, 8, Duration.ofSeconds(60), clock::get);
+        verifier.verify("TRD1", PASSWORD, storedHash);
+        String newHash = PasswordHasher.hash("NewPass99!");
+
+        // Act
+        CredentialVerifier.Outcome outcome = verifier.verify("TRD1", PASSWORD, newHash);
+
+        // Assert
+        assertEquals(CredentialVerifier.Outcome.REJECTED, outcome);
+        assertEquals(0, verifier.getCacheHits());
+    }
+
+    @Test
+    void verify_whenCacheEntryExpired_runsBcryptAgain() {
+        // Arrange
+        verifier = new CredentialVerifier(1, 8, Duration.ofSeconds(60), clock::get);
+        verifier.verify("TRD1", PASSWORD, storedHash);
+        clock.addAndGet(Duration.ofSeconds(61).toNanos());
+
+        // Act
+        CredentialVerifier.Outcome outcome = verifier.verify("TRD1", PASSWORD, storedHash);
+
+        // Assert
+        assertEquals(CredentialVerifier.Outcome.VERIFIED, outcome);
+        assertEquals(2, verifier.getBcryptRuns());
+        assertEquals(0, verifier.getCacheHits());
+    }
+
+    @Test
+    void verify_whenSameCredentialsConcurrently_sharesOneBcryptRun() throws Exception {
+        // Arrange
+        verifier = new CredentialVerifier(1, 8, Duration.ofSeconds(60), clock::get);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<CredentialVerifier.Outcome>> results = new ArrayList<>();
+
+        // Act
+        try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 4; i++) {
+                results.add(callers.submit(() -> {
+                    start.await();
+                    return verifier.verify("TRD1", PASSWORD, storedHash);
+                }));
+            }
+            start.countDown();
+        }
+
+        // Assert
+        for (Future<CredentialVerifier.Outcome> result : results) {
+            assertEquals(CredentialVerifier.Outcome.VERIFIED, result.get());
+        }
+        assertEquals(1, verifier.getBcryptRuns());
+    }
+
+    @Test
+    void verify_whenQueueFull_returnsBusy() throws Exception {
+        // Arrange
+        verifier = new CredentialVerifier(1, 1, Duration.ofSeconds(60), clock::get);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<CredentialVerifier.Outcome>> results = new ArrayList<>();
+
+        // Act
+        try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 8; i++) {
+                String username = "USR" + i;
+                results.add(callers.submit(() -> {
+                    start.await();
+                    return verifier.verify(username, PASSWORD, storedHash);
+                }));
+            }
+            start.countDown();
+        }
+
+        // Assert
+        long busy = 0;
+        for (Future<CredentialVerifier.Outcome> result : results) {
+            if (result.get() == CredentialVerifier.Outcome.BUSY) busy++;
+        }
+        assertTrue(busy > 0, "expected some logins refused while the queue was full");
+        assertEquals(8 - busy, verifier.getBcryptRuns());
+    }
+
+    @Test
+    void constructor_whenNoThreads_throws() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> new CredentialVerifier(0, 8, Duration.ofSeconds(60)));
+    }
+}
@@ -1,7 +1,11 @@
 package com.boe.simulator.server.config;
 
+import com.boe.simulator.server.persistence.DurabilityMode;
+import com.boe.simulator.server.persistence.RocksDBManager;
+import com.boe.simulator.server.persistence.TuningProfile;
 import org.junit.jupiter.api.Test;
 
+import java.util.Map;
 import java.util.logging.Level;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -21,6 +25,9 @@ class ServerConfigurationTest {
         assertEquals(10, config.getHeartbeatIntervalSeconds());
         assertEquals(30, config.getHeartbeatTimeoutSeconds());
         assertEquals(Level.INFO, config.getLogLevel());
+        assertEquals(4096, config.getOutboundQueueCapacity());
+        assertEquals(SlowConsumerPolicy.DISCONNECT, config.getSlowConsumerPolicy());
+        assertTrue(config.isOutboundBatching());
     }
 
     @Test
@@ -77,6 +84,77 @@ class ServerConfigurationTest {
         assertThrows(IllegalArgumentException.class, () -> ServerConfiguration.builder().heartbeatTimeoutSeconds(4));
     }
 
+    @Test
+    void builder_shouldSetOutboundQueueSettings() {
+        // Act
+        ServerConfiguration config = ServerConfiguration.builder()
+                .outboundQueueCapacity(256)
+                .slowConsumerPolicy(SlowConsumerPolicy.BLOCK)
+                .outboundBatching(false)
+                .build();
+
+        // Assert
+        assertEquals(256, config.getOutboundQueueCapacity());
+        assertEquals(SlowConsumerPolicy.BLOCK, config.getSlowConsumerPolicy());
+        assertFalse(config.isOutboundBatching());
+    }
+
+    @Test
+    void builder_shouldThrowException_forInvalidOutboundQueueSettings() {
+        // Assert
+        assertThrows(IllegalArgumentException.class, () -> ServerConfiguration.builder().outboundQueueCapacity(8));
+        assertThrows(IllegalArgumentException.class, () -> ServerConfiguration.builder().slowConsumerPolicy(null));
+    }
+
+    @Test
+    void builder_shouldSetTuningProfiles() {
+        // Act
+        ServerConfiguration config = ServerConfiguration.builder()
+                .tuningProfiles(Map.of(RocksDBManager.CF_TRADES, TuningProfile.PREFIX_SCAN))
+                .blockCacheBytes(16L << 20)
+                .build();
+
+        // Assert
+        assertEquals(Map.of(RocksDBManager.CF_TRADES, TuningProfile.PREFIX_SCAN), config.getTuningProfiles());
+        assertEquals(16L << 20, config.getBlockCacheBytes());
+        assertEquals(TuningProfile.POINT_LOOKUP, ServerConfiguration.getDefault().getTuningProfiles().get(RocksDBManager.CF_ORDERS));
+        assertThrows(IllegalArgumentException.class, () -> ServerConfiguration.builder().blockCacheBytes(0));
+        assertThrows(IllegalArgumentException.class, () -> ServerConfiguration.builder().tuningProfiles(null));
+    }
+
+    @Test
+    void builder_shouldSetDurabilityMode() {
+        // Act
+        ServerConfiguration config = ServerConfiguration.builder().durabilityMode(DurabilityMode.SYNC).build();
+
+        // Assert
+        assertEquals(DurabilityMode.SYNC, config.getDurabilityMode());
+        assertEquals(DurabilityMode.WAL, ServerConfiguration.getDefault().getDurabilityMode());
+        assertThrows(IllegalArgumentException.class, () -> ServerConfiguration.builder().durabilityMode(null));
+    }
+
+    @Test
+    void builder_shouldSetWriteBehindJournalDirectory() {
+        // Act
+        ServerConfiguration config = ServerConfiguration.builder().writeBehindJournalDirectory(null).build();
+
+        // Assert
+        assertNull(config.getWriteBehindJournalDirectory());
+        assertEquals("./data/write-behind", ServerConfiguration.getDefault().getWriteBehindJournalDirectory());
+        assertThrows(IllegalArgumentException.class, () -> ServerConfiguration.builder().writeBehindJournalDirectory(" "));
+    }
+
+    @Test
+    void builder_shouldSetSessionJournalMaxAge() {
+        // Act
+        ServerConfiguration config = ServerConfiguration.builder().sessionJournalMaxAgeHours(0).build();
+
+        // Assert
+        assertEquals(0, config.getSessionJournalMaxAgeHours());
+        assertEquals(48, ServerConfiguration.getDefault().getSessionJournalMaxAgeHours());
+        assertThrows(IllegalArgumentException.class, () -> ServerConfiguration.builder().sessionJournalMaxAgeHours(-1));
+    }
+
     @Test
     void getDefault_shouldReturnDefaultConfiguration() {
         // Act
@@ -0,0 +1,248 @@
+package com.boe.simulator.server.connection;
+
+import com.boe.simulator.protocol.message.BoeMessage;
+import com.boe.simulator.protocol.message.LoginRequestMessage;
+import com.boe.simulator.protocol.message.ServerHeartbeatMessage;
+import com.boe.simulator.protocol.serialization.BoeMessageSerializer;
+import com.boe.simulator.server.auth.AuthenticationResult;
+import com.boe.simulator.server.auth.AuthenticationService;
+import com.boe.simulator.server.config.ServerConfiguration;
+import com.boe.simulator.server.error.ErrorHandler;
+import com.boe.simulator.server.order.OrderManager;
+import com.boe.simulator.server.ratelimit.RateLimiter;
+import com.boe.simulator.server.session.ClientSessionManager;
+import com.boe.simulator.server.session.SessionJournal;
+import com.boe.simulator.server.session.SessionJournalStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ClientConnectionHandlerTest {
+
+    private ServerSocket serverSocket;
+    private Socket client;
+    private ClientConnectionHandler handler;
+    private Thread handlerThread;
+    private AuthenticationService authService;
+    private ClientSessionManager sessionManager;
+
+    @TempDir
+    Path journalDir;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+        client = new Socket(InetAddress.getLoopbackAddress(), serverSocket.getLocalPort());
+        Socket accepted = serverSocket.accept();
+
+        ServerConfiguration config = ServerConfiguration.builder()
+                .outboundQueueCapacity(8192)
+                .build();
+
+        authService = mock(AuthenticationService.class);
+        sessionManager = new ClientSessionManager();
+        handler = new ClientConnectionHandler(
+                accepted, 1, config,
+                authService,
+                sessionManager,
+                new ErrorHandler(),
+                new RateLimiter(1000, Duration.ofSeconds(1)),
+                mock(OrderManager.class)
+        );
+        handlerThread = Thread.ofVirtual().start(handler);
+        await().atMost(Duration.ofSeconds(2)).until(handler::isRunning);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        client.close();
+        handlerThread.join(2000);
+        serverSocket.close();
+    }
+
+    @Test
+    void sendSequencedMessage_fromConcurrentProducers_shouldKeepWireOrderEqualToSequenceOrder() throws Exception {
+        // Arrange
+        int producers = 4;
+        int perProducer = 500;
+        List<Thread> threads = new ArrayList<>();
+
+        // Act
+        for (int p = 0; p < producers; p++) {
+            threads.add(Thread.ofPlatform().start(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    try {
+                        handler.sendSequencedMessage(new ServerHeartbeatMessage().toBytes());
+                    } catch (Exception e) {
+                        fail(e);
+                    }
+                }
+            }));
+        }
+        for (Thread t : threads) t.join();
+
+        // Assert
+        List<Integer> sequences = readSequences(producers * perProducer);
+        for (int i = 0; i < sequences.size(); i++) {
+            assertEquals(i + 1, sequences.get(i));
+        }
+    }
+
+    @Test
+    void outboundBatch_shouldLeaveInOneSocketWrite() throws Exception {
+        // Arrange
+        long writesBefore = handler.getOutboundWriteCount();
+
+        // Act
+        handler.beginOutboundBatch();
+        for (int i = 0; i < 10; i++) handler.sendSequencedMessage(new ServerHeartbeatMessage().toBytes());
+        handler.endOutboundBatch();
+
+        // Assert
+        assertEquals(List.of(1, 2, 3, 4, 5, 6, 7, 8, 9, 10), readSequences(10));
+        assertEquals(writesBefore + 1, handler.getOutboundWriteCount());
+        assertEquals(10, handler.getSession().getMessagesSent());
+    }
+
+    @Test
+    void outboundBatch_longerThanTheWriteBuffer_shouldBeQueuedBeforeItEnds() throws Exception {
+        // Arrange
+        int frameLength = new ServerHeartbeatMessage().toBytes().length;
+        int frames = 64 * 1024 / frameLength + 1;
+        client.setSoTimeout(2000);
+
+        // Act
+        handler.beginOutboundBatch();
+        for (int i = 0; i < frames; i++) handler.sendSequencedMessage(new ServerHeartbeatMessage().toBytes());
+        List<Integer> beforeEnd = readSequences(frames);
+        handler.endOutboundBatch();
+
+        // Assert
+        assertEquals(frames, beforeEnd.get(frames - 1));
+        assertTrue(handler.getPeakOutboundQueueDepth() >= 1);
+    }
+
+    @Test
+    void sendMessage_shouldNotStampSequenceNumber() throws Exception {
+        // Act
+        handler.sendMessage(new ServerHeartbeatMessage().toBytes());
+
+        // Assert
+        assertEquals(List.of(0), readSequences(1));
+        assertEquals(1, handler.getSession().getCurrentSentSequenceNumber());
+    }
+
+    @Test
+    void login_withUnitSequence_shouldReplayJournalGapBeforeReplayComplete() throws Exception {
+        // Arrange
+        SessionJournalStore store = new SessionJournalStore(journalDir);
+        sessionManager.setJournalStore(store);
+        SessionJournal journal = store.open("USR1", "S1");
+        for (int seq = 1; seq <= 5; seq++) {
+            byte[] frame = new ServerHeartbeatMessage().toBytes();
+            frame[4] = 0x25; // OrderAcknowledgment
+            com.boe.simulator.protocol.types.BoeHeader.stampSequenceNumber(frame, seq);
+            journal.append(frame);
+        }
+        when(authService.authenticate(any(), any(), any())).thenReturn(AuthenticationResult.accepted("OK"));
+        LoginRequestMessage login = new LoginRequestMessage("USR1", "pass", "S1");
+        login.setUnitSequence(2);
+
+        // Act
+        client.getOutputStream().write(login.toBytes());
+
+        // Assert: LoginResponse continues the journal's numbering, then the gap, then ReplayComplete
+        List<byte[]> frames = readFrames(5);
+        assertEquals(0x24, frames.get(0)[4]);
+        assertEquals(6, sequenceOf(frames.get(0)));
+        assertEquals(List.of(3, 4, 5), frames.subList(1, 4).stream().map(ClientConnectionHandlerTest::sequenceOf).toList());
+        assertEquals(0x13, frames.get(4)[4]);
+        assertEquals(6, journal.getLastSequence());
+        store.close();
+    }
+
+    @Test
+    void unixDomainSocket_shouldServeLoginAndConcurrentOutboundTraffic() throws Exception {
+        // Arrange
+        Path path = journalDir.resolve("boe.sock");
+        when(authService.authenticate(any(), any(), any())).thenReturn(AuthenticationResult.accepted("OK"));
+        try (ServerSocketChannel listener = ServerSocketChannel.open(StandardProtocolFamily.UNIX)) {
+            listener.bind(UnixDomainSocketAddress.of(path));
+            SocketChannel unixClient = SocketChannel.open(UnixDomainSocketAddress.of(path));
+            ClientConnectionHandler unixHandler = new ClientConnectionHandler(
+                    listener.accept(), 2, ServerConfiguration.getDefault(), authService, sessionManager,
+                    new ErrorHandler(), new RateLimiter(1000, Duration.ofSeconds(1)), mock(OrderManager.class));
+            Thread unixThread = Thread.ofVirtual().start(unixHandler);
+            InputStream in = Channels.newInputStream(unixClient);
+
+            // Act
+            Channels.newOutputStream(unixClient).write(new LoginRequestMessage("USR2", "pass", "S2").toBytes());
+            List<byte[]> login = readFrames(in, 2);
+            // The handler's reader is now blocked in read(); the writer must still get through
+            unixHandler.sendSequencedMessage(new ServerHeartbeatMessage().toBytes());
+            List<byte[]> heartbeat = readFrames(in, 1);
+
+            // Assert
+            assertEquals(0x24, login.get(0)[4]);
+            assertEquals(0x13, login.get(1)[4]);
+            assertEquals(0x09, heartbeat.get(0)[4]);
+            assertEquals(2, sequenceOf(heartbeat.get(0)));
+            assertTrue(unixHandler.getSession().getRemoteAddress().startsWith("unix:"));
+
+            unixClient.close();
+            unixThread.join(2000);
+        }
+    }
+
+    private List<byte[]> readFrames(int count) throws Exception {
+        client.setSoTimeout(5000);
+        return readFrames(client.getInputStream(), count);
+    }
+
+    private static List<byte[]> readFrames(InputStream in, int count) throws Exception {
+        BoeMessageSerializer serializer = new BoeMessageSerializer();
+        List<byte[]> frames = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) frames.add(serializer.deserialize(in).getData());
+        return frames;
+    }
+
+    private static int sequenceOf(byte[] frame) {
+        return ByteBuffer.wrap(frame).order(ByteOrder.LITTLE_ENDIAN).getInt(6);
+    }
+
+    private List<Integer> readSequences(int count) throws Exception {
+        BoeMessageSerializer serializer = new BoeMessageSerializer();
+        InputStream in = client.getInputStream();
+        client.setSoTimeout(5000);
+
+        List<Integer> sequences = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            BoeMessage frame = serializer.deserialize(in);
+            sequences.add(ByteBuffer.wrap(frame.getData()).order(ByteOrder.LITTLE_ENDIAN).getInt(6));
+        }
+        return sequences;
+    }
+}
@@ -0,0 +1,150 @@
+package com.boe.simulator.server.connection;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedRingTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void readAndWrite_shouldPreserveBytesAcrossWraparound() throws Exception {
+        // Arrange
+        Path path = dir.resolve("ring");
+        int total = 1_000_000;
+        try (MappedRing producer = MappedRing.create(path, 1024);
+             MappedRing consumer = MappedRing.attach(path)) {
+
+            // Act
+            CompletableFuture<Void> writer = CompletableFuture.runAsync(() -> {
+                byte[] chunk = new byte[300];
+                try {
+                    for (int written = 0; written < total; written += chunk.length) {
+                        int length = Math.min(chunk.length, total - written);
+                        for (int i = 0; i < length; i++) chunk[i] = (byte) (written + i);
+                        producer.write(chunk, 0, length);
+                    }
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+
+            byte[] buffer = new byte[777];
+            int read = 0;
+            while (read < total) {
+                int n = consumer.read(buffer, 0, buffer.length);
+                for (int i = 0; i < n; i++) assertEquals((byte) (read + i), buffer[i]);
+                read += n;
+            }
+
+            // Assert
+            writer.get(5, TimeUnit.SECONDS);
+            assertEquals(total, read);
+        }
+    }
+
+    @Test
+    void read_shouldDrainRemainingBytesThenReportEndAfterClose() throws Exception {
+        // Arrange
+        Path path = dir.resolve("ring");
+        MappedRing producer = MappedRing.create(path, 1024);
+        try (MappedRing consumer = MappedRing.attach(path)) {
+            producer.write(new byte[]{1, 2, 3}, 0, 3);
+
+            // Act
+            producer.close();
+            byte[] buffer = new byte[8];
+            int first = consumer.read(buffer, 0, buffer.length);
+            int second = consumer.read(buffer, 0, buffer.length);
+
+            // Assert
+            assertEquals(3, first);
+            assertEquals(-1, second);
+        }
+    }
+
+    @Test
+    void read_withTimeout_shouldGiveUpWhenPeerStaysSilent() throws Exception {
+        // Arrange
+        Path path = dir.resolve("ring");
+        try (MappedRing producer = MappedRing.create(path, 1024); MappedRing consumer = MappedRing.attach(path)) {
+            byte[] buffer = new byte[8];
+
+            // Act
+            long start = System.nanoTime();
+            assertThrows(SocketTimeoutException.class, () -> consumer.read(buffer, 0, buffer.length, 50));
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            // Assert
+            assertTrue(elapsedMillis >= 50, "timed out after " + elapsedMillis + "ms");
+            assertFalse(producer.isClosed());
+        }
+    }
+
+    @Test
+    void write_shouldBlockWhileFullAndFailOnceConsumerCloses() throws Exception {
+        // Arrange
+        Path path = dir.resolve("ring");
+        try (MappedRing producer = MappedRing.create(path, 1024)) {
+            MappedRing consumer = MappedRing.attach(path);
+            producer.write(new byte[1024], 0, 1024);
+            CompletableFuture<Void> blocked = CompletableFuture.runAsync(() -> {
+                try {
+                    producer.write(new byte[1], 0, 1);
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+
+            // Act
+            Thread.sleep(50);
+            boolean doneWhileFull = blocked.isDone();
+            consumer.close();
+
+            // Assert
+            assertFalse(doneWhileFull);
+            Exception e = assertThrows(Exception.class, () -> blocked.get(2, TimeUnit.SECONDS));
+            assertInstanceOf(IOException.class, e.getCause().getCause());
+        }
+    }
+
+    @Test
+    void claim_shouldAdmitOnlyOnePeer() throws Exception {
+        // Arrange
+        Path path = dir.resolve("ring");
+        try (MappedRing owner = MappedRing.create(path, 1024);
+             MappedRing first = MappedRing.attach(path);
+             MappedRing second = MappedRing.attach(path)) {
+
+            // Act
+            boolean firstClaim = first.claim();
+            boolean secondClaim = second.claim();
+
+            // Assert
+            assertTrue(firstClaim);
+            assertFalse(secondClaim);
+            assertTrue(owner.isAttached());
+        }
+    }
+
+    @Test
+    void attach_shouldRejectClosedRing() throws Exception {
+        // Arrange
+        Path path = dir.resolve("ring");
+        MappedRing.create(path, 1024).close();
+
+        // Act & Assert
+        assertThrows(IOException.class, () -> MappedRing.attach(path));
+        assertThrows(IllegalArgumentException.class, () -> MappedRing.create(dir.resolve("odd"), 1000));
+    }
+}
@@ -0,0 +1,106 @@
+package com.boe.simulator.server.connection;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OutboundQueueTest {
+
+    @Test
+    void constructor_shouldRoundCapacityUpToPowerOfTwo() {
+        // Act
+        OutboundQueue queue = new OutboundQueue(100);
+
+        // Assert
+        assertEquals(128, queue.capacity());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    void constructor_shouldRejectTinyCapacity() {
+        // Assert
+        assertThrows(IllegalArgumentException.class, () -> new OutboundQueue(1));
+    }
+
+    @Test
+    void offerAndPoll_shouldPreserveFifoOrder() {
+        // Arrange
+        OutboundQueue queue = new OutboundQueue(4);
+
+        // Act
+        queue.offer(new byte[]{1});
+        queue.offer(new byte[]{2});
+        queue.offer(new byte[]{3});
+
+        // Assert
+        assertEquals(3, queue.size());
+        assertEquals(1, queue.poll()[0]);
+        assertEquals(2, queue.poll()[0]);
+        assertEquals(3, queue.poll()[0]);
+        assertNull(queue.poll());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    void offer_shouldReturnFalse_whenFull() {
+        // Arrange
+        OutboundQueue queue = new OutboundQueue(2);
+        assertTrue(queue.offer(new byte[]{1}));
+        assertTrue(queue.offer(new byte[]{2}));
+
+        // Act & Assert
+        assertFalse(queue.offer(new byte[]{3}));
+        assertEquals(2, queue.size());
+
+        queue.poll();
+        assertTrue(queue.offer(new byte[]{3}));
+    }
+
+    @Test
+    void offer_fromManyProducers_shouldDeliverEveryFrameOnce() throws InterruptedException {
+        // Arrange
+        int producers = 8;
+        int perProducer = 10_000;
+        OutboundQueue queue = new OutboundQueue(1024);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+
+        for (int p = 0; p < producers; p++) {
+            byte id = (byte) p;
+            threads.add(Thread.ofPlatform().start(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < perProducer; i++) {
+                    while (!queue.offer(new byte[]{id})) Thread.onSpinWait();
+                }
+            }));
+        }
+
+        // Act
+        start.countDown();
+        int[] received = new int[producers];
+        int total = 0;
+        while (total < producers * perProducer) {
+            byte[] frame = queue.poll();
+            if (frame == null) {
+                Thread.onSpinWait();
+                continue;
+            }
+            received[frame[0]]++;
+            total++;
+        }
+        for (Thread t : threads) t.join();
+
+        // Assert
+        for (int count : received) assertEquals(perProducer, count);
+        assertTrue(queue.isEmpty());
+    }
+}
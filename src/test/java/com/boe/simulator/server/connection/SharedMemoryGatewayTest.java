@@ -0,0 +1,144 @@
+package com.boe.simulator.server.connection;
+
+import com.boe.simulator.client.SharedMemoryClient;
+import com.boe.simulator.protocol.message.LoginRequestMessage;
+import com.boe.simulator.protocol.message.LoginResponseMessage;
+import com.boe.simulator.server.auth.AuthenticationResult;
+import com.boe.simulator.server.auth.AuthenticationService;
+import com.boe.simulator.server.config.ServerConfiguration;
+import com.boe.simulator.server.error.ErrorHandler;
+import com.boe.simulator.server.order.OrderManager;
+import com.boe.simulator.server.ratelimit.RateLimiter;
+import com.boe.simulator.server.session.ClientSessionManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SharedMemoryGatewayTest {
+
+    @TempDir
+    Path dir;
+
+    private SharedMemoryGateway gateway;
+    private Thread gatewayThread;
+    private final AtomicInteger sessionsServed = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        AuthenticationService authService = mock(AuthenticationService.class);
+        when(authService.authenticate(any(), any(), any())).thenReturn(AuthenticationResult.accepted("OK"));
+        ServerConfiguration config = ServerConfiguration.builder().sessionJournalDirectory(null).connectionTimeout(1000).build();
+        ClientSessionManager sessionManager = new ClientSessionManager();
+
+        gateway = new SharedMemoryGateway(dir, 64 * 1024);
+        gatewayThread = Thread.ofVirtual().start(() -> {
+            try {
+                while (gateway.awaitClient()) {
+                    gateway.newHandler(sessionsServed.get() + 1, config, authService, sessionManager,
+                            new ErrorHandler(), new RateLimiter(1000, Duration.ofSeconds(1)), mock(OrderManager.class)).run();
+                    sessionsServed.incrementAndGet();
+                }
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        gateway.close();
+        gatewayThread.join(2000);
+    }
+
+    @Test
+    void login_overRings_shouldBeAnsweredByConnectionHandler() throws Exception {
+        // Arrange
+        try (SharedMemoryClient client = SharedMemoryClient.connect(dir, Duration.ofSeconds(5))) {
+
+            // Act
+            client.send(new LoginRequestMessage("USR1", "pass", "S1").toBytes());
+            byte[] response = client.receive();
+            byte[] replayComplete = client.receive();
+
+            // Assert
+            assertEquals(0x24, response[4]);
+            assertEquals(LoginResponseMessage.STATUS_ACCEPTED, new LoginResponseMessage(response).getLoginResponseStatus());
+            assertEquals(0x13, replayComplete[4]);
+        }
+    }
+
+    @Test
+    void connect_afterSessionEnds_shouldGetFreshRings() throws Exception {
+        // Arrange
+        SharedMemoryClient first = SharedMemoryClient.connect(dir, Duration.ofSeconds(5));
+        first.send(new LoginRequestMessage("USR1", "pass", "S1").toBytes());
+        first.receive();
+
+        // Act
+        first.close();
+        try (SharedMemoryClient second = SharedMemoryClient.connect(dir, Duration.ofSeconds(5))) {
+            second.send(new LoginRequestMessage("USR2", "pass", "S2").toBytes());
+            byte[] response = second.receive();
+
+            // Assert
+            assertEquals(0x24, response[4]);
+            assertEquals(1, sessionsServed.get());
+        }
+    }
+
+    @Test
+    void silentClient_shouldTimeOutAndFreeGatewayForNextClient() throws Exception {
+        // Arrange
+        SharedMemoryClient silent = SharedMemoryClient.connect(dir, Duration.ofSeconds(5));
+
+        // Act
+        byte[] end = silent.receive();
+        try (SharedMemoryClient next = SharedMemoryClient.connect(dir, Duration.ofSeconds(5))) {
+            next.send(new LoginRequestMessage("USR1", "pass", "S1").toBytes());
+            byte[] response = next.receive();
+
+            // Assert
+            assertNull(end);
+            assertEquals(0x24, response[4]);
+            assertEquals(1, sessionsServed.get());
+        } finally {
+            silent.close();
+        }
+    }
+
+    @Test
+    void rejectClient_shouldEndSessionBeforeItStarts() throws Exception {
+        // Arrange
+        Path rejectDir = dir.resolve("reject");
+        try (SharedMemoryGateway rejecting = new SharedMemoryGateway(rejectDir, 64 * 1024)) {
+            Thread acceptor = Thread.ofVirtual().start(() -> {
+                try {
+                    if (rejecting.awaitClient()) rejecting.rejectClient();
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            });
+
+            // Act
+            try (SharedMemoryClient client = SharedMemoryClient.connect(rejectDir, Duration.ofSeconds(5))) {
+                byte[] frame = client.receive();
+
+                // Assert
+                assertNull(frame);
+                assertThrows(IOException.class, () -> client.send(new LoginRequestMessage("USR1", "pass", "S1").toBytes()));
+            }
+            acceptor.join(2000);
+        }
+    }
+}
@@ -9,7 +9,10 @@ import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 class HeartbeatMonitorTest {
@@ -75,4 +78,50 @@ class HeartbeatMonitorTest {
     void isActive_beforeStart_shouldBeFalse() {
         assertFalse(heartbeatMonitor.isActive());
     }
+
+    @Test
+    void wheel_shouldSendHeartbeatEveryInterval() throws Exception {
+        // Arrange
+        AtomicLong clock = new AtomicLong(1_000_000);
+        HeartbeatWheel wheel = new HeartbeatWheel(100, 64, clock::get);
+        HeartbeatMonitor monitor = new HeartbeatMonitor(mockHandler, mockConfig, wheel);
+        monitor.start();
+
+        // Act
+        advance(wheel, clock, 25_000);
+
+        // Assert
+        verify(mockHandler, times(2)).sendSequencedMessage(any(byte[].class));
+        verify(mockSession, times(2)).updateHeartbeatSent();
+        verify(mockHandler, never()).stop();
+        assertTrue(monitor.isActive());
+    }
+
+    @Test
+    void wheel_shouldDisconnectWhenClientHeartbeatsStop() {
+        // Arrange
+        AtomicLong clock = new AtomicLong(1_000_000);
+        HeartbeatWheel wheel = new HeartbeatWheel(100, 64, clock::get);
+        when(mockSession.getLastHeartbeatReceivedMillis()).thenReturn(System.currentTimeMillis());
+        when(mockSession.getLastHeartbeatReceivedNanos()).thenReturn(clock.get() * 1_000_000);
+        HeartbeatMonitor monitor = new HeartbeatMonitor(mockHandler, mockConfig, wheel);
+        monitor.start();
+
+        // Act
+        advance(wheel, clock, 29_000);
+        boolean activeBeforeTimeout = monitor.isActive();
+        advance(wheel, clock, 7_000);
+
+        // Assert
+        assertTrue(activeBeforeTimeout);
+        verify(mockHandler).stop();
+        assertFalse(monitor.isActive());
+        assertEquals(0, wheel.size());
+    }
+
+    private static void advance(HeartbeatWheel wheel, AtomicLong clock, long millis) {
+        for (long step = 0; step < millis; step += 100) {
+            wheel.advance(clock.addAndGet(100));
+        }
+    }
 }
@@ -0,0 +1,137 @@
+package com.boe.simulator.server.heartbeat;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HeartbeatWheelTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+    private final HeartbeatWheel wheel = new HeartbeatWheel(100, 8, clock::get);
+
+    @Test
+    void timer_shouldFireOnceItsDelayHasPassed() {
+        // Arrange
+        List<Long> firedAt = new ArrayList<>();
+        wheel.schedule(timer(firedAt, -1), 250);
+
+        // Act
+        int early = advanceTo(200);
+        int due = advanceTo(300);
+
+        // Assert
+        assertEquals(0, early);
+        assertEquals(1, due);
+        assertEquals(List.of(clock.get()), firedAt);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void shared_shouldRunOnTheMonotonicClock() {
+        // Act
+        long before = System.nanoTime() / 1_000_000;
+        long now = HeartbeatWheel.shared().now();
+        long after = System.nanoTime() / 1_000_000;
+
+        // Assert
+        assertTrue(before <= now && now <= after);
+    }
+
+    @Test
+    void timer_beyondOneLap_shouldWaitForItsLap() {
+        // Arrange: 8 slots x 100ms is an 800ms lap
+        List<Long> firedAt = new ArrayList<>();
+        wheel.schedule(timer(firedAt, -1), 2_050);
+
+        // Act
+        advanceTo(2_000);
+        int before = firedAt.size();
+        advanceTo(2_100);
+
+        // Assert
+        assertEquals(0, before);
+        assertEquals(1, firedAt.size());
+    }
+
+    @Test
+    void recurringTimer_shouldBeRearmedByItsReturnValue() {
+        // Arrange
+        List<Long> firedAt = new ArrayList<>();
+        wheel.schedule(timer(firedAt, 500), 500);
+
+        // Act
+        advanceTo(2_000);
+
+        // Assert
+        assertEquals(4, firedAt.size());
+        assertEquals(1, wheel.size());
+    }
+
+    @Test
+    void cancelledTimer_shouldNeverFireAndBeDropped() {
+        // Arrange
+        List<Long> firedAt = new ArrayList<>();
+        HeartbeatWheel.Timer timer = timer(firedAt, 100);
+        wheel.schedule(timer, 300);
+
+        // Act
+        timer.cancel();
+        advanceTo(1_000);
+
+        // Assert
+        assertTrue(firedAt.isEmpty());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void twentyThousandSessions_shouldExpireInBatchesOnTheirTicks() {
+        // Arrange
+        HeartbeatWheel large = new HeartbeatWheel(100, 512, clock::get);
+        long[] fired = new long[1];
+        for (int i = 0; i < 20_000; i++) {
+            large.schedule(new HeartbeatWheel.Timer() {
+                @Override
+                protected long expire(long nowMillis) {
+                    fired[0]++;
+                    return 10_000;
+                }
+            }, 100 + (i % 100) * 100L); // spread over the first 10s
+        }
+
+        // Act
+        long start = clock.get();
+        clock.set(start + 10_000);
+        int firstPass = large.advance(clock.get());
+        clock.set(start + 20_000);
+        int secondPass = large.advance(clock.get());
+
+        // Assert
+        assertEquals(20_000, firstPass);
+        assertEquals(20_000, secondPass);
+        assertEquals(20_000, large.size());
+    }
+
+    private int advanceTo(long offsetMillis) {
+        int fired = 0;
+        long target = 1_000_000 + offsetMillis;
+        while (clock.get() < target) {
+            clock.addAndGet(50);
+            fired += wheel.advance(clock.get());
+        }
+        return fired;
+    }
+
+    private static HeartbeatWheel.Timer timer(List<Long> firedAt, long again) {
+        return new HeartbeatWheel.Timer() {
+            @Override
+            protected long expire(long nowMillis) {
+                firedAt.add(nowMillis);
+                return again;
+            }
+        };
+    }
+}
@@ -0,0 +1,42 @@
+package com.boe.simulator.server.matching;
+
+import com.boe.simulator.protocol.types.OrdType;
+import com.boe.simulator.protocol.types.Side;
+import com.boe.simulator.server.order.Order;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FairShareWeightsTest {
+
+    private final FairShareWeights weights = new FairShareWeights(Map.of("TRD1", 4), Map.of("FIRM", 2));
+
+    private Order order(String username, String clearingFirm) {
+        return Order.builder()
+                .clOrdID("W1")
+                .side(Side.BUY)
+                .price(new BigDecimal("100.00"))
+                .orderQty(10)
+                .symbol("AAPL")
+                .ordType(OrdType.LIMIT)
+                .username(username)
+                .clearingFirm(clearingFirm)
+                .build();
+    }
+
+    @Test
+    void weightOf_prefersUserThenFirmThenOne() {
+        assertEquals(4, weights.weightOf(order("TRD1", "FIRM")));
+        assertEquals(2, weights.weightOf(order("TRD2", "FIRM")));
+        assertEquals(1, weights.weightOf(order("TRD2", "OTHER")));
+        assertEquals(1, FairShareWeights.EQUAL.weightOf(order("TRD1", "FIRM")));
+    }
+
+    @Test
+    void weights_mustBePositive() {
+        assertThrows(IllegalArgumentException.class, () -> new FairShareWeights(Map.of("TRD1", 0), Map.of()));
+    }
+}
@@ -0,0 +1,90 @@
+package com.boe.simulator.server.matching;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+
+class FairSymbolLockTest {
+
+    private final FairSymbolLock lock = new FairSymbolLock();
+    private final List<String> granted = new CopyOnWriteArrayList<>();
+
+    @Test
+    void uncontended_lockAndUnlock_leaveNoWaiters() {
+        // Act
+        lock.lock("TCP-1", 1);
+        lock.unlock();
+        lock.lock("TCP-2", 1);
+        lock.unlock();
+
+        // Assert
+        assertEquals(0, lock.queueLength());
+    }
+
+    @Test
+    void waiters_areGrantedRoundRobinAcrossFlows() throws InterruptedException {
+        // Arrange
+        lock.lock("HOLDER", 1);
+        List<Thread> threads = List.of(
+                queue("A", "A1", 1), queue("A", "A2", 1), queue("A", "A3", 1),
+                queue("B", "B1", 1), queue("B", "B2", 1));
+
+        // Act
+        lock.unlock();
+        for (Thread thread : threads) thread.join(5_000);
+
+        // Assert
+        assertEquals(List.of("A1", "B1", "A2", "B2", "A3"), granted);
+        assertEquals(0, lock.queueLength());
+    }
+
+    @Test
+    void weightedFlow_getsThatManyTurnsPerRound() throws InterruptedException {
+        // Arrange
+        lock.lock("HOLDER", 1);
+        List<Thread> threads = List.of(
+                queue("A", "A1", 2), queue("A", "A2", 2), queue("A", "A3", 2),
+                queue("B", "B1", 1), queue("B", "B2", 1));
+
+        // Act
+        lock.unlock();
+        for (Thread thread : threads) thread.join(5_000);
+
+        // Assert
+        assertEquals(List.of("A1", "A2", "B1", "A3", "B2"), granted);
+    }
+
+    @Test
+    void releasingFlow_cannotBargeAheadOfAWaiter() throws InterruptedException {
+        // Arrange
+        lock.lock("NOISY", 1);
+        Thread quiet = queue("QUIET", "Q1", 1);
+
+        // Act: the holder releases and asks again straight away
+        lock.unlock();
+        lock.lock("NOISY", 1);
+        granted.add("N2");
+        lock.unlock();
+        quiet.join(5_000);
+
+        // Assert
+        assertEquals(List.of("Q1", "N2"), granted);
+    }
+
+    // Starts a thread that records its grant, and waits until it is queued
+    private Thread queue(String flow, String name, int weight) {
+        int before = lock.queueLength();
+        Thread thread = Thread.ofPlatform().start(() -> {
+            lock.lock(flow, weight);
+            granted.add(name);
+            lock.unlock();
+        });
+        await().atMost(5, TimeUnit.SECONDS).until(() -> lock.queueLength() == before + 1);
+        return thread;
+    }
+}
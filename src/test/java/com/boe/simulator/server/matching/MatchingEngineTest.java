@@ -67,4 +67,28 @@ class MatchingEngineTest {
         // MatchingEngine no longer persists directly — OrderManager handles async persistence
         verifyNoInteractions(orderRepository);
     }
+
+    @Test
+    void processOrder_whenPricesCrossAtSubCentPrecision_tradesAtPassiveRawPrice() {
+        // Arrange
+        Order sellOrder = Order.builder()
+                .clOrdID("S1").side(Side.SELL).priceRaw(1_502_501L).orderQty(10)
+                .symbol("AAPL").ordType(OrdType.LIMIT).username("seller").orderID(1L).build();
+        Order buyOrder = Order.builder()
+                .clOrdID("B1").side(Side.BUY).priceRaw(1_502_502L).orderQty(10)
+                .symbol("AAPL").ordType(OrdType.LIMIT).username("buyer").orderID(2L).build();
+        sellOrder.acknowledge();
+        buyOrder.acknowledge();
+        matchingEngine.processOrder(sellOrder);
+
+        // Act
+        List<Trade> trades = matchingEngine.processOrder(buyOrder);
+
+        // Assert
+        assertEquals(1, trades.size());
+        assertEquals(1_502_501L, trades.get(0).priceRaw());
+        assertEquals(new BigDecimal("150.2501"), trades.get(0).getPrice());
+        assertEquals(new BigDecimal("1502.5010"), trades.get(0).getNotionalValue());
+        assertEquals(1_502_501L, matchingEngine.getOrderBook("AAPL").orElseThrow().getLastTradePriceRaw());
+    }
 }
@@ -0,0 +1,134 @@
+package com.boe.simulator.server.matching;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TradeIndexKeysTest {
+
+    private static Trade trade(long tradeId, String symbol, Instant executionTime) {
+        return Trade.builder()
+                .tradeId(tradeId)
+                .symbol(symbol)
+                .buyOrderId(1)
+                .buyUsername("TRD1")
+                .sellOrderId(2)
+                .sellUsername("TRD2")
+                .quantity(100)
+                .price(new BigDecimal("150.25"))
+                .executionTime(executionTime)
+                .build();
+    }
+
+    private static boolean startsWith(byte[] key, byte[] prefix) {
+        return key.length >= prefix.length && Arrays.equals(key, 0, prefix.length, prefix, 0, prefix.length);
+    }
+
+    @Test
+    void symbol_tradesInSameInstantGetDistinctKeysOrderedById() {
+        // Arrange
+        Instant now = Instant.parse("2026-03-02T14:30:00.123Z");
+
+        // Act
+        byte[] first = TradeIndexKeys.symbol(trade(1, "AAPL", now));
+        byte[] second = TradeIndexKeys.symbol(trade(2, "AAPL", now));
+
+        // Assert
+        assertTrue(Arrays.compareUnsigned(first, second) < 0);
+    }
+
+    @Test
+    void time_ordersByExecutionTimeIncludingBefore1970() {
+        // Arrange
+        byte[] before = TradeIndexKeys.time(trade(9, "AAPL", Instant.parse("1969-12-31T23:59:59.999999999Z")));
+        byte[] epoch = TradeIndexKeys.time(trade(1, "AAPL", Instant.EPOCH));
+        byte[] later = TradeIndexKeys.time(trade(1, "AAPL", Instant.EPOCH.plusNanos(1)));
+
+        // Act & Assert
+        assertTrue(Arrays.compareUnsigned(before, epoch) < 0);
+        assertTrue(Arrays.compareUnsigned(epoch, later) < 0);
+    }
+
+    @Test
+    void prefix_doesNotMatchLongerSymbol() {
+        // Arrange
+        Instant now = Instant.now();
+        byte[] prefix = TradeIndexKeys.prefix(TradeIndexKeys.SYMBOL, "AAPL");
+
+        // Act & Assert
+        assertTrue(startsWith(TradeIndexKeys.symbol(trade(1, "AAPL", now)), prefix));
+        assertFalse(startsWith(TradeIndexKeys.symbol(trade(1, "AAPLX", now)), prefix));
+    }
+
+    @Test
+    void tradeId_roundTripsFromEveryIndex() {
+        // Arrange
+        Trade trade = trade(-5, "AAPL", Instant.now());
+
+        // Act & Assert
+        assertEquals(-5, TradeIndexKeys.tradeId(TradeIndexKeys.symbol(trade)));
+        assertEquals(-5, TradeIndexKeys.tradeId(TradeIndexKeys.user("TRD1", trade)));
+        assertEquals(-5, TradeIndexKeys.tradeId(TradeIndexKeys.time(trade)));
+    }
+
+    @Test
+    void bounds_includeBothEndsOfTheRange() {
+        // Arrange
+        Instant start = Instant.parse("2026-03-02T14:00:00Z");
+        Instant end = Instant.parse("2026-03-02T15:00:00Z");
+        byte[] lower = TradeIndexKeys.lowerBound(TradeIndexKeys.SYMBOL, "AAPL", start);
+        byte[] upper = TradeIndexKeys.upperBound(TradeIndexKeys.SYMBOL, "AAPL", end);
+
+        // Act
+        byte[] atStart = TradeIndexKeys.symbol(trade(Long.MIN_VALUE, "AAPL", start));
+        byte[] atEnd = TradeIndexKeys.symbol(trade(Long.MAX_VALUE, "AAPL", end));
+        byte[] justBefore = TradeIndexKeys.symbol(trade(Long.MAX_VALUE, "AAPL", start.minusNanos(1)));
+        byte[] justAfter = TradeIndexKeys.symbol(trade(Long.MIN_VALUE, "AAPL", end.plusNanos(1)));
+
+        // Assert
+        assertTrue(Arrays.compareUnsigned(atStart, lower) >= 0);
+        assertTrue(Arrays.compareUnsigned(atEnd, upper) < 0);
+        assertTrue(Arrays.compareUnsigned(justBefore, lower) < 0);
+        assertTrue(Arrays.compareUnsigned(justAfter, upper) >= 0);
+    }
+
+    @Test
+    void bounds_acceptInstantMinAndMax() {
+        // Arrange
+        byte[] key = TradeIndexKeys.time(trade(1, "AAPL", Instant.now()));
+
+        // Act
+        byte[] lower = TradeIndexKeys.lowerBound(TradeIndexKeys.TIME, null, Instant.MIN);
+        byte[] upper = TradeIndexKeys.upperBound(TradeIndexKeys.TIME, null, Instant.MAX);
+
+        // Assert
+        assertTrue(Arrays.compareUnsigned(key, lower) >= 0);
+        assertTrue(Arrays.compareUnsigned(key, upper) < 0);
+    }
+
+    @Test
+    void recordKey_isDerivedFromEveryIndexKey() {
+        // Arrange
+        Trade trade = trade(77, "AAPL", Instant.now());
+        byte[] recordKey = TradeIndexKeys.time(trade);
+
+        // Act & Assert
+        assertArrayEquals(recordKey, TradeIndexKeys.recordKey(TradeIndexKeys.symbol(trade)));
+        assertArrayEquals(recordKey, TradeIndexKeys.recordKey(TradeIndexKeys.user("TRD2", trade)));
+        assertArrayEquals(recordKey, TradeIndexKeys.recordKey(TradeIndexKeys.order(12, trade)));
+    }
+
+    @Test
+    void orderPrefix_matchesOnlyThatOrder() {
+        // Arrange
+        Trade trade = trade(1, "AAPL", Instant.now());
+
+        // Act & Assert
+        assertTrue(startsWith(TradeIndexKeys.order(256, trade), TradeIndexKeys.orderPrefix(256)));
+        assertFalse(startsWith(TradeIndexKeys.order(1, trade), TradeIndexKeys.orderPrefix(256)));
+    }
+}
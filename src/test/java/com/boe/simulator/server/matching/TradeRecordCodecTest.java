@@ -0,0 +1,63 @@
+package com.boe.simulator.server.matching;
+
+import com.boe.simulator.server.persistence.codec.RecordFormat;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TradeRecordCodecTest {
+
+    private final TradeRecordCodec codec = new TradeRecordCodec();
+
+    private final Trade trade = Trade.builder()
+            .tradeId(1_700_000_000_456L)
+            .symbol("AAPL")
+            .buyOrderId(11)
+            .buyClOrdID("BUY-1")
+            .buyUsername("TRD1")
+            .sellOrderId(12)
+            .sellClOrdID("SELL-1")
+            .sellUsername("TRD2")
+            .quantity(300)
+            .price(new BigDecimal("150.25"))
+            .executionTime(Instant.parse("2026-03-02T14:30:00.123456789Z"))
+            .matchingUnit((byte) 2)
+            .clearingFirm("CLRF")
+            .build();
+
+    @Test
+    void binary_roundTripsEveryField() {
+        // Act
+        byte[] record = codec.encode(trade, RecordFormat.BINARY);
+
+        // Assert
+        assertEquals(RecordFormat.BINARY, RecordFormat.of(record));
+        assertEquals(trade, codec.decode(record));
+    }
+
+    @Test
+    void decode_readsExistingJsonRecords() {
+        // Arrange
+        byte[] json = codec.encode(trade, RecordFormat.JSON);
+
+        // Act
+        Trade decoded = codec.decode(json);
+
+        // Assert
+        assertEquals(RecordFormat.JSON, RecordFormat.of(json));
+        assertEquals(trade, decoded);
+    }
+
+    @Test
+    void binary_isSmallerThanJson() {
+        // Act
+        int binary = codec.encode(trade, RecordFormat.BINARY).length;
+        int json = codec.encode(trade, RecordFormat.JSON).length;
+
+        // Assert
+        assertTrue(binary * 3 < json, "binary " + binary + " bytes vs JSON " + json);
+    }
+}
@@ -0,0 +1,301 @@
+package com.boe.simulator.server.matching;
+
+import com.boe.simulator.server.persistence.KeyRange;
+import com.boe.simulator.server.persistence.RocksCursor;
+import com.boe.simulator.server.persistence.RocksDBManager;
+import com.boe.simulator.server.persistence.WriteBehindJournal;
+import com.boe.simulator.server.persistence.codec.RecordFormat;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class TradeRepositoryServiceTest {
+
+    private static final Instant EXECUTION_TIME = Instant.parse("2026-03-02T14:30:00.123Z");
+
+    private final TradeRecordCodec codec = new TradeRecordCodec();
+    private RocksDBManager dbManager;
+    private TradeRepositoryService repository;
+
+    @BeforeEach
+    void setUp() {
+        dbManager = mock(RocksDBManager.class);
+        when(dbManager.getRecordFormat(RocksDBManager.CF_TRADES)).thenReturn(RecordFormat.BINARY);
+        repository = new TradeRepositoryService(dbManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.stopAsyncPersistence();
+    }
+
+    private static Trade trade(long tradeId) {
+        return trade(tradeId, EXECUTION_TIME);
+    }
+
+    private static Trade trade(long tradeId, Instant executionTime) {
+        return Trade.builder()
+                .tradeId(tradeId)
+                .symbol("AAPL")
+                .buyOrderId(1)
+                .buyUsername("TRD1")
+                .sellOrderId(2)
+                .sellUsername("TRD2")
+                .quantity(100)
+                .price(new BigDecimal("150.25"))
+                .executionTime(executionTime)
+                .build();
+    }
+
+    private static List<RocksDBManager.WriteBatchOperation> flatten(ArgumentCaptor<RocksDBManager.WriteBatchOperation[]> batches) {
+        return batches.getAllValues().stream().flatMap(Arrays::stream).toList();
+    }
+
+    private Map.Entry<byte[], byte[]> record(Trade trade) {
+        return Map.entry(TradeIndexKeys.time(trade), codec.encode(trade, RecordFormat.BINARY));
+    }
+
+    // multiGet answers from the given trades, by the trade id in each record key
+    private void storeRecords(Trade... trades) throws Exception {
+        when(dbManager.multiGet(eq(RocksDBManager.CF_TRADES), anyList())).thenAnswer(invocation -> {
+            List<byte[]> keys = invocation.getArgument(1);
+            return keys.stream().map(key -> Arrays.stream(trades)
+                    .filter(t -> t.getTradeId() == TradeIndexKeys.tradeId(key))
+                    .findFirst().map(t -> codec.encode(t, RecordFormat.BINARY)).orElse(null)).toList();
+        });
+    }
+
+    @SafeVarargs
+    private static RocksCursor cursor(Map.Entry<byte[], byte[]>... entries) {
+        RocksCursor cursor = mock(RocksCursor.class);
+        int[] position = {0};
+        when(cursor.isValid()).thenAnswer(invocation -> position[0] < entries.length);
+        when(cursor.key()).thenAnswer(invocation -> entries[position[0]].getKey());
+        when(cursor.value()).thenAnswer(invocation -> entries[position[0]].getValue());
+        doAnswer(invocation -> position[0]++).when(cursor).next();
+        return cursor;
+    }
+
+    @Test
+    void save_writesRecordAndIndexesInOneBatch() throws Exception {
+        // Arrange
+        ArgumentCaptor<RocksDBManager.WriteBatchOperation[]> batches = ArgumentCaptor.forClass(RocksDBManager.WriteBatchOperation[].class);
+        Trade trade = trade(42);
+
+        // Act
+        repository.save(trade);
+
+        // Assert
+        verify(dbManager).writeBatch(batches.capture());
+        List<RocksDBManager.WriteBatchOperation> ops = flatten(batches);
+        verify(dbManager, never()).put(any(), any(), any());
+        assertEquals(7, ops.size());
+        assertTrue(ops.stream().allMatch(op -> op.columnFamily().equals(RocksDBManager.CF_TRADES)));
+        assertArrayEquals(TradeIndexKeys.time(trade), ops.get(0).key());
+        assertEquals(RecordFormat.BINARY, RecordFormat.of(ops.get(0).value()));
+        assertArrayEquals(TradeIndexKeys.id(42), ops.get(1).key());
+        assertArrayEquals(TradeIndexKeys.time(trade), ops.get(1).value());
+        assertArrayEquals(TradeIndexKeys.symbol(trade), ops.get(2).key());
+        assertArrayEquals(TradeIndexKeys.user("TRD1", trade), ops.get(3).key());
+        assertArrayEquals(TradeIndexKeys.user("TRD2", trade), ops.get(4).key());
+        assertArrayEquals(TradeIndexKeys.order(1, trade), ops.get(5).key());
+        assertArrayEquals(TradeIndexKeys.order(2, trade), ops.get(6).key());
+    }
+
+    @Test
+    void findBySymbol_readsTradesNamedByIndexKeysNewestFirst() throws Exception {
+        // Arrange
+        Trade older = trade(1);
+        Trade newer = trade(2, EXECUTION_TIME.plusNanos(1));
+        when(dbManager.scanKeys(RocksDBManager.CF_TRADES, KeyRange.prefix(TradeIndexKeys.prefix(TradeIndexKeys.SYMBOL, "AAPL")).reversed()))
+                .thenReturn(Stream.of(TradeIndexKeys.symbol(newer), TradeIndexKeys.symbol(older)));
+        storeRecords(older, newer);
+
+        // Act
+        List<Trade> trades = repository.findBySymbol("AAPL");
+
+        // Assert
+        assertEquals(List.of(2L, 1L), trades.stream().map(Trade::getTradeId).toList());
+    }
+
+    @Test
+    void findByOrderId_scansOnlyThatOrdersIndexKeys() throws Exception {
+        // Arrange
+        Trade trade = trade(5);
+        when(dbManager.scanKeys(RocksDBManager.CF_TRADES, KeyRange.prefix(TradeIndexKeys.orderPrefix(2)).reversed()))
+                .thenReturn(Stream.of(TradeIndexKeys.order(2, trade)));
+        storeRecords(trade);
+
+        // Act
+        List<Trade> trades = repository.findByOrderId(2);
+
+        // Assert
+        assertEquals(List.of(5L), trades.stream().map(Trade::getTradeId).toList());
+        verify(dbManager, never()).scan(any(), any());
+    }
+
+    @Test
+    void findLatest_stopsReadingBackwardsAtTheLimit() throws Exception {
+        // Arrange
+        Trade newest = trade(3, EXECUTION_TIME.plusSeconds(2));
+        Trade previous = trade(2, EXECUTION_TIME.plusSeconds(1));
+        Trade oldest = trade(1);
+        List<Long> decoded = new ArrayList<>();
+        when(dbManager.scan(RocksDBManager.CF_TRADES, KeyRange.prefix(new byte[]{TradeIndexKeys.TIME}).reversed()))
+                .thenReturn(Stream.of(newest, previous, oldest).peek(t -> decoded.add(t.getTradeId())).map(this::record));
+
+        // Act
+        List<Trade> trades = repository.findLatest(2);
+
+        // Assert
+        assertEquals(List.of(3L, 2L), trades.stream().map(Trade::getTradeId).toList());
+        assertEquals(List.of(3L, 2L), decoded);
+    }
+
+    @Test
+    void deleteOlderThan_deletesRecordsWithTheirIndexKeys() throws Exception {
+        // Arrange
+        ArgumentCaptor<RocksDBManager.WriteBatchOperation[]> batches = ArgumentCaptor.forClass(RocksDBManager.WriteBatchOperation[].class);
+        Trade old = trade(9);
+        when(dbManager.scan(eq(RocksDBManager.CF_TRADES), any()))
+                .thenReturn(Stream.of(record(old)))
+                .thenReturn(Stream.empty());
+
+        // Act
+        int deleted = repository.deleteOlderThan(EXECUTION_TIME.plusSeconds(1));
+
+        // Assert
+        assertEquals(1, deleted);
+        verify(dbManager).writeBatch(batches.capture());
+        List<RocksDBManager.WriteBatchOperation> ops = flatten(batches);
+        assertEquals(7, ops.size());
+        assertTrue(ops.stream().allMatch(op -> op.type() == RocksDBManager.OperationType.DELETE));
+        assertArrayEquals(TradeIndexKeys.time(old), ops.get(0).key());
+    }
+
+    @Test
+    void migrateLegacyTrades_movesRecordsOutOfMessagesColumnFamily() throws Exception {
+        // Arrange
+        ArgumentCaptor<RocksDBManager.WriteBatchOperation[]> batches = ArgumentCaptor.forClass(RocksDBManager.WriteBatchOperation[].class);
+        Trade trade = trade(7);
+        byte[] legacyIndex = "trade-symbol:AAPL:1772461800123".getBytes();
+        RocksCursor records = cursor(Map.entry("trade:7".getBytes(), codec.encode(trade, RecordFormat.JSON)));
+        RocksCursor legacyIndexes = cursor(Map.entry(legacyIndex, TradeIndexKeys.EMPTY));
+        when(dbManager.openCursor(eq(RocksDBManager.CF_MESSAGES), any())).thenAnswer(invocation -> cursor());
+        when(dbManager.openCursor(RocksDBManager.CF_MESSAGES, KeyRange.prefix("trade:"))).thenReturn(records);
+        when(dbManager.openCursor(RocksDBManager.CF_MESSAGES, KeyRange.prefix("trade-symbol:"))).thenReturn(legacyIndexes);
+
+        // Act
+        int moved = repository.migrateLegacyTrades();
+
+        // Assert
+        assertEquals(1, moved);
+        verify(dbManager, times(2)).writeBatch(batches.capture());
+        List<RocksDBManager.WriteBatchOperation> ops = flatten(batches);
+        assertEquals(9, ops.size());
+        assertEquals(RocksDBManager.CF_TRADES, ops.get(0).columnFamily());
+        assertEquals(RecordFormat.BINARY, RecordFormat.of(ops.get(0).value()));
+        assertEquals(RocksDBManager.CF_MESSAGES, ops.get(7).columnFamily());
+        assertEquals("trade:7", new String(ops.get(7).key()));
+        assertArrayEquals(legacyIndex, ops.get(8).key());
+        assertEquals(RocksDBManager.OperationType.DELETE, ops.get(8).type());
+    }
+
+    @Test
+    void count_whileMigrating_seesEachTradeOnceAsBatchesMove() throws Exception {
+        // Arrange: the migration is under way and moves trade 7 as soon as either column family is scanned
+        CountDownLatch migrating = new CountDownLatch(1);
+        when(dbManager.hasKeysWithPrefix(RocksDBManager.CF_MESSAGES, "trade:".getBytes())).thenReturn(true);
+        when(dbManager.openCursor(any(), any())).thenAnswer(invocation -> {
+            migrating.await();
+            return cursor();
+        });
+        boolean[] moved = {false};
+        Trade first = trade(7);
+        Trade second = trade(8);
+        when(dbManager.scan(RocksDBManager.CF_MESSAGES, KeyRange.prefix("trade:"))).thenAnswer(invocation -> {
+            Stream<Map.Entry<byte[], byte[]>> legacy = moved[0]
+                    ? Stream.of(Map.entry("trade:8".getBytes(), codec.encode(second, RecordFormat.JSON)))
+                    : Stream.of(Map.entry("trade:7".getBytes(), codec.encode(first, RecordFormat.JSON)),
+                            Map.entry("trade:8".getBytes(), codec.encode(second, RecordFormat.JSON)));
+            moved[0] = true;
+            return legacy;
+        });
+        when(dbManager.scan(eq(RocksDBManager.CF_TRADES), any())).thenAnswer(invocation -> {
+            Stream<Map.Entry<byte[], byte[]>> records = moved[0] ? Stream.of(record(first)) : Stream.empty();
+            moved[0] = true;
+            return records;
+        });
+        TradeRepositoryService migratingRepository = new TradeRepositoryService(dbManager);
+
+        try {
+            // Act
+            long count = migratingRepository.count();
+
+            // Assert
+            assertEquals(2, count);
+        } finally {
+            migrating.countDown();
+            migratingRepository.stopAsyncPersistence();
+        }
+    }
+
+    @Test
+    void saveAsync_flushesEveryTradeWithItsIndexesInBatches() throws Exception {
+        // Arrange
+        ArgumentCaptor<RocksDBManager.WriteBatchOperation[]> batches = ArgumentCaptor.forClass(RocksDBManager.WriteBatchOperation[].class);
+
+        // Act
+        for (long id = 1; id <= 50; id++) repository.saveAsync(trade(id));
+        repository.stopAsyncPersistence();
+
+        // Assert
+        verify(dbManager, atLeastOnce()).writeBatch(batches.capture());
+        List<RocksDBManager.WriteBatchOperation> ops = flatten(batches);
+        verify(dbManager, never()).put(any(), any(), any());
+        long records = ops.stream().filter(op -> op.key()[0] == TradeIndexKeys.TIME).count();
+        assertEquals(50, records);
+        assertEquals(350, ops.size());
+        assertEquals(0, repository.getPendingWrites());
+    }
+
+    @Test
+    void saveAsync_withJournal_appendsTradesAndAppliesThemInBatches(@TempDir Path dir) throws Exception {
+        // Arrange
+        ArgumentCaptor<RocksDBManager.WriteBatchOperation[]> batches = ArgumentCaptor.forClass(RocksDBManager.WriteBatchOperation[].class);
+        TradeRepositoryService journaled = new TradeRepositoryService(dbManager, WriteBehindJournal.open(dir, "trades"));
+
+        // Act
+        for (long id = 1; id <= 50; id++) journaled.saveAsync(trade(id));
+        journaled.stopAsyncPersistence();
+
+        // Assert
+        verify(dbManager, atLeastOnce()).writeBatch(batches.capture());
+        List<RocksDBManager.WriteBatchOperation> ops = flatten(batches);
+        List<Long> tradeIds = ops.stream().filter(op -> op.key()[0] == TradeIndexKeys.TIME).map(op -> codec.decode(op.value()).getTradeId()).toList();
+        assertEquals(LongStream.rangeClosed(1, 50).boxed().toList(), tradeIds);
+        assertEquals(0, journaled.getPendingWrites());
+        try (WriteBehindJournal reopened = WriteBehindJournal.open(dir, "trades")) {
+            assertEquals(0, reopened.getPendingRecords());
+        }
+    }
+}
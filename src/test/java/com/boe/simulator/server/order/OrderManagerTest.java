@@ -5,6 +5,8 @@ import com.boe.simulator.protocol.message.OrderRejectedMessage;
 import com.boe.simulator.protocol.types.BinaryPrice;
 import com.boe.simulator.server.matching.MatchingEngine;
 import com.boe.simulator.server.matching.Trade;
+import com.boe.simulator.server.matching.TradeRepository;
+import com.boe.simulator.server.ratelimit.OverloadController;
 import com.boe.simulator.server.session.ClientSession;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -24,6 +26,7 @@ import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -227,6 +230,92 @@ class OrderManagerTest {
         verify(orderRepository, times(1)).saveAsync(any(Order.class));
     }
 
+    @Test
+    void submitNewOrder_whenValid_isAcknowledgedWithoutWireMessage() {
+        // Arrange
+        OrderExecutionContext context = OrderExecutionContext.embedded("BOT-MM");
+        when(matchingEngine.processOrder(any(Order.class)))
+                .thenReturn(Collections.emptyList());
+
+        // Act
+        OrderManager.OrderResponse response = orderManager.submitNewOrder(context, "EMB1", Symbols.id("TSLA"),
+                (byte) 1, 25, 2_505_000L, (byte) 2, (byte) 'M');
+
+        // Assert
+        assertTrue(response.isAcknowledged(), "Order should be acknowledged");
+        Order order = response.getOrder();
+        assertEquals("TSLA", order.getSymbol());
+        assertEquals(2_505_000L, order.getPriceRaw());
+        assertEquals("BOT-MM", order.getUsername());
+        assertEquals("EMBEDDED", order.getSessionSubID());
+        assertEquals(1, orderManager.getTotalOrdersAccepted());
+        verify(orderValidator, never()).validateNewOrder(any(NewOrderMessage.class));
+        verify(orderRepository).saveAsync(order);
+    }
+
+    @Test
+    void submitNewOrder_whenSymbolIdUnknown_isRejected() {
+        // Act
+        OrderManager.OrderResponse response = orderManager.submitNewOrder(OrderExecutionContext.embedded("BOT-MM"),
+                "EMB2", Symbols.id("SPX"), (byte) 1, 25, 2_505_000L, (byte) 2, (byte) 'M');
+
+        // Assert
+        assertTrue(response.isRejected());
+        assertEquals(OrderRejectedMessage.REASON_INVALID_SYMBOL, response.getRejectReason());
+        assertEquals(1, orderManager.getTotalOrdersRejected());
+        verify(matchingEngine, never()).processOrder(any(Order.class));
+    }
+
+    @Test
+    void submitNewOrder_whenFieldsInvalid_isRejectedWithValidatorError() {
+        // Arrange
+        when(orderValidator.validateNewOrderFields("EMB3", (byte) 9, 25, 2_505_000L, (byte) 2, (byte) 'M'))
+                .thenReturn("Invalid Side: 0x9");
+
+        // Act
+        OrderManager.OrderResponse response = orderManager.submitNewOrder(OrderExecutionContext.embedded("BOT-MM"),
+                "EMB3", Symbols.id("AAPL"), (byte) 9, 25, 2_505_000L, (byte) 2, (byte) 'M');
+
+        // Assert
+        assertTrue(response.isRejected());
+        assertEquals(OrderRejectedMessage.REASON_MISSING_REQUIRED_FIELD, response.getRejectReason());
+        assertEquals("Invalid Side: 0x9", response.getRejectText());
+        verify(matchingEngine, never()).processOrder(any(Order.class));
+    }
+
+    @Test
+    void submitNewOrder_whenOverloadCritical_isRejectedBeforeMatching() {
+        // Arrange
+        OverloadController overload = mock(OverloadController.class);
+        when(overload.shouldRejectNewOrders()).thenReturn(true);
+        orderManager.setOverloadController(overload);
+
+        // Act
+        OrderManager.OrderResponse response = orderManager.submitNewOrder(OrderExecutionContext.embedded("BOT-MM"),
+                "EMB4", Symbols.id("AAPL"), (byte) 1, 25, 2_505_000L, (byte) 2, (byte) 'M');
+
+        // Assert
+        assertTrue(response.isRejected());
+        assertEquals(OrderRejectedMessage.REASON_SYSTEM_BUSY, response.getRejectReason());
+        verify(matchingEngine, never()).processOrder(any(Order.class));
+        verify(orderRepository, never()).saveAsync(any(Order.class));
+    }
+
+    @Test
+    void submitNewOrder_whenOverloadControlled_recordsAckLatency() {
+        // Arrange
+        OverloadController overload = mock(OverloadController.class);
+        orderManager.setOverloadController(overload);
+        when(matchingEngine.processOrder(any(Order.class))).thenReturn(Collections.emptyList());
+
+        // Act
+        orderManager.submitNewOrder(OrderExecutionContext.embedded("BOT-MM"),
+                "EMB5", Symbols.id("AAPL"), (byte) 1, 25, 2_505_000L, (byte) 2, (byte) 'M');
+
+        // Assert
+        verify(overload).recordAckLatency(anyLong());
+    }
+
     @Test
     void processCancelOrder_whenOrderExistsAndCancellable_isCancelled() {
         // Arrange
@@ -287,6 +376,21 @@ class OrderManagerTest {
         verify(matchingEngine, never()).cancelOrder(any(Order.class));
     }
 
+    @Test
+    void getPersistenceBacklog_withOneSharedOrderRepository_countsEachPendingWriteOnce() {
+        // Arrange
+        TradeRepository tradeRepository = mock(TradeRepository.class);
+        when(orderRepository.getPendingWrites()).thenReturn(5);
+        when(tradeRepository.getPendingWrites()).thenReturn(3);
+        OrderManager shared = new OrderManager(orderRepository, orderValidator, new MatchingEngine(orderRepository, tradeRepository, false));
+
+        // Act
+        int backlog = shared.getPersistenceBacklog();
+
+        // Assert
+        assertEquals(8, backlog);
+    }
+
     @Test
     void processCancelOrder_whenOrderNotCancellable_isRejected() {
         // Arrange - First create and fill an order
@@ -297,7 +401,7 @@ class OrderManagerTest {
                 .thenAnswer(invocation -> {
                     Order order = invocation.getArgument(0);
                     // Simulate immediate fill
-                    order.fill(10, BigDecimal.valueOf(100.0));
+                    order.fill(10, 1_000_000L);
                     return Collections.emptyList();
                 });
         
@@ -0,0 +1,117 @@
+package com.boe.simulator.server.order;
+
+import com.boe.simulator.protocol.types.Capacity;
+import com.boe.simulator.protocol.types.OrdType;
+import com.boe.simulator.protocol.types.PutOrCall;
+import com.boe.simulator.protocol.types.Side;
+import com.boe.simulator.server.persistence.codec.RecordFormat;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderRecordCodecTest {
+
+    private final OrderRecordCodec codec = new OrderRecordCodec();
+
+    private Order partiallyFilledOrder() {
+        Order order = Order.builder()
+                .clOrdID("ORD-100001")
+                .orderID(1_700_000_000_123L)
+                .sessionSubID("0001")
+                .username("TRD1")
+                .side(Side.BUY)
+                .orderQty(500)
+                .price(new BigDecimal("150.25"))
+                .ordType(OrdType.LIMIT)
+                .symbol("AAPL")
+                .maturityDate(Instant.parse("2026-12-18T00:00:00Z"))
+                .strikePrice(new BigDecimal("155.00"))
+                .putOrCall(PutOrCall.CALL)
+                .capacity(Capacity.CUSTOMER)
+                .account("ACCT01")
+                .clearingFirm("CLRF")
+                .receivedSequence(7)
+                .build();
+        order.acknowledge();
+        order.fill(200, order.getPriceRaw());
+        order.setLastSentSequence(9);
+        return order;
+    }
+
+    @Test
+    void binary_roundTripsOrderAndItsState() {
+        // Arrange
+        Order order = partiallyFilledOrder();
+
+        // Act
+        byte[] record = codec.encode(order, RecordFormat.BINARY);
+        Order decoded = codec.decode(record);
+
+        // Assert
+        assertEquals(RecordFormat.BINARY, RecordFormat.of(record));
+        assertEquals(order.getClOrdID(), decoded.getClOrdID());
+        assertEquals(order.getOrderID(), decoded.getOrderID());
+        assertEquals(order.getUsername(), decoded.getUsername());
+        assertEquals(Side.BUY, decoded.getSide());
+        assertEquals(order.getPriceRaw(), decoded.getPriceRaw());
+        assertEquals(order.getStrikePriceRaw(), decoded.getStrikePriceRaw());
+        assertEquals(order.getMaturityDate(), decoded.getMaturityDate());
+        assertEquals(PutOrCall.CALL, decoded.getPutOrCall());
+        assertEquals(Capacity.CUSTOMER, decoded.getCapacity());
+        assertEquals(OrderState.PARTIALLY_FILLED, decoded.getState());
+        assertEquals(300, decoded.getLeavesQty());
+        assertEquals(200, decoded.getCumQty());
+        assertEquals(order.getLastModified(), decoded.getLastModified());
+        assertEquals(7, decoded.getReceivedSequence());
+        assertEquals(9, decoded.getLastSentSequence());
+    }
+
+    @Test
+    void decode_readsExistingJsonRecords() {
+        // Arrange
+        Order order = partiallyFilledOrder();
+        byte[] json = codec.encode(order, RecordFormat.JSON);
+
+        // Act
+        Order decoded = codec.decode(json);
+
+        // Assert
+        assertEquals(RecordFormat.JSON, RecordFormat.of(json));
+        assertEquals(order.getClOrdID(), decoded.getClOrdID());
+        assertEquals(order.getPriceRaw(), decoded.getPriceRaw());
+        assertEquals(OrderState.PARTIALLY_FILLED, decoded.getState());
+        assertEquals(300, decoded.getLeavesQty());
+    }
+
+    @Test
+    void binary_whenMarketOrder_keepsNoPrice() {
+        // Arrange
+        Order order = Order.builder().clOrdID("MKT-1").side(Side.SELL).orderQty(10)
+                .ordType(OrdType.MARKET).symbol("MSFT").build();
+
+        // Act
+        Order decoded = codec.decode(codec.encode(order, RecordFormat.BINARY));
+
+        // Assert
+        assertNull(decoded.getPrice());
+        assertEquals(OrdType.MARKET, decoded.getOrdType());
+        assertNull(decoded.getMaturityDate());
+        assertNull(decoded.getPutOrCall());
+    }
+
+    @Test
+    void binary_isSmallerThanJson() {
+        // Arrange
+        Order order = partiallyFilledOrder();
+
+        // Act
+        int binary = codec.encode(order, RecordFormat.BINARY).length;
+        int json = codec.encode(order, RecordFormat.JSON).length;
+
+        // Assert
+        assertTrue(binary * 4 < json, "binary " + binary + " bytes vs JSON " + json);
+    }
+}
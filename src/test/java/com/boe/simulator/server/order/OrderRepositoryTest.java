@@ -0,0 +1,313 @@
+package com.boe.simulator.server.order;
+
+import com.boe.simulator.protocol.types.BinaryPrice;
+import com.boe.simulator.protocol.types.OrdType;
+import com.boe.simulator.protocol.types.Side;
+import com.boe.simulator.server.persistence.KeyRange;
+import com.boe.simulator.server.persistence.RocksCursor;
+import com.boe.simulator.server.persistence.RocksDBManager;
+import com.boe.simulator.server.persistence.WriteBehindJournal;
+import com.boe.simulator.server.persistence.codec.RecordFormat;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class OrderRepositoryTest {
+
+    private final OrderRecordCodec codec = new OrderRecordCodec();
+    private RocksDBManager dbManager;
+    private OrderRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        dbManager = mock(RocksDBManager.class);
+        when(dbManager.getRecordFormat(RocksDBManager.CF_ORDERS)).thenReturn(RecordFormat.BINARY);
+        repository = new OrderRepository(dbManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.stopAsyncPersistence();
+    }
+
+    private static Order order(String clOrdID, long orderID) {
+        Order order = Order.builder()
+                .clOrdID(clOrdID)
+                .orderID(orderID)
+                .username("TRD1")
+                .side(Side.BUY)
+                .orderQty(100)
+                .price(new BigDecimal("150.25"))
+                .ordType(OrdType.LIMIT)
+                .symbol("AAPL")
+                .build();
+        order.acknowledge();
+        return order;
+    }
+
+    private static List<RocksDBManager.WriteBatchOperation> flatten(ArgumentCaptor<RocksDBManager.WriteBatchOperation[]> batches) {
+        return batches.getAllValues().stream().flatMap(Arrays::stream).toList();
+    }
+
+    @Test
+    void save_writesRecordAndIndexesInOneBatch() throws Exception {
+        // Arrange
+        ArgumentCaptor<RocksDBManager.WriteBatchOperation[]> batches = ArgumentCaptor.forClass(RocksDBManager.WriteBatchOperation[].class);
+        Order order = order("ORD-1", 1_000_001);
+
+        // Act
+        repository.save(order);
+
+        // Assert
+        verify(dbManager).writeBatch(batches.capture());
+        verify(dbManager, never()).put(any(), any(), any());
+        List<RocksDBManager.WriteBatchOperation> ops = flatten(batches);
+        assertEquals(4, ops.size());
+        assertArrayEquals(OrderIndexKeys.primary(1_000_001), ops.get(0).key());
+        assertArrayEquals(OrderIndexKeys.user("TRD1", 1_000_001), ops.get(1).key());
+        assertArrayEquals(OrderIndexKeys.active(1_000_001), ops.get(2).key());
+        assertEquals(RocksDBManager.OperationType.PUT, ops.get(2).type());
+        assertArrayEquals(OrderIndexKeys.primary(1_000_001), ops.get(2).value());
+        assertArrayEquals(OrderIndexKeys.clOrdID("ORD-1"), ops.get(3).key());
+    }
+
+    @Test
+    void save_removesOrderThatIsNoLongerLiveFromActiveSet() throws Exception {
+        // Arrange
+        ArgumentCaptor<RocksDBManager.WriteBatchOperation[]> batches = ArgumentCaptor.forClass(RocksDBManager.WriteBatchOperation[].class);
+        Order order = order("ORD-2", 1_000_002);
+        order.cancel();
+
+        // Act
+        repository.save(order);
+
+        // Assert
+        verify(dbManager).writeBatch(batches.capture());
+        RocksDBManager.WriteBatchOperation active = flatten(batches).get(2);
+        assertEquals(RocksDBManager.OperationType.DELETE, active.type());
+        assertEquals(RocksDBManager.CF_ORDER_INDEXES, active.columnFamily());
+        assertArrayEquals(OrderIndexKeys.active(1_000_002), active.key());
+    }
+
+    @Test
+    void findByOrderID_isOnePointRead() throws Exception {
+        // Arrange
+        Order order = order("ORD-3", 1_000_003);
+        when(dbManager.get(RocksDBManager.CF_ORDERS, OrderIndexKeys.primary(1_000_003))).thenReturn(codec.encode(order, RecordFormat.BINARY));
+
+        // Act
+        Optional<Order> found = repository.findByOrderID(1_000_003);
+
+        // Assert
+        assertEquals("ORD-3", found.orElseThrow().getClOrdID());
+        verify(dbManager, never()).scan(any(), any());
+    }
+
+    @Test
+    void findActiveOrders_readsTheActiveSetAndSkipsStaleEntries() throws Exception {
+        // Arrange
+        Order live = order("ORD-4", 1_000_004);
+        Order cancelled = order("ORD-5", 1_000_005);
+        cancelled.cancel();
+        when(dbManager.scan(RocksDBManager.CF_ORDER_INDEXES, KeyRange.prefix(new byte[]{OrderIndexKeys.ACTIVE})))
+                .thenReturn(Stream.of(
+                        Map.entry(OrderIndexKeys.active(1_000_004), OrderIndexKeys.primary(1_000_004)),
+                        Map.entry(OrderIndexKeys.active(1_000_005), OrderIndexKeys.primary(1_000_005))));
+        when(dbManager.multiGet(eq(RocksDBManager.CF_ORDERS), anyList()))
+                .thenReturn(List.of(codec.encode(live, RecordFormat.BINARY), codec.encode(cancelled, RecordFormat.BINARY)));
+
+        // Act
+        List<Order> active = repository.findActiveOrders();
+
+        // Assert
+        assertEquals(List.of("ORD-4"), active.stream().map(Order::getClOrdID).toList());
+        verify(dbManager, never()).scan(eq(RocksDBManager.CF_ORDERS), any());
+    }
+
+    @Test
+    void findMaxOrderID_readsTheLastRecordKey() {
+        // Arrange
+        when(dbManager.scanKeys(RocksDBManager.CF_ORDERS, KeyRange.prefix(new byte[]{OrderIndexKeys.PRIMARY}).reversed()))
+                .thenReturn(Stream.of(OrderIndexKeys.primary(1_000_042), OrderIndexKeys.primary(1_000_041)));
+
+        // Act
+        long max = repository.findMaxOrderID();
+
+        // Assert
+        assertEquals(1_000_042, max);
+    }
+
+    @Test
+    void orderIdKeys_sortByOrderID() {
+        // Act & Assert
+        assertTrue(Arrays.compareUnsigned(OrderIndexKeys.primary(999), OrderIndexKeys.primary(1_000)) < 0);
+        assertTrue(Arrays.compareUnsigned(OrderIndexKeys.user("TRD1", 999), OrderIndexKeys.user("TRD1", 1_000)) < 0);
+        assertEquals(1_000, OrderIndexKeys.orderID(OrderIndexKeys.user("TRD1", 1_000)));
+    }
+
+    @Test
+    void save_keepsModifiedOrderUnderItsOrderIDWithBothClOrdIDs() throws Exception {
+        // Arrange
+        ArgumentCaptor<RocksDBManager.WriteBatchOperation[]> batches = ArgumentCaptor.forClass(RocksDBManager.WriteBatchOperation[].class);
+        Order order = order("ORD-6", 1_000_006);
+        order.modify("ORD-6-M", BinaryPrice.NO_PRICE, null, 0, 100);
+
+        // Act
+        repository.save(order);
+
+        // Assert
+        verify(dbManager).writeBatch(batches.capture());
+        List<RocksDBManager.WriteBatchOperation> ops = flatten(batches);
+        assertEquals(5, ops.size());
+        assertArrayEquals(OrderIndexKeys.primary(1_000_006), ops.get(0).key());
+        assertArrayEquals(OrderIndexKeys.clOrdID("ORD-6-M"), ops.get(3).key());
+        assertArrayEquals(OrderIndexKeys.clOrdID("ORD-6"), ops.get(4).key());
+        assertArrayEquals(OrderIndexKeys.primary(1_000_006), ops.get(4).value());
+    }
+
+    @Test
+    void constructor_appliesOrdersLeftInTheJournalBeforeReturning(@TempDir Path dir) throws Exception {
+        // Arrange: a journal holding two orders that never reached RocksDB
+        ArgumentCaptor<RocksDBManager.WriteBatchOperation[]> batches = ArgumentCaptor.forClass(RocksDBManager.WriteBatchOperation[].class);
+        WriteBehindJournal crashed = WriteBehindJournal.open(dir, "orders");
+        crashed.append(codec.encode(order("ORD-J1", 1_000_011), RecordFormat.BINARY));
+        crashed.append(codec.encode(order("ORD-J2", 1_000_012), RecordFormat.BINARY));
+
+        // Act
+        OrderRepository recovered = new OrderRepository(dbManager, WriteBehindJournal.open(dir, "orders"));
+
+        // Assert
+        verify(dbManager).writeBatch(batches.capture());
+        List<byte[]> records = flatten(batches).stream()
+                .filter(op -> op.columnFamily().equals(RocksDBManager.CF_ORDERS))
+                .map(RocksDBManager.WriteBatchOperation::key).toList();
+        assertEquals(2, records.size());
+        assertArrayEquals(OrderIndexKeys.primary(1_000_011), records.get(0));
+        assertArrayEquals(OrderIndexKeys.primary(1_000_012), records.get(1));
+        assertEquals(0, recovered.getPendingWrites());
+        recovered.stopAsyncPersistence();
+    }
+
+    @Test
+    void findByClOrdID_followsTheAliasToTheRecord() throws Exception {
+        // Arrange
+        Order order = order("ORD-7", 1_000_007);
+        when(dbManager.get(RocksDBManager.CF_ORDER_INDEXES, OrderIndexKeys.clOrdID("ORD-7"))).thenReturn(OrderIndexKeys.primary(1_000_007));
+        when(dbManager.get(RocksDBManager.CF_ORDERS, OrderIndexKeys.primary(1_000_007))).thenReturn(codec.encode(order, RecordFormat.BINARY));
+
+        // Act
+        Optional<Order> found = repository.findByClOrdID("ORD-7");
+
+        // Assert
+        assertEquals(1_000_007, found.orElseThrow().getOrderID());
+        assertFalse(repository.existsByClOrdID("ORD-8"));
+    }
+
+    @Test
+    void compactLegacyRecords_keepsTheLatestVersionAndReassignsReusedOrderIDs() throws Exception {
+        // Arrange
+        ArgumentCaptor<RocksDBManager.WriteBatchOperation[]> batches = ArgumentCaptor.forClass(RocksDBManager.WriteBatchOperation[].class);
+        Order original = order("ORD-9", 1_000_009);
+        Order modified = order("ORD-9-M", 1_000_009);
+        Thread.sleep(1);
+        modified.cancel();
+        Order reused = Order.builder().clOrdID("OTHER-1").orderID(1_000_009).username("TRD2").side(Side.SELL)
+                .orderQty(100).price(new BigDecimal("150.25")).ordType(OrdType.LIMIT).symbol("AAPL").build();
+        RocksCursor legacy = cursor(
+                Map.entry("order:ORD-9".getBytes(), codec.encode(original, RecordFormat.BINARY)),
+                Map.entry("order:ORD-9-M".getBytes(), codec.encode(modified, RecordFormat.BINARY)),
+                Map.entry("order:OTHER-1".getBytes(), codec.encode(reused, RecordFormat.BINARY)));
+        when(dbManager.openCursor(RocksDBManager.CF_ORDERS, KeyRange.prefix("order:"))).thenReturn(legacy);
+        when(dbManager.scanKeys(RocksDBManager.CF_ORDER_INDEXES, KeyRange.prefix(new byte[]{OrderIndexKeys.LEGACY_ORDER_ID})))
+                .thenReturn(Stream.of(new byte[]{OrderIndexKeys.LEGACY_ORDER_ID, 1}));
+
+        // Act
+        int removed = repository.compactLegacyRecords();
+
+        // Assert
+        assertEquals(3, removed);
+        verify(dbManager).writeBatch(batches.capture());
+        List<RocksDBManager.WriteBatchOperation> ops = flatten(batches);
+        List<RocksDBManager.WriteBatchOperation> records = ops.stream()
+                .filter(op -> op.columnFamily().equals(RocksDBManager.CF_ORDERS) && op.type() == RocksDBManager.OperationType.PUT).toList();
+        assertEquals(3, records.size());
+        assertEquals(OrderState.CANCELLED, codec.decode(records.get(1).value()).getState());
+        assertArrayEquals(OrderIndexKeys.primary(1_000_009), records.get(1).key());
+        assertArrayEquals(OrderIndexKeys.primary(999_999), records.get(2).key());
+        assertEquals(999_999, codec.decode(records.get(2).value()).getOrderID());
+        assertEquals(4, ops.stream().filter(op -> op.type() == RocksDBManager.OperationType.DELETE
+                && (op.columnFamily().equals(RocksDBManager.CF_ORDERS) || op.key()[0] == OrderIndexKeys.LEGACY_ORDER_ID)).count());
+        verify(dbManager).compactRange(RocksDBManager.CF_ORDERS);
+    }
+
+    @Test
+    void save_racingTheCompactionOfItsLegacyRecord_isNotOverwritten() throws Exception {
+        // Arrange: a stale ClOrdID-keyed version of the order, and a save issued as soon as a repository exists
+        ArgumentCaptor<RocksDBManager.WriteBatchOperation[]> batches = ArgumentCaptor.forClass(RocksDBManager.WriteBatchOperation[].class);
+        Order stale = order("ORD-5", 1_000_005);
+        Thread.sleep(1);
+        Order filled = order("ORD-5", 1_000_005);
+        filled.fill(100, 1_502_500L);
+        when(dbManager.hasKeysWithPrefix(RocksDBManager.CF_ORDERS, "order:".getBytes())).thenReturn(true);
+        RocksCursor legacy = cursor(Map.entry("order:ORD-5".getBytes(), codec.encode(stale, RecordFormat.BINARY)));
+        when(dbManager.openCursor(RocksDBManager.CF_ORDERS, KeyRange.prefix("order:"))).thenReturn(legacy);
+        when(dbManager.scanKeys(eq(RocksDBManager.CF_ORDER_INDEXES), any())).thenAnswer(invocation -> Stream.empty());
+        // The compaction's read of the orderID-keyed record gives a save every chance to land first
+        CountDownLatch saved = new CountDownLatch(1);
+        when(dbManager.get(RocksDBManager.CF_ORDERS, OrderIndexKeys.primary(1_000_005))).thenAnswer(invocation -> {
+            saved.await(500, TimeUnit.MILLISECONDS);
+            return null;
+        });
+        CompletableFuture<OrderRepository> handedOut = new CompletableFuture<>();
+        Thread saver = Thread.ofVirtual().start(() -> {
+            handedOut.join().save(filled);
+            saved.countDown();
+        });
+
+        // Act
+        OrderRepository compacting = new OrderRepository(dbManager);
+        handedOut.complete(compacting);
+        saver.join();
+        compacting.stopAsyncPersistence();
+
+        // Assert: the filled order is the last record written under its orderID, and it left the active set
+        verify(dbManager, atLeastOnce()).writeBatch(batches.capture());
+        List<RocksDBManager.WriteBatchOperation> ops = flatten(batches);
+        RocksDBManager.WriteBatchOperation last = ops.stream()
+                .filter(op -> Arrays.equals(OrderIndexKeys.primary(1_000_005), op.key())).reduce((a, b) -> b).orElseThrow();
+        assertEquals(OrderState.FILLED, codec.decode(last.value()).getState());
+        RocksDBManager.WriteBatchOperation active = ops.stream()
+                .filter(op -> Arrays.equals(OrderIndexKeys.active(1_000_005), op.key())).reduce((a, b) -> b).orElseThrow();
+        assertEquals(RocksDBManager.OperationType.DELETE, active.type());
+    }
+
+    @SafeVarargs
+    private static RocksCursor cursor(Map.Entry<byte[], byte[]>... entries) {
+        RocksCursor cursor = mock(RocksCursor.class);
+        int[] position = {0};
+        when(cursor.isValid()).thenAnswer(invocation -> position[0] < entries.length);
+        when(cursor.key()).thenAnswer(invocation -> entries[position[0]].getKey());
+        when(cursor.value()).thenAnswer(invocation -> entries[position[0]].getValue());
+        doAnswer(invocation -> position[0]++).when(cursor).next();
+        return cursor;
+    }
+}
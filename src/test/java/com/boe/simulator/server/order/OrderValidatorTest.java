@@ -43,7 +43,7 @@ class OrderValidatorTest {
             setField(message, "orderQty", orderQty);
             setField(message, "symbol", symbol);
             setField(message, "ordType", ordType);
-            setField(message, "price", price);
+            setField(message, "price", BinaryPrice.toRaw(price));
             setField(message, "capacity", capacity);
             setField(message, "openClose", openClose);
             if (maturityDate != null) {
@@ -52,7 +52,7 @@ class OrderValidatorTest {
                 Instant matInstant = matDate.atStartOfDay(java.time.ZoneId.of("America/New_York")).toInstant();
                 setField(message, "maturityDate", matInstant);
             }
-            setField(message, "strikePrice", strikePrice);
+            setField(message, "strikePrice", BinaryPrice.toRaw(strikePrice));
             setField(message, "putOrCall", putOrCall);
         } catch (Exception e) {
             throw new RuntimeException("Failed to create test message", e);
@@ -332,6 +332,30 @@ class OrderValidatorTest {
         assertTrue(result.errorMessage().contains("Invalid PutOrCall"));
     }
 
+    // --- validateNewOrderFields tests ---
+
+    @Test
+    void validateNewOrderFields_whenAllFieldsAreValid_returnsNull() {
+        assertNull(orderValidator.validateNewOrderFields("EMB1", (byte) 1, 10, 1_500_000L, (byte) 2, (byte) 'C'));
+        assertNull(orderValidator.validateNewOrderFields("EMB2", (byte) 2, 10, BinaryPrice.NO_PRICE, (byte) 1, (byte) 'C'));
+    }
+
+    @Test
+    void validateNewOrderFields_whenLimitPriceMissingOrNegative_returnsError() {
+        assertEquals("Price is required for limit orders",
+                orderValidator.validateNewOrderFields("EMB1", (byte) 1, 10, BinaryPrice.NO_PRICE, (byte) 2, (byte) 'C'));
+        assertEquals("Price cannot be negative",
+                orderValidator.validateNewOrderFields("EMB1", (byte) 1, 10, -1L, (byte) 2, (byte) 'C'));
+    }
+
+    @Test
+    void validateNewOrderFields_whenEnumOrQuantityInvalid_returnsError() {
+        assertTrue(orderValidator.validateNewOrderFields("EMB1", (byte) 9, 10, 1L, (byte) 2, (byte) 'C').startsWith("Invalid Side"));
+        assertTrue(orderValidator.validateNewOrderFields("EMB1", (byte) 1, 0, 1L, (byte) 2, (byte) 'C').startsWith("OrderQty"));
+        assertTrue(orderValidator.validateNewOrderFields("EMB1", (byte) 1, 10, 1L, (byte) 7, (byte) 'C').startsWith("Invalid OrdType"));
+        assertTrue(orderValidator.validateNewOrderFields("EMB1", (byte) 1, 10, 1L, (byte) 2, (byte) 'Z').startsWith("Invalid Capacity"));
+    }
+
     // --- isDuplicateClOrdID tests ---
 
     @Test
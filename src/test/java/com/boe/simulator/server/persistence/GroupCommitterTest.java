@@ -0,0 +1,77 @@
+package com.boe.simulator.server.persistence;
+
+import org.junit.jupiter.api.Test;
+import org.rocksdb.RocksDBException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+
+class GroupCommitterTest {
+
+    private static RocksDBManager.WriteBatchOperation[] batch(String key) {
+        return new RocksDBManager.WriteBatchOperation[]{
+                new RocksDBManager.WriteBatchOperation(RocksDBManager.OperationType.PUT, RocksDBManager.CF_ORDERS, key.getBytes(), new byte[0])};
+    }
+
+    @Test
+    void commit_mergesBatchesQueuedWhileAGroupIsWriting() throws Exception {
+        // Arrange
+        CountDownLatch firstWriteStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstWrite = new CountDownLatch(1);
+        List<Integer> groupSizes = Collections.synchronizedList(new ArrayList<>());
+        GroupCommitter committer = new GroupCommitter(batches -> {
+            groupSizes.add(batches.size());
+            firstWriteStarted.countDown();
+            try {
+                releaseFirstWrite.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        Thread first = Thread.ofVirtual().start(() -> commitQuietly(committer, "a"));
+        assertTrue(firstWriteStarted.await(5, TimeUnit.SECONDS));
+
+        // Act
+        Thread second = Thread.ofVirtual().start(() -> commitQuietly(committer, "b"));
+        Thread third = Thread.ofVirtual().start(() -> commitQuietly(committer, "c"));
+        await().atMost(5, TimeUnit.SECONDS).until(() -> second.getState() == Thread.State.WAITING && third.getState() == Thread.State.WAITING);
+        releaseFirstWrite.countDown();
+        first.join();
+        second.join();
+        third.join();
+
+        // Assert
+        assertEquals(List.of(1, 2), groupSizes);
+        assertEquals(2, committer.groups());
+        assertEquals(3, committer.batches());
+    }
+
+    @Test
+    void commit_failsEveryBatchOfAFailedGroup() {
+        // Arrange
+        GroupCommitter committer = new GroupCommitter(batches -> {
+            throw new RocksDBException("disk full");
+        });
+
+        // Act
+        RocksDBException failure = assertThrows(RocksDBException.class, () -> committer.commit(batch("a")));
+
+        // Assert
+        assertEquals("disk full", failure.getMessage());
+        assertEquals(1, committer.groups());
+    }
+
+    private static void commitQuietly(GroupCommitter committer, String key) {
+        try {
+            committer.commit(batch(key));
+        } catch (RocksDBException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
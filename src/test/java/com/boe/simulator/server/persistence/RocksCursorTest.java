@@ -0,0 +1,113 @@
+package com.boe.simulator.server.persistence;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.rocksdb.Options;
+import org.rocksdb.RocksDB;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.StreamSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RocksCursorTest {
+
+    @TempDir
+    Path dbDir;
+
+    private Options options;
+    private RocksDB db;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        RocksDB.loadLibrary();
+        options = new Options().setCreateIfMissing(true);
+        db = RocksDB.open(options, dbDir.toString());
+        for (String key : List.of("a:1", "a:2", "a:3", "ab:1", "b:1")) db.put(key.getBytes(), ("v" + key).getBytes());
+        db.put(new byte[]{(byte) 0xFF, (byte) 0xFF}, new byte[0]);
+    }
+
+    @AfterEach
+    void tearDown() {
+        db.close();
+        options.close();
+    }
+
+    private List<String> keys(KeyRange range) {
+        try (RocksCursor cursor = new RocksCursor(db, db.getDefaultColumnFamily(), range)) {
+            return StreamSupport.stream(cursor.keys(), false).map(String::new).toList();
+        }
+    }
+
+    @Test
+    void prefix_staysWithinThePrefix() {
+        // Act
+        List<String> keys = keys(KeyRange.prefix("a:"));
+
+        // Assert
+        assertEquals(List.of("a:1", "a:2", "a:3"), keys);
+    }
+
+    @Test
+    void reversed_walksTheRangeLastKeyFirst() {
+        // Act
+        List<String> keys = keys(KeyRange.prefix("a:").reversed());
+
+        // Assert
+        assertEquals(List.of("a:3", "a:2", "a:1"), keys);
+    }
+
+    @Test
+    void between_excludesTheUpperBound() {
+        // Act
+        List<String> forward = keys(KeyRange.between("a:2".getBytes(), "b:1".getBytes()));
+        List<String> backward = keys(KeyRange.between("a:2".getBytes(), "b:1".getBytes()).reversed());
+
+        // Assert
+        assertEquals(List.of("a:2", "a:3", "ab:1"), forward);
+        assertEquals(List.of("ab:1", "a:3", "a:2"), backward);
+    }
+
+    @Test
+    void prefix_ofAllOnesIsOpenEnded() {
+        // Act
+        List<String> keys = keys(KeyRange.prefix(new byte[]{(byte) 0xFF}));
+
+        // Assert
+        assertEquals(1, keys.size());
+    }
+
+    @Test
+    void seek_movesWithinTheRange() {
+        // Arrange
+        List<String> keys = new ArrayList<>();
+
+        // Act
+        try (RocksCursor cursor = new RocksCursor(db, db.getDefaultColumnFamily(), KeyRange.prefix("a:"))) {
+            cursor.seek("a:2".getBytes());
+            for (; cursor.isValid(); cursor.next()) keys.add(new String(cursor.key()));
+        }
+
+        // Assert
+        assertEquals(List.of("a:2", "a:3"), keys);
+    }
+
+    @Test
+    void entries_stopAtTheFirstMatch() {
+        // Act
+        Map.Entry<byte[], byte[]> first;
+        try (RocksCursor cursor = new RocksCursor(db, db.getDefaultColumnFamily(), KeyRange.all())) {
+            first = StreamSupport.stream(cursor.entries(), false)
+                    .filter(e -> new String(e.getKey()).startsWith("b"))
+                    .findFirst().orElseThrow();
+        }
+
+        // Assert
+        assertEquals("vb:1", new String(first.getValue()));
+    }
+}
@@ -0,0 +1,73 @@
+package com.boe.simulator.server.persistence;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.rocksdb.ColumnFamilyDescriptor;
+import org.rocksdb.ColumnFamilyHandle;
+import org.rocksdb.ColumnFamilyOptions;
+import org.rocksdb.DBOptions;
+import org.rocksdb.FlushOptions;
+import org.rocksdb.LRUCache;
+import org.rocksdb.RocksDB;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.StreamSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TuningProfileTest {
+
+    @TempDir
+    Path dbDir;
+
+    private static byte[] key(int tag, long id) {
+        return ByteBuffer.allocate(1 + Long.BYTES).put((byte) tag).putLong(id ^ Long.MIN_VALUE).array();
+    }
+
+    private static long count(RocksDB db, ColumnFamilyHandle handle, KeyRange range) {
+        try (RocksCursor cursor = new RocksCursor(db, handle, range)) {
+            return StreamSupport.stream(cursor.keys(), false).count();
+        }
+    }
+
+    @Test
+    void everyProfile_opensAndScansAcrossPrefixes() throws Exception {
+        RocksDB.loadLibrary();
+        for (TuningProfile profile : TuningProfile.values()) {
+            // Arrange
+            Path path = dbDir.resolve(profile.name());
+            List<ColumnFamilyHandle> handles = new ArrayList<>();
+            try (LRUCache cache = new LRUCache(1 << 20);
+                 ColumnFamilyOptions options = profile.options(cache);
+                 DBOptions dbOptions = new DBOptions().setCreateIfMissing(true);
+                 RocksDB db = RocksDB.open(dbOptions, path.toString(), List.of(new ColumnFamilyDescriptor(RocksDB.DEFAULT_COLUMN_FAMILY, options)), handles);
+                 FlushOptions flush = new FlushOptions().setWaitForFlush(true)) {
+                ColumnFamilyHandle handle = handles.get(0);
+                for (long id = 0; id < 100; id++) {
+                    db.put(handle, key(0x01, id), new byte[]{1});
+                    db.put(handle, key(0x02, id), new byte[]{2});
+                }
+                db.flush(flush, handle);
+                db.put(handle, key(0x02, 100), new byte[]{2}); // one more in the memtable
+
+                // Act
+                long all = count(db, handle, KeyRange.all());
+                long tag = count(db, handle, KeyRange.prefix(new byte[]{0x02}));
+                long single = count(db, handle, KeyRange.prefix(key(0x01, 42)));
+                long missing = count(db, handle, KeyRange.prefix(key(0x01, 1_000)));
+                byte[] point = db.get(handle, key(0x02, 100));
+
+                // Assert
+                assertEquals(201, all, profile.name());
+                assertEquals(101, tag, profile.name());
+                assertEquals(1, single, profile.name());
+                assertEquals(0, missing, profile.name());
+                assertArrayEquals(new byte[]{2}, point, profile.name());
+                handles.forEach(ColumnFamilyHandle::close);
+            }
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.boe.simulator.server.persistence;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.rocksdb.RocksDBException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteBehindJournalTest {
+
+    @TempDir
+    Path dir;
+
+    private static byte[] record(int i) {
+        return ("record-" + i + "-" + "x".repeat(i % 7)).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<String> applyAll(WriteBehindJournal journal, int batch) throws IOException {
+        List<String> applied = new ArrayList<>();
+        while (journal.apply(batch, records -> records.forEach(r -> applied.add(new String(r, StandardCharsets.UTF_8)))) > 0) { }
+        return applied;
+    }
+
+    // Length and CRC, then the payload padded to 4 bytes
+    private static int recordBytes(byte[] record) {
+        return (8 + record.length + 3) & ~3;
+    }
+
+    private static List<String> expected(int from, int to) {
+        List<String> records = new ArrayList<>();
+        for (int i = from; i <= to; i++) records.add(new String(record(i), StandardCharsets.UTF_8));
+        return records;
+    }
+
+    private long segmentFiles() throws Exception {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(f -> f.getFileName().toString().endsWith(".journal")).count();
+        }
+    }
+
+    @Test
+    void apply_handsOverRecordsInOrderAndDeletesAppliedSegments() throws Exception {
+        // Arrange
+        try (WriteBehindJournal journal = WriteBehindJournal.open(dir, "orders", 128)) {
+            for (int i = 1; i <= 40; i++) journal.append(record(i));
+            assertTrue(segmentFiles() > 5);
+
+            // Act
+            List<String> applied = applyAll(journal, 3);
+
+            // Assert
+            assertEquals(expected(1, 40), applied);
+            assertEquals(0, journal.getPendingRecords());
+            assertEquals(0, journal.getPendingBytes());
+            assertEquals(1, journal.getSegmentCount());
+            assertEquals(2, segmentFiles()); // the current segment and the spare prepared after it
+        }
+    }
+
+    @Test
+    void apply_oncePastHalfASegment_preparesTheNextOneForTheAppender() throws Exception {
+        // Arrange
+        try (WriteBehindJournal journal = WriteBehindJournal.open(dir, "orders", 128)) {
+            for (int i = 1; i <= 4; i++) journal.append(record(i));
+            assertEquals(1, segmentFiles());
+
+            // Act
+            List<String> first = applyAll(journal, 10);
+            long filesBeforeRoll = segmentFiles();
+            for (int i = 5; i <= 12; i++) journal.append(record(i));
+            List<String> rest = applyAll(journal, 10);
+
+            // Assert
+            assertEquals(2, filesBeforeRoll);
+            assertEquals(expected(1, 4), first);
+            assertEquals(expected(5, 12), rest);
+        }
+    }
+
+    @Test
+    void open_discardsAnUnusedSpareSegment() throws Exception {
+        // Arrange
+        try (WriteBehindJournal journal = WriteBehindJournal.open(dir, "orders", 128)) {
+            for (int i = 1; i <= 4; i++) journal.append(record(i));
+            journal.apply(1, records -> { });
+            assertEquals(2, segmentFiles());
+        }
+
+        // Act
+        try (WriteBehindJournal reopened = WriteBehindJournal.open(dir, "orders", 128)) {
+            List<String> applied = applyAll(reopened, 10);
+
+            // Assert
+            assertEquals(expected(2, 4), applied);
+            assertEquals(1, reopened.getSegmentCount());
+        }
+    }
+
+    @Test
+    void apply_withBarrier_keepsSegmentsUntilItReturnsOncePerSegment() throws Exception {
+        // Arrange
+        AtomicInteger barriers = new AtomicInteger();
+        try (WriteBehindJournal journal = WriteBehindJournal.open(dir, "orders", 128, barriers::incrementAndGet)) {
+            for (int i = 1; i <= 40; i++) journal.append(record(i));
+            int segments = journal.getSegmentCount();
+
+            // Act
+            journal.apply(2, records -> { });
+            int afterFirstBatch = journal.getSegmentCount();
+            applyAll(journal, 3);
+
+            // Assert
+            assertEquals(segments, afterFirstBatch);
+            assertTrue(barriers.get() > 0 && barriers.get() < segments, "at most one barrier per segment left behind: " + barriers.get());
+            assertEquals(1, journal.getSegmentCount());
+        }
+    }
+
+    @Test
+    void open_afterFailedBarrier_replaysRecordsThatWereNotMadeDurable() throws Exception {
+        // Arrange
+        WriteBehindJournal.Barrier failing = () -> { throw new RocksDBException("flush failed"); };
+        try (WriteBehindJournal journal = WriteBehindJournal.open(dir, "orders", 128, failing)) {
+            for (int i = 1; i <= 20; i++) journal.append(record(i));
+            applyAll(journal, 3);
+            assertEquals(0, journal.getPendingRecords());
+        }
+
+        // Act
+        try (WriteBehindJournal reopened = WriteBehindJournal.open(dir, "orders", 128)) {
+            List<String> replayed = applyAll(reopened, 100);
+
+            // Assert
+            assertEquals(expected(1, 20), replayed);
+        }
+    }
+
+    @Test
+    void open_replaysRecordsThatWereNotAppliedBeforeACrash() throws Exception {
+        // Arrange: the first instance is never closed, as if the process died
+        WriteBehindJournal crashed = WriteBehindJournal.open(dir, "orders", 128);
+        for (int i = 1; i <= 20; i++) crashed.append(record(i));
+        crashed.apply(8, records -> { });
+
+        // Act
+        try (WriteBehindJournal reopened = WriteBehindJournal.open(dir, "orders", 128)) {
+            reopened.append(record(21));
+
+            // Assert
+            assertEquals(13, reopened.getPendingRecords());
+            assertEquals(expected(9, 21), applyAll(reopened, 5));
+        }
+    }
+
+    @Test
+    void open_endsTheJournalAtATornRecord() throws Exception {
+        // Arrange
+        WriteBehindJournal crashed = WriteBehindJournal.open(dir, "trades", 1024);
+        for (int i = 1; i <= 3; i++) crashed.append(record(i));
+        Path segment = dir.resolve(String.format("trades-%016d.journal", 0));
+        long thirdPayload = recordBytes(record(1)) + recordBytes(record(2)) + 8;
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{'?'}), thirdPayload); // the CRC no longer matches
+        }
+
+        // Act
+        try (WriteBehindJournal reopened = WriteBehindJournal.open(dir, "trades", 1024)) {
+            reopened.append(record(4));
+
+            // Assert
+            List<String> expected = expected(1, 2);
+            expected.addAll(expected(4, 4));
+            assertEquals(expected, applyAll(reopened, 10));
+        }
+    }
+
+    @Test
+    void apply_retriesAFailedBatchRecordByRecordAndSetsAsideTheOneThatFails() throws Exception {
+        // Arrange
+        byte[] poison = record(3);
+        try (WriteBehindJournal journal = WriteBehindJournal.open(dir, "orders", 1024)) {
+            for (int i = 1; i <= 5; i++) journal.append(record(i));
+            List<String> applied = new ArrayList<>();
+
+            // Act
+            int handled = journal.apply(10, records -> {
+                if (records.stream().anyMatch(r -> Arrays.equals(r, poison))) throw new RocksDBException("corrupt record");
+                records.forEach(r -> applied.add(new String(r, StandardCharsets.UTF_8)));
+            });
+
+            // Assert
+            assertEquals(5, handled);
+            assertEquals(List.of("record-1-x", "record-2-xx", "record-4-xxxx", "record-5-xxxxx"), applied);
+            assertEquals(0, journal.getPendingRecords());
+            assertEquals(1, journal.getRejectedRecords());
+            byte[] rejected = Files.readAllBytes(dir.resolve("orders.rejected"));
+            assertEquals(recordBytes(poison), rejected.length);
+            assertArrayEquals(poison, Arrays.copyOfRange(rejected, 8, 8 + poison.length));
+        }
+    }
+
+    @Test
+    void append_afterClose_throws() throws Exception {
+        // Arrange
+        WriteBehindJournal journal = WriteBehindJournal.open(dir, "orders");
+        journal.close();
+
+        // Act & Assert
+        assertThrows(IOException.class, () -> journal.append(record(1)));
+    }
+}
@@ -0,0 +1,126 @@
+package com.boe.simulator.server.persistence.codec;
+
+import com.boe.simulator.protocol.types.BinaryPrice;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryRecordWriterTest {
+
+    private static final byte TYPE = 'X';
+
+    @Test
+    void roundTrip_preservesEveryFieldKind() {
+        // Arrange
+        Instant instant = Instant.parse("2026-03-02T14:30:00.123456789Z");
+        byte[] record = new BinaryRecordWriter(TYPE, 3)
+                .writeByte((byte) -7)
+                .writeVarInt(Integer.MIN_VALUE)
+                .writeVarLong(Long.MAX_VALUE)
+                .writeString("ÅAPL")
+                .writeString(null)
+                .writeEpochNanos(instant)
+                .writeEpochNanos(null)
+                .toByteArray();
+
+        // Act
+        BinaryRecordReader in = new BinaryRecordReader(record, TYPE);
+
+        // Assert
+        assertEquals(3, in.version());
+        assertEquals(-7, in.readByte());
+        assertEquals(Integer.MIN_VALUE, in.readVarInt());
+        assertEquals(Long.MAX_VALUE, in.readVarLong());
+        assertEquals("ÅAPL", in.readString());
+        assertNull(in.readString());
+        assertEquals(instant, in.readEpochNanos());
+        assertNull(in.readEpochNanos());
+    }
+
+    @Test
+    void tickPrice_roundTripsEdgeValues() {
+        // Arrange
+        long[] prices = {
+                BinaryPrice.NO_PRICE, 0, 1, -1, Long.MAX_VALUE, Long.MIN_VALUE + 1,
+                BinaryPrice.toRaw(new BigDecimal("150.25")), BinaryPrice.toRaw(new BigDecimal("-0.0001")),
+                100_000_000_000_000_000L
+        };
+        BinaryRecordWriter out = new BinaryRecordWriter(TYPE, 1);
+        for (long price : prices) out.writeTickPrice(price);
+
+        // Act
+        BinaryRecordReader in = new BinaryRecordReader(out.toByteArray(), TYPE);
+
+        // Assert
+        for (long price : prices) assertEquals(price, in.readTickPrice());
+    }
+
+    @Test
+    void tickPrice_whenWholeCents_takesAFewBytes() {
+        // Arrange
+        byte[] empty = new BinaryRecordWriter(TYPE, 1).toByteArray();
+
+        // Act
+        byte[] record = new BinaryRecordWriter(TYPE, 1).writeTickPrice(BinaryPrice.toRaw(new BigDecimal("150.25"))).toByteArray();
+
+        // Assert
+        assertTrue(record.length - empty.length <= 3, "150.25 took " + (record.length - empty.length) + " bytes");
+    }
+
+    @Test
+    void read_whenRecordHasFewerFields_returnsDefaults() {
+        // Arrange: written by an older schema with one field
+        byte[] record = new BinaryRecordWriter(TYPE, 1).writeVarInt(42).toByteArray();
+
+        // Act
+        BinaryRecordReader in = new BinaryRecordReader(record, TYPE);
+
+        // Assert
+        assertEquals(42, in.readVarInt());
+        assertEquals(0, in.readVarLong());
+        assertNull(in.readString());
+        assertEquals(BinaryPrice.NO_PRICE, in.readTickPrice());
+        assertNull(in.readEpochNanos());
+    }
+
+    @Test
+    void read_whenRecordHasExtraFields_ignoresThem() {
+        // Arrange: written by a newer schema with a trailing field
+        byte[] record = new BinaryRecordWriter(TYPE, 2).writeVarInt(42).writeString("added later").toByteArray();
+
+        // Act
+        BinaryRecordReader in = new BinaryRecordReader(record, TYPE);
+
+        // Assert
+        assertEquals(2, in.version());
+        assertEquals(42, in.readVarInt());
+    }
+
+    @Test
+    void reader_whenJsonOrOtherType_throws() {
+        // Arrange
+        byte[] binary = new BinaryRecordWriter(TYPE, 1).toByteArray();
+
+        // Act & Assert
+        assertEquals(RecordFormat.JSON, RecordFormat.of("{\"a\":1}".getBytes()));
+        assertEquals(RecordFormat.BINARY, RecordFormat.of(binary));
+        assertThrows(IllegalArgumentException.class, () -> new BinaryRecordReader("{}".getBytes(), TYPE));
+        assertThrows(IllegalArgumentException.class, () -> new BinaryRecordReader(binary, (byte) 'Y'));
+    }
+
+    @Test
+    void read_whenTruncated_throws() {
+        // Arrange
+        byte[] record = new BinaryRecordWriter(TYPE, 1).writeString("AAPL").toByteArray();
+        byte[] truncated = java.util.Arrays.copyOf(record, record.length - 2);
+
+        // Act
+        BinaryRecordReader in = new BinaryRecordReader(truncated, TYPE);
+
+        // Assert
+        assertThrows(IllegalArgumentException.class, in::readString);
+    }
+}
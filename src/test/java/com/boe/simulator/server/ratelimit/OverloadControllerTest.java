@@ -0,0 +1,107 @@
+package com.boe.simulator.server.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OverloadControllerTest {
+
+    private final AtomicLong clock = new AtomicLong(0);
+    private final AtomicInteger matchingDepth = new AtomicInteger();
+    private final AtomicInteger backlog = new AtomicInteger();
+    private final OverloadController controller = new OverloadController(
+            new OverloadController.Thresholds(10, 1_000, 2_000), matchingDepth::get, backlog::get, clock::get);
+
+    @Test
+    void level_withQuietSignals_isNormal() {
+        // Assert
+        assertEquals(OverloadController.LoadLevel.NORMAL, controller.level());
+        assertFalse(controller.shouldShedConnections());
+        assertEquals(1, controller.orderEntryCost());
+    }
+
+    @Test
+    void level_rises_withTheWorstSignal() {
+        // Arrange
+        matchingDepth.set(12);
+
+        // Act
+        OverloadController.LoadLevel elevated = controller.level();
+        backlog.set(2_500);
+        tick();
+        OverloadController.LoadLevel critical = controller.level();
+
+        // Assert
+        assertEquals(OverloadController.LoadLevel.ELEVATED, elevated);
+        assertEquals(OverloadController.LoadLevel.CRITICAL, critical);
+        assertTrue(controller.shouldRejectNewOrders());
+        assertEquals(2, controller.orderEntryCost());
+    }
+
+    @Test
+    void signals_areSampledAtMostOncePerInterval() {
+        // Arrange
+        controller.level();
+        matchingDepth.set(100);
+
+        // Act
+        OverloadController.LoadLevel beforeInterval = controller.level();
+        tick();
+        OverloadController.LoadLevel afterInterval = controller.level();
+
+        // Assert
+        assertEquals(OverloadController.LoadLevel.NORMAL, beforeInterval);
+        assertEquals(OverloadController.LoadLevel.CRITICAL, afterInterval);
+    }
+
+    @Test
+    void level_fallsOneStepAtATime_afterCoolDown() {
+        // Arrange
+        backlog.set(5_000);
+        controller.level();
+        backlog.set(0);
+
+        // Act
+        tick();
+        OverloadController.LoadLevel justQuiet = controller.level();
+        clock.addAndGet(OverloadController.COOL_DOWN_NANOS);
+        OverloadController.LoadLevel firstStep = controller.level();
+        clock.addAndGet(OverloadController.COOL_DOWN_NANOS);
+        OverloadController.LoadLevel secondStep = controller.level();
+
+        // Assert
+        assertEquals(OverloadController.LoadLevel.CRITICAL, justQuiet);
+        assertEquals(OverloadController.LoadLevel.ELEVATED, firstStep);
+        assertEquals(OverloadController.LoadLevel.NORMAL, secondStep);
+    }
+
+    @Test
+    void ackLatency_isAveraged_andDecaysOnceOrdersStop() {
+        // Arrange: 20 samples at 10ms pull the average far past the 4ms critical threshold
+        for (int i = 0; i < 20; i++) controller.recordAckLatency(10_000_000L);
+
+        // Act
+        OverloadController.LoadLevel loaded = controller.level();
+        for (int i = 0; i < 300; i++) {
+            tick();
+            controller.level();
+        }
+
+        // Assert
+        assertEquals(OverloadController.LoadLevel.CRITICAL, loaded);
+        assertTrue(controller.getAckLatencyMicros() < 2_000);
+        assertEquals(OverloadController.LoadLevel.NORMAL, controller.level());
+    }
+
+    @Test
+    void thresholds_mustBePositive() {
+        assertThrows(IllegalArgumentException.class, () -> new OverloadController.Thresholds(0, 1, 1));
+    }
+
+    private void tick() {
+        clock.addAndGet(OverloadController.SAMPLE_NANOS);
+    }
+}
@@ -3,7 +3,11 @@ package com.boe.simulator.server.ratelimit;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import com.boe.simulator.protocol.message.BoeMessageFactory;
+
 import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -12,6 +16,8 @@ class RateLimiterTest {
     private RateLimiter rateLimiter;
     private final int MAX_MESSAGES = 3;
     private final Duration WINDOW_DURATION = Duration.ofMillis(100);
+    private static final byte NEW_ORDER = BoeMessageFactory.NEW_ORDER;
+    private static final byte CANCEL_ORDER = BoeMessageFactory.CANCEL_ORDER;
 
     @BeforeEach
     void setUp() {
@@ -88,4 +94,139 @@ class RateLimiterTest {
         assertTrue(zeroWindowRateLimiter.allowMessage(connectionId));
         assertTrue(zeroWindowRateLimiter.allowMessage(connectionId));
     }
+
+    @Test
+    void userBudget_isSharedAcrossConnections() {
+        // Arrange
+        RateLimiter limiter = RateLimiter.builder()
+                .perConnection(100, Duration.ofMinutes(1))
+                .perUser(3, Duration.ofMinutes(1))
+                .build();
+
+        // Act
+        boolean first = limiter.allowMessage(1, "TRD1", NEW_ORDER);
+        boolean second = limiter.allowMessage(2, "TRD1", NEW_ORDER);
+        boolean third = limiter.allowMessage(3, "TRD1", NEW_ORDER);
+        boolean fourth = limiter.allowMessage(4, "TRD1", NEW_ORDER);
+        boolean otherUser = limiter.allowMessage(5, "TRD2", NEW_ORDER);
+
+        // Assert
+        assertTrue(first && second && third);
+        assertFalse(fourth, "Fourth message across TRD1's sessions should be rejected");
+        assertTrue(otherUser);
+    }
+
+    @Test
+    void messageTypeBudget_limitsOnlyThatType() {
+        // Arrange
+        RateLimiter limiter = RateLimiter.builder()
+                .perConnection(100, Duration.ofMinutes(1))
+                .perMessageType(NEW_ORDER, 2, Duration.ofMinutes(1))
+                .build();
+
+        // Act
+        limiter.allowMessage(1, "TRD1", NEW_ORDER);
+        limiter.allowMessage(1, "TRD1", NEW_ORDER);
+        boolean thirdNew = limiter.allowMessage(1, "TRD1", NEW_ORDER);
+        boolean cancel = limiter.allowMessage(1, "TRD1", CANCEL_ORDER);
+        boolean otherConnection = limiter.allowMessage(2, "TRD1", NEW_ORDER);
+
+        // Assert
+        assertFalse(thirdNew);
+        assertTrue(cancel, "Cancels have their own budget");
+        assertTrue(otherConnection, "Per-type budgets are per connection");
+    }
+
+    @Test
+    void rejectedByLaterBudget_returnsTokensToEarlierOnes() {
+        // Arrange
+        RateLimiter limiter = RateLimiter.builder()
+                .perConnection(2, Duration.ofMinutes(1))
+                .perUser(1, Duration.ofMinutes(1))
+                .build();
+        limiter.allowMessage(1, "TRD1", NEW_ORDER);
+
+        // Act: the user budget refuses, so the connection keeps its token
+        boolean refused = limiter.allowMessage(1, "TRD1", NEW_ORDER);
+        boolean anonymous = limiter.allowMessage(1, null, NEW_ORDER);
+
+        // Assert
+        assertFalse(refused);
+        assertTrue(anonymous, "Connection budget should still have its second token");
+    }
+
+    @Test
+    void tokens_refillEvenlyOverTheWindow() {
+        // Arrange
+        AtomicLong clock = new AtomicLong(0);
+        RateLimiter limiter = RateLimiter.builder()
+                .perConnection(4, Duration.ofSeconds(1))
+                .clock(clock::get)
+                .build();
+        for (int i = 0; i < 4; i++) limiter.allowMessage(1);
+
+        // Act
+        boolean empty = limiter.allowMessage(1);
+        clock.set(250_000_000L); // one token's worth
+        boolean refilledOne = limiter.allowMessage(1);
+        boolean refilledOnlyOne = limiter.allowMessage(1);
+
+        // Assert
+        assertFalse(empty);
+        assertTrue(refilledOne);
+        assertFalse(refilledOnlyOne);
+    }
+
+    @Test
+    void concurrentCallers_areAdmittedExactlyUpToTheBudget() throws InterruptedException {
+        // Arrange
+        RateLimiter limiter = RateLimiter.builder()
+                .perConnection(1_000, Duration.ofHours(1))
+                .perUser(1_000, Duration.ofHours(1))
+                .build();
+        AtomicInteger admitted = new AtomicInteger();
+        Thread[] threads = new Thread[16];
+
+        // Act
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = Thread.ofPlatform().start(() -> {
+                for (int i = 0; i < 500; i++) {
+                    if (limiter.allowMessage(1, "TRD1", NEW_ORDER)) admitted.incrementAndGet();
+                }
+            });
+        }
+        for (Thread thread : threads) thread.join();
+
+        // Assert
+        assertEquals(1_000, admitted.get());
+    }
+
+    @Test
+    void overload_doublesTheCostOfNewOrdersButNotCancels() {
+        // Arrange
+        AtomicInteger depth = new AtomicInteger(1);
+        OverloadController overload = new OverloadController(
+                new OverloadController.Thresholds(1, 1_000, 1_000), depth::get, () -> 0);
+        RateLimiter limiter = RateLimiter.builder().perConnection(4, Duration.ofMinutes(1)).build();
+        limiter.setOverloadController(overload);
+
+        // Act
+        boolean first = limiter.allowMessage(1, "TRD1", NEW_ORDER);
+        boolean second = limiter.allowMessage(1, "TRD1", NEW_ORDER);
+        boolean third = limiter.allowMessage(1, "TRD1", NEW_ORDER);
+        boolean otherNew = limiter.allowMessage(2, "TRD1", NEW_ORDER);
+        boolean cancels = limiter.allowMessage(2, "TRD1", CANCEL_ORDER)
+                && limiter.allowMessage(2, "TRD1", CANCEL_ORDER);
+
+        // Assert
+        assertTrue(first && second);
+        assertFalse(third, "Four tokens cover two NewOrders while elevated");
+        assertTrue(otherNew && cancels, "Cancels still cost one token");
+    }
+
+    @Test
+    void perMessageType_rejectsNonOrderTypes() {
+        assertThrows(IllegalArgumentException.class,
+                () -> RateLimiter.builder().perMessageType(BoeMessageFactory.CLIENT_HEARTBEAT, 1, Duration.ofSeconds(1)));
+    }
 }
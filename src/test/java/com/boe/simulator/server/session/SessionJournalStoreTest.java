@@ -0,0 +1,65 @@
+package com.boe.simulator.server.session;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+
+import static com.boe.simulator.server.session.SessionJournalTest.frame;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionJournalStoreTest {
+
+    private static final byte ORDER_ACK = 0x25;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void reset_shouldEmptyOpenJournalsAndDeleteTheRest() throws Exception {
+        // Arrange
+        try (SessionJournalStore earlier = new SessionJournalStore(dir)) {
+            earlier.open("USR2", "S2").append(frame(ORDER_ACK, 1, 0));
+        }
+        try (SessionJournalStore store = new SessionJournalStore(dir)) {
+            SessionJournal open = store.open("USR1", "S1");
+            open.append(frame(ORDER_ACK, 1, 0));
+            open.append(frame(ORDER_ACK, 2, 0));
+
+            // Act
+            store.reset();
+            open.append(frame(ORDER_ACK, 1, 0));
+
+            // Assert
+            assertFalse(Files.exists(dir.resolve(SessionJournalStore.fileName("USR2", "S2"))));
+            assertSame(open, store.open("USR1", "S1"));
+            assertEquals(1, open.getFrameCount());
+            assertEquals(1, open.getLastSequence());
+        }
+    }
+
+    @Test
+    void open_withMaxAge_shouldDeleteJournalsLastWrittenBeforeIt() throws Exception {
+        // Arrange
+        Path stale = dir.resolve(SessionJournalStore.fileName("USR1", "S1"));
+        Path recent = dir.resolve(SessionJournalStore.fileName("USR2", "S2"));
+        try (SessionJournalStore earlier = new SessionJournalStore(dir)) {
+            earlier.open("USR1", "S1").append(frame(ORDER_ACK, 1, 0));
+            earlier.open("USR2", "S2").append(frame(ORDER_ACK, 1, 0));
+        }
+        Files.setLastModifiedTime(stale, FileTime.from(Instant.now().minus(Duration.ofHours(72))));
+
+        // Act
+        try (SessionJournalStore store = new SessionJournalStore(dir, Duration.ofHours(48))) {
+
+            // Assert
+            assertFalse(Files.exists(stale));
+            assertTrue(Files.exists(recent));
+            assertEquals(1, store.open("USR2", "S2").getLastSequence());
+        }
+    }
+}
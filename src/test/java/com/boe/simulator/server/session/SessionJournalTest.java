@@ -0,0 +1,202 @@
+package com.boe.simulator.server.session;
+
+import com.boe.simulator.protocol.message.ServerHeartbeatMessage;
+import com.boe.simulator.protocol.types.BoeHeader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionJournalTest {
+
+    private static final byte ORDER_ACK = 0x25;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void replay_shouldStreamOnlyFramesAfterRequestedSequence() throws Exception {
+        // Arrange
+        try (SessionJournal journal = SessionJournal.open(dir.resolve("j"))) {
+            for (int seq = 1; seq <= 10; seq++) journal.append(frame(ORDER_ACK, seq, 0));
+
+            // Act
+            List<Integer> replayed = replaySequences(journal, 7);
+
+            // Assert
+            assertEquals(List.of(8, 9, 10), replayed);
+            assertEquals(10, journal.getLastSequence());
+        }
+    }
+
+    @Test
+    void replay_shouldSkipSessionLevelMessages() throws Exception {
+        // Arrange
+        try (SessionJournal journal = SessionJournal.open(dir.resolve("j"))) {
+            journal.append(frame((byte) 0x24, 1, 0)); // LoginResponse
+            journal.append(frame(ORDER_ACK, 2, 0));
+            journal.append(frame((byte) 0x09, 3, 0)); // ServerHeartbeat
+            journal.append(frame(ORDER_ACK, 4, 0));
+
+            // Act
+            List<Integer> replayed = replaySequences(journal, 0);
+
+            // Assert
+            assertEquals(List.of(2, 4), replayed);
+        }
+    }
+
+    @Test
+    void open_shouldRecoverFramesAcrossRegions() throws Exception {
+        // Arrange
+        Path path = dir.resolve("j");
+        try (SessionJournal journal = SessionJournal.open(path, 256)) {
+            for (int seq = 1; seq <= 50; seq++) journal.append(frame(ORDER_ACK, seq, 30));
+        }
+
+        // Act
+        try (SessionJournal reopened = SessionJournal.open(path, 256)) {
+            reopened.append(frame(ORDER_ACK, 51, 30));
+
+            // Assert
+            assertEquals(51, reopened.getFrameCount());
+            assertEquals(51, reopened.getLastSequence());
+            assertEquals(List.of(49, 50, 51), replaySequences(reopened, 48));
+        }
+    }
+
+    @Test
+    void open_shouldNotMapARegionUntilTheFirstFrame() throws Exception {
+        // Arrange
+        Path path = dir.resolve("j");
+        try (SessionJournal journal = SessionJournal.open(path)) {
+            assertEquals(0, Files.size(path));
+
+            // Act
+            journal.append(frame(ORDER_ACK, 1, 0));
+
+            // Assert
+            assertEquals(SessionJournal.DEFAULT_REGION_BYTES, Files.size(path));
+        }
+        try (SessionJournal reopened = SessionJournal.open(path)) {
+            assertEquals(1, reopened.getLastSequence());
+        }
+    }
+
+    @Test
+    void mapAhead_shouldMapTheNextRegionOnlyOnceTheCurrentOneIsHalfFull() throws Exception {
+        // Arrange
+        Path path = dir.resolve("j");
+        try (SessionJournal journal = SessionJournal.open(path, 256)) {
+            journal.append(frame(ORDER_ACK, 1, 30));
+            journal.mapAhead();
+            long beforeHalf = Files.size(path);
+            for (int seq = 2; seq <= 4; seq++) journal.append(frame(ORDER_ACK, seq, 30));
+
+            // Act
+            journal.mapAhead();
+            long afterHalf = Files.size(path);
+            for (int seq = 5; seq <= 10; seq++) journal.append(frame(ORDER_ACK, seq, 30));
+
+            // Assert
+            assertEquals(256, beforeHalf);
+            assertEquals(512, afterHalf);
+            assertEquals(512, Files.size(path)); // the append into the second region found it mapped
+        }
+        try (SessionJournal reopened = SessionJournal.open(path, 256)) {
+            assertEquals(10, reopened.getFrameCount());
+            assertEquals(10, reopened.getLastSequence());
+        }
+    }
+
+    @Test
+    void clear_shouldEmptyTheJournalAndKeepAcceptingFrames() throws Exception {
+        // Arrange
+        Path path = dir.resolve("j");
+        try (SessionJournal journal = SessionJournal.open(path, 256)) {
+            for (int seq = 1; seq <= 50; seq++) journal.append(frame(ORDER_ACK, seq, 30));
+
+            // Act
+            journal.clear();
+            long replayedAfterClear = journal.replay(0, (chunk, count) -> { });
+            for (int seq = 1; seq <= 3; seq++) journal.append(frame(ORDER_ACK, seq, 30));
+
+            // Assert
+            assertEquals(0, replayedAfterClear);
+            assertEquals(List.of(1, 2, 3), replaySequences(journal, 0));
+        }
+        try (SessionJournal reopened = SessionJournal.open(path, 256)) {
+            assertEquals(3, reopened.getFrameCount());
+            assertEquals(3, reopened.getLastSequence());
+        }
+    }
+
+    @Test
+    void replay_shouldSplitChunkWhenFrameExactlyFillsRegion() throws Exception {
+        // Arrange: two 50-byte frames fill the first 100-byte region, the third starts the next one
+        try (SessionJournal journal = SessionJournal.open(dir.resolve("j"), 100)) {
+            for (int seq = 1; seq <= 3; seq++) journal.append(frame(ORDER_ACK, seq, 50 - BoeHeader.WIRE_SIZE));
+            List<Integer> chunkFrames = new ArrayList<>();
+
+            // Act
+            long replayed = journal.replay(0, (chunk, count) -> chunkFrames.add(count));
+
+            // Assert
+            assertEquals(3, replayed);
+            assertEquals(List.of(2, 1), chunkFrames);
+            assertEquals(List.of(1, 2, 3), replaySequences(journal, 0));
+        }
+    }
+
+    @Test
+    void replay_ofOneMillionFrames_shouldFinishInSeconds() throws Exception {
+        // Arrange
+        int frames = 1_000_000;
+        try (SessionJournal journal = SessionJournal.open(dir.resolve("j"))) {
+            byte[] template = frame(ORDER_ACK, 0, 40);
+            for (int seq = 1; seq <= frames; seq++) {
+                BoeHeader.stampSequenceNumber(template, seq);
+                journal.append(template);
+            }
+            long[] bytes = new long[1];
+
+            // Act
+            long replayed = assertTimeoutPreemptively(Duration.ofSeconds(10),
+                    () -> journal.replay(0, (chunk, count) -> bytes[0] += chunk.length));
+
+            // Assert
+            assertEquals(frames, replayed);
+            assertEquals((long) frames * template.length, bytes[0]);
+        }
+    }
+
+    static byte[] frame(byte messageType, int sequence, int payload) {
+        byte[] frame = new byte[BoeHeader.WIRE_SIZE + payload];
+        System.arraycopy(new ServerHeartbeatMessage().toBytes(), 0, frame, 0, BoeHeader.WIRE_SIZE);
+        ByteBuffer.wrap(frame).order(ByteOrder.LITTLE_ENDIAN).putShort(2, (short) (frame.length - 2));
+        frame[4] = messageType;
+        BoeHeader.stampSequenceNumber(frame, sequence);
+        return frame;
+    }
+
+    private static List<Integer> replaySequences(SessionJournal journal, int afterSequence) throws Exception {
+        List<Integer> sequences = new ArrayList<>();
+        journal.replay(afterSequence, (chunk, count) -> {
+            ByteBuffer buffer = ByteBuffer.wrap(chunk).order(ByteOrder.LITTLE_ENDIAN);
+            while (buffer.hasRemaining()) {
+                int start = buffer.position();
+                sequences.add(buffer.getInt(start + BoeHeader.SEQUENCE_NUMBER_OFFSET));
+                buffer.position(start + (buffer.getShort(start + 2) & 0xFFFF) + 2);
+            }
+        });
+        return sequences;
+    }
+}